@@ -1,6 +1,8 @@
 package com.google.cloud.hadoop.fs.gcs;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateVoidFuture;
+import static java.lang.Double.parseDouble;
 import static java.lang.Integer.parseInt;
 import static java.lang.Long.parseLong;
 import static java.util.Collections.newSetFromMap;
@@ -9,11 +11,20 @@ import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toMap;
 
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
+import com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageOptions;
+import com.google.cloud.hadoop.gcsio.PrefixMappedItemCache;
+import com.google.cloud.hadoop.gcsio.StorageResourceId;
+import com.google.cloud.hadoop.util.Crc32c;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.flogger.GoogleLogger;
 import com.google.common.util.concurrent.Futures;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -49,6 +60,32 @@ import org.apache.hadoop.util.ToolRunner;
  * hadoop jar /usr/lib/hadoop/lib/gcs-connector.jar com.google.cloud.hadoop.fs.gcs.FsBenchmark \
  *     {read,random-read} --file=gs://<bucket_name> [--no-warmup] [--verbose]
  * }</pre>
+ *
+ * <p>CRC32C checksum implementations can be benchmarked without a file system:
+ *
+ * <pre>{@code
+ * hadoop jar /usr/lib/hadoop/lib/gcs-connector.jar com.google.cloud.hadoop.fs.gcs.FsBenchmark \
+ *     checksum [--data-size=<bytes>] [--num-iterations=<count>] [--direct-buffer] \
+ *     [--cpu-frequency-ghz=<frequency>] [--no-warmup]
+ * }</pre>
+ *
+ * <p>The {@code checksum} command also compares copying data and computing its CRC32C in a single
+ * pass with hashing data before it is copied, as done by the gRPC read path with checksums enabled,
+ * and reports throughput in bytes per CPU cycle if {@code --cpu-frequency-ghz} is provided. For
+ * example, to compare copy and checksum of 2 MiB gRPC messages before and after a change:
+ *
+ * <pre>{@code
+ * hadoop jar /usr/lib/hadoop/lib/gcs-connector.jar com.google.cloud.hadoop.fs.gcs.FsBenchmark \
+ *     checksum --data-size=2097152 --num-iterations=10000 --cpu-frequency-ghz=2.8
+ * }</pre>
+ *
+ * <p>Concurrent access to the performance cache can be benchmarked without a file system:
+ *
+ * <pre>{@code
+ * hadoop jar /usr/lib/hadoop/lib/gcs-connector.jar com.google.cloud.hadoop.fs.gcs.FsBenchmark \
+ *     item-cache [--num-threads=<count>[,<count>...]] [--num-items=<count>] \
+ *     [--num-operations=<count>] [--no-warmup]
+ * }</pre>
  */
 public class FsBenchmark extends Configured implements Tool {
 
@@ -78,6 +115,13 @@ public class FsBenchmark extends Configured implements Tool {
                     },
                     HashMap::new));
 
+    if (cmd.equals("checksum")) {
+      return benchmarkChecksum(cmdArgs);
+    }
+    if (cmd.equals("item-cache")) {
+      return benchmarkItemCache(cmdArgs);
+    }
+
     URI testUri = new Path(cmdArgs.getOrDefault("--file", cmdArgs.get("--bucket"))).toUri();
     FileSystem fs = FileSystem.get(testUri, getConf());
 
@@ -381,6 +425,235 @@ public class FsBenchmark extends Configured implements Tool {
         operations / runtimeSeconds, operations, runtimeSeconds);
   }
 
+  private static int benchmarkChecksum(Map<String, String> args) {
+    int dataSize = parseInt(args.getOrDefault("--data-size", String.valueOf(2 * 1024 * 1024)));
+    int numIterations = parseInt(args.getOrDefault("--num-iterations", String.valueOf(1000)));
+    double cpuFrequencyGhz = parseDouble(args.getOrDefault("--cpu-frequency-ghz", "0"));
+
+    byte[] data = new byte[dataSize];
+    ThreadLocalRandom.current().nextBytes(data);
+    ByteBuffer buffer;
+    if (args.containsKey("--direct-buffer")) {
+      buffer = ByteBuffer.allocateDirect(dataSize);
+      buffer.put(data).flip();
+    } else {
+      buffer = ByteBuffer.wrap(data);
+    }
+
+    // Memory copy throughput is a baseline for the checksum overhead on the read and write paths.
+    warmup(args, () -> benchmarkCopy(buffer, /* numIterations= */ 100, cpuFrequencyGhz));
+    benchmarkCopy(buffer, numIterations, cpuFrequencyGhz);
+
+    System.out.printf("Default CRC32C implementation: %s%n", Crc32c.getDefaultImplementation());
+    for (Crc32c.Implementation implementation : Crc32c.Implementation.values()) {
+      if (!implementation.isAvailable()) {
+        System.out.printf("Skipping unavailable %s CRC32C implementation%n", implementation);
+        continue;
+      }
+      warmup(
+          args,
+          () ->
+              benchmarkChecksum(implementation, buffer, /* numIterations= */ 100, cpuFrequencyGhz));
+      benchmarkChecksum(implementation, buffer, numIterations, cpuFrequencyGhz);
+    }
+
+    for (boolean singlePass : new boolean[] {false, true}) {
+      warmup(
+          args,
+          () ->
+              benchmarkCopyAndChecksum(
+                  buffer, singlePass, /* numIterations= */ 100, cpuFrequencyGhz));
+      benchmarkCopyAndChecksum(buffer, singlePass, numIterations, cpuFrequencyGhz);
+    }
+
+    return 0;
+  }
+
+  private static void benchmarkCopy(ByteBuffer data, int numIterations, double cpuFrequencyGhz) {
+    System.out.printf(
+        "Running copy test that copies %d bytes %d times%n", data.remaining(), numIterations);
+
+    ByteBuffer target = ByteBuffer.allocate(data.remaining());
+    LongSummaryStatistics copyTimeNs = new LongSummaryStatistics();
+    for (int i = 0; i < numIterations; i++) {
+      target.clear();
+      long copyStart = System.nanoTime();
+      target.put(data.duplicate());
+      copyTimeNs.accept(System.nanoTime() - copyStart);
+    }
+
+    printTimeStats("Copy time", copyTimeNs);
+    printThroughputStats("Copy throughput", copyTimeNs, data.remaining());
+    printBytesPerCycleStats("Copy", copyTimeNs, data.remaining(), cpuFrequencyGhz);
+  }
+
+  private static void benchmarkChecksum(
+      Crc32c.Implementation implementation,
+      ByteBuffer data,
+      int numIterations,
+      double cpuFrequencyGhz) {
+    System.out.printf(
+        "Running checksum test that computes %s CRC32C of %d bytes %d times%n",
+        implementation, data.remaining(), numIterations);
+
+    LongSummaryStatistics hashTimeNs = new LongSummaryStatistics();
+    int checksums = 0;
+    for (int i = 0; i < numIterations; i++) {
+      long hashStart = System.nanoTime();
+      checksums ^= implementation.newHasher().update(data.duplicate()).getValue();
+      hashTimeNs.accept(System.nanoTime() - hashStart);
+    }
+
+    printTimeStats("Hash time", hashTimeNs);
+    printThroughputStats("Hash throughput", hashTimeNs, data.remaining());
+    printBytesPerCycleStats("Hash", hashTimeNs, data.remaining(), cpuFrequencyGhz);
+    // Print combined checksums, so hashing can not be eliminated by JIT compiler.
+    System.out.printf("Combined checksums: %d%n", checksums);
+  }
+
+  /**
+   * Copies data and computes its CRC32C either in a single pass with {@link Crc32c#copyAndHash}, or
+   * in two passes that hash all data before copying it.
+   */
+  private static void benchmarkCopyAndChecksum(
+      ByteBuffer data, boolean singlePass, int numIterations, double cpuFrequencyGhz) {
+    System.out.printf(
+        "Running %s copy and checksum test that copies and computes CRC32C of %d bytes %d times%n",
+        singlePass ? "single-pass" : "two-pass", data.remaining(), numIterations);
+
+    ByteBuffer target = ByteBuffer.allocate(data.remaining());
+    LongSummaryStatistics copyAndHashTimeNs = new LongSummaryStatistics();
+    int checksums = 0;
+    for (int i = 0; i < numIterations; i++) {
+      target.clear();
+      long copyAndHashStart = System.nanoTime();
+      Crc32c.Hasher hasher = Crc32c.newHasher();
+      if (singlePass) {
+        Crc32c.copyAndHash(data.duplicate(), target, hasher);
+      } else {
+        hasher.update(data.duplicate());
+        target.put(data.duplicate());
+      }
+      checksums ^= hasher.getValue();
+      copyAndHashTimeNs.accept(System.nanoTime() - copyAndHashStart);
+    }
+
+    printTimeStats("Copy and hash time", copyAndHashTimeNs);
+    printThroughputStats("Copy and hash throughput", copyAndHashTimeNs, data.remaining());
+    printBytesPerCycleStats("Copy and hash", copyAndHashTimeNs, data.remaining(), cpuFrequencyGhz);
+    // Print combined checksums, so hashing can not be eliminated by JIT compiler.
+    System.out.printf("Combined checksums: %d%n", checksums);
+  }
+
+  /** Prints bytes processed per CPU cycle if CPU frequency is provided. */
+  private static void printBytesPerCycleStats(
+      String name, LongSummaryStatistics timeStats, double bytesProcessed, double cpuFrequencyGhz) {
+    if (cpuFrequencyGhz <= 0) {
+      return;
+    }
+    System.out.printf(
+        "%s bytes per cycle: min=%.3f, average=%.3f, max=%.3f (count=%d)%n",
+        name,
+        bytesProcessed / (timeStats.getMax() * cpuFrequencyGhz),
+        bytesProcessed / (timeStats.getAverage() * cpuFrequencyGhz),
+        bytesProcessed / (timeStats.getMin() * cpuFrequencyGhz),
+        timeStats.getCount());
+  }
+
+  private static int benchmarkItemCache(Map<String, String> args) {
+    List<Integer> numThreadsList =
+        Splitter.on(',').splitToList(args.getOrDefault("--num-threads", "1,2,4,8,16,32,64"))
+            .stream()
+            .map(Integer::parseInt)
+            .collect(toImmutableList());
+    int numItems = parseInt(args.getOrDefault("--num-items", String.valueOf(10_000)));
+    int numOperations = parseInt(args.getOrDefault("--num-operations", String.valueOf(1_000_000)));
+
+    // Items are spread across 100 directories, that are invalidated as prefixes.
+    List<GoogleCloudStorageItemInfo> items = new ArrayList<>(numItems);
+    for (int i = 0; i < numItems; i++) {
+      items.add(
+          GoogleCloudStorageItemInfo.createObject(
+              new StorageResourceId("bucket", String.format("dir-%d/object-%d", i % 100, i)),
+              /* creationTime= */ 0,
+              /* modificationTime= */ 0,
+              /* size= */ 0,
+              /* contentType= */ null,
+              /* contentEncoding= */ null,
+              /* metadata= */ ImmutableMap.of(),
+              /* contentGeneration= */ 1,
+              /* metaGeneration= */ 1,
+              /* verificationAttributes= */ null));
+    }
+
+    warmup(args, () -> benchmarkItemCache(items, /* numThreads= */ 1, numOperations));
+    for (int numThreads : numThreadsList) {
+      benchmarkItemCache(items, numThreads, numOperations);
+    }
+
+    return 0;
+  }
+
+  private static void benchmarkItemCache(
+      List<GoogleCloudStorageItemInfo> items, int numThreads, int numOperations) {
+    System.out.printf(
+        "Running item cache test with %d items and %d threads that execute %d operations"
+            + " (85%% get, 13%% put, 2%% prefix invalidation) each%n",
+        items.size(), numThreads, numOperations);
+
+    PrefixMappedItemCache cache =
+        new PrefixMappedItemCache(
+            Duration.ofMillis(
+                PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRY_AGE_MILLIS_DEFAULT),
+            PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRIES_DEFAULT);
+    items.forEach(cache::putItem);
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    CountDownLatch startLatch = new CountDownLatch(numThreads);
+    List<Future<Long>> hitCounts = new ArrayList<>(numThreads);
+    long start = System.nanoTime();
+    for (int i = 0; i < numThreads; i++) {
+      hitCounts.add(
+          executor.submit(
+              () -> {
+                startLatch.countDown();
+                awaitUnchecked(startLatch);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long hits = 0;
+                for (int j = 0; j < numOperations; j++) {
+                  GoogleCloudStorageItemInfo item = items.get(random.nextInt(items.size()));
+                  int operation = random.nextInt(100);
+                  if (operation < 85) {
+                    hits += cache.getItem(item.getResourceId()) == null ? 0 : 1;
+                  } else if (operation < 98) {
+                    cache.putItem(item);
+                  } else {
+                    cache.removeItem(
+                        new StorageResourceId(
+                            item.getBucketName(),
+                            item.getObjectName()
+                                .substring(0, item.getObjectName().indexOf('/') + 1)));
+                  }
+                }
+                return hits;
+              }));
+    }
+    long hits = 0;
+    for (Future<Long> hitCount : hitCounts) {
+      hits += Futures.getUnchecked(hitCount);
+    }
+    long runtimeNanos = System.nanoTime() - start;
+    executor.shutdownNow();
+
+    long operations = (long) numThreads * numOperations;
+    System.out.printf(
+        "Average QPS: %.3f (%d in total %.3fs), hit ratio for get: %.3f%n",
+        operations / nanosToSeconds(runtimeNanos),
+        operations,
+        nanosToSeconds(runtimeNanos),
+        hits / (operations * 0.85));
+  }
+
   private static void warmup(Map<String, String> args, Runnable warmupFn) {
     if (args.containsKey("--no-warmup")) {
       System.out.println("=== Skipping warmup ===");
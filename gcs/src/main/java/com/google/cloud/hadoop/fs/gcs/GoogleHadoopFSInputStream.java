@@ -17,18 +17,28 @@
 package com.google.cloud.hadoop.fs.gcs;
 
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
+import com.google.cloud.hadoop.gcsio.ReadVectoredSeekableByteChannel;
+import com.google.cloud.hadoop.gcsio.VectoredIORange;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.GoogleLogger;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
+import org.apache.hadoop.fs.ByteBufferReadable;
 import org.apache.hadoop.fs.FSInputStream;
 import org.apache.hadoop.fs.FileSystem;
 
 /** A seekable and positionable FSInputStream that provides read access to a file. */
-class GoogleHadoopFSInputStream extends FSInputStream {
+class GoogleHadoopFSInputStream extends FSInputStream implements ByteBufferReadable {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
@@ -39,7 +49,7 @@ class GoogleHadoopFSInputStream extends FSInputStream {
   private URI gcsPath;
 
   // Number of bytes read through this channel.
-  private long totalBytesRead;
+  private final AtomicLong totalBytesRead = new AtomicLong();
 
   // Statistics tracker provided by the parent GoogleHadoopFileSystemBase for recording
   // numbers of bytes read.
@@ -48,6 +58,19 @@ class GoogleHadoopFSInputStream extends FSInputStream {
   // Used for single-byte reads.
   private final byte[] singleReadBuf = new byte[1];
 
+  // Size of the file if the channel reads ranges independently of its position, so positional and
+  // vectored reads do not need to take the stream lock, or empty if it does not. Lazily initialized
+  // under the stream lock.
+  private volatile OptionalLong independentReadsFileSize;
+
+  // Minimum size of the range read by an independent positional read, so subsequent nearby small
+  // positional reads are served from memory instead of sending a request each.
+  private final int minPositionalReadSize;
+
+  // Last range read by an independent positional read that is larger than the requested data, or
+  // null. Its data is read-only and is shared by concurrent positional reads.
+  @Nullable private volatile VectoredIORange lastPositionalReadRange;
+
   /**
    * Constructs an instance of GoogleHadoopFSInputStream object.
    *
@@ -66,7 +89,7 @@ class GoogleHadoopFSInputStream extends FSInputStream {
         "GoogleHadoopFSInputStream(gcsPath: %s, readOptions: %s)", gcsPath, readOptions);
     this.gcsPath = gcsPath;
     this.statistics = statistics;
-    this.totalBytesRead = 0;
+    this.minPositionalReadSize = readOptions.getMinRangeRequestSize();
     this.channel = ghfs.getGcsFs().open(gcsPath, readOptions);
   }
 
@@ -92,7 +115,7 @@ class GoogleHadoopFSInputStream extends FSInputStream {
     }
     byte b = singleReadBuf[0];
 
-    totalBytesRead++;
+    totalBytesRead.incrementAndGet();
     statistics.incrementBytesRead(1);
     statistics.incrementReadOps(1);
     return (b & 0xff);
@@ -114,14 +137,29 @@ class GoogleHadoopFSInputStream extends FSInputStream {
     if (offset < 0 || length < 0 || length > buf.length - offset) {
       throw new IndexOutOfBoundsException();
     }
+    return read(ByteBuffer.wrap(buf, offset, length));
+  }
+
+  /**
+   * Reads up to {@code buf.remaining()} bytes from the underlying store directly into the given
+   * buffer, that could be a direct buffer. Less than {@code buf.remaining()} bytes may be returned.
+   *
+   * @param buf The buffer into which data is returned, its position is advanced by the number of
+   *     bytes read.
+   * @return Number of bytes read or -1 on EOF.
+   * @throws IOException if an IO error occurs.
+   */
+  @Override
+  public synchronized int read(ByteBuffer buf) throws IOException {
+    Preconditions.checkNotNull(buf, "buf must not be null");
 
-    int numRead = channel.read(ByteBuffer.wrap(buf, offset, length));
+    int numRead = channel.read(buf);
 
     if (numRead > 0) {
       // -1 means we actually read 0 bytes, but requested at least one byte.
       statistics.incrementBytesRead(numRead);
       statistics.incrementReadOps(1);
-      totalBytesRead += numRead;
+      totalBytesRead.addAndGet(numRead);
     }
 
     return numRead;
@@ -132,6 +170,12 @@ class GoogleHadoopFSInputStream extends FSInputStream {
    * offset in the given buffer. Less than length bytes may be returned. Reading starts at the given
    * position.
    *
+   * <p>If the underlying channel can read ranges independently of its position, data is read with
+   * an independent range request without changing position of this stream and without taking the
+   * stream lock, so concurrent positional reads do not block each other or sequential reads. Such
+   * range requests read at least {@link GoogleCloudStorageReadOptions#getMinRangeRequestSize()}
+   * bytes, and the last read range is kept to serve subsequent positional reads within it.
+   *
    * @param position Data is read from the stream starting at this position.
    * @param buf The buffer into which data is returned.
    * @param offset The offset at which data is written.
@@ -140,18 +184,161 @@ class GoogleHadoopFSInputStream extends FSInputStream {
    * @throws IOException if an IO error occurs.
    */
   @Override
-  public synchronized int read(long position, byte[] buf, int offset, int length)
-      throws IOException {
-    int result = super.read(position, buf, offset, length);
+  public int read(long position, byte[] buf, int offset, int length) throws IOException {
+    validatePositionedReadArgs(position, buf, offset, length);
+    if (length == 0) {
+      return 0;
+    }
+
+    OptionalLong fileSize = getIndependentReadsFileSize();
+    int result =
+        fileSize.isPresent()
+            ? readIndependently(position, buf, offset, length, fileSize.getAsLong())
+            : super.read(position, buf, offset, length);
 
     if (result > 0) {
       // -1 means we actually read 0 bytes, but requested at least one byte.
       statistics.incrementBytesRead(result);
-      totalBytesRead += result;
+      totalBytesRead.addAndGet(result);
     }
     return result;
   }
 
+  /**
+   * Reads data at the given position from the last positional read range if it contains this data,
+   * or with an independent range request of the channel otherwise.
+   */
+  private int readIndependently(long position, byte[] buf, int offset, int length, long fileSize)
+      throws IOException {
+    if (!channel.isOpen()) {
+      throw new ClosedChannelException();
+    }
+    if (position >= fileSize) {
+      return -1;
+    }
+    int bytesToRead = (int) Math.min(length, fileSize - position);
+    VectoredIORange range = lastPositionalReadRange;
+    if (range == null || position < range.getOffset() || position + bytesToRead > range.getEnd()) {
+      int rangeLength =
+          (int) Math.min(Math.max(bytesToRead, minPositionalReadSize), fileSize - position);
+      range = new VectoredIORange(position, rangeLength);
+      // Channel reads into its own buffer, because an interrupted or failed read could still be in
+      // progress after this method returns, and it should not write into the caller buffer.
+      ((ReadVectoredSeekableByteChannel) channel)
+          .readVectored(ImmutableList.of(range), ByteBuffer::allocate);
+      try {
+        range.awaitData();
+      } finally {
+        // Do not retry failed or interrupted read after return.
+        range.getData().cancel(/* mayInterruptIfRunning= */ false);
+      }
+      if (rangeLength > bytesToRead) {
+        lastPositionalReadRange = range;
+      }
+    }
+    // Duplicate shared range data, so concurrent reads do not change position of each other.
+    ByteBuffer data = range.getData().join().duplicate();
+    data.position(data.position() + (int) (position - range.getOffset()));
+    data.get(buf, offset, bytesToRead);
+    statistics.incrementReadOps(1);
+    return bytesToRead;
+  }
+
+  /**
+   * Returns size of the file if the underlying channel can read ranges independently of its
+   * position, or empty otherwise.
+   */
+  private OptionalLong getIndependentReadsFileSize() throws IOException {
+    OptionalLong fileSize = independentReadsFileSize;
+    if (fileSize == null) {
+      synchronized (this) {
+        fileSize = independentReadsFileSize;
+        if (fileSize == null) {
+          fileSize =
+              channel instanceof ReadVectoredSeekableByteChannel
+                      && ((ReadVectoredSeekableByteChannel) channel).isReadVectoredIndependent()
+                  ? OptionalLong.of(channel.size())
+                  : OptionalLong.empty();
+          independentReadsFileSize = fileSize;
+        }
+      }
+    }
+    return fileSize;
+  }
+
+  /**
+   * Reads the given ranges of the file asynchronously without changing the current position of this
+   * stream. Nearby ranges are merged and read with a single request, and merged ranges are read in
+   * parallel.
+   *
+   * <p>Data of each range is delivered through the {@link VectoredIORange#getData()} future, which
+   * completes as soon as this range is read.
+   *
+   * @param ranges non-overlapping ranges to read.
+   * @param allocate function that allocates buffers for the read data.
+   * @throws IOException if an IO error occurs.
+   */
+  public void readVectored(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    logger.atFiner().log("readVectored(ranges: %s): %s", ranges, gcsPath);
+    if (!channel.isOpen()) {
+      throw new ClosedChannelException();
+    }
+    for (VectoredIORange range : ranges) {
+      range
+          .getData()
+          .thenAccept(
+              data -> {
+                statistics.incrementBytesRead(data.remaining());
+                totalBytesRead.addAndGet(data.remaining());
+              });
+    }
+    statistics.incrementReadOps(1);
+
+    if (getIndependentReadsFileSize().isPresent()) {
+      ((ReadVectoredSeekableByteChannel) channel).readVectored(ranges, allocate);
+      return;
+    }
+
+    synchronized (this) {
+      if (channel instanceof ReadVectoredSeekableByteChannel) {
+        ((ReadVectoredSeekableByteChannel) channel).readVectored(ranges, allocate);
+        return;
+      }
+      long initialPosition = channel.position();
+      try {
+        for (VectoredIORange range : ranges) {
+          readRange(range, allocate);
+        }
+      } finally {
+        if (channel.position() != initialPosition) {
+          channel.position(initialPosition);
+        }
+      }
+    }
+  }
+
+  /** Reads a single range through the underlying channel, changing its position. */
+  private void readRange(VectoredIORange range, IntFunction<ByteBuffer> allocate) {
+    try {
+      ByteBuffer data = allocate.apply(range.getLength());
+      data.limit(range.getLength());
+      if (range.getLength() > 0) {
+        channel.position(range.getOffset());
+      }
+      while (data.hasRemaining()) {
+        if (channel.read(data) < 0) {
+          throw new EOFException(
+              String.format("Reached end of '%s' while reading %s", gcsPath, range));
+        }
+      }
+      data.flip();
+      range.getData().complete(data);
+    } catch (IOException | RuntimeException e) {
+      range.getData().completeExceptionally(e);
+    }
+  }
+
   /**
    * Gets the current position within the file being read.
    *
@@ -200,9 +387,11 @@ class GoogleHadoopFSInputStream extends FSInputStream {
   public synchronized void close() throws IOException {
     logger.atFiner().log("close(): %s", gcsPath);
     if (channel != null) {
-      logger.atFiner().log("Closing '%s' file with %d total bytes read", gcsPath, totalBytesRead);
+      logger.atFiner().log(
+          "Closing '%s' file with %d total bytes read", gcsPath, totalBytesRead.get());
       channel.close();
     }
+    lastPositionalReadRange = null;
   }
 
   /**
@@ -24,6 +24,9 @@ import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_FILE_CHECKSUM_TYPE;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_GLOB_ALGORITHM;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_LAZY_INITIALIZATION_ENABLE;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_LIST_PREFETCH_PAGES;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_MAX_BUFFER_SIZE;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_PART_SIZE;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_SYNC_MIN_INTERVAL_MS;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_TYPE;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_WORKING_DIRECTORY;
@@ -38,6 +41,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.flogger.LazyArgs.lazy;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
@@ -48,7 +52,6 @@ import com.google.cloud.hadoop.fs.gcs.auth.GcsDelegationTokens;
 import com.google.cloud.hadoop.gcsio.CreateFileOptions;
 import com.google.cloud.hadoop.gcsio.CreateObjectOptions;
 import com.google.cloud.hadoop.gcsio.FileInfo;
-import com.google.cloud.hadoop.gcsio.GoogleCloudStorage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemOptions;
@@ -56,11 +59,13 @@ import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
 import com.google.cloud.hadoop.gcsio.ListFileOptions;
+import com.google.cloud.hadoop.gcsio.ReadCacheStatistics;
 import com.google.cloud.hadoop.gcsio.StorageResourceId;
 import com.google.cloud.hadoop.gcsio.UpdatableItemInfo;
 import com.google.cloud.hadoop.gcsio.UriPaths;
 import com.google.cloud.hadoop.util.AccessTokenProvider;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
+import com.google.cloud.hadoop.util.ByteBufferPool;
 import com.google.cloud.hadoop.util.CredentialFactory;
 import com.google.cloud.hadoop.util.CredentialFactory.CredentialHttpRetryInitializer;
 import com.google.cloud.hadoop.util.CredentialFromAccessTokenProviderClassFactory;
@@ -73,7 +78,6 @@ import com.google.common.base.Ascii;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.flogger.GoogleLogger;
 import com.google.common.io.BaseEncoding;
@@ -95,14 +99,17 @@ import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -170,7 +177,8 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
   public enum OutputStreamType {
     BASIC,
     FLUSHABLE_COMPOSITE,
-    SYNCABLE_COMPOSITE
+    SYNCABLE_COMPOSITE,
+    PARALLEL_COMPOSITE
   }
 
   /**
@@ -246,10 +254,36 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
   private static final ThreadFactory DAEMON_THREAD_FACTORY =
       new ThreadFactoryBuilder().setNameFormat("ghfs-thread-%d").setDaemon(true).build();
 
+  /** Maximum number of threads that prefetch listing pages for all instances. */
+  private static final int LIST_PREFETCH_THREADS = 16;
+
+  /**
+   * Executor that prefetches listing pages for the listing iterators of all instances. Its threads
+   * are bounded, because each open listing iterator could have a prefetch in flight, and prefetch
+   * requests above this limit wait in the queue.
+   */
+  private static final ExecutorService LIST_PREFETCH_EXECUTOR = newListPrefetchExecutor();
+
+  private static ExecutorService newListPrefetchExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            /* corePoolSize= */ LIST_PREFETCH_THREADS,
+            /* maximumPoolSize= */ LIST_PREFETCH_THREADS,
+            /* keepAliveTime= */ 30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            DAEMON_THREAD_FACTORY);
+    // Do not keep idle threads when listings are not performed.
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   @VisibleForTesting GlobAlgorithm globAlgorithm = GCS_GLOB_ALGORITHM.getDefault();
 
   private GcsFileChecksumType checksumType = GCS_FILE_CHECKSUM_TYPE.getDefault();
 
+  private int listPrefetchPages = GCS_LIST_PREFETCH_PAGES.getDefault();
+
   /** The URI the File System is passed in initialize. */
   protected URI initUri;
 
@@ -650,6 +684,24 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
                 CreateFileOptions.builder().setOverwriteExisting(overwrite).build(),
                 syncableOutputStreamOptions);
         break;
+      case PARALLEL_COMPOSITE:
+        ParallelCompositeOutputStreamOptions parallelCompositeOutputStreamOptions =
+            ParallelCompositeOutputStreamOptions.builder()
+                .setPartSize(
+                    GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_PART_SIZE.get(
+                        getConf(), getConf()::getInt))
+                .setMaxBufferSize(
+                    GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_MAX_BUFFER_SIZE.get(
+                        getConf(), getConf()::getLong))
+                .build();
+        out =
+            new GoogleHadoopParallelCompositeOutputStream(
+                this,
+                gcsPath,
+                statistics,
+                CreateFileOptions.builder().setOverwriteExisting(overwrite).build(),
+                parallelCompositeOutputStreamOptions);
+        break;
       default:
         throw new IOException(
             String.format(
@@ -741,17 +793,14 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
 
     checkArgument(!srcPaths.contains(tgtPath), "target must not be contained in sources");
 
-    List<List<URI>> partitions =
-        Lists.partition(srcPaths, GoogleCloudStorage.MAX_COMPOSE_OBJECTS - 1);
-    logger.atFiner().log("concat(tgt: %s, %d partitions: %s)", tgt, partitions.size(), partitions);
-    for (List<URI> partition : partitions) {
-      // We need to include the target in the list of sources to compose since
-      // the GCS FS compose operation will overwrite the target, whereas the Hadoop
-      // concat operation appends to the target.
-      List<URI> sources = Lists.newArrayList(tgtPath);
-      sources.addAll(partition);
-      getGcsFs().compose(sources, tgtPath, CreateObjectOptions.CONTENT_TYPE_DEFAULT);
-    }
+    // We need to include the target in the list of sources to compose since
+    // the GCS FS compose operation will overwrite the target, whereas the Hadoop
+    // concat operation appends to the target.
+    List<URI> sources = new ArrayList<>(srcPaths.size() + 1);
+    sources.add(tgtPath);
+    sources.addAll(srcPaths);
+    // More than 32 sources are composed into intermediate objects in parallel by GCS FS.
+    getGcsFs().compose(sources, tgtPath, CreateObjectOptions.CONTENT_TYPE_DEFAULT);
   }
 
   /**
@@ -859,15 +908,18 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
     logger.atFiner().log("listStatus(hadoopPath: %s)", hadoopPath);
 
     URI gcsPath = getGcsPath(hadoopPath);
-    List<FileStatus> status;
+    List<FileInfo> fileInfos = listFileInfo(hadoopPath, gcsPath);
+    List<FileStatus> status = new ArrayList<>(fileInfos.size());
+    String userName = getUgiUserName();
+    for (FileInfo fileInfo : fileInfos) {
+      status.add(getFileStatus(fileInfo, userName));
+    }
+    return status.toArray(new FileStatus[0]);
+  }
 
+  private List<FileInfo> listFileInfo(Path hadoopPath, URI gcsPath) throws IOException {
     try {
-      List<FileInfo> fileInfos = getGcsFs().listFileInfo(gcsPath, LIST_OPTIONS);
-      status = new ArrayList<>(fileInfos.size());
-      String userName = getUgiUserName();
-      for (FileInfo fileInfo : fileInfos) {
-        status.add(getFileStatus(fileInfo, userName));
-      }
+      return getGcsFs().listFileInfo(gcsPath, LIST_OPTIONS);
     } catch (FileNotFoundException fnfe) {
       throw (FileNotFoundException)
           new FileNotFoundException(
@@ -875,60 +927,149 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
                       "listStatus(hadoopPath: %s): '%s' does not exist.", hadoopPath, gcsPath))
               .initCause(fnfe);
     }
-    return status.toArray(new FileStatus[0]);
   }
 
-  class GCSFilesListIterator implements RemoteIterator<LocatedFileStatus> {
-    private String nextPageToken;
-    private boolean recursive;
-    private Path hadoopPath;
-    private Iterator<FileInfo> currentPageIterator;
+  /**
+   * Lists file status page by page. If the given path points to a directory then the status of
+   * children is returned, otherwise the status of the given file is returned.
+   */
+  @Override
+  public RemoteIterator<FileStatus> listStatusIterator(Path hadoopPath) throws IOException {
+    checkArgument(hadoopPath != null, "hadoopPath must not be null");
 
-    public GCSFilesListIterator(Path hadoopPath, boolean recursive) throws IOException {
-      this.hadoopPath = hadoopPath;
-      this.nextPageToken = null;
-      this.recursive = recursive;
-      //load first page with token null.
-      loadNextBatch();
-    }
+    checkOpen();
 
-    @Override
-    public boolean hasNext() throws IOException {
-      if (currentPageIterator == null) return false;
-      if (!currentPageIterator.hasNext() && nextPageToken != null) {
-        loadNextBatch();
-      }
-      return currentPageIterator.hasNext();
-    }
+    logger.atFiner().log("listStatusIterator(hadoopPath: %s)", hadoopPath);
 
-    /**
-     * Load next batch with pageToken, in case of token null. it will always return first page
-     *
-     * @throws IOException
-     */
-    private void loadNextBatch() throws IOException {
-      ListPage<FileInfo> currentBatch = getGcsFs().listFileInfoForPrefixPage(getGcsPath(hadoopPath), this.nextPageToken, recursive);
-      if (currentBatch != null && currentBatch.getItems() != null && currentBatch.getItems().size() != 0) {
-        this.nextPageToken = currentBatch.getNextPageToken();
-        this.currentPageIterator = currentBatch.getItems().iterator();
-      }
-    }
+    String userName = getUgiUserName();
+    return listStatusPaged(hadoopPath, path -> true, fileInfo -> getFileStatus(fileInfo, userName));
+  }
 
-    @Override
-    public LocatedFileStatus next() throws IOException {
-      checkArgument(hasNext(), "No next found");
-      String userName = getUgiUserName();
-      FileStatus currentFile = getFileStatus(currentPageIterator.next(), userName);
-      return new LocatedFileStatus(currentFile, null);
-    }
+  @Override
+  protected RemoteIterator<LocatedFileStatus> listLocatedStatus(Path hadoopPath, PathFilter filter)
+      throws IOException {
+    checkArgument(hadoopPath != null, "hadoopPath must not be null");
+    checkArgument(filter != null, "filter must not be null");
+
+    checkOpen();
+
+    logger.atFiner().log("listLocatedStatus(hadoopPath: %s)", hadoopPath);
+
+    String userName = getUgiUserName();
+    return listStatusPaged(
+        hadoopPath,
+        filter,
+        fileInfo -> {
+          FileStatus status = getFileStatus(fileInfo, userName);
+          return new LocatedFileStatus(
+              status, status.isFile() ? getFileBlockLocations(status, 0, status.getLen()) : null);
+        });
   }
 
   @Override
-  public RemoteIterator<LocatedFileStatus> listFiles(Path hadoopPath, boolean recursive) throws IOException {
+  public RemoteIterator<LocatedFileStatus> listFiles(Path hadoopPath, boolean recursive)
+      throws IOException {
     checkArgument(hadoopPath != null, "hadoopPath must not be null");
+
     checkOpen();
-    logger.atFiner().log("listFiles(hadoopPath: %s)", hadoopPath);
-    return new GCSFilesListIterator(hadoopPath, recursive);
+
+    logger.atFiner().log("listFiles(hadoopPath: %s, recursive: %b)", hadoopPath, recursive);
+
+    URI gcsPath = getGcsPath(hadoopPath);
+    String userName = getUgiUserName();
+    return new PrefetchingListIterator<>(
+        pageToken -> getGcsFs().listFileInfoForPrefixPage(gcsPath, pageToken, recursive),
+        fileInfo -> true,
+        fileInfo -> new LocatedFileStatus(getFileStatus(fileInfo, userName), /* locations= */ null),
+        listPrefetchPages,
+        LIST_PREFETCH_EXECUTOR);
+  }
+
+  /**
+   * Streams children of the given directory path page by page, while checking in parallel whether
+   * the path is a file. Falls back to a single {@link GoogleCloudStorageFileSystem#listFileInfo}
+   * call only if nothing was listed under the directory path, e.g. for non-existent paths and empty
+   * buckets, and for the root path.
+   */
+  private <T> RemoteIterator<T> listStatusPaged(
+      Path hadoopPath, PathFilter filter, PrefetchingListIterator.FileInfoConverter<T> converter)
+      throws IOException {
+    URI gcsPath = getGcsPath(hadoopPath);
+    StorageResourceId pathId =
+        StorageResourceId.fromUriPath(gcsPath, /* allowEmptyObjectName= */ true);
+    if (!pathId.isRoot()) {
+      Future<GoogleCloudStorageItemInfo> pathInfoFuture =
+          pathId.isDirectory()
+              ? null
+              : LIST_PREFETCH_EXECUTOR.submit(() -> getGcsFs().getGcs().getItemInfo(pathId));
+      URI dirPath = UriPaths.toDirectory(gcsPath);
+      ListPage<FileInfo> firstPage;
+      RemoteIterator<T> children;
+      try {
+        firstPage =
+            getGcsFs()
+                .listFileInfoForPrefixPage(
+                    dirPath, LIST_OPTIONS, /* pageToken= */ null, /* recursive= */ false);
+        children =
+            new PrefetchingListIterator<>(
+                pageToken ->
+                    pageToken == null
+                        ? firstPage
+                        : getGcsFs()
+                            .listFileInfoForPrefixPage(
+                                dirPath, LIST_OPTIONS, pageToken, /* recursive= */ false),
+                fileInfo ->
+                    !fileInfo.getPath().equals(dirPath)
+                        && filter.accept(getHadoopPath(fileInfo.getPath())),
+                converter,
+                listPrefetchPages,
+                LIST_PREFETCH_EXECUTOR);
+      } catch (IOException | RuntimeException e) {
+        if (pathInfoFuture != null) {
+          pathInfoFuture.cancel(/* mayInterruptIfRunning= */ true);
+        }
+        throw e;
+      }
+      GoogleCloudStorageItemInfo pathInfo =
+          pathInfoFuture == null ? null : getFromFuture(pathInfoFuture);
+      if (pathInfo != null && pathInfo.exists()) {
+        return singlePageIterator(
+            ImmutableList.of(FileInfo.fromItemInfo(pathInfo)), filter, converter);
+      }
+      // Directory exists if anything was listed under it, including its own placeholder object of
+      // an empty directory, so its children are returned even if all of them are filtered out.
+      if (!firstPage.getItems().isEmpty() || firstPage.getNextPageToken() != null) {
+        return children;
+      }
+    }
+    return singlePageIterator(listFileInfo(hadoopPath, gcsPath), filter, converter);
+  }
+
+  private <T> RemoteIterator<T> singlePageIterator(
+      List<FileInfo> fileInfos,
+      PathFilter filter,
+      PrefetchingListIterator.FileInfoConverter<T> converter)
+      throws IOException {
+    return new PrefetchingListIterator<>(
+        pageToken -> new ListPage<>(fileInfos, /* nextPageToken= */ null),
+        fileInfo -> filter.accept(getHadoopPath(fileInfo.getPath())),
+        converter,
+        /* prefetchPages= */ 0,
+        directExecutor());
+  }
+
+  private static <T> T getFromFuture(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(String.format("Failed to get result: %s", e), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(String.format("Failed to get result: %s", e.getCause()), e.getCause());
+    }
   }
 
   /**
@@ -1474,6 +1615,7 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
     setConf(config);
 
     globAlgorithm = GCS_GLOB_ALGORITHM.get(config, config::getEnum);
+    listPrefetchPages = GCS_LIST_PREFETCH_PAGES.get(config, config::getInt);
     checksumType = GCS_FILE_CHECKSUM_TYPE.get(config, config::getEnum);
     defaultBlockSize = BLOCK_SIZE.get(config, config::getLong);
     reportedPermissions = new FsPermission(PERMISSIONS_TO_REPORT.get(config, config::get));
@@ -1657,6 +1799,12 @@ public abstract class GoogleHadoopFileSystemBase extends FileSystem
     // deleteOnExit).
     if (gcsFsSupplier != null) {
       if (gcsFsInitialized) {
+        logger.atFine().log(
+            "close(): %s, %s, %s",
+            getGcsFs().getGcs().getUploadStatistics(),
+            ByteBufferPool.getExistingInstance(),
+            ReadCacheStatistics.of(
+                getGcsFs().getOptions().getCloudStorageOptions().getReadChannelOptions()));
         getGcsFs().close();
       }
       gcsFsSupplier = null;
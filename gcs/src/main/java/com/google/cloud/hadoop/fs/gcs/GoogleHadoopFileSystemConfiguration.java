@@ -155,6 +155,57 @@ public class GoogleHadoopFileSystemConfiguration {
           "fs.gs.performance.cache.max.entry.age.ms",
           PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRY_AGE_MILLIS_DEFAULT);
 
+  /**
+   * Configuration key for maximum number of items in the performance cache, after which the oldest
+   * items are evicted.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_PERFORMANCE_CACHE_MAX_ENTRIES =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.performance.cache.max.entries",
+          PerformanceCachingGoogleCloudStorageOptions.MAX_ENTRIES_DEFAULT);
+
+  /**
+   * Configuration key for enabling caching of complete listing results in the performance cache.
+   * Cached listings are invalidated when objects are created, modified or deleted through this
+   * instance.
+   */
+  public static final HadoopConfigurationProperty<Boolean> GCS_PERFORMANCE_CACHE_LISTING_ENABLE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.performance.cache.listing.enable",
+          PerformanceCachingGoogleCloudStorageOptions.LISTING_CACHING_ENABLED_DEFAULT);
+
+  /** Configuration key for enabling caching of not found objects in the performance cache. */
+  public static final HadoopConfigurationProperty<Boolean> GCS_PERFORMANCE_CACHE_NOT_FOUND_ENABLE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.performance.cache.not.found.enable",
+          PerformanceCachingGoogleCloudStorageOptions.NOT_FOUND_CACHING_ENABLED_DEFAULT);
+
+  /**
+   * Configuration key for maximum estimated size in bytes of listings and not found objects cached
+   * in the performance cache.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_PERFORMANCE_CACHE_LISTING_MAX_BYTES =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.performance.cache.listing.max.bytes",
+          PerformanceCachingGoogleCloudStorageOptions.LISTING_CACHE_MAX_BYTES_DEFAULT);
+
+  /**
+   * Configuration key for the path to a node-local file in which object metadata cached in the
+   * performance cache is shared by all processes on the host. Shared cache is disabled if not set.
+   */
+  public static final HadoopConfigurationProperty<String> GCS_PERFORMANCE_CACHE_SHARED_FILE =
+      new HadoopConfigurationProperty<>("fs.gs.performance.cache.shared.file");
+
+  /**
+   * Configuration key for maximum number of object metadata items in the node-local shared cache
+   * file, must be the same in all processes that use the file.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_PERFORMANCE_CACHE_SHARED_MAX_ENTRIES =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.performance.cache.shared.max.entries",
+              PerformanceCachingGoogleCloudStorageOptions.SHARED_CACHE_MAX_ENTRIES_DEFAULT);
+
   /**
    * If true, executes GCS requests in {@code listStatus} and {@code getFileStatus} methods in
    * parallel to reduce latency.
@@ -217,6 +268,14 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Long> GCS_MAX_LIST_ITEMS_PER_CALL =
       new HadoopConfigurationProperty<>("fs.gs.list.max.items.per.call", 1024L);
 
+  /**
+   * Configuration key for the number of listing pages that are fetched ahead of the page processed
+   * by the {@code listFiles}, {@code listLocatedStatus} and {@code listStatusIterator} iterators.
+   * Setting it to 0 fetches each page only when the previous page is exhausted.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_LIST_PREFETCH_PAGES =
+      new HadoopConfigurationProperty<>("fs.gs.list.prefetch.pages", 1);
+
   /**
    * Configuration key for the max number of retries for failed HTTP request to GCS. Note that the
    * connector will retry *up to* the number of times as specified, using a default
@@ -236,6 +295,10 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Integer> GCS_HTTP_READ_TIMEOUT =
       new HadoopConfigurationProperty<>("fs.gs.http.read-timeout", 20 * 1000);
 
+  /** Configuration key for enabling checksum validation of the HTTP reads and uploads. */
+  public static final HadoopConfigurationProperty<Boolean> GCS_HTTP_CHECKSUMS_ENABLE =
+      new HadoopConfigurationProperty<>("fs.gs.http.checksums.enable", false);
+
   /** Configuration key for adding a suffix to the GHFS application name sent to GCS. */
   public static final HadoopConfigurationProperty<String> GCS_APPLICATION_NAME_SUFFIX =
       new HadoopConfigurationProperty<>("fs.gs.application.name.suffix", "");
@@ -259,6 +322,9 @@ public class GoogleHadoopFileSystemConfiguration {
    *
    * <p>FLUSHABLE_COMPOSITE: Stream behaves similarly to SYNCABLE_COMPOSITE, except hflush() is also
    * supported. It will use the same implementation of hsync().
+   *
+   * <p>PARALLEL_COMPOSITE: Stream uploads fixed-size parts of the written data concurrently as
+   * temporary GCS objects and composes them into the destination object on close().
    */
   public static final HadoopConfigurationProperty<OutputStreamType> GCS_OUTPUT_STREAM_TYPE =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.type", OutputStreamType.BASIC);
@@ -290,12 +356,74 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Boolean> GCS_OUTPUT_STREAM_DIRECT_UPLOAD_ENABLE =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.direct.upload.enable", false);
 
+  /**
+   * Configuration key for the maximum number of upload chunks sent at the same time by all output
+   * streams in the process, {@code 0} for no limit.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_MAX_CONCURRENT_UPLOADS =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.max.concurrent.uploads",
+              AsyncWriteChannelOptions.MAX_CONCURRENT_UPLOADS_DEFAULT);
+
+  /**
+   * Configuration key for the maximum size of the upload chunks sent at the same time by all output
+   * streams in the process, {@code 0} for no limit.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_OUTPUT_STREAM_MAX_UPLOAD_BUFFER_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.outputstream.max.upload.buffer.size",
+          AsyncWriteChannelOptions.MAX_UPLOAD_BUFFER_SIZE_DEFAULT);
+
+  /**
+   * Configuration key for the maximum size of the released upload buffers that are retained by the
+   * process-wide buffer pool for reuse, {@code 0} to not retain buffers.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_OUTPUT_STREAM_BUFFER_POOL_MAX_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.outputstream.buffer.pool.max.size",
+          AsyncWriteChannelOptions.BUFFER_POOL_MAX_SIZE_DEFAULT);
+
+  /** Configuration key for enabling allocation of direct buffers by the upload buffer pool. */
+  public static final HadoopConfigurationProperty<Boolean>
+      GCS_OUTPUT_STREAM_BUFFER_POOL_DIRECT_ENABLE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.buffer.pool.direct.enable",
+              AsyncWriteChannelOptions.BUFFER_POOL_DIRECT_ENABLED_DEFAULT);
+
+  /**
+   * Configuration key for the maximum size of the objects that are uploaded in a single request on
+   * output stream close, {@code 0} to always start a resumable upload.
+   */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_SMALL_UPLOAD_THRESHOLD =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.small.upload.threshold",
+              AsyncWriteChannelOptions.SMALL_UPLOAD_THRESHOLD_DEFAULT);
+
   /**
    * Configuration key for the minimal time interval between consecutive sync/hsync/hflush calls.
    */
   public static final HadoopConfigurationProperty<Integer> GCS_OUTPUT_STREAM_SYNC_MIN_INTERVAL_MS =
       new HadoopConfigurationProperty<>("fs.gs.outputstream.sync.min.interval.ms", 0);
 
+  /** Configuration key for the size of the parts uploaded by the PARALLEL_COMPOSITE stream. */
+  public static final HadoopConfigurationProperty<Integer>
+      GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_PART_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.parallel.composite.part.size",
+              ParallelCompositeOutputStreamOptions.PART_SIZE_DEFAULT);
+
+  /**
+   * Configuration key for the maximum size of the part buffers allocated by a single
+   * PARALLEL_COMPOSITE stream.
+   */
+  public static final HadoopConfigurationProperty<Long>
+      GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_MAX_BUFFER_SIZE =
+          new HadoopConfigurationProperty<>(
+              "fs.gs.outputstream.parallel.composite.max.buffer.size",
+              ParallelCompositeOutputStreamOptions.MAX_BUFFER_SIZE_DEFAULT);
+
   /**
    * If {@code true}, on opening a file we will proactively perform a metadata {@code GET} to check
    * whether the object exists, even though the underlying channel will not open a data stream until
@@ -343,6 +471,60 @@ public class GoogleHadoopFileSystemConfiguration {
           "fs.gs.inputstream.min.range.request.size",
           GoogleCloudStorageReadOptions.DEFAULT_MIN_RANGE_REQUEST_SIZE);
 
+  /**
+   * Number of blocks that are prefetched in parallel ahead of the read position in SEQUENTIAL
+   * fadvise mode. Read-ahead is disabled if 0.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_READ_AHEAD_DEPTH =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.read.ahead.depth",
+          GoogleCloudStorageReadOptions.DEFAULT_READ_AHEAD_DEPTH);
+
+  /** Size in bytes of each block prefetched by read-ahead. */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_READ_AHEAD_BLOCK_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.read.ahead.block.size",
+          GoogleCloudStorageReadOptions.DEFAULT_READ_AHEAD_BLOCK_SIZE);
+
+  /**
+   * Maximum size in bytes of the process-wide cache of object blocks shared by all input streams.
+   * Block cache is disabled if 0.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_INPUT_STREAM_BLOCK_CACHE_MAX_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.block.cache.max.size",
+          GoogleCloudStorageReadOptions.DEFAULT_BLOCK_CACHE_MAX_SIZE);
+
+  /** Size in bytes of object blocks that are stored in the block cache. */
+  public static final HadoopConfigurationProperty<Integer> GCS_INPUT_STREAM_BLOCK_CACHE_BLOCK_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.block.cache.block.size",
+          GoogleCloudStorageReadOptions.DEFAULT_BLOCK_CACHE_BLOCK_SIZE);
+
+  /**
+   * Maximum size in bytes of the process-wide cache of prefetched object footers shared by all
+   * input streams. Footer cache is disabled if 0.
+   */
+  public static final HadoopConfigurationProperty<Long> GCS_INPUT_STREAM_FOOTER_CACHE_MAX_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.inputstream.footer.cache.max.size",
+          GoogleCloudStorageReadOptions.DEFAULT_FOOTER_CACHE_MAX_SIZE);
+
+  /**
+   * Maximum gap in bytes between ranges of a vectored read that are merged into a single HTTP Range
+   * request.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_VECTORED_READ_MIN_RANGE_SEEK_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.vectored.read.min.range.seek.size",
+          GoogleCloudStorageReadOptions.DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE);
+
+  /** Maximum size in bytes of the merged range requested from GCS during a vectored read. */
+  public static final HadoopConfigurationProperty<Integer> GCS_VECTORED_READ_MERGED_RANGE_MAX_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.vectored.read.merged.range.max.size",
+          GoogleCloudStorageReadOptions.DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE);
+
   /** Configuration key for enabling use of the gRPC API for read/write. */
   public static final HadoopConfigurationProperty<Boolean> GCS_GRPC_ENABLE =
       new HadoopConfigurationProperty<>("fs.gs.grpc.enable", false);
@@ -363,6 +545,21 @@ public class GoogleHadoopFileSystemConfiguration {
   public static final HadoopConfigurationProperty<Long> GCS_GRPC_READ_METADATA_TIMEOUT_MS =
       new HadoopConfigurationProperty<>("fs.gs.grpc.read.metadata.timeout.ms", 60 * 1000L);
 
+  /**
+   * Number of concurrent gRPC streams used to read blocks ahead of the read position for large
+   * objects. Parallel reads are disabled if 0 or 1.
+   */
+  public static final HadoopConfigurationProperty<Integer> GCS_GRPC_READ_PARALLEL_STREAMS =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.grpc.read.parallel.streams",
+          GoogleCloudStorageReadOptions.DEFAULT_GRPC_READ_PARALLEL_STREAMS);
+
+  /** Minimum size in bytes of objects that are read with parallel gRPC streams. */
+  public static final HadoopConfigurationProperty<Long> GCS_GRPC_READ_PARALLEL_MIN_OBJECT_SIZE =
+      new HadoopConfigurationProperty<>(
+          "fs.gs.grpc.read.parallel.min.object.size",
+          GoogleCloudStorageReadOptions.DEFAULT_GRPC_READ_PARALLEL_MIN_OBJECT_SIZE);
+
   /** Configuration key for the number of requests to be buffered for uploads to GCS. */
   public static final HadoopConfigurationProperty<Long> GCS_GRPC_UPLOAD_BUFFERED_REQUESTS =
       new HadoopConfigurationProperty<>("fs.gs.grpc.write.buffered.requests", 20L);
@@ -487,6 +684,16 @@ public class GoogleHadoopFileSystemConfiguration {
     return PerformanceCachingGoogleCloudStorageOptions.builder()
         .setMaxEntryAgeMillis(
             GCS_PERFORMANCE_CACHE_MAX_ENTRY_AGE_MILLIS.get(config, config::getLong))
+        .setMaxEntries(GCS_PERFORMANCE_CACHE_MAX_ENTRIES.get(config, config::getLong))
+        .setListingCachingEnabled(
+            GCS_PERFORMANCE_CACHE_LISTING_ENABLE.get(config, config::getBoolean))
+        .setNotFoundCachingEnabled(
+            GCS_PERFORMANCE_CACHE_NOT_FOUND_ENABLE.get(config, config::getBoolean))
+        .setListingCacheMaxBytes(
+            GCS_PERFORMANCE_CACHE_LISTING_MAX_BYTES.get(config, config::getLong))
+        .setSharedCacheFile(GCS_PERFORMANCE_CACHE_SHARED_FILE.get(config, config::get))
+        .setSharedCacheMaxEntries(
+            GCS_PERFORMANCE_CACHE_SHARED_MAX_ENTRIES.get(config, config::getInt))
         .build();
   }
 
@@ -507,9 +714,23 @@ public class GoogleHadoopFileSystemConfiguration {
         .setFadvise(GCS_INPUT_STREAM_FADVISE.get(config, config::getEnum))
         .setMinRangeRequestSize(GCS_INPUT_STREAM_MIN_RANGE_REQUEST_SIZE.get(config, config::getInt))
         .setGrpcChecksumsEnabled(GCS_GRPC_CHECKSUMS_ENABLE.get(config, config::getBoolean))
+        .setHttpChecksumsEnabled(GCS_HTTP_CHECKSUMS_ENABLE.get(config, config::getBoolean))
         .setGrpcServerAddress(GCS_GRPC_SERVER_ADDRESS.get(config, config::get))
         .setGrpcReadTimeoutMillis(GCS_GRPC_READ_TIMEOUT_MS.get(config, config::getLong))
-        .setGrpcReadMetadataTimeoutMillis(GCS_GRPC_READ_METADATA_TIMEOUT_MS.get(config, config::getLong))
+        .setGrpcReadMetadataTimeoutMillis(
+            GCS_GRPC_READ_METADATA_TIMEOUT_MS.get(config, config::getLong))
+        .setGrpcReadParallelStreams(GCS_GRPC_READ_PARALLEL_STREAMS.get(config, config::getInt))
+        .setGrpcReadParallelMinObjectSize(
+            GCS_GRPC_READ_PARALLEL_MIN_OBJECT_SIZE.get(config, config::getLong))
+        .setVectoredReadMinRangeSeekSize(
+            GCS_VECTORED_READ_MIN_RANGE_SEEK_SIZE.get(config, config::getInt))
+        .setVectoredReadMergedRangeMaxSize(
+            GCS_VECTORED_READ_MERGED_RANGE_MAX_SIZE.get(config, config::getInt))
+        .setReadAheadDepth(GCS_INPUT_STREAM_READ_AHEAD_DEPTH.get(config, config::getInt))
+        .setReadAheadBlockSize(GCS_INPUT_STREAM_READ_AHEAD_BLOCK_SIZE.get(config, config::getInt))
+        .setBlockCacheMaxSize(GCS_INPUT_STREAM_BLOCK_CACHE_MAX_SIZE.get(config, config::getLong))
+        .setBlockCacheBlockSize(GCS_INPUT_STREAM_BLOCK_CACHE_BLOCK_SIZE.get(config, config::getInt))
+        .setFooterCacheMaxSize(GCS_INPUT_STREAM_FOOTER_CACHE_MAX_SIZE.get(config, config::getLong))
         .build();
   }
 
@@ -518,11 +739,21 @@ public class GoogleHadoopFileSystemConfiguration {
         .setBufferSize(GCS_OUTPUT_STREAM_BUFFER_SIZE.get(config, config::getInt))
         .setPipeBufferSize(GCS_OUTPUT_STREAM_PIPE_BUFFER_SIZE.get(config, config::getInt))
         .setPipeType(GCS_OUTPUT_STREAM_PIPE_TYPE.get(config, config::getEnum))
+        .setMaxConcurrentUploads(
+            GCS_OUTPUT_STREAM_MAX_CONCURRENT_UPLOADS.get(config, config::getInt))
+        .setMaxUploadBufferSize(
+            GCS_OUTPUT_STREAM_MAX_UPLOAD_BUFFER_SIZE.get(config, config::getLong))
+        .setBufferPoolMaxSize(GCS_OUTPUT_STREAM_BUFFER_POOL_MAX_SIZE.get(config, config::getLong))
+        .setBufferPoolDirectEnabled(
+            GCS_OUTPUT_STREAM_BUFFER_POOL_DIRECT_ENABLE.get(config, config::getBoolean))
+        .setSmallUploadThreshold(
+            GCS_OUTPUT_STREAM_SMALL_UPLOAD_THRESHOLD.get(config, config::getInt))
         .setUploadChunkSize(GCS_OUTPUT_STREAM_UPLOAD_CHUNK_SIZE.get(config, config::getInt))
         .setUploadCacheSize(GCS_OUTPUT_STREAM_UPLOAD_CACHE_SIZE.get(config, config::getInt))
         .setDirectUploadEnabled(
             GCS_OUTPUT_STREAM_DIRECT_UPLOAD_ENABLE.get(config, config::getBoolean))
         .setGrpcChecksumsEnabled(GCS_GRPC_CHECKSUMS_ENABLE.get(config, config::getBoolean))
+        .setHttpChecksumsEnabled(GCS_HTTP_CHECKSUMS_ENABLE.get(config, config::getBoolean))
         .setGrpcWriteTimeout(GCS_GRPC_WRITE_TIMEOUT_MS.get(config, config::getLong))
         .setNumberOfBufferedRequests(GCS_GRPC_UPLOAD_BUFFERED_REQUESTS.get(config, config::getLong))
         .build();
@@ -18,9 +18,12 @@ package com.google.cloud.hadoop.fs.gcs;
 
 import com.google.cloud.hadoop.gcsio.CreateFileOptions;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
+import com.google.cloud.hadoop.gcsio.StorageResourceId;
 import com.google.common.flogger.GoogleLogger;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
@@ -30,17 +33,33 @@ import java.nio.channels.WritableByteChannel;
 import org.apache.hadoop.fs.FileAlreadyExistsException;
 import org.apache.hadoop.fs.FileSystem;
 
-/** A buffered output stream that allows writing to a GCS object. */
+/**
+ * A buffered output stream that allows writing to a GCS object.
+ *
+ * <p>If small upload threshold is configured, written data is buffered in memory until it exceeds
+ * the threshold, and objects that do not exceed it are uploaded in a single request on close
+ * without starting a resumable upload. Otherwise, a resumable upload is started and seeded with the
+ * buffered data.
+ */
 class GoogleHadoopOutputStream extends OutputStream {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
-  // All store IO access goes through this.
+  // All store IO access goes through this, null until the resumable upload is started.
   private WritableByteChannel channel;
 
-  // Output stream corresponding to channel.
+  // Output stream corresponding to channel, or to the small upload buffer.
   private OutputStream out;
 
+  // Buffer of the data written before the resumable upload is started, null if it was started.
+  private ByteArrayOutputStream smallUploadBuffer;
+
+  // Object id with the generation to write the object with, used only for small uploads.
+  private StorageResourceId smallUploadResourceId;
+
+  // Info of the written object, available after this stream is closed.
+  private GoogleCloudStorageItemInfo itemInfo;
+
   // Path of the file to write to.
   private final URI gcsPath;
 
@@ -48,6 +67,10 @@ class GoogleHadoopOutputStream extends OutputStream {
   // numbers of bytes written.
   private final FileSystem.Statistics statistics;
 
+  private final GoogleCloudStorageFileSystem gcsfs;
+  private final CreateFileOptions createFileOptions;
+  private final int smallUploadThreshold;
+
   /**
    * Constructs an instance of GoogleHadoopOutputStream object.
    *
@@ -66,9 +89,22 @@ class GoogleHadoopOutputStream extends OutputStream {
         "GoogleHadoopOutputStream(gcsPath: %s, createFileOptions: %s)", gcsPath, createFileOptions);
     this.gcsPath = gcsPath;
     this.statistics = statistics;
-    GoogleCloudStorageFileSystem gcsfs = ghfs.getGcsFs();
-    this.channel = createChannel(gcsfs, gcsPath, createFileOptions);
-    this.out = createOutputStream(this.channel, gcsfs.getOptions().getCloudStorageOptions());
+    this.gcsfs = ghfs.getGcsFs();
+    this.createFileOptions = createFileOptions;
+    this.smallUploadThreshold =
+        gcsfs
+            .getOptions()
+            .getCloudStorageOptions()
+            .getWriteChannelOptions()
+            .getSmallUploadThreshold();
+    if (smallUploadThreshold > 0) {
+      this.smallUploadResourceId = prepareCreate(gcsfs, gcsPath, createFileOptions);
+      this.smallUploadBuffer = new ByteArrayOutputStream();
+      this.out = smallUploadBuffer;
+    } else {
+      this.channel = createChannel(gcsfs, gcsPath, createFileOptions);
+      this.out = createOutputStream(this.channel, gcsfs.getOptions().getCloudStorageOptions());
+    }
   }
 
   private static WritableByteChannel createChannel(
@@ -83,6 +119,18 @@ class GoogleHadoopOutputStream extends OutputStream {
     }
   }
 
+  private static StorageResourceId prepareCreate(
+      GoogleCloudStorageFileSystem gcsfs, URI gcsPath, CreateFileOptions options)
+      throws IOException {
+    try {
+      return gcsfs.prepareCreate(gcsPath, options);
+    } catch (java.nio.file.FileAlreadyExistsException e) {
+      throw (FileAlreadyExistsException)
+          new FileAlreadyExistsException(String.format("'%s' already exists", gcsPath))
+              .initCause(e);
+    }
+  }
+
   private static OutputStream createOutputStream(
       WritableByteChannel channel, GoogleCloudStorageOptions gcsOptions) {
     OutputStream out = Channels.newOutputStream(channel);
@@ -94,6 +142,7 @@ class GoogleHadoopOutputStream extends OutputStream {
   @Override
   public void write(int b) throws IOException {
     throwIfNotOpen();
+    startUploadIfThresholdExceeded(1);
     out.write(b);
     statistics.incrementBytesWritten(1);
     statistics.incrementWriteOps(1);
@@ -105,6 +154,7 @@ class GoogleHadoopOutputStream extends OutputStream {
   @Override
   public void write(byte[] b, int offset, int len) throws IOException {
     throwIfNotOpen();
+    startUploadIfThresholdExceeded(len);
     out.write(b, offset, len);
     statistics.incrementBytesWritten(len);
     statistics.incrementWriteOps(1);
@@ -116,14 +166,56 @@ class GoogleHadoopOutputStream extends OutputStream {
     logger.atFiner().log("close(%s)", gcsPath);
     if (out != null) {
       try {
-        out.close();
+        if (smallUploadBuffer != null) {
+          itemInfo = uploadSmallObject();
+        } else {
+          out.close();
+          if (channel instanceof GoogleCloudStorageItemInfo.Provider) {
+            itemInfo = ((GoogleCloudStorageItemInfo.Provider) channel).getItemInfo();
+          }
+        }
       } finally {
         out = null;
         channel = null;
+        smallUploadBuffer = null;
       }
     }
   }
 
+  /**
+   * Starts the resumable upload seeded with the buffered data, if writing {@code len} more bytes
+   * exceeds the small upload threshold.
+   */
+  private void startUploadIfThresholdExceeded(int len) throws IOException {
+    if (smallUploadBuffer == null
+        || (long) smallUploadBuffer.size() + len <= smallUploadThreshold) {
+      return;
+    }
+    logger.atFiner().log(
+        "Starting resumable upload for '%s' after %s buffered bytes",
+        gcsPath, smallUploadBuffer.size());
+    channel =
+        gcsfs
+            .getGcs()
+            .create(
+                smallUploadResourceId,
+                GoogleCloudStorageFileSystem.objectOptionsFromFileOptions(createFileOptions));
+    out = createOutputStream(channel, gcsfs.getOptions().getCloudStorageOptions());
+    smallUploadBuffer.writeTo(out);
+    smallUploadBuffer = null;
+  }
+
+  private GoogleCloudStorageItemInfo uploadSmallObject() throws IOException {
+    logger.atFiner().log(
+        "Uploading %s bytes to '%s' in a single request", smallUploadBuffer.size(), gcsPath);
+    return gcsfs
+        .getGcs()
+        .createObject(
+            smallUploadResourceId,
+            smallUploadBuffer.toByteArray(),
+            GoogleCloudStorageFileSystem.objectOptionsFromFileOptions(createFileOptions));
+  }
+
   private boolean isOpen() {
     return out != null;
   }
@@ -134,7 +226,8 @@ class GoogleHadoopOutputStream extends OutputStream {
     }
   }
 
-  WritableByteChannel getInternalChannel() {
-    return channel;
+  /** Returns info of the written object after this stream is closed, or {@code null}. */
+  GoogleCloudStorageItemInfo getItemInfo() {
+    return itemInfo;
   }
 }
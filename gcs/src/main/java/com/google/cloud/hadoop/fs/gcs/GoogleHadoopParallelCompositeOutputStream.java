@@ -0,0 +1,450 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import com.google.auto.value.AutoValue;
+import com.google.cloud.hadoop.gcsio.CreateFileOptions;
+import com.google.cloud.hadoop.gcsio.CreateObjectOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorage;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
+import com.google.cloud.hadoop.gcsio.ParallelComposer;
+import com.google.cloud.hadoop.gcsio.StorageResourceId;
+import com.google.cloud.hadoop.util.Crc32c;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileSystem;
+
+/**
+ * GoogleHadoopParallelCompositeOutputStream splits written data into fixed-size parts, uploads them
+ * concurrently as temporary objects and composes them into the destination object on close().
+ *
+ * <p>Streams that are closed before the first part is filled are uploaded directly to the
+ * destination object. Parts are buffered in memory, and writes block when the buffers of the stream
+ * reach {@link ParallelCompositeOutputStreamOptions#getMaxBufferSize()} until one of the part
+ * uploads completes.
+ *
+ * <p>If more than {@link GoogleCloudStorage#MAX_COMPOSE_OBJECTS} parts are written, they are
+ * composed into intermediate temporary objects in parallel, level by level, until they can be
+ * composed into the destination object. CRC32C checksum of the destination object is verified
+ * against the checksum combined from the checksums of the written parts.
+ *
+ * <p>Each part is uploaded with a single request straight from its buffer, without a resumable
+ * upload channel and its buffers.
+ *
+ * <p>Destination object generation is checked on stream creation and the destination object is not
+ * modified until close(), so a failed stream leaves existing destination object intact. Temporary
+ * objects are deleted on close(), but if the process dies mid-stream they have to be deleted
+ * manually.
+ */
+class GoogleHadoopParallelCompositeOutputStream extends OutputStream {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  // Prefix used for all temporary objects created by this stream.
+  public static final String TEMPFILE_PREFIX = "_GCS_PARALLEL_COMPOSITE_TEMPFILE_";
+
+  private static final int PART_UPLOAD_THREADS = 16;
+
+  private static final CreateObjectOptions TEMPFILE_CREATE_OPTIONS =
+      CreateObjectOptions.DEFAULT_NO_OVERWRITE;
+
+  // Part uploads and intermediate composes of all streams share this threadpool, that bounds number
+  // of concurrent part uploads in the process.
+  private static final ExecutorService PART_UPLOAD_THREADPOOL = createPartUploadThreadPool();
+
+  private final GoogleCloudStorage gcs;
+
+  // The final destination object for this stream, with the generation to overwrite.
+  private final StorageResourceId destinationId;
+
+  // Statistics tracker provided by the parent GoogleHadoopFileSystemBase for recording
+  // numbers of bytes written.
+  private final FileSystem.Statistics statistics;
+
+  // Metadata options to use on the final object.
+  private final CreateFileOptions fileOptions;
+
+  private final ParallelCompositeOutputStreamOptions options;
+
+  private final ExecutorService uploadThreadPool;
+
+  // Object name prefix of the temporary objects created by this stream.
+  private final String tempObjectNamePrefix;
+
+  // Limits number of part buffers that are allocated by this stream at the same time.
+  private final Semaphore partBufferPermits;
+
+  // Part buffers that were released by completed part uploads and can be reused.
+  private final Queue<byte[]> freePartBuffers = new ConcurrentLinkedQueue<>();
+
+  // Temporary objects that were successfully created and should be deleted on close.
+  private final Queue<StorageResourceId> tempObjects = new ConcurrentLinkedQueue<>();
+
+  private final List<Future<Part>> partUploads = new ArrayList<>();
+
+  // Buffer of the part that is being written, null if the next write should allocate it.
+  private byte[] partBuffer;
+  private int partBufferPosition;
+
+  private int tempObjectCount;
+
+  private boolean closed = false;
+
+  GoogleHadoopParallelCompositeOutputStream(
+      GoogleHadoopFileSystemBase ghfs,
+      URI gcsPath,
+      FileSystem.Statistics statistics,
+      CreateFileOptions createFileOptions,
+      ParallelCompositeOutputStreamOptions options)
+      throws IOException {
+    this(ghfs, gcsPath, statistics, createFileOptions, options, PART_UPLOAD_THREADPOOL);
+  }
+
+  @VisibleForTesting
+  GoogleHadoopParallelCompositeOutputStream(
+      GoogleHadoopFileSystemBase ghfs,
+      URI gcsPath,
+      FileSystem.Statistics statistics,
+      CreateFileOptions createFileOptions,
+      ParallelCompositeOutputStreamOptions options,
+      ExecutorService uploadThreadPool)
+      throws IOException {
+    logger.atFiner().log(
+        "GoogleHadoopParallelCompositeOutputStream(gcsPath: %s, createFileOptions: %s,"
+            + " options: %s)",
+        gcsPath, createFileOptions, options);
+    this.gcs = ghfs.getGcsFs().getGcs();
+    this.destinationId = getDestinationId(gcs, gcsPath, createFileOptions);
+    this.statistics = statistics;
+    this.fileOptions = createFileOptions;
+    this.options = options;
+    this.uploadThreadPool = uploadThreadPool;
+    this.partBufferPermits =
+        new Semaphore((int) Math.min(options.getMaxBufferSize() / options.getPartSize(), 1024));
+
+    String objectName = destinationId.getObjectName();
+    int nameStart = objectName.lastIndexOf('/') + 1;
+    this.tempObjectNamePrefix =
+        String.format(
+            "%s%s%s.%s.",
+            objectName.substring(0, nameStart),
+            TEMPFILE_PREFIX,
+            objectName.substring(nameStart),
+            UUID.randomUUID());
+  }
+
+  private static ExecutorService createPartUploadThreadPool() {
+    ThreadPoolExecutor threadPool =
+        new ThreadPoolExecutor(
+            PART_UPLOAD_THREADS,
+            PART_UPLOAD_THREADS,
+            /* keepAliveTime= */ 30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("gcs-parallel-composite-upload-pool-%d")
+                .setDaemon(true)
+                .build());
+    threadPool.allowCoreThreadTimeOut(true);
+    return threadPool;
+  }
+
+  /**
+   * Validates that the destination object can be created and returns its id with the generation
+   * that will be overwritten by the final compose, or {@code 0} if it does not exist.
+   */
+  private static StorageResourceId getDestinationId(
+      GoogleCloudStorage gcs, URI gcsPath, CreateFileOptions createFileOptions) throws IOException {
+    StorageResourceId resourceId =
+        StorageResourceId.fromUriPath(gcsPath, /* allowEmptyObjectName= */ false);
+    if (resourceId.isDirectory()) {
+      throw new IOException(
+          String.format(
+              "Cannot create a file whose name looks like a directory: '%s'", resourceId));
+    }
+    if (createFileOptions.isEnsureNoDirectoryConflict()
+        && gcs.getItemInfo(resourceId.toDirectoryId()).exists()) {
+      throw new FileAlreadyExistsException("A directory with that name exists: " + gcsPath);
+    }
+
+    long generationId = createFileOptions.getOverwriteGenerationId();
+    if (generationId == StorageResourceId.UNKNOWN_GENERATION_ID) {
+      GoogleCloudStorageItemInfo itemInfo = gcs.getItemInfo(resourceId);
+      if (itemInfo.exists() && !createFileOptions.isOverwriteExisting()) {
+        throw new FileAlreadyExistsException(String.format("'%s' already exists", gcsPath));
+      }
+      generationId = itemInfo.exists() ? itemInfo.getContentGeneration() : 0;
+    }
+    return new StorageResourceId(
+        resourceId.getBucketName(), resourceId.getObjectName(), generationId);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    throwIfNotOpen();
+    ensurePartBufferAvailable();
+    partBuffer[partBufferPosition++] = (byte) b;
+    statistics.incrementBytesWritten(1);
+    statistics.incrementWriteOps(1);
+  }
+
+  @Override
+  public void write(byte[] b, int offset, int len) throws IOException {
+    throwIfNotOpen();
+    int bytesWritten = 0;
+    while (bytesWritten < len) {
+      ensurePartBufferAvailable();
+      int bytesToCopy = Math.min(len - bytesWritten, partBuffer.length - partBufferPosition);
+      System.arraycopy(b, offset + bytesWritten, partBuffer, partBufferPosition, bytesToCopy);
+      partBufferPosition += bytesToCopy;
+      bytesWritten += bytesToCopy;
+    }
+    statistics.incrementBytesWritten(len);
+    statistics.incrementWriteOps(1);
+  }
+
+  /**
+   * Makes sure that {@link #partBuffer} has space for at least one byte, submitting the full part
+   * for upload if necessary. Full parts are uploaded lazily, so streams that fill exactly one part
+   * are still uploaded directly to the destination object.
+   */
+  private void ensurePartBufferAvailable() throws IOException {
+    if (partBuffer != null && partBufferPosition == partBuffer.length) {
+      submitPartUpload();
+    }
+    if (partBuffer == null) {
+      throwIfPartUploadFailed();
+      try {
+        partBufferPermits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for part upload: " + e);
+      }
+      byte[] buffer = freePartBuffers.poll();
+      partBuffer = buffer == null ? new byte[options.getPartSize()] : buffer;
+      partBufferPosition = 0;
+    }
+  }
+
+  private void submitPartUpload() {
+    byte[] buffer = partBuffer;
+    int length = partBufferPosition;
+    StorageResourceId partId = nextTempObjectId();
+    logger.atFiner().log("Submitting upload of %s bytes part to '%s'", length, partId);
+    partUploads.add(
+        uploadThreadPool.submit(
+            () -> {
+              try {
+                int crc32c = upload(toNewObjectId(partId), TEMPFILE_CREATE_OPTIONS, buffer, length);
+                tempObjects.add(partId);
+                return Part.create(length, crc32c, partId);
+              } finally {
+                freePartBuffers.add(buffer);
+                partBufferPermits.release();
+              }
+            }));
+    partBuffer = null;
+    partBufferPosition = 0;
+  }
+
+  /**
+   * Uploads data to the object with a single request and returns its verified CRC32C checksum.
+   *
+   * <p>Data is sent directly from the part buffer, so uploads do not allocate write channel buffers
+   * outside of the {@link ParallelCompositeOutputStreamOptions#getMaxBufferSize()} limit.
+   */
+  private int upload(
+      StorageResourceId resourceId, CreateObjectOptions createOptions, byte[] data, int length)
+      throws IOException {
+    // Only the last part could be partially filled.
+    byte[] content = length == data.length ? data : Arrays.copyOf(data, length);
+    int crc32c = Crc32c.hash(content, 0, length);
+    verifyCrc32c(gcs.createObject(resourceId, content, createOptions), crc32c);
+    return crc32c;
+  }
+
+  @Override
+  public void close() throws IOException {
+    logger.atFiner().log("close(%s)", destinationId);
+    if (closed) {
+      logger.atFiner().log("close(): Ignoring; stream already closed.");
+      return;
+    }
+    closed = true;
+    try {
+      if (partUploads.isEmpty()) {
+        byte[] data = partBuffer == null ? new byte[0] : partBuffer;
+        upload(
+            destinationId,
+            GoogleCloudStorageFileSystem.objectOptionsFromFileOptions(fileOptions),
+            data,
+            partBufferPosition);
+        return;
+      }
+      if (partBufferPosition > 0) {
+        submitPartUpload();
+      }
+      List<Part> parts = getAll(partUploads);
+      int crc32c = parts.get(0).getCrc32c();
+      for (Part part : parts.subList(1, parts.size())) {
+        crc32c = Crc32c.combine(crc32c, part.getCrc32c(), part.getLength());
+      }
+      GoogleCloudStorageItemInfo composedObject =
+          compose(Lists.transform(parts, Part::getResourceId));
+      verifyCrc32c(composedObject, crc32c);
+    } finally {
+      partBuffer = null;
+      deleteTempObjects();
+    }
+  }
+
+  /**
+   * Composes temporary objects into the destination object, composing them into intermediate
+   * temporary objects first if there are more than {@link GoogleCloudStorage#MAX_COMPOSE_OBJECTS}
+   * of them.
+   */
+  private GoogleCloudStorageItemInfo compose(List<StorageResourceId> sources) throws IOException {
+    return new ParallelComposer(gcs, uploadThreadPool, PART_UPLOAD_THREADS)
+        .compose(
+            sources,
+            destinationId,
+            GoogleCloudStorageFileSystem.objectOptionsFromFileOptions(fileOptions),
+            this::nextTempObjectId,
+            tempObjects);
+  }
+
+  private void verifyCrc32c(GoogleCloudStorageItemInfo itemInfo, int expectedCrc32c)
+      throws IOException {
+    byte[] crc32c =
+        itemInfo.getVerificationAttributes() == null
+            ? null
+            : itemInfo.getVerificationAttributes().getCrc32c();
+    if (crc32c != null && Ints.fromByteArray(crc32c) != expectedCrc32c) {
+      throw new IOException(
+          String.format(
+              "CRC32C checksum mismatch for '%s': expected %08x, but was %08x",
+              itemInfo.getResourceId(), expectedCrc32c, Ints.fromByteArray(crc32c)));
+    }
+  }
+
+  private void deleteTempObjects() throws IOException {
+    // Wait for all part uploads to finish, so all created temporary objects are deleted.
+    for (Future<Part> partUpload : partUploads) {
+      try {
+        partUpload.get();
+      } catch (ExecutionException e) {
+        logger.atFiner().withCause(e).log("Part upload failed for '%s'", destinationId);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+            String.format("Interrupted while deleting temporary objects for '%s'", destinationId));
+      }
+    }
+    if (tempObjects.isEmpty()) {
+      return;
+    }
+    logger.atFiner().log(
+        "Deleting %s temporary objects for '%s'", tempObjects.size(), destinationId);
+    try {
+      gcs.deleteObjects(ImmutableList.copyOf(tempObjects));
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log(
+          "Failed to delete temporary objects for '%s' with '%s' prefix",
+          destinationId, tempObjectNamePrefix);
+    }
+  }
+
+  private void throwIfPartUploadFailed() throws IOException {
+    for (Future<Part> partUpload : partUploads) {
+      if (partUpload.isDone()) {
+        getAll(ImmutableList.of(partUpload));
+      }
+    }
+  }
+
+  private <T> List<T> getAll(List<Future<T>> futures) throws IOException {
+    List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        throw new IOException(
+            String.format("Failed to upload or compose parts of '%s'", destinationId),
+            e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+            String.format("Interrupted while uploading parts of '%s'", destinationId));
+      }
+    }
+    return results;
+  }
+
+  private StorageResourceId nextTempObjectId() {
+    return new StorageResourceId(
+        destinationId.getBucketName(), tempObjectNamePrefix + tempObjectCount++);
+  }
+
+  /** Returns id that can be used to create the object only if it does not exist yet. */
+  private static StorageResourceId toNewObjectId(StorageResourceId resourceId) {
+    return new StorageResourceId(
+        resourceId.getBucketName(), resourceId.getObjectName(), /* generationId= */ 0);
+  }
+
+  private void throwIfNotOpen() throws IOException {
+    if (closed) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  /** Temporary object with a part of the data written to the stream. */
+  @AutoValue
+  abstract static class Part {
+    static Part create(long length, int crc32c, StorageResourceId resourceId) {
+      return new AutoValue_GoogleHadoopParallelCompositeOutputStream_Part(
+          length, crc32c, resourceId);
+    }
+
+    abstract long getLength();
+
+    abstract int getCrc32c();
+
+    abstract StorageResourceId getResourceId();
+  }
+}
@@ -28,7 +28,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.channels.ClosedChannelException;
-import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -301,18 +300,15 @@ public class GoogleHadoopSyncableOutputStream extends OutputStream implements Sy
   private void commitCurrentFile() throws IOException {
     // TODO(user): Optimize the case where 0 bytes have been written in the current component
     // to return early.
-    WritableByteChannel innerChannel = curDelegate.getInternalChannel();
     curDelegate.close();
 
     long generationId = StorageResourceId.UNKNOWN_GENERATION_ID;
-    if (innerChannel instanceof GoogleCloudStorageItemInfo.Provider) {
-      generationId = ((GoogleCloudStorageItemInfo.Provider) innerChannel)
-          .getItemInfo().getContentGeneration();
-      logger.atFiner().log(
-          "innerChannel is GoogleCloudStorageItemInfo.Provider; closed generationId %s.",
-          generationId);
+    GoogleCloudStorageItemInfo itemInfo = curDelegate.getItemInfo();
+    if (itemInfo != null) {
+      generationId = itemInfo.getContentGeneration();
+      logger.atFiner().log("Closed current file with generationId %s.", generationId);
     } else {
-      logger.atFiner().log("innerChannel NOT instanceof provider: %s", innerChannel.getClass());
+      logger.atFiner().log("Closed current file without item info: %s", curGcsPath);
     }
 
     // On the first component, curGcsPath will equal finalGcsPath, and no compose() call is
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.auto.value.AutoValue;
+
+/** Options for the {@link GoogleHadoopParallelCompositeOutputStream}. */
+@AutoValue
+public abstract class ParallelCompositeOutputStreamOptions {
+
+  public static final int PART_SIZE_DEFAULT = 32 * 1024 * 1024;
+
+  public static final long MAX_BUFFER_SIZE_DEFAULT = 128 * 1024 * 1024;
+
+  public static final ParallelCompositeOutputStreamOptions DEFAULT = builder().build();
+
+  public static Builder builder() {
+    return new AutoValue_ParallelCompositeOutputStreamOptions.Builder()
+        .setPartSize(PART_SIZE_DEFAULT)
+        .setMaxBufferSize(MAX_BUFFER_SIZE_DEFAULT);
+  }
+
+  public abstract Builder toBuilder();
+
+  /** See {@link Builder#setPartSize} */
+  public abstract int getPartSize();
+
+  /** See {@link Builder#setMaxBufferSize} */
+  public abstract long getMaxBufferSize();
+
+  /** Mutable builder for the {@link ParallelCompositeOutputStreamOptions}. */
+  @AutoValue.Builder
+  public abstract static class Builder {
+
+    /** Size in bytes of the parts that are uploaded concurrently as temporary objects. */
+    public abstract Builder setPartSize(int partSize);
+
+    /**
+     * Maximum size in bytes of the buffers allocated by a single output stream for parts that are
+     * being written or uploaded. Writes block when this limit is reached until a part upload
+     * completes.
+     */
+    public abstract Builder setMaxBufferSize(long maxBufferSize);
+
+    abstract ParallelCompositeOutputStreamOptions autoBuild();
+
+    public ParallelCompositeOutputStreamOptions build() {
+      ParallelCompositeOutputStreamOptions options = autoBuild();
+      checkState(
+          options.getPartSize() > 0, "partSize must be positive! Got %s", options.getPartSize());
+      checkState(
+          options.getMaxBufferSize() >= options.getPartSize(),
+          "maxBufferSize must not be less than partSize (%s)! Got %s",
+          options.getPartSize(),
+          options.getMaxBufferSize());
+      return options;
+    }
+  }
+}
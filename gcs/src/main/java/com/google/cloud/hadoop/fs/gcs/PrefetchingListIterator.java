@@ -0,0 +1,184 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+import com.google.cloud.hadoop.gcsio.FileInfo;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.apache.hadoop.fs.RemoteIterator;
+
+/**
+ * Iterator over listing pages that converts {@link FileInfo}s into file statuses one by one, so
+ * that only a bounded number of listing pages is held in memory.
+ *
+ * <p>Up to {@code prefetchPages} next pages are fetched asynchronously while the caller processes
+ * the current page. Because each page request needs the token from the previous page, prefetched
+ * pages are fetched one after another, without blocking any thread when the caller is slow.
+ */
+class PrefetchingListIterator<T> implements RemoteIterator<T> {
+
+  /** Fetches a listing page, starting from the first page for a {@code null} page token. */
+  @FunctionalInterface
+  interface PageFetcher {
+    ListPage<FileInfo> fetch(@Nullable String pageToken) throws IOException;
+  }
+
+  /** Converts a listed {@link FileInfo} into an iterated item. */
+  @FunctionalInterface
+  interface FileInfoConverter<T> {
+    T convert(FileInfo fileInfo) throws IOException;
+  }
+
+  private final PageFetcher fetcher;
+  private final Predicate<FileInfo> filter;
+  private final FileInfoConverter<T> converter;
+  private final int prefetchPages;
+  private final Executor executor;
+
+  /** Pages that follow the current page, a page completes with {@code null} after the last page. */
+  private final Deque<CompletableFuture<ListPage<FileInfo>>> nextPages = new ArrayDeque<>();
+
+  /** The page that is being iterated, {@code null} after the last page. */
+  @Nullable private ListPage<FileInfo> currentPage;
+
+  private Iterator<FileInfo> currentItems = Collections.emptyIterator();
+
+  @Nullable private T nextItem;
+
+  /**
+   * Creates an iterator, fetching the first page synchronously so that listing failures are thrown
+   * to the caller.
+   */
+  PrefetchingListIterator(
+      PageFetcher fetcher,
+      Predicate<FileInfo> filter,
+      FileInfoConverter<T> converter,
+      int prefetchPages,
+      Executor executor)
+      throws IOException {
+    checkArgument(prefetchPages >= 0, "prefetchPages should not be negative: %s", prefetchPages);
+    this.fetcher = checkNotNull(fetcher, "fetcher should not be null");
+    this.filter = checkNotNull(filter, "filter should not be null");
+    this.converter = checkNotNull(converter, "converter should not be null");
+    this.prefetchPages = prefetchPages;
+    this.executor = checkNotNull(executor, "executor should not be null");
+    setCurrentPage(fetcher.fetch(/* pageToken= */ null));
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    while (nextItem == null) {
+      if (currentItems.hasNext()) {
+        FileInfo fileInfo = currentItems.next();
+        if (filter.test(fileInfo)) {
+          nextItem = converter.convert(fileInfo);
+        }
+      } else if (currentPage == null || !nextPage()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public T next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more items in the listing");
+    }
+    T item = nextItem;
+    nextItem = null;
+    return item;
+  }
+
+  /** Advances to the next page, returns {@code false} if there are no more pages. */
+  private boolean nextPage() throws IOException {
+    CompletableFuture<ListPage<FileInfo>> nextPage = nextPages.poll();
+    if (nextPage != null) {
+      setCurrentPage(getPage(nextPage));
+    } else {
+      String pageToken = currentPage.getNextPageToken();
+      setCurrentPage(pageToken == null ? null : fetcher.fetch(pageToken));
+    }
+    return currentPage != null;
+  }
+
+  private void setCurrentPage(@Nullable ListPage<FileInfo> page) {
+    currentPage = page;
+    currentItems = page == null ? Collections.emptyIterator() : page.getItems().iterator();
+    if (page == null || page.getNextPageToken() == null) {
+      // Pages that are already prefetched will complete with null.
+      return;
+    }
+    // Prefetch pages after the last requested page, each one when the previous one is fetched.
+    CompletableFuture<ListPage<FileInfo>> lastPage =
+        nextPages.isEmpty() ? completedFuture(page) : nextPages.getLast();
+    while (nextPages.size() < prefetchPages) {
+      lastPage = lastPage.thenCompose(this::fetchNextPageAsync);
+      nextPages.add(lastPage);
+    }
+  }
+
+  private CompletableFuture<ListPage<FileInfo>> fetchNextPageAsync(
+      @Nullable ListPage<FileInfo> page) {
+    if (page == null || page.getNextPageToken() == null) {
+      return completedFuture(null);
+    }
+    String pageToken = page.getNextPageToken();
+    return supplyAsync(
+        () -> {
+          try {
+            return fetcher.fetch(pageToken);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        },
+        executor);
+  }
+
+  private static ListPage<FileInfo> getPage(CompletableFuture<ListPage<FileInfo>> page)
+      throws IOException {
+    try {
+      return page.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (InterruptedIOException)
+          new InterruptedIOException("Interrupted while waiting for listing page").initCause(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw cause instanceof IOException
+          ? (IOException) cause
+          : new IOException("Failed to fetch listing page", cause);
+    }
+  }
+}
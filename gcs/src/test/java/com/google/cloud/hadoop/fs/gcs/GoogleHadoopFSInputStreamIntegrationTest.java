@@ -19,13 +19,23 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemIntegrationHelper;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
+import com.google.cloud.hadoop.gcsio.VectoredIORange;
+import com.google.common.collect.ImmutableList;
 import java.io.EOFException;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -93,6 +103,28 @@ public class GoogleHadoopFSInputStreamIntegrationTest {
     assertThat(value).isEqualTo(expected);
   }
 
+  @Test
+  public void read_directByteBuffer() throws Exception {
+    URI path = gcsFsIHelper.getUniqueObjectUri(this.getClass(), "read_directByteBuffer");
+
+    GoogleHadoopFileSystem ghfs =
+        GoogleHadoopFileSystemIntegrationHelper.createGhfs(
+            path, GoogleHadoopFileSystemIntegrationHelper.getTestConfig());
+
+    String testContent = "test content";
+    gcsFsIHelper.writeTextFile(path, testContent);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(testContent.length() + 1);
+    try (FSDataInputStream in = ghfs.open(new Path(path))) {
+      in.seek(2);
+      while (in.read(buffer) > 0) {}
+    }
+
+    buffer.flip();
+    assertThat(StandardCharsets.UTF_8.decode(buffer).toString())
+        .isEqualTo(testContent.substring(2));
+  }
+
   @Test
   public void testAvailable() throws Exception {
     URI path = gcsFsIHelper.getUniqueObjectUri(this.getClass(), "testAvailable");
@@ -111,6 +143,116 @@ public class GoogleHadoopFSInputStreamIntegrationTest {
     assertThrows(ClosedChannelException.class, in::available);
   }
 
+  @Test
+  public void readVectored_readsAllRangesWithoutChangingPosition() throws Exception {
+    URI path = gcsFsIHelper.getUniqueObjectUri(this.getClass(), "readVectored");
+
+    GoogleHadoopFileSystem ghfs =
+        GoogleHadoopFileSystemIntegrationHelper.createGhfs(
+            path, GoogleHadoopFileSystemIntegrationHelper.getTestConfig());
+
+    String testContent = "test content for vectored read";
+    gcsFsIHelper.writeTextFile(path, testContent);
+    byte[] testBytes = testContent.getBytes(StandardCharsets.UTF_8);
+
+    List<VectoredIORange> ranges =
+        ImmutableList.of(
+            new VectoredIORange(0, 4), new VectoredIORange(5, 7), new VectoredIORange(24, 6));
+
+    try (GoogleHadoopFSInputStream in = createGhfsInputStream(ghfs, path)) {
+      in.seek(2);
+      in.readVectored(ranges, ByteBuffer::allocate);
+
+      for (VectoredIORange range : ranges) {
+        ByteBuffer data = range.getData().get();
+        assertThat(data.remaining()).isEqualTo(range.getLength());
+        byte[] actual = new byte[data.remaining()];
+        data.get(actual);
+        assertThat(actual)
+            .isEqualTo(
+                Arrays.copyOfRange(testBytes, (int) range.getOffset(), (int) range.getEnd()));
+      }
+      assertThat(in.getPos()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  public void read_concurrentPositionalReads_doNotChangePosition() throws Exception {
+    URI path = gcsFsIHelper.getUniqueObjectUri(this.getClass(), "read_concurrentPositionalReads");
+
+    GoogleHadoopFileSystem ghfs =
+        GoogleHadoopFileSystemIntegrationHelper.createGhfs(
+            path, GoogleHadoopFileSystemIntegrationHelper.getTestConfig());
+
+    String testContent = "test content for concurrent positional reads";
+    gcsFsIHelper.writeTextFile(path, testContent);
+    byte[] testBytes = testContent.getBytes(StandardCharsets.UTF_8);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (GoogleHadoopFSInputStream in = createGhfsInputStream(ghfs, path)) {
+      in.seek(3);
+      List<Future<byte[]>> reads = new ArrayList<>();
+      for (int i = 0; i < testBytes.length; i += 5) {
+        int position = i;
+        reads.add(
+            executor.submit(
+                () -> {
+                  byte[] value = new byte[Math.min(5, testBytes.length - position)];
+                  in.readFully(position, value);
+                  return value;
+                }));
+      }
+
+      for (int i = 0; i < reads.size(); i++) {
+        int position = i * 5;
+        assertThat(reads.get(i).get())
+            .isEqualTo(
+                Arrays.copyOfRange(testBytes, position, Math.min(position + 5, testBytes.length)));
+      }
+      assertThat(in.read(testBytes.length, new byte[1], 0, 1)).isEqualTo(-1);
+      assertThat(in.getPos()).isEqualTo(3);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void read_smallPositionalReads_acrossMinRangeRequests() throws Exception {
+    URI path = gcsFsIHelper.getUniqueObjectUri(this.getClass(), "read_smallPositionalReads");
+
+    GoogleHadoopFileSystem ghfs =
+        GoogleHadoopFileSystemIntegrationHelper.createGhfs(
+            path, GoogleHadoopFileSystemIntegrationHelper.getTestConfig());
+
+    String testContent = "test content for small positional reads";
+    gcsFsIHelper.writeTextFile(path, testContent);
+    byte[] testBytes = testContent.getBytes(StandardCharsets.UTF_8);
+
+    GoogleCloudStorageReadOptions options =
+        ghfs.getGcsFs()
+            .getOptions()
+            .getCloudStorageOptions()
+            .getReadChannelOptions()
+            .toBuilder()
+            .setMinRangeRequestSize(8)
+            .build();
+    try (GoogleHadoopFSInputStream in =
+        new GoogleHadoopFSInputStream(
+            ghfs, path, options, new FileSystem.Statistics(ghfs.getScheme()))) {
+      // Reads within, across the end of and after the last positional read range.
+      for (int position : new int[] {2, 4, 7, 9, 20, testBytes.length - 3}) {
+        byte[] value = new byte[3];
+        in.readFully(position, value);
+        assertThat(value).isEqualTo(Arrays.copyOfRange(testBytes, position, position + 3));
+      }
+      byte[] value = new byte[10];
+      assertThat(in.read(testBytes.length - 2, value, 0, value.length)).isEqualTo(2);
+      assertThat(Arrays.copyOf(value, 2))
+          .isEqualTo(Arrays.copyOfRange(testBytes, testBytes.length - 2, testBytes.length));
+      assertThat(in.getPos()).isEqualTo(0);
+    }
+  }
+
   private static GoogleHadoopFSInputStream createGhfsInputStream(
       GoogleHadoopFileSystem ghfs, URI path) throws IOException {
     GoogleCloudStorageReadOptions options =
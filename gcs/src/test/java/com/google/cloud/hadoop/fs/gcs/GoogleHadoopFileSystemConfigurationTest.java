@@ -24,6 +24,7 @@ import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_GRPC_UPLOAD_BUFFERED_REQUESTS;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_GRPC_WRITE_TIMEOUT_MS;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_HTTP_HEADERS;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_BUFFER_POOL_DIRECT_ENABLE;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_ROOT_URL;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_SERVICE_PATH;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.GROUP_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
@@ -82,34 +83,56 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.grpc.enable", false);
           put("fs.gs.grpc.read.timeout.ms", 20 * 60 * 1000L);
           put("fs.gs.grpc.read.metadata.timeout.ms", 60 * 1000L);
+          put("fs.gs.grpc.read.parallel.min.object.size", 1024 * 1024 * 1024L);
+          put("fs.gs.grpc.read.parallel.streams", 0);
           put("fs.gs.grpc.server.address", null);
           put("fs.gs.grpc.write.buffered.requests", 20L);
           put("fs.gs.grpc.write.timeout.ms", 10 * 60 * 1000L);
+          put("fs.gs.http.checksums.enable", false);
           put("fs.gs.http.connect-timeout", 20_000);
           put("fs.gs.http.max.retry", 10);
           put("fs.gs.http.read-timeout", 20_000);
           put("fs.gs.implicit.dir.repair.enable", true);
+          put("fs.gs.inputstream.block.cache.block.size", 1024 * 1024);
+          put("fs.gs.inputstream.block.cache.max.size", 0L);
           put("fs.gs.inputstream.fadvise", Fadvise.AUTO);
           put("fs.gs.inputstream.fast.fail.on.not.found.enable", true);
+          put("fs.gs.inputstream.footer.cache.max.size", 0L);
           put("fs.gs.inputstream.inplace.seek.limit", 8 * 1024 * 1024L);
           put("fs.gs.inputstream.min.range.request.size", 2 * 1024 * 1024);
+          put("fs.gs.inputstream.read.ahead.block.size", 8 * 1024 * 1024);
+          put("fs.gs.inputstream.read.ahead.depth", 0);
           put("fs.gs.inputstream.support.gzip.encoding.enable", false);
           put("fs.gs.io.buffersize.write", 64 * 1024 * 1024);
           put("fs.gs.lazy.init.enable", false);
           put("fs.gs.list.max.items.per.call", 1024L);
+          put("fs.gs.list.prefetch.pages", 1);
           put("fs.gs.marker.file.pattern", null);
           put("fs.gs.max.requests.per.batch", 15L);
           put("fs.gs.max.wait.for.empty.object.creation.ms", 3_000);
+          put("fs.gs.outputstream.buffer.pool.direct.enable", false);
+          put("fs.gs.outputstream.buffer.pool.max.size", 0L);
           put("fs.gs.outputstream.buffer.size", 8 * 1024 * 1024);
           put("fs.gs.outputstream.direct.upload.enable", false);
+          put("fs.gs.outputstream.max.concurrent.uploads", 0);
+          put("fs.gs.outputstream.max.upload.buffer.size", 0L);
+          put("fs.gs.outputstream.parallel.composite.max.buffer.size", 128L * 1024 * 1024);
+          put("fs.gs.outputstream.parallel.composite.part.size", 32 * 1024 * 1024);
           put("fs.gs.outputstream.pipe.buffer.size", 1024 * 1024);
           put("fs.gs.outputstream.pipe.type", PipeType.IO_STREAM_PIPE);
+          put("fs.gs.outputstream.small.upload.threshold", 0);
           put("fs.gs.outputstream.sync.min.interval.ms", 0);
           put("fs.gs.outputstream.type", OutputStreamType.BASIC);
           put("fs.gs.outputstream.upload.cache.size", 0);
           put("fs.gs.outputstream.upload.chunk.size", 64 * 1024 * 1024);
           put("fs.gs.performance.cache.enable", false);
+          put("fs.gs.performance.cache.listing.enable", false);
+          put("fs.gs.performance.cache.listing.max.bytes", 64 * 1024 * 1024L);
+          put("fs.gs.performance.cache.max.entries", 100_000L);
           put("fs.gs.performance.cache.max.entry.age.ms", 5_000L);
+          put("fs.gs.performance.cache.not.found.enable", false);
+          put("fs.gs.performance.cache.shared.file", null);
+          put("fs.gs.performance.cache.shared.max.entries", 65_536);
           put("fs.gs.project.id", null);
           put("fs.gs.reported.permissions", "700");
           put("fs.gs.requester.pays.buckets", ImmutableList.of());
@@ -120,6 +143,8 @@ public class GoogleHadoopFileSystemConfigurationTest {
           put("fs.gs.storage.http.headers.", ImmutableMap.of());
           put("fs.gs.storage.root.url", "https://storage.googleapis.com/");
           put("fs.gs.storage.service.path", "storage/v1/");
+          put("fs.gs.vectored.read.merged.range.max.size", 8 * 1024 * 1024);
+          put("fs.gs.vectored.read.min.range.seek.size", 4 * 1024);
           put("fs.gs.working.dir", "/");
         }
       };
@@ -210,6 +235,16 @@ public class GoogleHadoopFileSystemConfigurationTest {
     assertThrows(IllegalArgumentException.class, optionsBuilder::build);
   }
 
+  @Test
+  public void testBufferPoolDirectEnabled_throwsExceptionWithoutBufferPoolMaxSize() {
+    Configuration config = new Configuration();
+    config.setBoolean(GCS_OUTPUT_STREAM_BUFFER_POOL_DIRECT_ENABLE.getKey(), true);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> GoogleHadoopFileSystemConfiguration.getGcsFsOptionsBuilder(config).build());
+  }
+
   @Test
   public void testHttpHeadersProperties_singleHeader() {
     Configuration config = new Configuration();
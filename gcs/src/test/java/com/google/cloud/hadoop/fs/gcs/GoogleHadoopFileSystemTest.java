@@ -16,6 +16,7 @@ package com.google.cloud.hadoop.fs.gcs;
 
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_CONFIG_PREFIX;
 import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_LAZY_INITIALIZATION_ENABLE;
+import static com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage.getInMemoryGoogleCloudStorageOptions;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.GROUP_IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.IMPERSONATION_SERVICE_ACCOUNT_SUFFIX;
 import static com.google.cloud.hadoop.util.HadoopCredentialConfiguration.SERVICE_ACCOUNT_JSON_KEYFILE_SUFFIX;
@@ -31,11 +32,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -341,6 +348,47 @@ public class GoogleHadoopFileSystemTest extends GoogleHadoopFileSystemIntegratio
     ghfs.initialize(gsUri, config);
   }
 
+  @Test
+  public void testListStatusIterators_multipleListPages() throws Exception {
+    GoogleHadoopFileSystem myGhfs =
+        GoogleHadoopFileSystemTestHelper.createInMemoryGoogleHadoopFileSystem(
+            getInMemoryGoogleCloudStorageOptions().toBuilder().setMaxListItemsPerCall(2).build());
+    Path dir = new Path(myGhfs.getUri().resolve("/list-iterators-dir"));
+    Path file = new Path(dir, "file-0");
+    for (int i = 0; i < 5; i++) {
+      myGhfs.create(new Path(dir, "file-" + i)).close();
+    }
+    myGhfs.mkdirs(new Path(dir, "subdir"));
+
+    List<FileStatus> expectedStatuses = Arrays.asList(myGhfs.listStatus(dir));
+    assertThat(expectedStatuses).hasSize(6);
+
+    List<FileStatus> statuses = new ArrayList<>();
+    RemoteIterator<FileStatus> statusIterator = myGhfs.listStatusIterator(dir);
+    while (statusIterator.hasNext()) {
+      statuses.add(statusIterator.next());
+    }
+    assertThat(statuses).containsExactlyElementsIn(expectedStatuses).inOrder();
+
+    List<LocatedFileStatus> locatedStatuses = new ArrayList<>();
+    RemoteIterator<LocatedFileStatus> locatedIterator = myGhfs.listLocatedStatus(dir);
+    while (locatedIterator.hasNext()) {
+      locatedStatuses.add(locatedIterator.next());
+    }
+    assertThat(locatedStatuses).containsExactlyElementsIn(expectedStatuses).inOrder();
+    for (LocatedFileStatus status : locatedStatuses) {
+      assertThat(status.getBlockLocations() == null).isEqualTo(status.isDirectory());
+    }
+
+    RemoteIterator<FileStatus> fileIterator = myGhfs.listStatusIterator(file);
+    assertThat(fileIterator.next().getPath()).isEqualTo(myGhfs.makeQualified(file));
+    assertThat(fileIterator.hasNext()).isFalse();
+
+    assertThrows(
+        FileNotFoundException.class,
+        () -> myGhfs.listStatusIterator(new Path(dir, "non-existent")));
+  }
+
   // -----------------------------------------------------------------
   // Inherited tests that we suppress because their behavior differs
   // from the base class.
@@ -18,6 +18,7 @@ import static com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage.g
 
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystem;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageFileSystemOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
 import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
 import java.io.IOException;
 import java.net.URI;
@@ -39,11 +40,20 @@ public class GoogleHadoopFileSystemTestHelper {
    * store.
    */
   public static GoogleHadoopFileSystem createInMemoryGoogleHadoopFileSystem() throws IOException {
+    return createInMemoryGoogleHadoopFileSystem(getInMemoryGoogleCloudStorageOptions());
+  }
+
+  /**
+   * Creates an instance of a bucket-rooted GoogleHadoopFileSystemBase using an in-memory underlying
+   * store with the provided storage options.
+   */
+  public static GoogleHadoopFileSystem createInMemoryGoogleHadoopFileSystem(
+      GoogleCloudStorageOptions storageOptions) throws IOException {
     GoogleCloudStorageFileSystem memoryGcsFs =
         new GoogleCloudStorageFileSystem(
             InMemoryGoogleCloudStorage::new,
             GoogleCloudStorageFileSystemOptions.builder()
-                .setCloudStorageOptions(getInMemoryGoogleCloudStorageOptions())
+                .setCloudStorageOptions(storageOptions)
                 .build());
     GoogleHadoopFileSystem ghfs = new GoogleHadoopFileSystem(memoryGcsFs);
     initializeInMemoryFileSystem(ghfs, IN_MEMORY_TEST_BUCKET);
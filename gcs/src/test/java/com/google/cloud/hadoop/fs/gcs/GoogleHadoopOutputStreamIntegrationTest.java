@@ -57,8 +57,10 @@ public class GoogleHadoopOutputStreamIntegrationTest {
     return Arrays.asList(
         new Object[] {OutputStreamType.BASIC, PipeType.IO_STREAM_PIPE},
         new Object[] {OutputStreamType.BASIC, PipeType.NIO_CHANNEL_PIPE},
+        new Object[] {OutputStreamType.BASIC, PipeType.RING_BUFFER_PIPE},
         new Object[] {OutputStreamType.FLUSHABLE_COMPOSITE, PipeType.IO_STREAM_PIPE},
-        new Object[] {OutputStreamType.SYNCABLE_COMPOSITE, PipeType.IO_STREAM_PIPE});
+        new Object[] {OutputStreamType.SYNCABLE_COMPOSITE, PipeType.IO_STREAM_PIPE},
+        new Object[] {OutputStreamType.PARALLEL_COMPOSITE, PipeType.IO_STREAM_PIPE});
   }
 
   private final OutputStreamType outputStreamType;
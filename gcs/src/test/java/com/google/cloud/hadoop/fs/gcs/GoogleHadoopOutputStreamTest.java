@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_TYPE;
+import static com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage.getInMemoryGoogleCloudStorageOptions;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemBase.OutputStreamType;
+import com.google.cloud.hadoop.gcsio.CreateFileOptions;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageOptions;
+import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.util.Random;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link GoogleHadoopOutputStream} class with small upload threshold. */
+@RunWith(JUnit4.class)
+public class GoogleHadoopOutputStreamTest {
+
+  private static final int SMALL_UPLOAD_THRESHOLD = 100;
+
+  private GoogleHadoopFileSystemBase ghfs;
+
+  @Before
+  public void setUp() throws IOException {
+    GoogleCloudStorageOptions storageOptions = getInMemoryGoogleCloudStorageOptions();
+    ghfs =
+        GoogleHadoopFileSystemTestHelper.createInMemoryGoogleHadoopFileSystem(
+            storageOptions
+                .toBuilder()
+                .setWriteChannelOptions(
+                    AsyncWriteChannelOptions.builder()
+                        .setSmallUploadThreshold(SMALL_UPLOAD_THRESHOLD)
+                        .build())
+                .build());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    ghfs.close();
+  }
+
+  @Test
+  public void close_dataNotExceedingThreshold_uploadsInSingleRequest() throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "small.bin");
+    byte[] data = randomBytes(SMALL_UPLOAD_THRESHOLD);
+
+    GoogleHadoopOutputStream out = createOutputStream(objectPath);
+    out.write(data, 0, data.length - 1);
+    out.write(data[data.length - 1]);
+
+    assertThat(out.getItemInfo()).isNull();
+    assertThat(ghfs.exists(objectPath)).isFalse();
+
+    out.close();
+
+    assertThat(out.getItemInfo().getSize()).isEqualTo(data.length);
+    assertThat(readFile(objectPath)).isEqualTo(data);
+  }
+
+  @Test
+  public void write_dataExceedingThreshold_startsResumableUploadWithBufferedData()
+      throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "large.bin");
+    byte[] data = randomBytes(SMALL_UPLOAD_THRESHOLD * 3 + 7);
+
+    GoogleHadoopOutputStream out = createOutputStream(objectPath);
+    for (int i = 0; i < data.length; i += 9) {
+      out.write(data, i, Math.min(9, data.length - i));
+    }
+    out.close();
+
+    assertThat(out.getItemInfo().getSize()).isEqualTo(data.length);
+    assertThat(readFile(objectPath)).isEqualTo(data);
+  }
+
+  @Test
+  public void create_existingFileWithoutOverwrite_throwsFileAlreadyExistsException()
+      throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "existing.bin");
+    ghfs.create(objectPath).close();
+
+    assertThrows(
+        FileAlreadyExistsException.class, () -> ghfs.create(objectPath, /* overwrite= */ false));
+  }
+
+  @Test
+  public void hsync_syncableCompositeStream_composesSmallUploads() throws Exception {
+    ghfs.getConf().setEnum(GCS_OUTPUT_STREAM_TYPE.getKey(), OutputStreamType.SYNCABLE_COMPOSITE);
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "syncable.bin");
+    byte[] data = randomBytes(10);
+
+    try (FSDataOutputStream out = ghfs.create(objectPath)) {
+      out.write(data, 0, 5);
+      out.hsync();
+      out.write(data, 5, 5);
+    }
+
+    assertThat(readFile(objectPath)).isEqualTo(data);
+  }
+
+  private GoogleHadoopOutputStream createOutputStream(Path path) throws IOException {
+    return new GoogleHadoopOutputStream(
+        ghfs,
+        ghfs.getGcsPath(path),
+        new FileSystem.Statistics(ghfs.getScheme()),
+        CreateFileOptions.DEFAULT_OVERWRITE);
+  }
+
+  private byte[] readFile(Path path) throws IOException {
+    try (FSDataInputStream in = ghfs.open(path)) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
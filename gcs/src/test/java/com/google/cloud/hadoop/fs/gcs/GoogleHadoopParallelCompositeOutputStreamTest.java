@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_MAX_BUFFER_SIZE;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_PART_SIZE;
+import static com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemConfiguration.GCS_OUTPUT_STREAM_TYPE;
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.hadoop.fs.gcs.GoogleHadoopFileSystemBase.OutputStreamType;
+import com.google.cloud.hadoop.gcsio.CreateFileOptions;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileAlreadyExistsException;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link GoogleHadoopParallelCompositeOutputStream} class. */
+@RunWith(JUnit4.class)
+public class GoogleHadoopParallelCompositeOutputStreamTest {
+
+  private GoogleHadoopFileSystemBase ghfs;
+
+  @Before
+  public void setUp() throws IOException {
+    ghfs = GoogleHadoopFileSystemTestHelper.createInMemoryGoogleHadoopFileSystem();
+    ghfs.getConf().setEnum(GCS_OUTPUT_STREAM_TYPE.getKey(), OutputStreamType.PARALLEL_COMPOSITE);
+    ghfs.getConf().setInt(GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_PART_SIZE.getKey(), 10);
+    ghfs.getConf().setLong(GCS_OUTPUT_STREAM_PARALLEL_COMPOSITE_MAX_BUFFER_SIZE.getKey(), 30);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    ghfs.close();
+  }
+
+  @Test
+  public void write_lessThanPartSize_uploadsDirectly() throws Exception {
+    Path dirPath = new Path(ghfs.getFileSystemRoot(), "small");
+    Path objectPath = new Path(dirPath, "object.bin");
+    byte[] data = randomBytes(10);
+
+    try (FSDataOutputStream out = ghfs.create(objectPath)) {
+      out.write(data);
+    }
+
+    assertThat(readFile(objectPath)).isEqualTo(data);
+    assertThat(listNames(dirPath)).containsExactly("object.bin");
+  }
+
+  @Test
+  public void write_moreThanMaxComposeObjectsParts_composesAndDeletesTemporaryObjects()
+      throws Exception {
+    Path dirPath = new Path(ghfs.getFileSystemRoot(), "large");
+    Path objectPath = new Path(dirPath, "object.bin");
+    byte[] data = randomBytes(10 * 1000 + 3);
+
+    try (FSDataOutputStream out = ghfs.create(objectPath)) {
+      for (int i = 0; i < data.length; i += 7) {
+        out.write(data, i, Math.min(7, data.length - i));
+      }
+      out.write(0x42);
+    }
+
+    byte[] expected = Arrays.copyOf(data, data.length + 1);
+    expected[data.length] = 0x42;
+    assertThat(readFile(objectPath)).isEqualTo(expected);
+    assertThat(listNames(dirPath)).containsExactly("object.bin");
+  }
+
+  @Test
+  public void create_existingFileWithoutOverwrite_throwsFileAlreadyExistsException()
+      throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "existing.bin");
+    ghfs.create(objectPath).close();
+
+    assertThrows(
+        FileAlreadyExistsException.class, () -> ghfs.create(objectPath, /* overwrite= */ false));
+  }
+
+  @Test
+  public void close_partUploadFailed_keepsExistingDestinationObject() throws Exception {
+    Path dirPath = new Path(ghfs.getFileSystemRoot(), "failed");
+    Path objectPath = new Path(dirPath, "object.bin");
+    byte[] existingData = randomBytes(5);
+    try (FSDataOutputStream out = ghfs.create(objectPath)) {
+      out.write(existingData);
+    }
+
+    ExecutorService uploadThreadPool = mock(ExecutorService.class);
+    when(uploadThreadPool.submit(any(Callable.class)))
+        .thenReturn(Futures.immediateFailedFuture(new IOException("fake upload failure")));
+    OutputStream out =
+        new GoogleHadoopParallelCompositeOutputStream(
+            ghfs,
+            ghfs.getGcsPath(objectPath),
+            new FileSystem.Statistics(ghfs.getScheme()),
+            CreateFileOptions.DEFAULT_OVERWRITE,
+            ParallelCompositeOutputStreamOptions.builder()
+                .setPartSize(10)
+                .setMaxBufferSize(10)
+                .build(),
+            uploadThreadPool);
+    out.write(randomBytes(10));
+
+    IOException e = assertThrows(IOException.class, () -> out.write(1));
+    assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("fake upload failure");
+    assertThrows(IOException.class, out::close);
+
+    assertThat(readFile(objectPath)).isEqualTo(existingData);
+    assertThat(listNames(dirPath)).containsExactly("object.bin");
+  }
+
+  @Test
+  public void write_withDirectExecutor_reusesPartBuffers() throws Exception {
+    Path objectPath = new Path(ghfs.getFileSystemRoot(), "direct.bin");
+    byte[] data = randomBytes(95);
+
+    try (OutputStream out =
+        new GoogleHadoopParallelCompositeOutputStream(
+            ghfs,
+            ghfs.getGcsPath(objectPath),
+            new FileSystem.Statistics(ghfs.getScheme()),
+            CreateFileOptions.DEFAULT_OVERWRITE,
+            ParallelCompositeOutputStreamOptions.builder()
+                .setPartSize(10)
+                .setMaxBufferSize(10)
+                .build(),
+            newDirectExecutorService())) {
+      out.write(data);
+    }
+
+    assertThat(readFile(objectPath)).isEqualTo(data);
+  }
+
+  private byte[] readFile(Path path) throws IOException {
+    try (FSDataInputStream in = ghfs.open(path)) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  private List<String> listNames(Path dirPath) throws IOException {
+    return Arrays.stream(ghfs.listStatus(dirPath))
+        .map(FileStatus::getPath)
+        .map(Path::getName)
+        .collect(toList());
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.fs.gcs;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.FileInfo;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageItemInfo;
+import com.google.cloud.hadoop.gcsio.StorageResourceId;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link PrefetchingListIterator}. */
+@RunWith(JUnit4.class)
+public class PrefetchingListIteratorTest {
+
+  private static final String BUCKET_NAME = "test-bucket";
+
+  private int fetchedPages;
+
+  @Test
+  public void iteratesAllPages_withoutPrefetch() throws IOException {
+    PrefetchingListIterator<String> iterator = createIterator(/* numPages= */ 3, 0);
+
+    assertThat(fetchedPages).isEqualTo(1);
+    assertThat(toList(iterator))
+        .containsExactly("obj-0-0", "obj-0-1", "obj-1-0", "obj-1-1", "obj-2-0", "obj-2-1")
+        .inOrder();
+    assertThat(fetchedPages).isEqualTo(3);
+  }
+
+  @Test
+  public void prefetchesBoundedNumberOfPages() throws IOException {
+    PrefetchingListIterator<String> iterator = createIterator(/* numPages= */ 5, 2);
+
+    assertThat(fetchedPages).isEqualTo(3);
+
+    iterator.next();
+    iterator.next();
+    iterator.next();
+
+    // Moving to the second page prefetches one more page.
+    assertThat(fetchedPages).isEqualTo(4);
+    assertThat(toList(iterator)).hasSize(7);
+    assertThat(fetchedPages).isEqualTo(5);
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  public void skipsFilteredItemsAndEmptyPages() throws IOException {
+    List<ListPage<FileInfo>> pages =
+        ImmutableList.of(
+            new ListPage<>(ImmutableList.of(fileInfo("a"), fileInfo("skip")), "1"),
+            new ListPage<>(ImmutableList.of(), "2"),
+            new ListPage<>(ImmutableList.of(fileInfo("skip")), "3"),
+            new ListPage<>(ImmutableList.of(fileInfo("b")), null));
+    PrefetchingListIterator<String> iterator =
+        new PrefetchingListIterator<>(
+            pageToken -> pages.get(pageToken == null ? 0 : Integer.parseInt(pageToken)),
+            fileInfo -> !objectName(fileInfo).equals("skip"),
+            PrefetchingListIteratorTest::objectName,
+            /* prefetchPages= */ 1,
+            directExecutor());
+
+    assertThat(toList(iterator)).containsExactly("a", "b").inOrder();
+  }
+
+  @Test
+  public void propagatesPrefetchFailure() throws IOException {
+    IOException fetchException = new IOException("fetch failed");
+    PrefetchingListIterator<String> iterator =
+        new PrefetchingListIterator<>(
+            pageToken -> {
+              if (pageToken != null) {
+                throw fetchException;
+              }
+              return new ListPage<>(ImmutableList.of(fileInfo("a")), "1");
+            },
+            fileInfo -> true,
+            PrefetchingListIteratorTest::objectName,
+            /* prefetchPages= */ 1,
+            directExecutor());
+
+    assertThat(iterator.next()).isEqualTo("a");
+    IOException e = assertThrows(IOException.class, iterator::hasNext);
+    assertThat(e).isSameInstanceAs(fetchException);
+  }
+
+  private PrefetchingListIterator<String> createIterator(int numPages, int prefetchPages)
+      throws IOException {
+    return new PrefetchingListIterator<>(
+        pageToken -> {
+          int page = pageToken == null ? 0 : Integer.parseInt(pageToken);
+          fetchedPages++;
+          return new ListPage<>(
+              ImmutableList.of(fileInfo("obj-" + page + "-0"), fileInfo("obj-" + page + "-1")),
+              page + 1 < numPages ? String.valueOf(page + 1) : null);
+        },
+        fileInfo -> true,
+        PrefetchingListIteratorTest::objectName,
+        prefetchPages,
+        directExecutor());
+  }
+
+  private static FileInfo fileInfo(String objectName) {
+    return FileInfo.fromItemInfo(
+        GoogleCloudStorageItemInfo.createInferredDirectory(
+            new StorageResourceId(BUCKET_NAME, objectName)));
+  }
+
+  private static String objectName(FileInfo fileInfo) {
+    return fileInfo.getPath().getPath().substring(1);
+  }
+
+  private static List<String> toList(PrefetchingListIterator<String> iterator) throws IOException {
+    List<String> items = new ArrayList<>();
+    while (iterator.hasNext()) {
+      items.add(iterator.next());
+    }
+    return items;
+  }
+}
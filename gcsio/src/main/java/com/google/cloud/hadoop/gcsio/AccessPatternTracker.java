@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tracks recent reads of a channel to choose between streaming and bounded range requests in {@link
+ * Fadvise#ADAPTIVE} mode.
+ *
+ * <p>Reads are grouped into runs: a run continues while each read starts at most {@code
+ * inplaceSeekLimit} bytes after the end of the previous read, and any other seek starts a new run.
+ * Access is considered random if most of the recently completed runs were shorter than {@code
+ * inplaceSeekLimit} bytes, unless the current run has already grown past that limit. Size of the
+ * range requests in random mode is derived from the average length of the recently completed runs.
+ *
+ * <p>This class is not thread-safe.
+ */
+class AccessPatternTracker {
+
+  static final int DEFAULT_WINDOW_SIZE = 8;
+
+  private final long inplaceSeekLimit;
+  private final int minRangeRequestSize;
+  private final int windowSize;
+
+  // Lengths of the most recently completed runs.
+  private final Deque<Long> runLengths = new ArrayDeque<>();
+  private long runLengthsSum = 0;
+
+  // Start and end offsets of the current run, -1 if nothing was read yet.
+  private long runStart = -1;
+  private long runEnd = -1;
+
+  AccessPatternTracker(long inplaceSeekLimit, int minRangeRequestSize) {
+    this(inplaceSeekLimit, minRangeRequestSize, DEFAULT_WINDOW_SIZE);
+  }
+
+  AccessPatternTracker(long inplaceSeekLimit, int minRangeRequestSize, int windowSize) {
+    checkArgument(windowSize > 0, "windowSize should be positive, but was %s", windowSize);
+    this.inplaceSeekLimit = inplaceSeekLimit;
+    this.minRangeRequestSize = minRangeRequestSize;
+    this.windowSize = windowSize;
+  }
+
+  /** Records that {@code bytesRead} bytes were read starting from {@code position}. */
+  void recordRead(long position, long bytesRead) {
+    if (!continuesRun(position)) {
+      if (runStart >= 0) {
+        addRunLength(runEnd - runStart);
+      }
+      runStart = position;
+    }
+    runEnd = position + bytesRead;
+  }
+
+  /** Returns whether a request to read from {@code position} should be a bounded range request. */
+  boolean isRandomAccess(long position) {
+    boolean continuesRun = continuesRun(position);
+    if (continuesRun && runEnd - runStart > inplaceSeekLimit) {
+      return false;
+    }
+    long shortRuns = runLengths.stream().filter(l -> l <= inplaceSeekLimit).count();
+    int runs = runLengths.size();
+    if (!continuesRun && runStart >= 0) {
+      // Read from position will complete the current run.
+      shortRuns += runEnd - runStart <= inplaceSeekLimit ? 1 : 0;
+      runs++;
+    }
+    return shortRuns * 2 > runs;
+  }
+
+  /**
+   * Returns size of the next bounded range request to read from {@code position}, based on the
+   * recently completed runs and clamped to {@code [minRangeRequestSize, inplaceSeekLimit]}, but not
+   * less than {@code bytesToRead}.
+   */
+  long getRangeRequestSize(long position, long bytesToRead) {
+    long runsSum = runLengthsSum;
+    int runs = runLengths.size();
+    if (!continuesRun(position) && runStart >= 0) {
+      runsSum += runEnd - runStart;
+      runs++;
+    }
+    long rangeSize =
+        runs == 0
+            ? minRangeRequestSize
+            : Math.max(minRangeRequestSize, Math.min(runsSum / runs, inplaceSeekLimit));
+    return Math.max(bytesToRead, rangeSize);
+  }
+
+  private boolean continuesRun(long position) {
+    return runEnd >= 0 && position >= runEnd && position - runEnd <= inplaceSeekLimit;
+  }
+
+  private void addRunLength(long runLength) {
+    runLengths.addLast(runLength);
+    runLengthsSum += runLength;
+    if (runLengths.size() > windowSize) {
+      runLengthsSum -= runLengths.removeFirst();
+    }
+  }
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.net.URI;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of {@link FileInfo}s of objects in a single bucket, stored in a columnar form
+ * to reduce memory footprint of large listings.
+ *
+ * <p>Object names are stored in a single UTF-8 byte array, numeric attributes in primitive arrays,
+ * and content types and encodings are interned. {@link FileInfo}s are materialized on each {@link
+ * #get} call and are not retained by the list, so callers that only need object names, sizes or
+ * times should use the per-index accessors to avoid allocation of per-item object graphs.
+ *
+ * <p>Items are sorted by path in the same order as {@link
+ * GoogleCloudStorageFileSystem#FILE_INFO_PATH_COMPARATOR}.
+ */
+public final class CompactFileInfoList extends AbstractList<FileInfo> implements RandomAccess {
+
+  /** Marker of a missing hash in the hash arena. */
+  private static final int NO_HASH = 0xFF;
+
+  /** Characters that are not quoted in URI path, so that URI path is the same as object name. */
+  private static final boolean[] URI_PATH_SAFE_CHARS = new boolean[128];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      URI_PATH_SAFE_CHARS[c] = true;
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      URI_PATH_SAFE_CHARS[c] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      URI_PATH_SAFE_CHARS[c] = true;
+    }
+    for (char c : "-_.!~*'(),;:$&+=@/".toCharArray()) {
+      URI_PATH_SAFE_CHARS[c] = true;
+    }
+  }
+
+  private final String bucketName;
+  private final int size;
+
+  /**
+   * Object names of all items in UTF-8, item {@code i} is in {@code [nameOffsets[i],
+   * nameOffsets[i+1])}.
+   */
+  private final byte[] names;
+
+  private final int[] nameOffsets;
+
+  /** Length of {@code URI.toString()} of each item path, used for sorting. */
+  private final int[] pathLengths;
+
+  private final long[] creationTimes;
+  private final long[] modificationTimes;
+  private final long[] sizes;
+  private final long[] contentGenerations;
+  private final long[] metaGenerations;
+
+  /** Indices in the interned strings table of content types and encodings, -1 for null. */
+  private final int[] contentTypes;
+
+  private final int[] contentEncodings;
+  private final String[] internedStrings;
+
+  /** Metadata of all items, {@code null} if all items have empty metadata. */
+  private final Map<String, byte[]>[] metadata;
+
+  /**
+   * Verification attributes of all items, item {@code i} is in {@code [hashOffsets[i],
+   * hashOffsets[i+1])}: empty if it has no verification attributes, or MD5 and CRC32C hashes each
+   * prefixed with a length byte ({@link #NO_HASH} for a missing hash).
+   */
+  private final byte[] hashes;
+
+  private final int[] hashOffsets;
+
+  /** Storage index of an item at each list index. */
+  private final int[] order;
+
+  private CompactFileInfoList(Builder builder) {
+    this.bucketName = builder.bucketName;
+    this.size = builder.size;
+    this.names = Arrays.copyOf(builder.names, builder.nameOffsets[size]);
+    this.nameOffsets = Arrays.copyOf(builder.nameOffsets, size + 1);
+    this.pathLengths = Arrays.copyOf(builder.pathLengths, size);
+    this.creationTimes = Arrays.copyOf(builder.creationTimes, size);
+    this.modificationTimes = Arrays.copyOf(builder.modificationTimes, size);
+    this.sizes = Arrays.copyOf(builder.sizes, size);
+    this.contentGenerations = Arrays.copyOf(builder.contentGenerations, size);
+    this.metaGenerations = Arrays.copyOf(builder.metaGenerations, size);
+    this.contentTypes = Arrays.copyOf(builder.contentTypes, size);
+    this.contentEncodings = Arrays.copyOf(builder.contentEncodings, size);
+    this.internedStrings = builder.internedStrings.toArray(new String[0]);
+    this.metadata = builder.metadata == null ? null : Arrays.copyOf(builder.metadata, size);
+    this.hashes = Arrays.copyOf(builder.hashes, builder.hashOffsets[size]);
+    this.hashOffsets = Arrays.copyOf(builder.hashOffsets, size + 1);
+    this.order = sortByPath(builder);
+  }
+
+  /** Creates a builder of a list of objects in the given bucket. */
+  public static Builder builder(String bucketName) {
+    return new Builder(bucketName);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** Materializes {@link FileInfo} of the item at the given index. */
+  @Override
+  public FileInfo get(int index) {
+    return FileInfo.fromItemInfo(getItemInfo(index));
+  }
+
+  /** Gets the bucket name of all items in this list. */
+  public String getBucketName() {
+    return bucketName;
+  }
+
+  /** Gets the object name of the item at the given index. */
+  public String getObjectName(int index) {
+    int i = getStorageIndex(index);
+    return new String(names, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i], UTF_8);
+  }
+
+  /** Gets the path of the item at the given index. */
+  public URI getPath(int index) {
+    return UriPaths.fromStringPathComponents(
+        bucketName, getObjectName(index), /* allowEmptyObjectName= */ true);
+  }
+
+  /** Indicates whether the item at the given index is a directory. */
+  public boolean isDirectory(int index) {
+    int i = getStorageIndex(index);
+    return nameOffsets[i + 1] > nameOffsets[i] && names[nameOffsets[i + 1] - 1] == '/';
+  }
+
+  /** Gets the size of the item at the given index. */
+  public long getSize(int index) {
+    return sizes[getStorageIndex(index)];
+  }
+
+  /** Gets the creation time of the item at the given index. */
+  public long getCreationTime(int index) {
+    return creationTimes[getStorageIndex(index)];
+  }
+
+  /** Gets the modification time of the item at the given index. */
+  public long getModificationTime(int index) {
+    return modificationTimes[getStorageIndex(index)];
+  }
+
+  /** Gets the content generation of the item at the given index. */
+  public long getContentGeneration(int index) {
+    return contentGenerations[getStorageIndex(index)];
+  }
+
+  /** Materializes {@link GoogleCloudStorageItemInfo} of the item at the given index. */
+  GoogleCloudStorageItemInfo getItemInfo(int index) {
+    int i = getStorageIndex(index);
+    return GoogleCloudStorageItemInfo.createObject(
+        new StorageResourceId(bucketName, getObjectName(index)),
+        creationTimes[i],
+        modificationTimes[i],
+        sizes[i],
+        getInternedString(contentTypes[i]),
+        getInternedString(contentEncodings[i]),
+        metadata == null ? null : metadata[i],
+        contentGenerations[i],
+        metaGenerations[i],
+        getVerificationAttributes(i));
+  }
+
+  private int getStorageIndex(int index) {
+    checkElementIndex(index, size);
+    return order[index];
+  }
+
+  private String getInternedString(int stringIndex) {
+    return stringIndex < 0 ? null : internedStrings[stringIndex];
+  }
+
+  private VerificationAttributes getVerificationAttributes(int i) {
+    int offset = hashOffsets[i];
+    if (offset == hashOffsets[i + 1]) {
+      return null;
+    }
+    byte[] md5 = readHash(offset);
+    offset += md5 == null ? 1 : md5.length + 1;
+    return new VerificationAttributes(md5, readHash(offset));
+  }
+
+  private byte[] readHash(int offset) {
+    int length = hashes[offset] & 0xFF;
+    return length == NO_HASH ? null : Arrays.copyOfRange(hashes, offset + 1, offset + 1 + length);
+  }
+
+  /**
+   * Returns storage indices of items sorted by path, without materializing paths if possible.
+   *
+   * <p>Paths of items with names that are quoted in URI path are precomputed by the {@code
+   * builder}, so they are not retained by this list.
+   */
+  private int[] sortByPath(Builder builder) {
+    int[] indices = new int[size];
+    for (int i = 0; i < size; i++) {
+      indices[i] = i;
+    }
+    // Bottom-up merge sort, because there is no sort of primitives with a custom comparator.
+    int[] buffer = new int[size];
+    for (int width = 1; width < size; width *= 2) {
+      for (int lo = 0; lo < size - width; lo += 2 * width) {
+        int mid = lo + width;
+        int hi = Math.min(lo + 2 * width, size);
+        int l = lo;
+        int r = mid;
+        for (int k = lo; k < hi; k++) {
+          buffer[k] =
+              l < mid && (r >= hi || comparePaths(builder, indices[l], indices[r]) <= 0)
+                  ? indices[l++]
+                  : indices[r++];
+        }
+        System.arraycopy(buffer, lo, indices, lo, hi - lo);
+      }
+    }
+    return indices;
+  }
+
+  /** Compares paths of items like {@link GoogleCloudStorageFileSystem#PATH_COMPARATOR}. */
+  private int comparePaths(Builder builder, int i, int j) {
+    if (pathLengths[i] != pathLengths[j]) {
+      return Integer.compare(pathLengths[i], pathLengths[j]);
+    }
+    String[] unsafePaths = builder.unsafePaths;
+    if (unsafePaths != null && (unsafePaths[i] != null || unsafePaths[j] != null)) {
+      return getPathString(builder, i).compareTo(getPathString(builder, j));
+    }
+    // Safe paths are ASCII, so that their UTF-8 bytes order is the same as their strings order.
+    int iOffset = nameOffsets[i];
+    int jOffset = nameOffsets[j];
+    int length = nameOffsets[i + 1] - iOffset;
+    for (int k = 0; k < length; k++) {
+      int diff = names[iOffset + k] - names[jOffset + k];
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return 0;
+  }
+
+  private String getPathString(Builder builder, int i) {
+    String unsafePath = builder.unsafePaths[i];
+    return unsafePath != null
+        ? unsafePath
+        : builder.pathPrefix
+            + new String(names, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i], UTF_8);
+  }
+
+  /** Builder for {@link CompactFileInfoList}. */
+  public static final class Builder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String bucketName;
+
+    /** The {@code gs://<bucket>/} prefix of the object paths. */
+    private final String pathPrefix;
+
+    private int size;
+    private byte[] names = new byte[INITIAL_CAPACITY * 32];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] pathLengths = new int[INITIAL_CAPACITY];
+    private long[] creationTimes = new long[INITIAL_CAPACITY];
+    private long[] modificationTimes = new long[INITIAL_CAPACITY];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] contentGenerations = new long[INITIAL_CAPACITY];
+    private long[] metaGenerations = new long[INITIAL_CAPACITY];
+    private int[] contentTypes = new int[INITIAL_CAPACITY];
+    private int[] contentEncodings = new int[INITIAL_CAPACITY];
+    private final List<String> internedStrings = new ArrayList<>();
+    private final Map<String, Integer> internedStringIndices = new HashMap<>();
+    private Map<String, byte[]>[] metadata;
+
+    /**
+     * Paths of items with names that are quoted in URI path, {@code null} if there are no such
+     * items. Paths of other items are {@code pathPrefix} followed by their object names.
+     */
+    private String[] unsafePaths;
+
+    private byte[] hashes = new byte[INITIAL_CAPACITY * 22];
+    private int[] hashOffsets = new int[INITIAL_CAPACITY + 1];
+
+    private Builder(String bucketName) {
+      this.bucketName = StringPaths.validateBucketName(bucketName);
+      this.pathPrefix =
+          UriPaths.fromStringPathComponents(bucketName, null, /* allowEmptyObjectName= */ true)
+              .toString();
+    }
+
+    /** Adds an item info of an object in the bucket of this builder. */
+    @SuppressWarnings("unchecked")
+    public Builder add(GoogleCloudStorageItemInfo item) {
+      StorageResourceId resourceId = item.getResourceId();
+      checkArgument(
+          resourceId.isStorageObject() && bucketName.equals(resourceId.getBucketName()),
+          "item should be an object in '%s' bucket, but was '%s'",
+          bucketName,
+          resourceId);
+      ensureCapacity(size + 1);
+
+      String objectName = resourceId.getObjectName();
+      byte[] nameBytes = objectName.getBytes(UTF_8);
+      names = ensureCapacity(names, nameOffsets[size] + nameBytes.length);
+      System.arraycopy(nameBytes, 0, names, nameOffsets[size], nameBytes.length);
+      nameOffsets[size + 1] = nameOffsets[size] + nameBytes.length;
+
+      if (isUriPathSafe(objectName)) {
+        pathLengths[size] = pathPrefix.length() + objectName.length();
+      } else {
+        if (unsafePaths == null) {
+          unsafePaths = new String[creationTimes.length];
+        }
+        // Computing path of items with unsafe names also validates them.
+        unsafePaths[size] =
+            UriPaths.fromResourceId(resourceId, /* allowEmptyObjectName= */ true).toString();
+        pathLengths[size] = unsafePaths[size].length();
+      }
+
+      creationTimes[size] = item.getCreationTime();
+      modificationTimes[size] = item.getModificationTime();
+      sizes[size] = item.getSize();
+      contentGenerations[size] = item.getContentGeneration();
+      metaGenerations[size] = item.getMetaGeneration();
+      contentTypes[size] = intern(item.getContentType());
+      contentEncodings[size] = intern(item.getContentEncoding());
+
+      if (!item.getMetadata().isEmpty()) {
+        if (metadata == null) {
+          metadata = new Map[creationTimes.length];
+        }
+        metadata[size] = item.getMetadata();
+      }
+
+      VerificationAttributes attributes = item.getVerificationAttributes();
+      int hashOffset = hashOffsets[size];
+      if (attributes != null) {
+        hashes = ensureCapacity(hashes, hashOffset + getHashBytes(attributes));
+        hashOffset = writeHash(hashOffset, attributes.getMd5hash());
+        hashOffset = writeHash(hashOffset, attributes.getCrc32c());
+      }
+      hashOffsets[size + 1] = hashOffset;
+
+      size++;
+      return this;
+    }
+
+    /** Builds the list, sorted by path. */
+    public CompactFileInfoList build() {
+      return new CompactFileInfoList(this);
+    }
+
+    /**
+     * Object names that consist only of characters that are not quoted in URI path and are already
+     * valid object paths are the same in URI path, which allows to compare them directly.
+     */
+    private static boolean isUriPathSafe(String objectName) {
+      if (objectName.isEmpty() || objectName.charAt(0) == '/') {
+        return false;
+      }
+      char previous = 0;
+      for (int i = 0; i < objectName.length(); i++) {
+        char c = objectName.charAt(i);
+        if (c >= URI_PATH_SAFE_CHARS.length
+            || !URI_PATH_SAFE_CHARS[c]
+            || (c == '/' && previous == '/')) {
+          return false;
+        }
+        previous = c;
+      }
+      return true;
+    }
+
+    private int intern(String value) {
+      if (value == null) {
+        return -1;
+      }
+      return internedStringIndices.computeIfAbsent(
+          value,
+          v -> {
+            internedStrings.add(v);
+            return internedStrings.size() - 1;
+          });
+    }
+
+    private static int getHashBytes(VerificationAttributes attributes) {
+      return 2
+          + (attributes.getMd5hash() == null ? 0 : attributes.getMd5hash().length)
+          + (attributes.getCrc32c() == null ? 0 : attributes.getCrc32c().length);
+    }
+
+    private int writeHash(int offset, byte[] hash) {
+      if (hash == null) {
+        hashes[offset] = (byte) NO_HASH;
+        return offset + 1;
+      }
+      checkArgument(hash.length < NO_HASH, "hash is too long: %s bytes", hash.length);
+      hashes[offset] = (byte) hash.length;
+      System.arraycopy(hash, 0, hashes, offset + 1, hash.length);
+      return offset + 1 + hash.length;
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity <= creationTimes.length) {
+        return;
+      }
+      int newCapacity = Math.max(capacity, creationTimes.length * 2);
+      nameOffsets = Arrays.copyOf(nameOffsets, newCapacity + 1);
+      pathLengths = Arrays.copyOf(pathLengths, newCapacity);
+      creationTimes = Arrays.copyOf(creationTimes, newCapacity);
+      modificationTimes = Arrays.copyOf(modificationTimes, newCapacity);
+      sizes = Arrays.copyOf(sizes, newCapacity);
+      contentGenerations = Arrays.copyOf(contentGenerations, newCapacity);
+      metaGenerations = Arrays.copyOf(metaGenerations, newCapacity);
+      contentTypes = Arrays.copyOf(contentTypes, newCapacity);
+      contentEncodings = Arrays.copyOf(contentEncodings, newCapacity);
+      if (metadata != null) {
+        metadata = Arrays.copyOf(metadata, newCapacity);
+      }
+      if (unsafePaths != null) {
+        unsafePaths = Arrays.copyOf(unsafePaths, newCapacity);
+      }
+      hashOffsets = Arrays.copyOf(hashOffsets, newCapacity + 1);
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int capacity) {
+      return capacity <= array.length
+          ? array
+          : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.flogger.GoogleLogger;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Process-wide cache of prefetched object footers, that allows read channels to skip footer
+ * prefetch request when the same object generation is opened repeatedly (e.g. during query planning
+ * and then during task execution).
+ *
+ * <p>Footers are keyed by object generation, so cached footers never become stale. Least recently
+ * used footers are evicted when total size of cached footers exceeds the maximum size.
+ *
+ * <p>Cached footer arrays are shared between read channels and should not be modified.
+ */
+class FooterCache {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Process-wide caches keyed by their maximum size. */
+  private static final Map<Long, FooterCache> INSTANCES = new HashMap<>();
+
+  private final Cache<FooterKey, byte[]> footers;
+
+  @VisibleForTesting
+  FooterCache(long maxSize) {
+    checkArgument(maxSize > 0, "maxSize should be positive, but was %s", maxSize);
+    this.footers =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxSize)
+            .<FooterKey, byte[]>weigher((key, footer) -> footer.length)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Returns the process-wide footer cache with the provided maximum size, creating it if it does
+   * not exist yet. All channels configured with the same maximum size share the same cache.
+   */
+  static synchronized FooterCache getInstance(long maxSize) {
+    return INSTANCES.computeIfAbsent(
+        maxSize,
+        size -> {
+          logger.atFine().log("Creating footer cache with %s bytes max size", size);
+          return new FooterCache(size);
+        });
+  }
+
+  /**
+   * Returns the process-wide footer cache with the provided maximum size, or {@code null} if it was
+   * not created yet.
+   */
+  @Nullable
+  static synchronized FooterCache getExistingInstance(long maxSize) {
+    return INSTANCES.get(maxSize);
+  }
+
+  /**
+   * Returns cached footer, i.e. the last bytes of the object generation, or {@code null} if footer
+   * is not cached.
+   *
+   * @param resourceId object id with a known generation
+   */
+  @Nullable
+  byte[] get(StorageResourceId resourceId) {
+    byte[] footer = footers.getIfPresent(FooterKey.of(resourceId));
+    logger.atFiner().log("Footer cache %s for '%s'", footer == null ? "miss" : "hit", resourceId);
+    return footer;
+  }
+
+  /**
+   * Caches footer of the object generation.
+   *
+   * @param resourceId object id with a known generation
+   * @param footer last bytes of the object generation
+   */
+  void put(StorageResourceId resourceId, byte[] footer) {
+    FooterKey key = FooterKey.of(resourceId);
+    if (footer.length > 0) {
+      footers.put(key, footer);
+    }
+  }
+
+  /** Number of footer lookups that found a cached footer. */
+  long hitCount() {
+    return footers.stats().hitCount();
+  }
+
+  /** Number of footer lookups that did not find a cached footer. */
+  long missCount() {
+    return footers.stats().missCount();
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    footers.invalidateAll();
+  }
+
+  /** Footer cache key, {@link StorageResourceId} equality does not take generation into account. */
+  @AutoValue
+  abstract static class FooterKey {
+    static FooterKey of(StorageResourceId resourceId) {
+      checkArgument(
+          resourceId.hasGenerationId(),
+          "resourceId should have generation, but was %s",
+          resourceId);
+      return new AutoValue_FooterCache_FooterKey(
+          resourceId.getBucketName(), resourceId.getObjectName(), resourceId.getGenerationId());
+    }
+
+    abstract String getBucketName();
+
+    abstract String getObjectName();
+
+    abstract long getGeneration();
+  }
+}
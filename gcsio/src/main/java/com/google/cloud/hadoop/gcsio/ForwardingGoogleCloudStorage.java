@@ -13,6 +13,7 @@
  */
 package com.google.cloud.hadoop.gcsio;
 
+import com.google.cloud.hadoop.util.UploadStatistics;
 import com.google.common.base.Preconditions;
 import com.google.common.flogger.GoogleLogger;
 import java.io.IOException;
@@ -49,6 +50,12 @@ public class ForwardingGoogleCloudStorage implements GoogleCloudStorage {
     return delegate.getOptions();
   }
 
+  @Override
+  public UploadStatistics getUploadStatistics() {
+    logger.atFiner().log("%s.getUploadStatistics()", delegateClassName);
+    return delegate.getUploadStatistics();
+  }
+
   @Override
   public WritableByteChannel create(StorageResourceId resourceId, CreateObjectOptions options)
       throws IOException {
@@ -56,6 +63,14 @@ public class ForwardingGoogleCloudStorage implements GoogleCloudStorage {
     return delegate.create(resourceId, options);
   }
 
+  @Override
+  public GoogleCloudStorageItemInfo createObject(
+      StorageResourceId resourceId, byte[] data, CreateObjectOptions options) throws IOException {
+    logger.atFiner().log(
+        "%s.createObject(%s, %s bytes, %s)", delegateClassName, resourceId, data.length, options);
+    return delegate.createObject(resourceId, data, options);
+  }
+
   @Override
   public void createBucket(String bucketName, CreateBucketOptions options) throws IOException {
     logger.atFiner().log("%s.createBucket(%s, %s)", delegateClassName, bucketName, options);
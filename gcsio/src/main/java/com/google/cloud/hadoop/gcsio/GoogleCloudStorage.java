@@ -16,6 +16,7 @@
 
 package com.google.cloud.hadoop.gcsio;
 
+import com.google.cloud.hadoop.util.UploadStatistics;
 import java.io.IOException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -48,6 +49,9 @@ public interface GoogleCloudStorage {
   /** Retrieve the options that were used to create this GoogleCloudStorage. */
   GoogleCloudStorageOptions getOptions();
 
+  /** Retrieve counters of the uploads performed by write channels of this GoogleCloudStorage. */
+  UploadStatistics getUploadStatistics();
+
   /**
    * Creates and opens an object for writing. The bucket must already exist. If the object already
    * exists and {@code resourceId} doesn't have a explicit generationId set, it is deleted. If a
@@ -78,6 +82,22 @@ public interface GoogleCloudStorage {
   WritableByteChannel create(StorageResourceId resourceId, CreateObjectOptions options)
       throws IOException;
 
+  /**
+   * Creates an object with the given content in a single request. The bucket must already exist.
+   * Unlike {@link #create(StorageResourceId, CreateObjectOptions)}, it does not start a resumable
+   * upload on a background thread, which makes it more efficient for small objects. See {@link
+   * #create(StorageResourceId, CreateObjectOptions)} for the behavior if
+   * StorageResourceId.getGenerationId() is explicitly set.
+   *
+   * @param resourceId identifies a StorageObject
+   * @param data content of the object
+   * @param options options to use when creating the object
+   * @return the item info of the created object
+   * @throws IOException on IO error
+   */
+  GoogleCloudStorageItemInfo createObject(
+      StorageResourceId resourceId, byte[] data, CreateObjectOptions options) throws IOException;
+
   /**
    * Creates a bucket.
    *
@@ -24,6 +24,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Comparator.comparing;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -55,7 +56,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -63,7 +67,9 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 
 /**
@@ -99,6 +105,12 @@ public class GoogleCloudStorageFileSystem {
   public static final ListFileOptions DELETE_RENAME_LIST_OPTIONS =
       ListFileOptions.DEFAULT.toBuilder().setFields("bucket,name,generation").build();
 
+  /**
+   * Object name prefix of the temporary objects created when more than {@link
+   * GoogleCloudStorage#MAX_COMPOSE_OBJECTS} objects are composed.
+   */
+  public static final String COMPOSE_TEMPFILE_PREFIX = "_GCS_COMPOSE_TEMPFILE_";
+
   // GCS access instance.
   private GoogleCloudStorage gcs;
 
@@ -221,6 +233,51 @@ public class GoogleCloudStorageFileSystem {
    */
   public WritableByteChannel create(URI path, CreateFileOptions createOptions) throws IOException {
     logger.atFiner().log("create(path: %s, createOptions: %s)", path, createOptions);
+    StorageResourceId resourceId = checkCreate(path, createOptions);
+
+    if (createOptions.getOverwriteGenerationId() != StorageResourceId.UNKNOWN_GENERATION_ID) {
+      resourceId =
+          new StorageResourceId(
+              resourceId.getBucketName(),
+              resourceId.getObjectName(),
+              createOptions.getOverwriteGenerationId());
+    }
+
+    return gcs.create(resourceId, objectOptionsFromFileOptions(createOptions));
+  }
+
+  /**
+   * Validates that an object can be created at the given path in the same way as {@link
+   * #create(URI, CreateFileOptions)} does, without starting an upload.
+   *
+   * <p>Returned id has the generation that the object should be written with: the overwrite
+   * generation from {@code createOptions}, the generation of the existing object, or {@code 0} if
+   * the object does not exist. It allows to defer writing of the object while guaranteeing that it
+   * does not overwrite an object created after this validation.
+   *
+   * @param path Object full path of the form gs://bucket/object-path.
+   * @return Object id with the generation to write the object with.
+   * @throws FileAlreadyExistsException if the object exists and cannot be overwritten.
+   */
+  public StorageResourceId prepareCreate(URI path, CreateFileOptions createOptions)
+      throws IOException {
+    logger.atFiner().log("prepareCreate(path: %s, createOptions: %s)", path, createOptions);
+    StorageResourceId resourceId = checkCreate(path, createOptions);
+
+    long generationId = createOptions.getOverwriteGenerationId();
+    if (generationId == StorageResourceId.UNKNOWN_GENERATION_ID) {
+      GoogleCloudStorageItemInfo itemInfo = gcs.getItemInfo(resourceId);
+      if (itemInfo.exists() && !createOptions.isOverwriteExisting()) {
+        throw new FileAlreadyExistsException(String.format("Object %s already exists.", path));
+      }
+      generationId = itemInfo.exists() ? itemInfo.getContentGeneration() : 0;
+    }
+    return new StorageResourceId(
+        resourceId.getBucketName(), resourceId.getObjectName(), generationId);
+  }
+
+  private StorageResourceId checkCreate(URI path, CreateFileOptions createOptions)
+      throws IOException {
     Preconditions.checkNotNull(path, "path could not be null");
     StorageResourceId resourceId =
         StorageResourceId.fromUriPath(path, /* allowEmptyObjectName=*/ true);
@@ -255,16 +312,7 @@ public class GoogleCloudStorageFileSystem {
         throw new FileAlreadyExistsException("A directory with that name exists: " + path);
       }
     }
-
-    if (createOptions.getOverwriteGenerationId() != StorageResourceId.UNKNOWN_GENERATION_ID) {
-      resourceId =
-          new StorageResourceId(
-              resourceId.getBucketName(),
-              resourceId.getObjectName(),
-              createOptions.getOverwriteGenerationId());
-    }
-
-    return gcs.create(resourceId, objectOptionsFromFileOptions(createOptions));
+    return resourceId;
   }
 
   /**
@@ -346,18 +394,26 @@ public class GoogleCloudStorageFileSystem {
             : Optional.empty();
     coopLockOp.ifPresent(CoopLockOperationDelete::lock);
 
+    if (fileInfo.isDirectory() && recursive) {
+      if (coopLockOp.isPresent()) {
+        deleteDirectoryWithCoopLock(fileInfo, coopLockOp.get());
+      } else {
+        deleteDirectoryPipelined(fileInfo);
+      }
+      repairImplicitDirectory(parentInfoFuture);
+      return;
+    }
+
     List<FileInfo> itemsToDelete;
-    // Delete sub-items if it is a directory.
+    // Check that directory is empty.
     if (fileInfo.isDirectory()) {
+      // TODO: optimize by listing just one object instead of whole page
+      //  (up to 1024 objects now)
       itemsToDelete =
-          recursive
-              ? listFileInfoForPrefix(fileInfo.getPath(), DELETE_RENAME_LIST_OPTIONS)
-              // TODO: optimize by listing just one object instead of whole page
-              //  (up to 1024 objects now)
-              : listFileInfoForPrefixPage(
-                      fileInfo.getPath(), DELETE_RENAME_LIST_OPTIONS, /* pageToken= */ null)
-                  .getItems();
-      if (!itemsToDelete.isEmpty() && !recursive) {
+          listFileInfoForPrefixPage(
+                  fileInfo.getPath(), DELETE_RENAME_LIST_OPTIONS, /* pageToken= */ null)
+              .getItems();
+      if (!itemsToDelete.isEmpty()) {
         throw new DirectoryNotEmptyException("Cannot delete a non-empty directory.");
       }
     } else {
@@ -367,7 +423,12 @@ public class GoogleCloudStorageFileSystem {
     List<FileInfo> bucketsToDelete = new ArrayList<>();
     (fileInfo.getItemInfo().isBucket() ? bucketsToDelete : itemsToDelete).add(fileInfo);
 
-    coopLockOp.ifPresent(o -> o.persistAndScheduleRenewal(itemsToDelete, bucketsToDelete));
+    coopLockOp.ifPresent(
+        o ->
+            o.persistAndScheduleRenewal(
+                Stream.concat(itemsToDelete.stream(), bucketsToDelete.stream())
+                    .map(FileInfo::getPath)
+                    .collect(toImmutableList())));
     try {
       deleteInternal(itemsToDelete, bucketsToDelete);
 
@@ -379,7 +440,110 @@ public class GoogleCloudStorageFileSystem {
     repairImplicitDirectory(parentInfoFuture);
   }
 
+  /**
+   * Recursively deletes given directory by consuming its listing page by page, so that deletion
+   * starts as soon as the first listing page is received.
+   *
+   * <p>The next listing page is prefetched while objects from the current page are being deleted,
+   * so at most 2 listing pages are in flight at any time. Directory placeholder objects are deleted
+   * after all other objects, so parent directories are deleted after their children.
+   */
+  private void deleteDirectoryPipelined(FileInfo dirInfo) throws IOException {
+    URI dir = dirInfo.getPath();
+
+    // Directory placeholder objects which deletion is deferred until all other objects are deleted.
+    List<FileInfo> itemsToDelete = new ArrayList<>();
+
+    Future<ListPage<FileInfo>> nextPageFuture = null;
+    try {
+      ListPage<FileInfo> page =
+          listFileInfoForPrefixPage(dir, DELETE_RENAME_LIST_OPTIONS, /* pageToken= */ null);
+      while (true) {
+        String nextPageToken = page.getNextPageToken();
+        nextPageFuture =
+            nextPageToken == null
+                ? null
+                : cachedExecutor.submit(
+                    () ->
+                        listFileInfoForPrefixPage(dir, DELETE_RENAME_LIST_OPTIONS, nextPageToken));
+
+        List<FileInfo> pageFilesToDelete = new ArrayList<>(page.getItems().size());
+        for (FileInfo itemInfo : page.getItems()) {
+          (itemInfo.isDirectory() ? itemsToDelete : pageFilesToDelete).add(itemInfo);
+        }
+
+        // Delete files from the last page in the same batch with directories.
+        if (nextPageFuture == null) {
+          itemsToDelete.addAll(pageFilesToDelete);
+          break;
+        }
+
+        deleteInternal(pageFilesToDelete, new ArrayList<>());
+
+        page = getFromFuture(nextPageFuture);
+        nextPageFuture = null;
+      }
+    } finally {
+      if (nextPageFuture != null) {
+        nextPageFuture.cancel(/* mayInterruptIfRunning= */ true);
+      }
+    }
+
+    List<FileInfo> bucketsToDelete = new ArrayList<>();
+    (dirInfo.getItemInfo().isBucket() ? bucketsToDelete : itemsToDelete).add(dirInfo);
+
+    deleteInternal(itemsToDelete, bucketsToDelete);
+  }
+
   /** Deletes all items in the given path list followed by all bucket items. */
+  /**
+   * Recursively deletes given directory with Cooperative Locking.
+   *
+   * <p>Cooperative Locking operation log should contain all deleted items before delete starts,
+   * that's why whole directory is listed upfront into a {@link CompactFileInfoList}. Deleted items
+   * are read from the listing by index, without materializing {@link FileInfo}s.
+   */
+  private void deleteDirectoryWithCoopLock(FileInfo dirInfo, CoopLockOperationDelete coopLockOp)
+      throws IOException {
+    CompactFileInfoList subItems =
+        listCompactFileInfoForPrefix(dirInfo.getPath(), DELETE_RENAME_LIST_OPTIONS);
+    GoogleCloudStorageItemInfo dirItemInfo = dirInfo.getItemInfo();
+
+    List<URI> pathsToDelete = new ArrayList<>(subItems.size() + 1);
+    List<StorageResourceId> objectsToDelete = new ArrayList<>(subItems.size() + 1);
+    // Listing is sorted by path, iterate it backwards to delete children before their parents.
+    for (int i = subItems.size() - 1; i >= 0; i--) {
+      pathsToDelete.add(subItems.getPath(i));
+      objectsToDelete.add(
+          new StorageResourceId(
+              subItems.getBucketName(),
+              subItems.getObjectName(i),
+              subItems.getContentGeneration(i)));
+    }
+    pathsToDelete.add(dirInfo.getPath());
+    if (!dirItemInfo.isBucket() && !dirInfo.isInferredDirectory()) {
+      objectsToDelete.add(
+          new StorageResourceId(
+              dirItemInfo.getBucketName(),
+              dirItemInfo.getObjectName(),
+              dirItemInfo.getContentGeneration()));
+    }
+
+    coopLockOp.persistAndScheduleRenewal(pathsToDelete);
+    try {
+      if (!objectsToDelete.isEmpty()) {
+        gcs.deleteObjects(objectsToDelete);
+      }
+      if (dirItemInfo.isBucket()) {
+        deleteBuckets(ImmutableList.of(dirItemInfo.getBucketName()));
+      }
+
+      coopLockOp.unlock();
+    } finally {
+      coopLockOp.cancelRenewal();
+    }
+  }
+
   private void deleteInternal(List<FileInfo> itemsToDelete, List<FileInfo> bucketsToDelete)
       throws IOException {
     // TODO(user): We might need to separate out children into separate batches from parents to
@@ -411,12 +575,16 @@ public class GoogleCloudStorageFileSystem {
       for (FileInfo bucketInfo : bucketsToDelete) {
         bucketNames.add(bucketInfo.getItemInfo().getResourceId().getBucketName());
       }
-      if (options.isBucketDeleteEnabled()) {
-        gcs.deleteBuckets(bucketNames);
-      } else {
-        logger.atInfo().log(
-            "Skipping deletion of buckets because enableBucketDelete is false: %s", bucketNames);
-      }
+      deleteBuckets(bucketNames);
+    }
+  }
+
+  private void deleteBuckets(List<String> bucketNames) throws IOException {
+    if (options.isBucketDeleteEnabled()) {
+      gcs.deleteBuckets(bucketNames);
+    } else {
+      logger.atInfo().log(
+          "Skipping deletion of buckets because enableBucketDelete is false: %s", bucketNames);
     }
   }
 
@@ -706,6 +874,10 @@ public class GoogleCloudStorageFileSystem {
    * according to the order they appear in the input. The destination object, if already present,
    * will be overwritten. Sources and destination are assumed to be in the same bucket.
    *
+   * <p>If there are more than {@link GoogleCloudStorage#MAX_COMPOSE_OBJECTS} sources, they are
+   * composed into intermediate temporary objects in parallel, level by level, until they can be
+   * composed into the destination object. Temporary objects are deleted afterwards.
+   *
    * @param sources the list of URIs to be composed
    * @param destination the resulting URI with composed sources
    * @param contentType content-type of the composed object
@@ -713,25 +885,86 @@ public class GoogleCloudStorageFileSystem {
    */
   public void compose(List<URI> sources, URI destination, String contentType) throws IOException {
     StorageResourceId destResource = StorageResourceId.fromStringPath(destination.toString());
-    List<String> sourceObjects =
-        Lists.transform(
-            sources, uri -> StorageResourceId.fromStringPath(uri.toString()).getObjectName());
-    gcs.compose(
-        destResource.getBucketName(), sourceObjects, destResource.getObjectName(), contentType);
+    List<StorageResourceId> sourceIds =
+        Lists.transform(sources, uri -> StorageResourceId.fromStringPath(uri.toString()));
+    if (sourceIds.size() <= GoogleCloudStorage.MAX_COMPOSE_OBJECTS) {
+      gcs.compose(
+          destResource.getBucketName(),
+          Lists.transform(sourceIds, StorageResourceId::getObjectName),
+          destResource.getObjectName(),
+          contentType);
+      return;
+    }
+
+    String objectName = destResource.getObjectName();
+    int nameStart = objectName.lastIndexOf(PATH_DELIMITER) + 1;
+    String tempObjectNamePrefix =
+        String.format(
+            "%s%s%s.%s.",
+            objectName.substring(0, nameStart),
+            COMPOSE_TEMPFILE_PREFIX,
+            objectName.substring(nameStart),
+            UUID.randomUUID());
+    AtomicInteger tempObjectCount = new AtomicInteger();
+    CreateObjectOptions createOptions =
+        CreateObjectOptions.DEFAULT_OVERWRITE
+            .toBuilder()
+            .setContentType(contentType)
+            .setEnsureEmptyObjectsMetadataMatch(false)
+            .build();
+
+    // Intermediate composes finish before compose returns, so all created temporary objects are
+    // tracked here when they are deleted.
+    Queue<StorageResourceId> tempObjects = new ConcurrentLinkedQueue<>();
+    try {
+      new ParallelComposer(gcs, cachedExecutor, max(1, gcs.getOptions().getBatchThreads()))
+          .compose(
+              sourceIds,
+              destResource,
+              createOptions,
+              () ->
+                  new StorageResourceId(
+                      destResource.getBucketName(),
+                      tempObjectNamePrefix + tempObjectCount.getAndIncrement()),
+              tempObjects);
+    } finally {
+      if (!tempObjects.isEmpty()) {
+        logger.atFiner().log(
+            "Deleting %s temporary objects for '%s'", tempObjects.size(), destination);
+        try {
+          gcs.deleteObjects(ImmutableList.copyOf(tempObjects));
+        } catch (IOException e) {
+          logger.atWarning().withCause(e).log(
+              "Failed to delete temporary objects for '%s' with '%s' prefix",
+              destination, tempObjectNamePrefix);
+        }
+      }
+    }
   }
 
+
   /**
    * Renames given directory without checking any parameters.
    *
    * <p>GCS does not support atomic renames therefore a rename is implemented as copying source
    * metadata to destination and then deleting source metadata. Note that only the metadata is
    * copied and not the content of any file.
+   *
+   * <p>If Cooperative Locking is disabled, directory is renamed page by page, see {@link
+   * #renameDirectoryPipelined}.
    */
   private void renameDirectoryInternal(
       FileInfo srcInfo, URI dst, Optional<CoopLockOperationRename> coopLockOp) throws IOException {
     checkArgument(srcInfo.isDirectory(), "'%s' should be a directory", srcInfo);
     checkArgument(dst.toString().endsWith(PATH_DELIMITER), "'%s' should be a directory", dst);
 
+    // Cooperative Locking operation log should contain all renamed items before rename starts,
+    // that's why whole source directory needs to be listed upfront in this case.
+    if (!coopLockOp.isPresent()) {
+      renameDirectoryPipelined(srcInfo, dst);
+      return;
+    }
+
     URI src = srcInfo.getPath();
 
     // Mapping from each src to its respective dst.
@@ -799,6 +1032,129 @@ public class GoogleCloudStorageFileSystem {
     }
   }
 
+  /**
+   * Renames given directory by consuming its listing page by page, so that the number of items held
+   * in memory does not grow with the directory size.
+   *
+   * <p>The next listing page is prefetched while the current page is being copied. If marker files
+   * pattern is not configured, each copied page is deleted while the next page is being copied, so
+   * at most 3 listing pages are in flight at any time: prefetched, copied and deleted. Source
+   * directory placeholder objects are deleted only in the final batch, as in {@link
+   * #deleteDirectoryPipelined}, so that they are never deleted before their children.
+   *
+   * <p>If marker files pattern is configured, then marker files are copied after all other items
+   * and source items are deleted only after marker files were deleted from the source, as in the
+   * non-pipelined rename. For this reason the deletion of the source items is deferred until all
+   * listing pages are copied in this case.
+   */
+  private void renameDirectoryPipelined(FileInfo srcInfo, URI dst) throws IOException {
+    URI src = srcInfo.getPath();
+    String prefix = src.toString();
+    Pattern markerFilePattern = options.getMarkerFilePattern();
+
+    // Marker items are copied after all other items are copied.
+    Map<FileInfo, URI> srcToDstMarkerItemNames = new TreeMap<>(FILE_INFO_PATH_COMPARATOR);
+    // Copied items which were not deleted yet.
+    List<FileInfo> srcItemsToDelete = new ArrayList<>();
+    // Copied directory placeholder objects which deletion is deferred until all other objects are
+    // deleted.
+    List<FileInfo> srcDirsToDelete = new ArrayList<>();
+
+    Future<ListPage<FileInfo>> nextPageFuture = null;
+    Future<Void> deleteFuture = null;
+    try {
+      ListPage<FileInfo> page =
+          listFileInfoForPrefixPage(src, DELETE_RENAME_LIST_OPTIONS, /* pageToken= */ null);
+      while (true) {
+        String nextPageToken = page.getNextPageToken();
+        nextPageFuture =
+            nextPageToken == null
+                ? null
+                : cachedExecutor.submit(
+                    () ->
+                        listFileInfoForPrefixPage(src, DELETE_RENAME_LIST_OPTIONS, nextPageToken));
+
+        // Mapping from each src to its respective dst.
+        // Sort src items so that parent directories appear before their children.
+        // That allows us to copy parent directories before we copy their children.
+        Map<FileInfo, URI> srcToDstItemNames = new TreeMap<>(FILE_INFO_PATH_COMPARATOR);
+        for (FileInfo srcItemInfo : page.getItems()) {
+          String relativeItemName = srcItemInfo.getPath().toString().substring(prefix.length());
+          URI dstItemName = dst.resolve(relativeItemName);
+          if (markerFilePattern != null && markerFilePattern.matcher(relativeItemName).matches()) {
+            srcToDstMarkerItemNames.put(srcItemInfo, dstItemName);
+          } else {
+            srcToDstItemNames.put(srcItemInfo, dstItemName);
+          }
+        }
+
+        copyInternal(srcToDstItemNames);
+        for (FileInfo srcItemInfo : srcToDstItemNames.keySet()) {
+          (srcItemInfo.isDirectory() ? srcDirsToDelete : srcItemsToDelete).add(srcItemInfo);
+        }
+
+        if (nextPageFuture == null) {
+          break;
+        }
+
+        // Delete copied items in background while the next page is copied.
+        if (markerFilePattern == null) {
+          if (deleteFuture != null) {
+            getFromFuture(deleteFuture);
+          }
+          List<FileInfo> pageItemsToDelete = srcItemsToDelete;
+          srcItemsToDelete = new ArrayList<>();
+          deleteFuture =
+              cachedExecutor.submit(
+                  () -> {
+                    deleteInternal(pageItemsToDelete, new ArrayList<>());
+                    return null;
+                  });
+        }
+
+        page = getFromFuture(nextPageFuture);
+        nextPageFuture = null;
+      }
+
+      if (deleteFuture != null) {
+        getFromFuture(deleteFuture);
+        deleteFuture = null;
+      }
+    } catch (IOException | RuntimeException e) {
+      if (nextPageFuture != null) {
+        nextPageFuture.cancel(/* mayInterruptIfRunning= */ true);
+      }
+      if (deleteFuture != null) {
+        try {
+          getFromFuture(deleteFuture);
+        } catch (IOException deleteException) {
+          e.addSuppressed(deleteException);
+        }
+      }
+      throw e;
+    }
+
+    // Finally, copy marker items (if any) to mark rename operation success
+    copyInternal(srcToDstMarkerItemNames);
+
+    // Delete directory placeholders in the same batch with the files from the last page.
+    srcItemsToDelete.addAll(srcDirsToDelete);
+
+    List<FileInfo> bucketsToDelete = new ArrayList<>(1);
+    if (srcInfo.getItemInfo().isBucket()) {
+      bucketsToDelete.add(srcInfo);
+    } else {
+      // If src is a directory then listed items do not contain its own name,
+      // therefore add it to the list before we delete items in the list.
+      srcItemsToDelete.add(srcInfo);
+    }
+
+    // First delete marker files from the src
+    deleteInternal(new ArrayList<>(srcToDstMarkerItemNames.keySet()), new ArrayList<>());
+    // Then delete rest of the items that we successfully copied.
+    deleteInternal(srcItemsToDelete, bucketsToDelete);
+  }
+
   /** Copies items in given map that maps source items to destination items. */
   private void copyInternal(Map<FileInfo, URI> srcToDstItemNames) throws IOException {
     if (srcToDstItemNames.isEmpty()) {
@@ -911,6 +1267,43 @@ public class GoogleCloudStorageFileSystem {
     return fileInfos;
   }
 
+  /**
+   * Equivalent to {@link #listFileInfoForPrefix} but returns listed items in a compact {@link
+   * CompactFileInfoList}.
+   *
+   * @param prefix the prefix to use to list all matching objects.
+   */
+  public CompactFileInfoList listCompactFileInfoForPrefix(URI prefix) throws IOException {
+    return listCompactFileInfoForPrefix(prefix, ListFileOptions.DEFAULT);
+  }
+
+  /**
+   * Equivalent to {@link #listFileInfoForPrefix} but returns listed items in a compact {@link
+   * CompactFileInfoList}.
+   *
+   * <p>Listing is consumed page by page into an immutable {@link CompactFileInfoList}, so that
+   * memory footprint of large listings is not dominated by per-item object graphs.
+   *
+   * @param prefix the prefix to use to list all matching objects.
+   */
+  public CompactFileInfoList listCompactFileInfoForPrefix(URI prefix, ListFileOptions listOptions)
+      throws IOException {
+    logger.atFiner().log("listCompactFileInfoForPrefix(prefix: %s)", prefix);
+    StorageResourceId prefixId = getPrefixId(prefix);
+    ListObjectOptions listObjectOptions =
+        updateListObjectOptions(ListObjectOptions.DEFAULT_FLAT_LIST, listOptions);
+    CompactFileInfoList.Builder fileInfos = CompactFileInfoList.builder(prefixId.getBucketName());
+    String pageToken = null;
+    do {
+      ListPage<GoogleCloudStorageItemInfo> itemInfosPage =
+          gcs.listObjectInfoPage(
+              prefixId.getBucketName(), prefixId.getObjectName(), listObjectOptions, pageToken);
+      itemInfosPage.getItems().forEach(fileInfos::add);
+      pageToken = itemInfosPage.getNextPageToken();
+    } while (pageToken != null);
+    return fileInfos.build();
+  }
+
   /**
    * Equivalent to {@link #listFileInfoForPrefix} but returns {@link FileInfo}s listed by single
    * request (1 page).
@@ -26,35 +26,53 @@ import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageImpl.BackOffFactory;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
+import com.google.cloud.hadoop.util.Crc32c;
 import com.google.cloud.hadoop.util.ResilientOperation;
 import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.flogger.GoogleLogger;
-import com.google.common.hash.Hashing;
 import com.google.google.storage.v1.GetObjectMediaRequest;
 import com.google.google.storage.v1.GetObjectMediaResponse;
+import com.google.google.storage.v1.StorageGrpc;
 import com.google.google.storage.v1.StorageGrpc.StorageBlockingStub;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import io.grpc.Context;
 import io.grpc.Context.CancellableContext;
+import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCalls;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Iterator;
+import java.util.List;
 import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
-public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
+public class GoogleCloudStorageGrpcReadChannel implements ReadVectoredSeekableByteChannel {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
   protected static final String METADATA_FIELDS = "contentEncoding,generation,size";
 
+  // GetObjectMedia method that does not copy object data out of received messages.
+  private static final MethodDescriptor<GetObjectMediaRequest, GetObjectMediaResponse>
+      GET_OBJECT_MEDIA_METHOD =
+          StorageGrpc.getGetObjectMediaMethod()
+              .toBuilder(
+                  StorageGrpc.getGetObjectMediaMethod().getRequestMarshaller(),
+                  new ZeroCopyMessageMarshaller<>(GetObjectMediaResponse.getDefaultInstance()))
+              .build();
+
   private volatile StorageBlockingStub stub;
 
   private final StorageStubProvider stubProvider;
@@ -68,7 +86,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   private final long objectSize;
 
   // True if this channel is open, false otherwise.
-  private boolean channelIsOpen = true;
+  private volatile boolean channelIsOpen = true;
 
   // Current position in the object.
   private long positionInGrpcStream = 0;
@@ -106,14 +124,33 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   // Offset in the object for the end of the range-requests
   private long contentChannelEndOffset = -1;
 
+  // Process-wide cache of object blocks, null if block cache is disabled.
+  @Nullable private final ReadBlockCache blockCache;
+
+  // Tracks reads in ADAPTIVE fadvise mode, null in other modes.
+  @Nullable private final AccessPatternTracker accessPattern;
+
+  // Executor for parallel reads of object blocks.
+  private final ExecutorService readExecutor;
+
+  // Blocks read ahead with parallel streams, null if parallel reads were not started.
+  @Nullable private ReadAheadBuffer parallelReadBuffer;
+
   public static GoogleCloudStorageGrpcReadChannel open(
       StorageStubProvider stubProvider,
       Storage storage,
       ApiErrorExtractor errorExtractor,
       StorageResourceId resourceId,
-      GoogleCloudStorageReadOptions readOptions)
+      GoogleCloudStorageReadOptions readOptions,
+      ExecutorService readExecutor)
       throws IOException {
-    return open(stubProvider, storage, errorExtractor, resourceId, readOptions,
+    return open(
+        stubProvider,
+        storage,
+        errorExtractor,
+        resourceId,
+        readOptions,
+        readExecutor,
         BackOffFactory.DEFAULT);
   }
 
@@ -124,6 +161,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       ApiErrorExtractor errorExtractor,
       StorageResourceId resourceId,
       GoogleCloudStorageReadOptions readOptions,
+      ExecutorService readExecutor,
       BackOffFactory backOffFactory)
       throws IOException {
     // The gRPC API's GetObjectMedia call does not provide a generation number, so to ensure
@@ -131,8 +169,15 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     // call.
     try {
       return ResilientOperation.retry(
-          () -> openChannel(stubProvider, storage, errorExtractor, resourceId, readOptions,
-              backOffFactory),
+          () ->
+              openChannel(
+                  stubProvider,
+                  storage,
+                  errorExtractor,
+                  resourceId,
+                  readOptions,
+                  readExecutor,
+                  backOffFactory),
           backOffFactory.newBackOff(),
           RetryDeterminer.ALL_ERRORS,
           IOException.class);
@@ -147,7 +192,9 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       ApiErrorExtractor errorExtractor,
       StorageResourceId resourceId,
       GoogleCloudStorageReadOptions readOptions,
-      BackOffFactory backOffFactory) throws IOException {
+      ExecutorService readExecutor,
+      BackOffFactory backOffFactory)
+      throws IOException {
     StorageBlockingStub stub = stubProvider.newBlockingStub();
     // TODO(b/135138893): We can avoid this call by adding metadata to a read request.
     //      That will save about 40ms per read.
@@ -164,10 +211,31 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
           "Cannot read GZIP encoded files - content encoding support is disabled.");
     }
 
-    int prefetchSizeInBytes = readOptions.getMinRangeRequestSize() / 2;
-    long footerOffsetInBytes = Math.max(0, (itemInfo.getSize() - prefetchSizeInBytes));
-
-    ByteString footerContent = getFooterContent(resourceId, readOptions, stub, footerOffsetInBytes);
+    FooterCache footerCache =
+        readOptions.getFooterCacheMaxSize() > 0
+            ? FooterCache.getInstance(readOptions.getFooterCacheMaxSize())
+            : null;
+    StorageResourceId generationResourceId =
+        new StorageResourceId(
+            resourceId.getBucketName(),
+            resourceId.getObjectName(),
+            itemInfo.getContentGeneration());
+    byte[] cachedFooter = footerCache == null ? null : footerCache.get(generationResourceId);
+
+    long footerOffsetInBytes;
+    ByteString footerContent;
+    if (cachedFooter != null) {
+      footerOffsetInBytes = itemInfo.getSize() - cachedFooter.length;
+      // Cached footer is never modified, so it can be wrapped without copying.
+      footerContent = UnsafeByteOperations.unsafeWrap(cachedFooter);
+    } else {
+      int prefetchSizeInBytes = readOptions.getMinRangeRequestSize() / 2;
+      footerOffsetInBytes = Math.max(0, (itemInfo.getSize() - prefetchSizeInBytes));
+      footerContent = getFooterContent(resourceId, readOptions, stub, footerOffsetInBytes);
+      if (footerCache != null && footerContent != null) {
+        footerCache.put(generationResourceId, footerContent.toByteArray());
+      }
+    }
 
     return new GoogleCloudStorageGrpcReadChannel(
         stub,
@@ -178,6 +246,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
         footerOffsetInBytes,
         footerContent,
         readOptions,
+        readExecutor,
         backOffFactory);
   }
 
@@ -232,13 +301,15 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       GoogleCloudStorageReadOptions readOptions, StorageBlockingStub stub, long footerOffset)
       throws IOException {
     try {
-      Iterator<GetObjectMediaResponse> footerContentResponse = stub
-          .withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS)
-          .getObjectMedia(GetObjectMediaRequest.newBuilder()
-              .setReadOffset(footerOffset)
-              .setBucket(resourceId.getBucketName())
-              .setObject(resourceId.getObjectName())
-              .build());
+      Iterator<GetObjectMediaResponse> footerContentResponse =
+          getObjectMedia(
+              stub,
+              readOptions,
+              GetObjectMediaRequest.newBuilder()
+                  .setReadOffset(footerOffset)
+                  .setBucket(resourceId.getBucketName())
+                  .setObject(resourceId.getObjectName())
+                  .build());
 
       ByteString footerContent = null;
       while (footerContentResponse.hasNext()) {
@@ -265,6 +336,18 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     }
   }
 
+  private static Iterator<GetObjectMediaResponse> getObjectMedia(
+      StorageBlockingStub stub,
+      GoogleCloudStorageReadOptions readOptions,
+      GetObjectMediaRequest request) {
+    return ClientCalls.blockingServerStreamingCall(
+        stub.getChannel(),
+        GET_OBJECT_MEDIA_METHOD,
+        stub.getCallOptions()
+            .withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS),
+        request);
+  }
+
   private GoogleCloudStorageGrpcReadChannel(
       StorageBlockingStub gcsGrpcBlockingStub,
       StorageStubProvider stubProvider,
@@ -274,6 +357,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       long footerStartOffsetInBytes,
       ByteString footerContent,
       GoogleCloudStorageReadOptions readOptions,
+      ExecutorService readExecutor,
       BackOffFactory backOffFactory) {
     this.stub = gcsGrpcBlockingStub;
     this.stubProvider = stubProvider;
@@ -281,10 +365,20 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     this.objectGeneration = objectGeneration;
     this.objectSize = objectSize;
     this.readOptions = readOptions;
+    this.readExecutor = checkNotNull(readExecutor, "readExecutor could not be null");
     this.backOffFactory = backOffFactory;
     this.readStrategy = readOptions.getFadvise();
     this.footerStartOffsetInBytes = footerStartOffsetInBytes;
     this.footerContent = footerContent;
+    this.blockCache =
+        readOptions.getBlockCacheMaxSize() > 0
+            ? ReadBlockCache.getInstance(readOptions.getBlockCacheMaxSize())
+            : null;
+    this.accessPattern =
+        readStrategy == Fadvise.ADAPTIVE
+            ? new AccessPatternTracker(
+                readOptions.getInplaceSeekLimit(), readOptions.getMinRangeRequestSize())
+            : null;
   }
 
   private static IOException convertError(
@@ -303,12 +397,41 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
 
   /** Writes part of a ByteString into a ByteBuffer with as little copying as possible */
   private static void put(ByteString source, int offset, int size, ByteBuffer dest) {
+    put(source, offset, size, dest, /* hasher= */ null);
+  }
+
+  /**
+   * Writes part of a ByteString into a ByteBuffer with as little copying as possible, updating the
+   * hasher, if it is provided, with the written data while it is copied.
+   */
+  private static void put(
+      ByteString source, int offset, int size, ByteBuffer dest, @Nullable Crc32c.Hasher hasher) {
     ByteString croppedSource = source.substring(offset, offset + size);
     for (ByteBuffer sourcePiece : croppedSource.asReadOnlyByteBufferList()) {
-      dest.put(sourcePiece);
+      if (hasher == null) {
+        dest.put(sourcePiece);
+      } else {
+        Crc32c.copyAndHash(sourcePiece, dest, hasher);
+      }
     }
   }
 
+  /** Updates the hasher with part of a ByteString without copying it. */
+  private static void hash(ByteString source, int offset, int size, Crc32c.Hasher hasher) {
+    for (ByteBuffer sourcePiece :
+        source.substring(offset, offset + size).asReadOnlyByteBufferList()) {
+      hasher.update(sourcePiece);
+    }
+  }
+
+  /** Returns a hasher for the response content if its checksum should be validated, or null. */
+  @Nullable
+  private Crc32c.Hasher newChecksumHasher(GetObjectMediaResponse res) {
+    return readOptions.isGrpcChecksumsEnabled() && res.getChecksummedData().hasCrc32C()
+        ? Crc32c.newHasher()
+        : null;
+  }
+
   private int readBufferedContentInto(ByteBuffer byteBuffer) {
     // Handle skipping forward through the buffer for a seek.
     long bufferSkip =
@@ -340,6 +463,18 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
 
   @Override
   public int read(ByteBuffer byteBuffer) throws IOException {
+    if (accessPattern == null) {
+      return readInternal(byteBuffer);
+    }
+    long readStartPosition = position();
+    int bytesRead = readInternal(byteBuffer);
+    if (bytesRead > 0) {
+      accessPattern.recordRead(readStartPosition, bytesRead);
+    }
+    return bytesRead;
+  }
+
+  private int readInternal(ByteBuffer byteBuffer) throws IOException {
     logger.atFiner().log(
         "GCS gRPC read request for up to %d bytes at offset %d from object '%s'",
         byteBuffer.remaining(), position(), resourceId);
@@ -348,6 +483,10 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       throw new ClosedChannelException();
     }
 
+    if (blockCache != null) {
+      return readFromBlockCache(byteBuffer);
+    }
+
     int bytesRead = 0;
 
     if (resIterator != null && isByteBufferBeyondCurrentRequestRange(byteBuffer)) {
@@ -381,17 +520,26 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       return bytesRead;
     }
 
-    if (resIterator == null) {
-      OptionalLong bytesToRead = getBytesToRead(byteBuffer);
-      positionInGrpcStream += bytesToSkipBeforeReading;
-      bytesToSkipBeforeReading = 0;
-      requestObjectMedia(bytesToRead);
-      if (bytesToRead.isPresent()) {
-        contentChannelEndOffset = positionInGrpcStream + bytesToRead.getAsLong();
+    if (resIterator == null && isParallelReadEnabled()) {
+      bytesRead += readParallel(byteBuffer);
+    } else {
+      if (parallelReadBuffer != null) {
+        parallelReadBuffer.clear();
+        parallelReadBuffer = null;
       }
-    }
 
-    bytesRead += readObjectContentFromGCS(byteBuffer);
+      if (resIterator == null) {
+        OptionalLong bytesToRead = getBytesToRead(byteBuffer);
+        positionInGrpcStream += bytesToSkipBeforeReading;
+        bytesToSkipBeforeReading = 0;
+        requestObjectMedia(bytesToRead);
+        if (bytesToRead.isPresent()) {
+          contentChannelEndOffset = positionInGrpcStream + bytesToRead.getAsLong();
+        }
+      }
+
+      bytesRead += readObjectContentFromGCS(byteBuffer);
+    }
 
     if (hasMoreFooterContentToRead(byteBuffer)) {
       int bytesToWrite = min(byteBuffer.remaining(), footerContent.size());
@@ -404,6 +552,237 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
     return bytesRead;
   }
 
+  /**
+   * Reads data from the object blocks in the {@link #blockCache}, fetching missing blocks with
+   * bounded requests.
+   */
+  private int readFromBlockCache(ByteBuffer byteBuffer) throws IOException {
+    long position = positionInGrpcStream + bytesToSkipBeforeReading;
+    if (!byteBuffer.hasRemaining()) {
+      return 0;
+    }
+    if (position == objectSize) {
+      return -1;
+    }
+    int bytesRead = readFromBlockCache(position, byteBuffer, this::readRange);
+    positionInGrpcStream = position + bytesRead;
+    bytesToSkipBeforeReading = 0;
+    return bytesRead;
+  }
+
+  /**
+   * Reads data starting at the given position from the object blocks in the {@link #blockCache},
+   * fetching missing blocks with the provided loader.
+   */
+  private int readFromBlockCache(
+      long position, ByteBuffer byteBuffer, ReadBlockCache.BlockLoader blockLoader)
+      throws IOException {
+    StorageResourceId blockResourceId =
+        new StorageResourceId(
+            resourceId.getBucketName(), resourceId.getObjectName(), objectGeneration);
+    int blockSize = readOptions.getBlockCacheBlockSize();
+    int bytesRead = 0;
+    while (byteBuffer.hasRemaining() && position < objectSize) {
+      long blockIndex = position / blockSize;
+      ByteBuffer block =
+          blockCache.get(blockResourceId, objectSize, blockSize, blockIndex, blockLoader);
+      int blockOffset = Math.toIntExact(position - blockIndex * blockSize);
+      int bytesToWrite = min(byteBuffer.remaining(), block.remaining() - blockOffset);
+      block.position(blockOffset).limit(blockOffset + bytesToWrite);
+      byteBuffer.put(block);
+      bytesRead += bytesToWrite;
+      position += bytesToWrite;
+    }
+    return bytesRead;
+  }
+
+  private boolean isParallelReadEnabled() {
+    return readOptions.getGrpcReadParallelStreams() > 1
+        && objectSize >= readOptions.getGrpcReadParallelMinObjectSize()
+        && readStrategy != Fadvise.RANDOM
+        && (accessPattern == null
+            || !accessPattern.isRandomAccess(positionInGrpcStream + bytesToSkipBeforeReading));
+  }
+
+  /**
+   * Reads data from blocks that are read ahead of the current position in parallel, each with its
+   * own bounded request over a stub from the {@link #stubProvider} pool. Number of blocks kept in
+   * memory is limited by the number of parallel streams.
+   */
+  private int readParallel(ByteBuffer byteBuffer) throws IOException {
+    if (parallelReadBuffer == null) {
+      // Footer is read from prefetched footer content.
+      long parallelReadEnd = footerContent == null ? objectSize : footerStartOffsetInBytes;
+      parallelReadBuffer =
+          new ReadAheadBuffer(
+              this::readRangeAsync,
+              parallelReadEnd,
+              readOptions.getReadAheadBlockSize(),
+              readOptions.getGrpcReadParallelStreams());
+    }
+    positionInGrpcStream += bytesToSkipBeforeReading;
+    bytesToSkipBeforeReading = 0;
+    int bytesRead = 0;
+    int blockBytesRead;
+    while (byteBuffer.hasRemaining()
+        && (blockBytesRead = parallelReadBuffer.read(positionInGrpcStream, byteBuffer)) > 0) {
+      bytesRead += blockBytesRead;
+      positionInGrpcStream += blockBytesRead;
+    }
+    return bytesRead;
+  }
+
+  /** Starts asynchronous read of the object range with a stub from the {@link #stubProvider}. */
+  private VectoredIORange readRangeAsync(long offset, int length) {
+    VectoredIORange range = new VectoredIORange(offset, length);
+    readRangeAsync(range, this::readPooledRange);
+    return range;
+  }
+
+  /** Starts asynchronous read of the provided range on the read executor with the given reader. */
+  private void readRangeAsync(VectoredIORange range, ReadBlockCache.BlockLoader rangeReader) {
+    logger.atFiner().log("Reading %s of '%s' in parallel", range, resourceId);
+    try {
+      readExecutor.execute(
+          () -> {
+            if (range.getData().isDone()) {
+              // Do not read ranges that were cancelled before the read started.
+              return;
+            }
+            try {
+              range.getData().complete(rangeReader.load(range.getOffset(), range.getLength()));
+            } catch (IOException | RuntimeException e) {
+              range.getData().completeExceptionally(e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      range.getData().completeExceptionally(new IOException("Failed to schedule range read", e));
+    }
+  }
+
+  /** Reads the object range with a single bounded request using a stub from the pool. */
+  private ByteBuffer readPooledRange(long offset, int length) throws IOException {
+    return readRange(offset, length, stubProvider::newBlockingStub, ByteBuffer::allocate);
+  }
+
+  /**
+   * Reads provided ranges in parallel, each with its own bounded request over a stub from the
+   * {@link #stubProvider} pool, without affecting the position and the current request of this
+   * channel. Ranges are read on the read executor, so this method could be called concurrently with
+   * other methods of this channel.
+   *
+   * <p>Ranges within the prefetched footer are served from it, and if the {@link #blockCache} is
+   * enabled then other ranges are read from its blocks. Unlike the HTTP channel, nearby ranges are
+   * not merged, because each range is read over its own stream of the pooled stubs.
+   */
+  @Override
+  public void readVectored(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    if (!isOpen()) {
+      throw new ClosedChannelException();
+    }
+    checkNotNull(ranges, "ranges could not be null");
+    checkNotNull(allocate, "allocate could not be null");
+    for (VectoredIORange range : ranges) {
+      if (range.getEnd() > objectSize) {
+        range
+            .getData()
+            .completeExceptionally(
+                new EOFException(
+                    String.format(
+                        "Range %s is beyond end of object (size: %d) for '%s'",
+                        range, objectSize, resourceId)));
+      } else if (range.getLength() == 0) {
+        range.getData().complete(allocate.apply(0));
+      } else if (footerContent != null && range.getOffset() >= footerStartOffsetInBytes) {
+        ByteBuffer data = allocate.apply(range.getLength());
+        put(
+            footerContent,
+            Math.toIntExact(range.getOffset() - footerStartOffsetInBytes),
+            range.getLength(),
+            data);
+        data.flip();
+        range.getData().complete(data);
+      } else if (blockCache != null) {
+        readRangeAsync(
+            range,
+            (offset, length) -> {
+              ByteBuffer data = allocate.apply(length);
+              data.limit(length);
+              readFromBlockCache(offset, data, this::readPooledRange);
+              data.flip();
+              return data;
+            });
+      } else {
+        readRangeAsync(
+            range,
+            (offset, length) -> readRange(offset, length, stubProvider::newBlockingStub, allocate));
+      }
+    }
+  }
+
+  /** Reads the object range with a single bounded request. */
+  private ByteBuffer readRange(long offset, int length) throws IOException {
+    return readRange(offset, length, () -> stub, ByteBuffer::allocate);
+  }
+
+  /**
+   * Reads the object range with a single bounded request using stub from the provided supplier into
+   * the buffer from the provided allocator.
+   */
+  private ByteBuffer readRange(
+      long offset,
+      int length,
+      Supplier<StorageBlockingStub> stubSupplier,
+      IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    ByteBuffer content = allocate.apply(length);
+    GetObjectMediaRequest request =
+        GetObjectMediaRequest.newBuilder()
+            .setBucket(resourceId.getBucketName())
+            .setObject(resourceId.getObjectName())
+            .setGeneration(objectGeneration)
+            .setReadOffset(offset)
+            .setReadLimit(length)
+            .build();
+    try {
+      return ResilientOperation.retry(
+          () -> {
+            try {
+              content.clear();
+              content.limit(length);
+              Iterator<GetObjectMediaResponse> responses =
+                  getObjectMedia(stubSupplier.get(), readOptions, request);
+              while (responses.hasNext()) {
+                GetObjectMediaResponse res = responses.next();
+                ByteString data = res.getChecksummedData().getContent();
+                if (data.size() > content.remaining()) {
+                  throw new IOException(
+                      String.format(
+                          "Received more than %d requested bytes at offset %d for '%s'",
+                          length, offset, resourceId));
+                }
+                Crc32c.Hasher hasher = newChecksumHasher(res);
+                put(data, 0, data.size(), content, hasher);
+                if (hasher != null) {
+                  validateChecksum(res, hasher);
+                }
+              }
+              content.flip();
+              return content;
+            } catch (StatusRuntimeException e) {
+              recreateStub(e);
+              throw convertError(e, resourceId);
+            }
+          },
+          backOffFactory.newBackOff(),
+          RetryDeterminer.ALL_ERRORS,
+          IOException.class);
+    } catch (Exception e) {
+      throw new IOException(String.format("Error reading '%s'", resourceId), e);
+    }
+  }
+
   private boolean isByteBufferBeyondCurrentRequestRange(ByteBuffer byteBuffer) {
     long effectivePosition = positionInGrpcStream + bytesToSkipBeforeReading;
     // current request does not have a range or this is the first request
@@ -419,8 +798,9 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
       GetObjectMediaResponse res = resIterator.next();
 
       ByteString content = res.getChecksummedData().getContent();
+      int contentOffset = 0;
       if (bytesToSkipBeforeReading >= 0 && bytesToSkipBeforeReading < content.size()) {
-        content = res.getChecksummedData().getContent().substring((int) bytesToSkipBeforeReading);
+        contentOffset = (int) bytesToSkipBeforeReading;
         positionInGrpcStream += bytesToSkipBeforeReading;
         bytesToSkipBeforeReading = 0;
       } else if (bytesToSkipBeforeReading >= content.size()) {
@@ -429,29 +809,40 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
         continue;
       }
 
-      if (readOptions.isGrpcChecksumsEnabled() && res.getChecksummedData().hasCrc32C()) {
-        validateChecksum(res);
-      }
-
-      boolean responseSizeLargerThanRemainingBuffer = content.size() > byteBuffer.remaining();
+      boolean responseSizeLargerThanRemainingBuffer =
+          content.size() - contentOffset > byteBuffer.remaining();
       int bytesToWrite =
-          responseSizeLargerThanRemainingBuffer ? byteBuffer.remaining() : content.size();
-      put(content, 0, bytesToWrite, byteBuffer);
+          responseSizeLargerThanRemainingBuffer
+              ? byteBuffer.remaining()
+              : content.size() - contentOffset;
+      // Content written into the buffer is hashed while it is copied, and skipped or buffered
+      // content is hashed in place, so that the whole message is validated before read returns.
+      Crc32c.Hasher hasher = newChecksumHasher(res);
+      if (hasher != null) {
+        hash(content, 0, contentOffset, hasher);
+      }
+      put(content, contentOffset, bytesToWrite, byteBuffer, hasher);
+      if (hasher != null) {
+        int bufferedContentOffset = contentOffset + bytesToWrite;
+        hash(content, bufferedContentOffset, content.size() - bufferedContentOffset, hasher);
+        validateChecksum(res, hasher);
+      }
       bytesRead += bytesToWrite;
       positionInGrpcStream += bytesToWrite;
 
       if (responseSizeLargerThanRemainingBuffer) {
         bufferedContent = content;
-        bufferedContentReadOffset = bytesToWrite;
+        bufferedContentReadOffset = contentOffset + bytesToWrite;
       }
     }
     return bytesRead;
   }
 
-  private void validateChecksum(GetObjectMediaResponse res) throws IOException {
+  /** Validates checksum of the response content that was passed to the provided hasher. */
+  private void validateChecksum(GetObjectMediaResponse res, Crc32c.Hasher hasher)
+      throws IOException {
     // TODO: Concatenate all these hashes together and compare the result at the end.
-    int calculatedChecksum =
-        Hashing.crc32c().hashBytes(res.getChecksummedData().getContent().toByteArray()).asInt();
+    int calculatedChecksum = hasher.getValue();
     int expectedChecksum = res.getChecksummedData().getCrc32C().getValue();
     if (calculatedChecksum != expectedChecksum) {
       throw new IOException(
@@ -474,6 +865,12 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
           .max(readOptions.getInplaceSeekLimit(), readOptions.getMinRangeRequestSize());
       optionalBytesToRead = OptionalLong
           .of(max((long) byteBuffer.remaining(), rangeRequestSize));
+    } else if (accessPattern != null
+        && accessPattern.isRandomAccess(positionInGrpcStream + bytesToSkipBeforeReading)) {
+      optionalBytesToRead =
+          OptionalLong.of(
+              accessPattern.getRangeRequestSize(
+                  positionInGrpcStream + bytesToSkipBeforeReading, byteBuffer.remaining()));
     }
 
     if (footerContent == null) {
@@ -514,9 +911,7 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
               requestContext = Context.current().withCancellation();
               Context toReattach = requestContext.attach();
               try {
-                resIterator =
-                    stub.withDeadlineAfter(readOptions.getGrpcReadTimeoutMillis(), MILLISECONDS)
-                        .getObjectMedia(request);
+                resIterator = getObjectMedia(stub, readOptions, request);
               } finally {
                 requestContext.detach(toReattach);
               }
@@ -660,6 +1055,11 @@ public class GoogleCloudStorageGrpcReadChannel implements SeekableByteChannel {
   @Override
   public void close() {
     cancelCurrentRequest();
+    bufferedContent = null;
+    if (parallelReadBuffer != null) {
+      parallelReadBuffer.clear();
+      parallelReadBuffer = null;
+    }
     channelIsOpen = false;
   }
 
@@ -23,13 +23,11 @@ import static java.util.stream.Collectors.toMap;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageImpl.BackOffFactory;
 import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.cloud.hadoop.util.BaseAbstractGoogleAsyncWriteChannel;
+import com.google.cloud.hadoop.util.Crc32c;
 import com.google.cloud.hadoop.util.ResilientOperation;
 import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.hash.Hasher;
-import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
-import com.google.common.io.ByteStreams;
 import com.google.google.storage.v1.ChecksummedData;
 import com.google.google.storage.v1.InsertObjectRequest;
 import com.google.google.storage.v1.InsertObjectSpec;
@@ -40,18 +38,19 @@ import com.google.google.storage.v1.QueryWriteStatusResponse;
 import com.google.google.storage.v1.StartResumableWriteRequest;
 import com.google.google.storage.v1.StartResumableWriteResponse;
 import com.google.google.storage.v1.StorageGrpc.StorageStub;
-import com.google.protobuf.ByteString;
 import com.google.protobuf.Int64Value;
 import com.google.protobuf.UInt32Value;
+import com.google.protobuf.UnsafeByteOperations;
 import com.google.protobuf.util.Timestamps;
 import io.grpc.Status;
 import io.grpc.stub.ClientCallStreamObserver;
 import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.StreamObserver;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Duration;
 import java.util.Map;
 import java.util.TreeMap;
@@ -155,22 +154,21 @@ public final class GoogleCloudStorageGrpcWriteChannel
   private class UploadOperation implements Callable<Object> {
 
     // Read end of the pipe.
-    private final BufferedInputStream pipeSource;
+    private final ReadableByteChannel pipeSource;
     private final int MAX_BYTES_PER_MESSAGE = MAX_WRITE_CHUNK_BYTES.getNumber();
 
-    private Hasher objectHasher;
+    // CRC32C of the data read from the pipe, combined from CRC32C of the read data chunks.
+    private int objectCrc32c = 0;
     private String uploadId;
     private long writeOffset = 0;
     private InsertChunkResponseObserver responseObserver;
     // Holds list of most recent number of NUMBER_OF_REQUESTS_TO_RETAIN requests, so upload can be
-    // rewound and re-sent upon transient errors.
-    private final TreeMap<Long, ByteString> dataChunkMap = new TreeMap<>();
+    // rewound and re-sent upon transient errors. Chunks are released when the server reports that
+    // they were persisted, when they are evicted or when the upload operation finishes.
+    private final TreeMap<Long, DataChunk> dataChunkMap = new TreeMap<>();
 
     UploadOperation(InputStream pipeSource) {
-      this.pipeSource = new BufferedInputStream(pipeSource, MAX_BYTES_PER_MESSAGE);
-      if (channelOptions.isGrpcChecksumsEnabled()) {
-        objectHasher = Hashing.crc32c().newHasher();
-      }
+      this.pipeSource = Channels.newChannel(pipeSource);
     }
 
     @Override
@@ -179,7 +177,7 @@ public final class GoogleCloudStorageGrpcWriteChannel
       // the writer at the other end will not hang indefinitely.
       // Send the initial StartResumableWrite request to get an uploadId.
       uploadId = startResumableUpload();
-      try (InputStream ignore = pipeSource) {
+      try (ReadableByteChannel ignore = pipeSource) {
         return ResilientOperation.retry(
             this::doResumableUpload,
             backOffFactory.newBackOff(),
@@ -189,6 +187,9 @@ public final class GoogleCloudStorageGrpcWriteChannel
         Thread.currentThread().interrupt();
         throw new IOException(
             String.format("Interrupted resumable upload failed for '%s'", resourceId), e);
+      } finally {
+        dataChunkMap.values().forEach(chunk -> bufferPool.release(chunk.buffer));
+        dataChunkMap.clear();
       }
     }
 
@@ -196,6 +197,7 @@ public final class GoogleCloudStorageGrpcWriteChannel
       // Only request committed size for the first insert request.
       if (writeOffset > 0) {
         writeOffset = getCommittedWriteSize(uploadId);
+        releasePersistedDataChunks(writeOffset);
       }
       responseObserver = new InsertChunkResponseObserver(uploadId, writeOffset);
       // TODO(b/151184800): Implement per-message timeout, in addition to stream timeout.
@@ -219,18 +221,24 @@ public final class GoogleCloudStorageGrpcWriteChannel
         InsertObjectRequest insertRequest;
         if (dataChunkMap.size() > 0 && dataChunkMap.lastKey() >= writeOffset) {
           insertRequest = buildRequestFromBufferedDataChunk(dataChunkMap, writeOffset);
-          writeOffset += insertRequest.getChecksummedData().getContent().size();
+          // Resumed chunk can start before the committed offset.
+          writeOffset =
+              insertRequest.getWriteOffset()
+                  + insertRequest.getChecksummedData().getContent().size();
         } else {
-          ByteString data =
-              ByteString.readFrom(
-                  ByteStreams.limit(pipeSource, MAX_BYTES_PER_MESSAGE), MAX_BYTES_PER_MESSAGE);
-          dataChunkMap.put(writeOffset, data);
-          if (dataChunkMap.size() >= channelOptions.getNumberOfBufferedRequests()) {
-            dataChunkMap.remove(dataChunkMap.firstKey());
+          DataChunk dataChunk = readDataChunk();
+          // Evict the oldest chunk before adding the new one, so the buffer of the chunk that is
+          // being sent is never released.
+          if (!dataChunkMap.isEmpty()
+              && dataChunkMap.size() >= channelOptions.getNumberOfBufferedRequests() - 1) {
+            bufferPool.release(dataChunkMap.remove(dataChunkMap.firstKey()).buffer);
           }
-          insertRequest = buildInsertRequest(writeOffset, data, false);
-          writeOffset += data.size();
+          dataChunkMap.put(writeOffset, dataChunk);
+          insertRequest = buildInsertRequest(writeOffset, dataChunk);
+          writeOffset += dataChunk.size();
         }
+        // Sending does not wait for the request to be transmitted, so the next chunk is read from
+        // the pipe while the previous one is in flight.
         requestStreamObserver.onNext(insertRequest);
         objectFinalized = insertRequest.getFinishWrite();
 
@@ -260,19 +268,54 @@ public final class GoogleCloudStorageGrpcWriteChannel
       return responseObserver.getResponseOrThrow();
     }
 
-    private InsertObjectRequest buildInsertRequest(
-        long writeOffset, ByteString dataChunk, boolean resumeFromFailedInsert) {
+    /**
+     * Reads the next data chunk from the pipe into a pooled buffer, the chunk is smaller than
+     * MAX_BYTES_PER_MESSAGE only if the end of the pipe was reached.
+     *
+     * <p>Chunk CRC32C is computed once here and combined into the object CRC32C, so chunk data is
+     * not hashed again when the chunk is re-sent.
+     */
+    private DataChunk readDataChunk() throws IOException {
+      ByteBuffer buffer = bufferPool.acquire(MAX_BYTES_PER_MESSAGE);
+      try {
+        int bytesRead;
+        do {
+          bytesRead = pipeSource.read(buffer);
+        } while (bytesRead >= 0 && buffer.hasRemaining());
+      } catch (IOException | RuntimeException e) {
+        bufferPool.release(buffer);
+        throw e;
+      }
+      buffer.flip();
+      int crc32c = 0;
+      if (channelOptions.isGrpcChecksumsEnabled()) {
+        crc32c = Crc32c.hash(buffer);
+        objectCrc32c = Crc32c.combine(objectCrc32c, crc32c, buffer.remaining());
+      }
+      return new DataChunk(buffer, crc32c);
+    }
+
+    /** Releases buffered chunks that were persisted by the server and will not be re-sent. */
+    private void releasePersistedDataChunks(long committedWriteSize) {
+      while (!dataChunkMap.isEmpty()
+          && dataChunkMap.firstKey() < committedWriteSize
+          && dataChunkMap.firstKey() + dataChunkMap.firstEntry().getValue().size()
+              <= committedWriteSize) {
+        bufferPool.release(dataChunkMap.pollFirstEntry().getValue().buffer);
+      }
+    }
+
+    private InsertObjectRequest buildInsertRequest(long writeOffset, DataChunk dataChunk) {
       InsertObjectRequest.Builder requestBuilder =
           InsertObjectRequest.newBuilder().setUploadId(uploadId).setWriteOffset(writeOffset);
 
       if (dataChunk.size() > 0) {
+        // Wrap pooled buffer without copying, it is not modified until the chunk is released.
         ChecksummedData.Builder requestDataBuilder =
-            ChecksummedData.newBuilder().setContent(dataChunk);
+            ChecksummedData.newBuilder()
+                .setContent(UnsafeByteOperations.unsafeWrap(dataChunk.buffer.duplicate()));
         if (channelOptions.isGrpcChecksumsEnabled()) {
-          if (!resumeFromFailedInsert) {
-            updateObjectHash(dataChunk);
-          }
-          requestDataBuilder.setCrc32C(UInt32Value.newBuilder().setValue(getChunkHash(dataChunk)));
+          requestDataBuilder.setCrc32C(UInt32Value.newBuilder().setValue(dataChunk.crc32c));
         }
         requestBuilder.setChecksummedData(requestDataBuilder);
       }
@@ -282,42 +325,26 @@ public final class GoogleCloudStorageGrpcWriteChannel
         if (channelOptions.isGrpcChecksumsEnabled()) {
           requestBuilder.setObjectChecksums(
               ObjectChecksums.newBuilder()
-                  .setCrc32C(UInt32Value.newBuilder().setValue(objectHasher.hash().asInt())));
+                  .setCrc32C(UInt32Value.newBuilder().setValue(objectCrc32c)));
         }
       }
 
       return requestBuilder.build();
     }
 
-    private int getChunkHash(ByteString dataChunk) {
-      Hasher chunkHasher = Hashing.crc32c().newHasher();
-      for (ByteBuffer buffer : dataChunk.asReadOnlyByteBufferList()) {
-        chunkHasher.putBytes(buffer);
-      }
-      return chunkHasher.hash().asInt();
-    }
-
-    private void updateObjectHash(ByteString dataChunk) {
-      for (ByteBuffer buffer : dataChunk.asReadOnlyByteBufferList()) {
-        objectHasher.putBytes(buffer);
-      }
-    }
-
     // Handles the case when a writeOffset of data read previously is being processed.
     // This happens if a transient failure happens while uploading, and can be resumed by
     // querying the current committed offset.
     private InsertObjectRequest buildRequestFromBufferedDataChunk(
-        TreeMap<Long, ByteString> dataChunkMap, long writeOffset) throws IOException {
+        TreeMap<Long, DataChunk> dataChunkMap, long writeOffset) throws IOException {
       // Resume will only work if the first request builder in the cache carries an offset
       // not greater than the current writeOffset.
       InsertObjectRequest request = null;
       if (dataChunkMap.size() > 0 && dataChunkMap.firstKey() <= writeOffset) {
-        for (Map.Entry<Long, ByteString> entry : dataChunkMap.entrySet()) {
+        for (Map.Entry<Long, DataChunk> entry : dataChunkMap.entrySet()) {
           if (entry.getKey() + entry.getValue().size() > writeOffset
               || entry.getKey() == writeOffset) {
-            Long writeOffsetToResume = entry.getKey();
-            ByteString chunkData = entry.getValue();
-            request = buildInsertRequest(writeOffsetToResume, chunkData, true);
+            request = buildInsertRequest(entry.getKey(), entry.getValue());
             break;
           }
         }
@@ -565,4 +592,20 @@ public final class GoogleCloudStorageGrpcWriteChannel
   public GoogleCloudStorageItemInfo getItemInfo() {
     return completedItemInfo;
   }
+
+  /** Data chunk of the upload held in a pooled buffer, with CRC32C computed when it was read. */
+  private static class DataChunk {
+
+    private final ByteBuffer buffer;
+    private final int crc32c;
+
+    DataChunk(ByteBuffer buffer, int crc32c) {
+      this.buffer = buffer;
+      this.crc32c = crc32c;
+    }
+
+    int size() {
+      return buffer.remaining();
+    }
+  }
 }
@@ -59,11 +59,13 @@ import com.google.cloud.hadoop.gcsio.authorization.StorageRequestAuthorizer;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
 import com.google.cloud.hadoop.util.BaseAbstractGoogleAsyncWriteChannel;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
+import com.google.cloud.hadoop.util.Crc32c;
 import com.google.cloud.hadoop.util.HttpTransportFactory;
 import com.google.cloud.hadoop.util.ResilientOperation;
 import com.google.cloud.hadoop.util.RetryBoundedBackOff;
 import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.cloud.hadoop.util.RetryHttpInitializer;
+import com.google.cloud.hadoop.util.UploadStatistics;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.CacheBuilder;
@@ -74,16 +76,20 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.flogger.GoogleLogger;
+import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -203,6 +209,9 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
               .setDaemon(true)
               .build());
 
+  // Counters of the uploads performed by write channels of this instance.
+  private final UploadStatistics uploadStatistics = new UploadStatistics();
+
   // Thread-pool for manual matching of metadata tasks.
   // TODO(user): Wire out GoogleCloudStorageOptions for these.
   private ExecutorService manualBatchingThreadPool = createManualBatchingThreadPool();
@@ -381,6 +390,11 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
     return storageOptions;
   }
 
+  @Override
+  public UploadStatistics getUploadStatistics() {
+    return uploadStatistics;
+  }
+
   @Override
   public WritableByteChannel create(final StorageResourceId resourceId, CreateObjectOptions options)
       throws IOException {
@@ -443,10 +457,87 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
                     super.createRequest(inputStream), resourceId.getBucketName());
               }
             };
+    channel.setUploadStatistics(uploadStatistics);
     channel.initialize();
     return channel;
   }
 
+  /**
+   * See {@link GoogleCloudStorage#createObject(StorageResourceId, byte[], CreateObjectOptions)} for
+   * details about expected behavior.
+   */
+  @Override
+  public GoogleCloudStorageItemInfo createObject(
+      StorageResourceId resourceId, byte[] data, CreateObjectOptions options) throws IOException {
+    logger.atFiner().log("createObject(%s, %s bytes)", resourceId, data.length);
+    checkArgument(
+        resourceId.isStorageObject(), "Expected full StorageObject id, got %s", resourceId);
+
+    if (storageOptions.isGrpcEnabled()) {
+      // gRPC API does not support single request uploads, write data through the write channel.
+      WritableByteChannel channel = create(resourceId, options);
+      try {
+        channel.write(ByteBuffer.wrap(data));
+      } finally {
+        channel.close();
+      }
+      return ((GoogleCloudStorageItemInfo.Provider) channel).getItemInfo();
+    }
+
+    long writeGeneration =
+        resourceId.hasGenerationId()
+            ? resourceId.getGenerationId()
+            : getWriteGeneration(resourceId, options.isOverwriteExisting());
+
+    // Send checksums of the data with the request, so GCS validates integrity of the upload.
+    byte[] crc32c = Ints.toByteArray(Crc32c.hash(data, 0, data.length));
+    StorageObject object =
+        new StorageObject()
+            .setName(resourceId.getObjectName())
+            .setMetadata(encodeMetadata(options.getMetadata()))
+            .setContentEncoding(options.getContentEncoding())
+            .setCrc32c(BaseEncoding.base64().encode(crc32c))
+            .setMd5Hash(BaseEncoding.base64().encode(Hashing.md5().hashBytes(data).asBytes()));
+
+    Storage.Objects.Insert insertObject =
+        initializeRequest(
+            storage
+                .objects()
+                .insert(
+                    resourceId.getBucketName(),
+                    object,
+                    new ByteArrayContent(options.getContentType(), data)),
+            resourceId.getBucketName());
+    insertObject.setDisableGZipContent(true);
+    insertObject.setIfGenerationMatch(writeGeneration);
+    clientRequestHelper.setDirectUploadEnabled(insertObject, true);
+
+    try {
+      return createItemInfoForStorageObject(insertObject.execute());
+    } catch (IOException e) {
+      if (errorExtractor.preconditionNotMet(e)) {
+        // Request could be retried after it succeeded, in this case object already has the data.
+        GoogleCloudStorageItemInfo existingInfo =
+            getItemInfo(
+                new StorageResourceId(resourceId.getBucketName(), resourceId.getObjectName()));
+        if (existingInfo.exists()
+            && existingInfo.getSize() == data.length
+            && Arrays.equals(existingInfo.getVerificationAttributes().getCrc32c(), crc32c)) {
+          logger.atFine().withCause(e).log(
+              "Ignoring exception; verified object '%s' already exists with desired data.",
+              resourceId);
+          return existingInfo;
+        }
+        if (writeGeneration == 0) {
+          throw (FileAlreadyExistsException)
+              new FileAlreadyExistsException(String.format("Object %s already exists.", resourceId))
+                  .initCause(e);
+        }
+      }
+      throw e;
+    }
+  }
+
   /**
    * See {@link GoogleCloudStorage#createBucket(String, CreateBucketOptions)} for details about
    * expected behavior.
@@ -646,8 +737,13 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
         resourceId.isStorageObject(), "Expected full StorageObject id, got %s", resourceId);
 
     if (storageOptions.isGrpcEnabled()) {
-      return GoogleCloudStorageGrpcReadChannel
-          .open(storageStubProvider, storage, errorExtractor, resourceId, readOptions);
+      return GoogleCloudStorageGrpcReadChannel.open(
+          storageStubProvider,
+          storage,
+          errorExtractor,
+          resourceId,
+          readOptions,
+          backgroundTasksThreadPool);
     }
 
     // The underlying channel doesn't initially read data, which means that we won't see a
@@ -666,7 +762,12 @@ public class GoogleCloudStorageImpl implements GoogleCloudStorage {
     }
 
     return new GoogleCloudStorageReadChannel(
-        storage, resourceId, errorExtractor, clientRequestHelper, readOptions) {
+        storage,
+        resourceId,
+        errorExtractor,
+        clientRequestHelper,
+        readOptions,
+        backgroundTasksThreadPool) {
 
       @Override
       @Nullable
@@ -35,15 +35,21 @@ import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
+import com.google.cloud.hadoop.util.Crc32c;
 import com.google.cloud.hadoop.util.ResilientOperation;
 import com.google.cloud.hadoop.util.RetryDeterminer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.GoogleLogger;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -51,11 +57,17 @@ import java.nio.channels.Channels;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntFunction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 /** Provides seekable read access to GCS. */
-public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
+public class GoogleCloudStorageReadChannel implements ReadVectoredSeekableByteChannel {
 
   private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
@@ -64,6 +76,9 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
   private static final String GZIP_ENCODING = "gzip";
 
+  // Prefix of the CRC32C checksum in the x-goog-hash header.
+  private static final String CRC32C_HASH_PREFIX = "crc32c=";
+
   // GCS access instance.
   private final Storage gcs;
 
@@ -140,15 +155,40 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
   // Whether object content is gzip-encoded.
   private boolean gzipEncoded = false;
 
+  // CRC32C checksum of the object, if known.
+  @Nullable private Integer objectCrc32c = null;
+
+  // Hasher of the data read sequentially from the object start, null if checksum validation is
+  // disabled or not possible anymore.
+  @Nullable private Crc32c.Hasher contentHasher = null;
+
+  // Position in the object up to which read data was passed to the contentHasher.
+  private long contentHasherPosition = 0;
+
   // Prefetched footer content.
   // TODO(b/110832992):
   // 1. Test showing footer prefetch avoids another request to GCS.
   // 2. Test showing shorter footer prefetch does not cause any problems.
   // 3. Test that footer prefetch always disabled for gzipped files.
-  private byte[] footerContent;
+  private volatile byte[] footerContent;
 
   @VisibleForTesting protected boolean metadataInitialized = false;
 
+  // Executor used to issue independent range requests for vectored reads and read-ahead.
+  private final ExecutorService rangeReadExecutor;
+
+  // Prefetched blocks for read-ahead in SEQUENTIAL fadvise mode, lazily initialized.
+  private ReadAheadBuffer readAheadBuffer;
+
+  // Process-wide cache of object blocks, null if block cache is disabled.
+  @Nullable private final ReadBlockCache blockCache;
+
+  // Process-wide cache of prefetched footers, null if footer cache is disabled.
+  @Nullable private final FooterCache footerCache;
+
+  // Tracks reads in ADAPTIVE fadvise mode, null in other modes.
+  @Nullable private final AccessPatternTracker accessPattern;
+
   /**
    * Constructs an instance of GoogleCloudStorageReadChannel.
    *
@@ -166,11 +206,54 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       ClientRequestHelper<StorageObject> requestHelper,
       @Nonnull GoogleCloudStorageReadOptions readOptions)
       throws IOException {
+    this(
+        gcs,
+        resourceId,
+        errorExtractor,
+        requestHelper,
+        readOptions,
+        MoreExecutors.newDirectExecutorService());
+  }
+
+  /**
+   * Constructs an instance of GoogleCloudStorageReadChannel.
+   *
+   * @param gcs storage object instance
+   * @param resourceId contains information about a specific resource
+   * @param requestHelper a ClientRequestHelper used to set any extra headers
+   * @param readOptions fine-grained options specifying things like retry settings, buffering, etc.
+   *     Could not be null.
+   * @param rangeReadExecutor executor used to read ranges in parallel for vectored reads and
+   *     read-ahead
+   * @throws IOException on IO error
+   */
+  public GoogleCloudStorageReadChannel(
+      Storage gcs,
+      StorageResourceId resourceId,
+      ApiErrorExtractor errorExtractor,
+      ClientRequestHelper<StorageObject> requestHelper,
+      @Nonnull GoogleCloudStorageReadOptions readOptions,
+      ExecutorService rangeReadExecutor)
+      throws IOException {
     this.gcs = gcs;
     this.clientRequestHelper = requestHelper;
     this.errorExtractor = errorExtractor;
     this.readOptions = readOptions;
     this.resourceId = resourceId;
+    this.rangeReadExecutor = checkNotNull(rangeReadExecutor, "rangeReadExecutor could not be null");
+    this.blockCache =
+        readOptions.getBlockCacheMaxSize() > 0
+            ? ReadBlockCache.getInstance(readOptions.getBlockCacheMaxSize())
+            : null;
+    this.footerCache =
+        readOptions.getFooterCacheMaxSize() > 0
+            ? FooterCache.getInstance(readOptions.getFooterCacheMaxSize())
+            : null;
+    this.accessPattern =
+        readOptions.getFadvise() == Fadvise.ADAPTIVE
+            ? new AccessPatternTracker(
+                readOptions.getInplaceSeekLimit(), readOptions.getMinRangeRequestSize())
+            : null;
 
     // Initialize metadata if available.
     GoogleCloudStorageItemInfo info = getInitialMetadata();
@@ -229,7 +312,12 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     StorageObject object;
     try {
       // Request only fields that are used for metadata initialization
-      Get getObject = createRequest().setFields("contentEncoding,generation,size");
+      Get getObject =
+          createRequest()
+              .setFields(
+                  readOptions.isHttpChecksumsEnabled()
+                      ? "contentEncoding,crc32c,generation,size"
+                      : "contentEncoding,generation,size");
       object =
           ResilientOperation.retry(
               getObject::execute,
@@ -255,7 +343,9 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         /* metadata= */ null,
         checkNotNull(object.getGeneration(), "generation can not be null for '%s'", resourceId),
         /* metaGeneration= */ 0,
-        /* verificationAttributes= */ null);
+        new VerificationAttributes(
+            /* md5hash= */ null,
+            object.getCrc32c() == null ? null : BaseEncoding.base64().decode(object.getCrc32c())));
   }
 
   /**
@@ -295,6 +385,15 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       return -1;
     }
 
+    if (isBlockCacheEnabled()) {
+      return readFromBlockCache(buffer);
+    }
+
+    if (isReadAheadEnabled()) {
+      return readAhead(buffer);
+    }
+
+    long readStartPosition = currentPosition;
     int totalBytesRead = 0;
     int retriesAttempted = 0;
 
@@ -341,6 +440,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         }
 
         if (numBytesRead > 0) {
+          updateContentChecksum(buffer, numBytesRead);
           totalBytesRead += numBytesRead;
           currentPosition += numBytesRead;
           contentChannelPosition += numBytesRead;
@@ -369,6 +469,7 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
               "Despite exception, had partial read of %s bytes from '%s'; resetting retry count.",
               partialRead, resourceId);
           retriesAttempted = 0;
+          updateContentChecksum(buffer, partialRead);
           totalBytesRead += partialRead;
           currentPosition += partialRead;
         }
@@ -417,6 +518,12 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       }
     } while (buffer.remaining() > 0 && currentPosition < size);
 
+    validateContentChecksum();
+
+    if (accessPattern != null) {
+      accessPattern.recordRead(readStartPosition, totalBytesRead);
+    }
+
     // If this method was called when the stream was already at EOF
     // (indicated by totalBytesRead == 0) then return EOF else,
     // return the number of bytes read.
@@ -436,6 +543,469 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     return totalBytesRead;
   }
 
+  /**
+   * Passes {@code bytesRead} bytes that were just read into the {@code buffer} at the {@link
+   * #currentPosition} to the content hasher, if data was read sequentially from the object start.
+   */
+  private void updateContentChecksum(ByteBuffer buffer, int bytesRead) {
+    if (contentHasher == null) {
+      return;
+    }
+    if (contentHasherPosition != currentPosition) {
+      logger.atFiner().log(
+          "Disabling checksum validation after non-sequential read at %s position from '%s'",
+          currentPosition, resourceId);
+      contentHasher = null;
+      return;
+    }
+    ByteBuffer readData = buffer.duplicate();
+    readData.position(buffer.position() - bytesRead);
+    readData.limit(buffer.position());
+    contentHasher.update(readData);
+    contentHasherPosition += bytesRead;
+  }
+
+  /** Validates checksum of the data read from the object start if the whole object was read. */
+  private void validateContentChecksum() throws IOException {
+    if (contentHasher == null || contentHasherPosition != size) {
+      return;
+    }
+    int contentCrc32c = contentHasher.getValue();
+    contentHasher = null;
+    if (contentCrc32c != objectCrc32c) {
+      throw new IOException(
+          String.format(
+              "Read data checksum (%s) didn't match expected object checksum (%s) for '%s'",
+              contentCrc32c, objectCrc32c, resourceId));
+    }
+    logger.atFiner().log("Validated checksum of the data read from '%s'", resourceId);
+  }
+
+  private boolean isBlockCacheEnabled() throws IOException {
+    if (blockCache == null) {
+      return false;
+    }
+    if (!metadataInitialized) {
+      // Cached blocks are keyed by object generation, that should be known before read.
+      initMetadata(fetchInitialMetadata());
+    }
+    return !gzipEncoded;
+  }
+
+  /**
+   * Reads data from the object blocks in the {@link #blockCache}, fetching missing blocks with
+   * bounded range requests.
+   */
+  private int readFromBlockCache(ByteBuffer buffer) throws IOException {
+    closeContentChannel();
+    int totalBytesRead = 0;
+    while (buffer.hasRemaining() && currentPosition < size) {
+      ByteBuffer block = getCachedBlockSlice(currentPosition, buffer.remaining());
+      int bytesToRead = block.remaining();
+      buffer.put(block);
+      updateContentChecksum(buffer, bytesToRead);
+      totalBytesRead += bytesToRead;
+      currentPosition += bytesToRead;
+    }
+    validateContentChecksum();
+    return totalBytesRead == 0 ? -1 : totalBytesRead;
+  }
+
+  /**
+   * Returns cached data of the block that contains {@code position}, starting at this position and
+   * limited to {@code maxLength} bytes.
+   */
+  private ByteBuffer getCachedBlockSlice(long position, int maxLength) throws IOException {
+    int blockSize = readOptions.getBlockCacheBlockSize();
+    long blockIndex = position / blockSize;
+    ByteBuffer block = blockCache.get(resourceId, size, blockSize, blockIndex, this::readRangeSync);
+    int blockOffset = Math.toIntExact(position - blockIndex * blockSize);
+    int length = Math.min(maxLength, block.remaining() - blockOffset);
+    block.position(blockOffset).limit(blockOffset + length);
+    return block;
+  }
+
+  /** Reads the range from the object blocks in the {@link #blockCache}. */
+  private void readRangeFromBlockCache(VectoredIORange range, IntFunction<ByteBuffer> allocate) {
+    try {
+      ByteBuffer data = allocate.apply(range.getLength());
+      long position = range.getOffset();
+      while (position < range.getEnd()) {
+        if (range.getData().isDone()) {
+          // Do not read ranges that were cancelled by the caller.
+          return;
+        }
+        ByteBuffer block =
+            getCachedBlockSlice(position, Math.toIntExact(range.getEnd() - position));
+        position += block.remaining();
+        data.put(block);
+      }
+      data.flip();
+      range.getData().complete(data);
+    } catch (IOException | RuntimeException e) {
+      range.getData().completeExceptionally(e);
+    }
+  }
+
+  /** Reads the object range with an independent range request. */
+  private ByteBuffer readRangeSync(long offset, int length) throws IOException {
+    VectoredIORange range = new VectoredIORange(offset, length);
+    readMergedRange(ImmutableList.of(range), ByteBuffer::allocate);
+    return range.awaitData();
+  }
+
+  private boolean isReadAheadEnabled() throws IOException {
+    if (readOptions.getReadAheadDepth() <= 0 || readOptions.getFadvise() != Fadvise.SEQUENTIAL) {
+      return false;
+    }
+    if (!metadataInitialized) {
+      // Range requests for read-ahead blocks require object size and generation to be known.
+      initMetadata(fetchInitialMetadata());
+    }
+    return !gzipEncoded;
+  }
+
+  /**
+   * Reads data from blocks that are prefetched in parallel ahead of the {@link #currentPosition},
+   * each using its own bounded range request.
+   */
+  private int readAhead(ByteBuffer buffer) throws IOException {
+    if (readAheadBuffer == null) {
+      closeContentChannel();
+      readAheadBuffer =
+          new ReadAheadBuffer(
+              this::readRangeAsync,
+              size,
+              readOptions.getReadAheadBlockSize(),
+              readOptions.getReadAheadDepth());
+    }
+    int totalBytesRead = 0;
+    while (buffer.hasRemaining() && currentPosition < size) {
+      int bytesRead = readAheadBuffer.read(currentPosition, buffer);
+      updateContentChecksum(buffer, bytesRead);
+      totalBytesRead += bytesRead;
+      currentPosition += bytesRead;
+    }
+    validateContentChecksum();
+    return totalBytesRead == 0 ? -1 : totalBytesRead;
+  }
+
+  /** Starts asynchronous read of the object range with an independent range request. */
+  private VectoredIORange readRangeAsync(long offset, int length) {
+    VectoredIORange range = new VectoredIORange(offset, length);
+    logger.atFiner().log("Prefetching %s for '%s'", range, resourceId);
+    try {
+      rangeReadExecutor.execute(
+          () -> readMergedRange(ImmutableList.of(range), ByteBuffer::allocate));
+    } catch (RejectedExecutionException e) {
+      range.getData().completeExceptionally(new IOException("Failed to schedule range read", e));
+    }
+    return range;
+  }
+
+  /**
+   * Reads provided ranges in parallel using bounded range requests that do not affect the state of
+   * the {@link #contentChannel}.
+   *
+   * <p>Ranges within the footer prefetched by this channel or in the {@link #footerCache} are
+   * served from it, and if the {@link #blockCache} is enabled then other ranges are read from its
+   * blocks.
+   *
+   * <p>Ranges separated by no more than {@link
+   * GoogleCloudStorageReadOptions#getVectoredReadMinRangeSeekSize()} bytes are merged into a single
+   * request, as long as the merged range does not exceed {@link
+   * GoogleCloudStorageReadOptions#getVectoredReadMergedRangeMaxSize()} bytes.
+   */
+  @Override
+  public void readVectored(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    throwIfNotOpen();
+    checkNotNull(allocate, "allocate could not be null");
+
+    List<VectoredIORange> sortedRanges = sortRanges(ranges);
+
+    // Range requests require object size and generation to be known.
+    long objectSize = size();
+
+    if (gzipEncoded) {
+      // gzip-encoded objects do not support range requests, read them through this channel.
+      readVectoredSequentially(sortedRanges, allocate);
+      return;
+    }
+
+    byte[] cachedFooter = footerContent;
+    if (cachedFooter == null && footerCache != null) {
+      cachedFooter = footerCache.get(resourceId);
+    }
+    boolean blockCacheEnabled = isBlockCacheEnabled();
+    List<VectoredIORange> rangesToRead = new ArrayList<>(sortedRanges.size());
+    for (VectoredIORange range : sortedRanges) {
+      if (range.getEnd() > objectSize) {
+        range
+            .getData()
+            .completeExceptionally(
+                new EOFException(
+                    String.format(
+                        "Range %s is beyond end of object (size: %d) for '%s'",
+                        range, objectSize, resourceId)));
+      } else if (range.getLength() == 0) {
+        range.getData().complete(allocate.apply(0));
+      } else if (cachedFooter != null && range.getOffset() >= objectSize - cachedFooter.length) {
+        ByteBuffer data = allocate.apply(range.getLength());
+        data.put(
+            cachedFooter,
+            Math.toIntExact(range.getOffset() - (objectSize - cachedFooter.length)),
+            range.getLength());
+        data.flip();
+        range.getData().complete(data);
+      } else if (blockCacheEnabled) {
+        try {
+          rangeReadExecutor.execute(() -> readRangeFromBlockCache(range, allocate));
+        } catch (RejectedExecutionException e) {
+          range
+              .getData()
+              .completeExceptionally(new IOException("Failed to schedule range read", e));
+        }
+      } else {
+        rangesToRead.add(range);
+      }
+    }
+
+    List<List<VectoredIORange>> mergedRanges =
+        mergeRanges(
+            rangesToRead,
+            readOptions.getVectoredReadMinRangeSeekSize(),
+            readOptions.getVectoredReadMergedRangeMaxSize());
+    logger.atFiner().log(
+        "readVectored: merged %s ranges into %s range requests for '%s'",
+        rangesToRead.size(), mergedRanges.size(), resourceId);
+
+    for (List<VectoredIORange> mergedRange : mergedRanges) {
+      try {
+        rangeReadExecutor.execute(() -> readMergedRange(mergedRange, allocate));
+      } catch (RejectedExecutionException e) {
+        failRanges(mergedRange, 0, new IOException("Failed to schedule range read", e));
+      }
+    }
+  }
+
+  /**
+   * Returns {@code false} for gzip-encoded objects, because their ranges are read sequentially
+   * through this channel.
+   */
+  @Override
+  public boolean isReadVectoredIndependent() throws IOException {
+    throwIfNotOpen();
+    if (!metadataInitialized) {
+      initMetadata(fetchInitialMetadata());
+    }
+    return !gzipEncoded;
+  }
+
+  /** Returns copy of provided ranges sorted by offset, validating that they do not overlap. */
+  private static List<VectoredIORange> sortRanges(List<VectoredIORange> ranges) {
+    List<VectoredIORange> sortedRanges = new ArrayList<>(checkNotNull(ranges, "ranges"));
+    sortedRanges.sort(Comparator.comparingLong(VectoredIORange::getOffset));
+    for (int i = 1; i < sortedRanges.size(); i++) {
+      VectoredIORange previous = sortedRanges.get(i - 1);
+      VectoredIORange current = sortedRanges.get(i);
+      checkArgument(
+          previous.getEnd() <= current.getOffset(),
+          "Ranges should not overlap: %s and %s",
+          previous,
+          current);
+    }
+    return sortedRanges;
+  }
+
+  /**
+   * Groups sorted ranges into merged ranges that could be read with a single request.
+   *
+   * @param sortedRanges non-overlapping ranges sorted by offset
+   * @param minSeekSize maximum gap between ranges that are merged
+   * @param maxMergedSize maximum size of the merged range
+   */
+  @VisibleForTesting
+  static List<List<VectoredIORange>> mergeRanges(
+      List<VectoredIORange> sortedRanges, int minSeekSize, int maxMergedSize) {
+    List<List<VectoredIORange>> mergedRanges = new ArrayList<>();
+    List<VectoredIORange> currentMergedRange = null;
+    for (VectoredIORange range : sortedRanges) {
+      if (currentMergedRange != null) {
+        long mergedStart = currentMergedRange.get(0).getOffset();
+        long mergedEnd = currentMergedRange.get(currentMergedRange.size() - 1).getEnd();
+        if (range.getOffset() - mergedEnd <= minSeekSize
+            && range.getEnd() - mergedStart <= maxMergedSize) {
+          currentMergedRange.add(range);
+          continue;
+        }
+      }
+      currentMergedRange = new ArrayList<>();
+      currentMergedRange.add(range);
+      mergedRanges.add(currentMergedRange);
+    }
+    return mergedRanges;
+  }
+
+  /**
+   * Reads merged range with a single range request, completing futures of the ranges as soon as
+   * their data is read. On failure retries read starting from the first incomplete range.
+   */
+  private void readMergedRange(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate) {
+    BackOff backOff = createBackOff();
+    int nextRangeIndex = 0;
+    int retriesAttempted = 0;
+    while (nextRangeIndex < ranges.size()) {
+      if (ranges.subList(nextRangeIndex, ranges.size()).stream()
+          .allMatch(r -> r.getData().isDone())) {
+        // Do not read ranges that were cancelled by the caller.
+        return;
+      }
+      long rangeStart = ranges.get(nextRangeIndex).getOffset();
+      long rangeEnd = ranges.get(ranges.size() - 1).getEnd();
+      try (InputStream rangeStream = openRangeStream(rangeStart, rangeEnd)) {
+        long streamPosition = rangeStart;
+        while (nextRangeIndex < ranges.size()) {
+          VectoredIORange range = ranges.get(nextRangeIndex);
+          skipFully(rangeStream, range.getOffset() - streamPosition);
+          ByteBuffer data = allocate.apply(range.getLength());
+          readFully(rangeStream, data, range.getLength());
+          data.flip();
+          streamPosition = range.getEnd();
+          range.getData().complete(data);
+          nextRangeIndex++;
+          retriesAttempted = 0;
+        }
+      } catch (IOException e) {
+        if (e instanceof FileNotFoundException
+            || e instanceof EOFException
+            || retriesAttempted >= maxRetries) {
+          failRanges(ranges, nextRangeIndex, e);
+          return;
+        }
+        retriesAttempted++;
+        logger.atWarning().withCause(e).log(
+            "Failed range read retry #%s/%s for '%s'. Sleeping...",
+            retriesAttempted, maxRetries, resourceId);
+        try {
+          if (!BackOffUtils.next(sleeper, backOff)) {
+            failRanges(ranges, nextRangeIndex, e);
+            return;
+          }
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          e.addSuppressed(ie);
+          failRanges(ranges, nextRangeIndex, e);
+          return;
+        } catch (IOException backOffException) {
+          e.addSuppressed(backOffException);
+          failRanges(ranges, nextRangeIndex, e);
+          return;
+        }
+      } catch (RuntimeException e) {
+        failRanges(ranges, nextRangeIndex, e);
+        return;
+      }
+    }
+  }
+
+  /** Opens a stream for the {@code [rangeStart, rangeEnd)} byte range of the object. */
+  protected InputStream openRangeStream(long rangeStart, long rangeEnd) throws IOException {
+    Get getObject = createDataRequest("bytes=" + rangeStart + "-" + (rangeEnd - 1));
+    try {
+      return getObject.executeMedia().getContent();
+    } catch (IOException e) {
+      if (errorExtractor.itemNotFound(e)) {
+        throw createFileNotFoundException(resourceId, e);
+      }
+      String msg =
+          String.format("Error reading '%s' in range [%d, %d)", resourceId, rangeStart, rangeEnd);
+      if (errorExtractor.rangeNotSatisfiable(e)) {
+        throw (EOFException) new EOFException(msg).initCause(e);
+      }
+      throw new IOException(msg, e);
+    }
+  }
+
+  private void skipFully(InputStream stream, long bytesToSkip) throws IOException {
+    while (bytesToSkip > 0) {
+      long skippedBytes = stream.skip(bytesToSkip);
+      if (skippedBytes <= 0) {
+        // Range stream can not be skipped further, check that it reached the end of stream.
+        checkIOPrecondition(
+            stream.read() >= 0,
+            String.format(
+                "Received end of stream before skipping %d bytes for '%s'",
+                bytesToSkip, resourceId));
+        skippedBytes = 1;
+      }
+      bytesToSkip -= skippedBytes;
+    }
+  }
+
+  private void readFully(InputStream stream, ByteBuffer buffer, int length) throws IOException {
+    // Read directly into heap buffers, but copy through an intermediate array into direct ones.
+    byte[] copyBuffer = buffer.hasArray() ? null : new byte[Math.min(length, SKIP_BUFFER_SIZE)];
+    int remaining = length;
+    while (remaining > 0) {
+      int bytesRead;
+      if (copyBuffer == null) {
+        int offset = buffer.arrayOffset() + buffer.position();
+        bytesRead = stream.read(buffer.array(), offset, remaining);
+        if (bytesRead > 0) {
+          buffer.position(buffer.position() + bytesRead);
+        }
+      } else {
+        bytesRead = stream.read(copyBuffer, 0, Math.min(copyBuffer.length, remaining));
+        if (bytesRead > 0) {
+          buffer.put(copyBuffer, 0, bytesRead);
+        }
+      }
+      checkIOPrecondition(
+          bytesRead >= 0,
+          String.format(
+              "Received end of stream before reading %d bytes (%d remaining) for '%s'",
+              length, remaining, resourceId));
+      remaining -= bytesRead;
+    }
+  }
+
+  private static void failRanges(List<VectoredIORange> ranges, int fromIndex, Throwable cause) {
+    for (VectoredIORange range : ranges.subList(fromIndex, ranges.size())) {
+      range.getData().completeExceptionally(cause);
+    }
+  }
+
+  /** Reads ranges in the calling thread through this channel, restoring its position after. */
+  private void readVectoredSequentially(
+      List<VectoredIORange> sortedRanges, IntFunction<ByteBuffer> allocate) throws IOException {
+    long initialPosition = currentPosition;
+    try {
+      for (VectoredIORange range : sortedRanges) {
+        try {
+          ByteBuffer data = allocate.apply(range.getLength());
+          data.limit(range.getLength());
+          if (range.getLength() > 0) {
+            position(range.getOffset());
+          }
+          while (data.hasRemaining()) {
+            if (read(data) < 0) {
+              throw new EOFException(
+                  String.format(
+                      "Received end of stream while reading %s for '%s'", range, resourceId));
+            }
+          }
+          data.flip();
+          range.getData().complete(data);
+        } catch (IOException | RuntimeException e) {
+          range.getData().completeExceptionally(e);
+        }
+      }
+    } finally {
+      currentPosition = initialPosition;
+    }
+  }
+
   @Override
   public SeekableByteChannel truncate(long size) throws IOException {
     throw new UnsupportedOperationException("Cannot mutate read-only channel");
@@ -499,6 +1069,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     logger.atFiner().log("Closing channel for '%s'", resourceId);
     channelIsOpen = false;
     closeContentChannel();
+    if (readAheadBuffer != null) {
+      readAheadBuffer.clear();
+      readAheadBuffer = null;
+    }
   }
 
   /**
@@ -699,6 +1273,8 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
     if (contentChannel == null) {
       if (isRandomAccessPattern(oldPosition)) {
         setRandomAccess();
+      } else if (accessPattern != null && !gzipEncoded) {
+        randomAccess = accessPattern.isRandomAccess(currentPosition);
       }
       openContentChannel(bytesToRead);
     }
@@ -721,6 +1297,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
   /* Initializes metadata (size, encoding, etc) from {@link GoogleCloudStorageItemInfo} */
   private void initMetadata(GoogleCloudStorageItemInfo info) throws IOException {
+    VerificationAttributes verificationAttributes = info.getVerificationAttributes();
+    if (verificationAttributes != null && verificationAttributes.getCrc32c() != null) {
+      objectCrc32c = Ints.fromByteArray(verificationAttributes.getCrc32c());
+    }
     initMetadata(info.getContentEncoding(), info.getSize(), info.getContentGeneration());
   }
 
@@ -746,9 +1326,26 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
         range == null
             ? headers.getContentLength()
             : Long.parseLong(range.substring(range.lastIndexOf('/') + 1));
+    objectCrc32c = parseCrc32c(headers);
     initMetadata(headers.getContentEncoding(), sizeFromMetadata, generation);
   }
 
+  /** Returns CRC32C checksum from the {@code x-goog-hash} header, if present. */
+  @Nullable
+  private static Integer parseCrc32c(HttpHeaders headers) {
+    List<String> hashHeaders = headers.getHeaderStringValues("x-goog-hash");
+    for (String hashHeader : hashHeaders == null ? ImmutableList.<String>of() : hashHeaders) {
+      for (String hash : hashHeader.split(",")) {
+        hash = hash.trim();
+        if (hash.startsWith(CRC32C_HASH_PREFIX)) {
+          return Ints.fromByteArray(
+              BaseEncoding.base64().decode(hash.substring(CRC32C_HASH_PREFIX.length())));
+        }
+      }
+    }
+    return null;
+  }
+
   /** Initializes metadata (size, encoding, etc) from passed parameters. */
   @VisibleForTesting
   protected void initMetadata(@Nullable String encoding, long sizeFromMetadata, long generation)
@@ -768,6 +1365,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
           "Cannot read GZIP encoded files - content encoding support is disabled.");
     }
     size = gzipEncoded ? Long.MAX_VALUE : sizeFromMetadata;
+    contentHasher =
+        readOptions.isHttpChecksumsEnabled() && !gzipEncoded && objectCrc32c != null
+            ? Crc32c.newHasher()
+            : null;
     randomAccess = !gzipEncoded && readOptions.getFadvise() == Fadvise.RANDOM;
     checkEncodingAndAccess();
 
@@ -785,6 +1386,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
 
     metadataInitialized = true;
 
+    if (footerCache != null && !gzipEncoded && footerContent == null) {
+      footerContent = footerCache.get(resourceId);
+    }
+
     logger.atFiner().log(
         "Initialized metadata (gzipEncoded=%s, size=%s, randomAccess=%s, generation=%s) for '%s'",
         gzipEncoded, size, randomAccess, resourceId.getGenerationId(), resourceId);
@@ -793,13 +1398,14 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
   private void cacheFooter(HttpResponse response) throws IOException {
     checkState(size > 0, "size should be greater than 0 for '%s'", resourceId);
     int footerSize = Math.toIntExact(response.getHeaders().getContentLength());
-    footerContent = new byte[footerSize];
+    // Footer is published only after it is fully read, because it is used by concurrent reads.
+    byte[] footer = new byte[footerSize];
     try (InputStream footerStream = response.getContent()) {
       int totalBytesRead = 0;
       int bytesRead = 0;
       do {
         totalBytesRead += bytesRead;
-        bytesRead = footerStream.read(footerContent, totalBytesRead, footerSize - totalBytesRead);
+        bytesRead = footerStream.read(footer, totalBytesRead, footerSize - totalBytesRead);
       } while (bytesRead >= 0 && totalBytesRead <= footerSize);
       checkState(
           footerStream.read() < 0,
@@ -813,11 +1419,12 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
           totalBytesRead,
           footerSize,
           resourceId);
-    } catch (IOException e) {
-      footerContent = null;
-      throw e;
     }
-    logger.atFiner().log("Prefetched %s bytes footer for '%s'", footerContent.length, resourceId);
+    footerContent = footer;
+    if (footerCache != null) {
+      footerCache.put(resourceId, footer);
+    }
+    logger.atFiner().log("Prefetched %s bytes footer for '%s'", footer.length, resourceId);
   }
 
   /**
@@ -881,7 +1488,10 @@ public class GoogleCloudStorageReadChannel implements SeekableByteChannel {
       // Set rangeSize to the size of the file reminder from currentPosition.
       long rangeSize = size - contentChannelPosition;
       if (randomAccess) {
-        long randomRangeSize = Math.max(bytesToRead, readOptions.getMinRangeRequestSize());
+        long randomRangeSize =
+            accessPattern == null
+                ? Math.max(bytesToRead, readOptions.getMinRangeRequestSize())
+                : accessPattern.getRangeRequestSize(currentPosition, bytesToRead);
         // Limit rangeSize to the randomRangeSize.
         rangeSize = Math.min(randomRangeSize, rangeSize);
       }
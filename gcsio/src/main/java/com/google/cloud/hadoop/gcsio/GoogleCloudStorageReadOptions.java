@@ -32,7 +32,8 @@ public abstract class GoogleCloudStorageReadOptions {
   public enum Fadvise {
     AUTO,
     RANDOM,
-    SEQUENTIAL
+    SEQUENTIAL,
+    ADAPTIVE
   }
 
   public static final int DEFAULT_BACKOFF_INITIAL_INTERVAL_MILLIS = 200;
@@ -46,8 +47,18 @@ public abstract class GoogleCloudStorageReadOptions {
   public static final Fadvise DEFAULT_FADVISE = Fadvise.SEQUENTIAL;
   public static final int DEFAULT_MIN_RANGE_REQUEST_SIZE = 2 * 1024 * 1024;
   public static final boolean GRPC_CHECKSUMS_ENABLED_DEFAULT = false;
+  public static final boolean HTTP_CHECKSUMS_ENABLED_DEFAULT = false;
   public static final long DEFAULT_GRPC_READ_TIMEOUT_MILLIS = 20 * 60 * 1000;
   public static final long DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS = 60 * 1000;
+  public static final int DEFAULT_GRPC_READ_PARALLEL_STREAMS = 0;
+  public static final long DEFAULT_GRPC_READ_PARALLEL_MIN_OBJECT_SIZE = 1024 * 1024 * 1024;
+  public static final int DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE = 4 * 1024;
+  public static final int DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE = 8 * 1024 * 1024;
+  public static final int DEFAULT_READ_AHEAD_DEPTH = 0;
+  public static final int DEFAULT_READ_AHEAD_BLOCK_SIZE = 8 * 1024 * 1024;
+  public static final long DEFAULT_BLOCK_CACHE_MAX_SIZE = 0;
+  public static final int DEFAULT_BLOCK_CACHE_BLOCK_SIZE = 1024 * 1024;
+  public static final long DEFAULT_FOOTER_CACHE_MAX_SIZE = 0;
 
   // Default builder should be initialized after default values,
   // otherwise it will access not initialized default values.
@@ -66,8 +77,18 @@ public abstract class GoogleCloudStorageReadOptions {
         .setFadvise(DEFAULT_FADVISE)
         .setMinRangeRequestSize(DEFAULT_MIN_RANGE_REQUEST_SIZE)
         .setGrpcChecksumsEnabled(GRPC_CHECKSUMS_ENABLED_DEFAULT)
+        .setHttpChecksumsEnabled(HTTP_CHECKSUMS_ENABLED_DEFAULT)
         .setGrpcReadTimeoutMillis(DEFAULT_GRPC_READ_TIMEOUT_MILLIS)
-        .setGrpcReadMetadataTimeoutMillis(DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS);
+        .setGrpcReadMetadataTimeoutMillis(DEFAULT_GRPC_READ_METADATA_TIMEOUT_MILLIS)
+        .setGrpcReadParallelStreams(DEFAULT_GRPC_READ_PARALLEL_STREAMS)
+        .setGrpcReadParallelMinObjectSize(DEFAULT_GRPC_READ_PARALLEL_MIN_OBJECT_SIZE)
+        .setVectoredReadMinRangeSeekSize(DEFAULT_VECTORED_READ_MIN_RANGE_SEEK_SIZE)
+        .setVectoredReadMergedRangeMaxSize(DEFAULT_VECTORED_READ_MERGED_RANGE_MAX_SIZE)
+        .setReadAheadDepth(DEFAULT_READ_AHEAD_DEPTH)
+        .setReadAheadBlockSize(DEFAULT_READ_AHEAD_BLOCK_SIZE)
+        .setBlockCacheMaxSize(DEFAULT_BLOCK_CACHE_MAX_SIZE)
+        .setBlockCacheBlockSize(DEFAULT_BLOCK_CACHE_BLOCK_SIZE)
+        .setFooterCacheMaxSize(DEFAULT_FOOTER_CACHE_MAX_SIZE);
   }
 
   public abstract Builder toBuilder();
@@ -105,6 +126,9 @@ public abstract class GoogleCloudStorageReadOptions {
   /** See {@link Builder#setGrpcChecksumsEnabled}. */
   public abstract boolean isGrpcChecksumsEnabled();
 
+  /** See {@link Builder#setHttpChecksumsEnabled}. */
+  public abstract boolean isHttpChecksumsEnabled();
+
   /** See {@link Builder#setGrpcServerAddress}. */
   @Nullable
   public abstract String getGrpcServerAddress();
@@ -115,6 +139,33 @@ public abstract class GoogleCloudStorageReadOptions {
   /** See {@link Builder#setGrpcReadMetadataTimeoutMillis}. */
   public abstract long getGrpcReadMetadataTimeoutMillis();
 
+  /** See {@link Builder#setGrpcReadParallelStreams}. */
+  public abstract int getGrpcReadParallelStreams();
+
+  /** See {@link Builder#setGrpcReadParallelMinObjectSize}. */
+  public abstract long getGrpcReadParallelMinObjectSize();
+
+  /** See {@link Builder#setVectoredReadMinRangeSeekSize}. */
+  public abstract int getVectoredReadMinRangeSeekSize();
+
+  /** See {@link Builder#setVectoredReadMergedRangeMaxSize}. */
+  public abstract int getVectoredReadMergedRangeMaxSize();
+
+  /** See {@link Builder#setReadAheadDepth}. */
+  public abstract int getReadAheadDepth();
+
+  /** See {@link Builder#setReadAheadBlockSize}. */
+  public abstract int getReadAheadBlockSize();
+
+  /** See {@link Builder#setBlockCacheMaxSize}. */
+  public abstract long getBlockCacheMaxSize();
+
+  /** See {@link Builder#setBlockCacheBlockSize}. */
+  public abstract int getBlockCacheBlockSize();
+
+  /** See {@link Builder#setFooterCacheMaxSize}. */
+  public abstract long getFooterCacheMaxSize();
+
   /** Mutable builder for GoogleCloudStorageReadOptions. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -185,6 +236,9 @@ public abstract class GoogleCloudStorageReadOptions {
      *   <li>{@code RANDOM} - sends HTTP requests with {@code Range} header set to greater of
      *       provided reade buffer by user.
      *   <li>{@code SEQUENTIAL} - sends HTTP requests with unbounded {@code Range} header.
+     *   <li>{@code ADAPTIVE} - tracks recent reads and switches between {@code SEQUENTIAL} and
+     *       {@code RANDOM} behavior in both directions, sizing range requests from the observed
+     *       lengths of sequential reads instead of {@link #setMinRangeRequestSize}.
      * </ul>
      */
     public abstract Builder setFadvise(Fadvise fadvise);
@@ -204,6 +258,13 @@ public abstract class GoogleCloudStorageReadOptions {
      */
     public abstract Builder setGrpcChecksumsEnabled(boolean grpcChecksumsEnabled);
 
+    /**
+     * Sets whether to validate checksums when doing HTTP reads. If enabled, CRC32C checksum of the
+     * data that was read sequentially from the beginning to the end of an object is validated
+     * against the object checksum. Checksums of gzip-encoded objects are not validated.
+     */
+    public abstract Builder setHttpChecksumsEnabled(boolean httpChecksumsEnabled);
+
     /** Sets the property to override the default GCS gRPC server address. */
     public abstract Builder setGrpcServerAddress(String grpcServerAddress);
 
@@ -213,6 +274,53 @@ public abstract class GoogleCloudStorageReadOptions {
     /** Sets the property to override the default timeout for GCS metadata reads from gRPC. */
     public abstract Builder setGrpcReadMetadataTimeoutMillis(long grpcReadMetadataTimeoutMillis);
 
+    /**
+     * Sets the number of concurrent gRPC streams used to read blocks of {@link
+     * #setReadAheadBlockSize} bytes ahead of the current position during non-random reads of
+     * objects that are not smaller than {@link #setGrpcReadParallelMinObjectSize}. Parallel reads
+     * are disabled if set to 0 or 1.
+     */
+    public abstract Builder setGrpcReadParallelStreams(int grpcReadParallelStreams);
+
+    /** Sets the minimum size in bytes of objects that are read with parallel gRPC streams. */
+    public abstract Builder setGrpcReadParallelMinObjectSize(long grpcReadParallelMinObjectSize);
+
+    /**
+     * Sets the maximum gap in bytes between two ranges of a vectored read that are still fetched
+     * with a single request. Bytes in the gap are read and discarded.
+     */
+    public abstract Builder setVectoredReadMinRangeSeekSize(int vectoredReadMinRangeSeekSize);
+
+    /** Sets the maximum size of a merged range requested from GCS during a vectored read. */
+    public abstract Builder setVectoredReadMergedRangeMaxSize(int vectoredReadMergedRangeMaxSize);
+
+    /**
+     * Sets the number of blocks that are prefetched in parallel ahead of the current read position
+     * in {@link Fadvise#SEQUENTIAL} mode, each using its own range request. Read-ahead is disabled
+     * if set to 0.
+     */
+    public abstract Builder setReadAheadDepth(int readAheadDepth);
+
+    /** Sets the size in bytes of each block prefetched by read-ahead. */
+    public abstract Builder setReadAheadBlockSize(int readAheadBlockSize);
+
+    /**
+     * Sets the maximum size in bytes of the process-wide cache of object blocks that is shared by
+     * all read channels. Blocks are cached per object generation and evicted in LRU order. Block
+     * cache is disabled if set to 0.
+     */
+    public abstract Builder setBlockCacheMaxSize(long blockCacheMaxSize);
+
+    /** Sets the size in bytes of blocks that are read and stored in the block cache. */
+    public abstract Builder setBlockCacheBlockSize(int blockCacheBlockSize);
+
+    /**
+     * Sets the maximum size in bytes of the process-wide cache of prefetched object footers that is
+     * shared by all read channels. Footers are cached per object generation, so repeated opens of
+     * the same object do not prefetch footer again. Footer cache is disabled if set to 0.
+     */
+    public abstract Builder setFooterCacheMaxSize(long footerCacheMaxSize);
+
     abstract GoogleCloudStorageReadOptions autoBuild();
 
     public GoogleCloudStorageReadOptions build() {
@@ -221,6 +329,42 @@ public abstract class GoogleCloudStorageReadOptions {
           options.getInplaceSeekLimit() >= 0,
           "inplaceSeekLimit must be non-negative! Got %s",
           options.getInplaceSeekLimit());
+      checkState(
+          options.getVectoredReadMinRangeSeekSize() >= 0,
+          "vectoredReadMinRangeSeekSize must be non-negative! Got %s",
+          options.getVectoredReadMinRangeSeekSize());
+      checkState(
+          options.getVectoredReadMergedRangeMaxSize() > 0,
+          "vectoredReadMergedRangeMaxSize must be positive! Got %s",
+          options.getVectoredReadMergedRangeMaxSize());
+      checkState(
+          options.getGrpcReadParallelStreams() >= 0,
+          "grpcReadParallelStreams must be non-negative! Got %s",
+          options.getGrpcReadParallelStreams());
+      checkState(
+          options.getGrpcReadParallelMinObjectSize() >= 0,
+          "grpcReadParallelMinObjectSize must be non-negative! Got %s",
+          options.getGrpcReadParallelMinObjectSize());
+      checkState(
+          options.getReadAheadDepth() >= 0,
+          "readAheadDepth must be non-negative! Got %s",
+          options.getReadAheadDepth());
+      checkState(
+          options.getReadAheadBlockSize() > 0,
+          "readAheadBlockSize must be positive! Got %s",
+          options.getReadAheadBlockSize());
+      checkState(
+          options.getBlockCacheMaxSize() >= 0,
+          "blockCacheMaxSize must be non-negative! Got %s",
+          options.getBlockCacheMaxSize());
+      checkState(
+          options.getBlockCacheBlockSize() > 0,
+          "blockCacheBlockSize must be positive! Got %s",
+          options.getBlockCacheBlockSize());
+      checkState(
+          options.getFooterCacheMaxSize() >= 0,
+          "footerCacheMaxSize must be non-negative! Got %s",
+          options.getFooterCacheMaxSize());
       return options;
     }
   }
@@ -25,9 +25,15 @@ import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.hadoop.util.AbstractGoogleAsyncWriteChannel;
 import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.cloud.hadoop.util.ClientRequestHelper;
+import com.google.cloud.hadoop.util.Crc32c;
 import com.google.cloud.hadoop.util.LoggingMediaHttpUploaderProgressListener;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 
 /** Implements WritableByteChannel to provide write access to GCS. */
 public class GoogleCloudStorageWriteChannel
@@ -41,6 +47,10 @@ public class GoogleCloudStorageWriteChannel
   private final CreateObjectOptions createOptions;
   private final ObjectWriteConditions writeConditions;
 
+  // Hasher of the data written to this channel during the current upload, null if checksum
+  // validation is disabled.
+  @Nullable private Crc32c.Hasher contentHasher;
+
   private GoogleCloudStorageItemInfo completedItemInfo = null;
 
   /**
@@ -67,6 +77,29 @@ public class GoogleCloudStorageWriteChannel
     this.resourceId = resourceId;
     this.createOptions = createOptions;
     this.writeConditions = writeConditions;
+    this.contentHasher = channelOptions.isHttpChecksumsEnabled() ? Crc32c.newHasher() : null;
+  }
+
+  @Override
+  public synchronized int write(ByteBuffer buffer) throws IOException {
+    if (contentHasher == null) {
+      return super.write(buffer);
+    }
+    ByteBuffer writtenData = buffer.duplicate();
+    int bytesWritten = super.write(buffer);
+    writtenData.limit(writtenData.position() + bytesWritten);
+    contentHasher.update(writtenData);
+    return bytesWritten;
+  }
+
+  @Override
+  public void startUpload(InputStream pipeSource) throws IOException {
+    // Upload is restarted when data is re-uploaded from the upload cache, which writes all cached
+    // data to this channel again.
+    if (contentHasher != null) {
+      contentHasher = Crc32c.newHasher();
+    }
+    super.startUpload(pipeSource);
   }
 
   @Override
@@ -96,11 +129,53 @@ public class GoogleCloudStorageWriteChannel
   }
 
   @Override
-  public void handleResponse(StorageObject response) {
+  public void handleResponse(StorageObject response) throws IOException {
+    if (contentHasher != null && response.getCrc32c() != null) {
+      validateChecksum(response);
+    }
     this.completedItemInfo =
         GoogleCloudStorageImpl.createItemInfoForStorageObject(resourceId, response);
   }
 
+  /**
+   * Validates that checksum of the uploaded object matches checksum of the data written to this
+   * channel.
+   *
+   * <p>If it does not, then the uploaded object is deleted only if it was created as a new object.
+   * An object that replaced an existing generation is left in place, because deleting it would also
+   * remove the previous content of the object when bucket versioning is disabled.
+   */
+  private void validateChecksum(StorageObject response) throws IOException {
+    int writtenCrc32c = contentHasher.getValue();
+    int objectCrc32c = Ints.fromByteArray(BaseEncoding.base64().decode(response.getCrc32c()));
+    if (writtenCrc32c == objectCrc32c) {
+      logger.atFiner().log("Validated checksum of the data uploaded to '%s'", resourceId);
+      return;
+    }
+    IOException checksumException =
+        new IOException(
+            String.format(
+                "Uploaded object checksum (%s) didn't match written data checksum (%s) for '%s'",
+                objectCrc32c, writtenCrc32c, resourceId));
+    Long contentGenerationMatch = writeConditions.getContentGenerationMatch();
+    if (contentGenerationMatch == null || contentGenerationMatch != 0) {
+      logger.atWarning().log(
+          "Not deleting '%s' object with mismatched checksum, because it could replace an existing"
+              + " generation of the object",
+          resourceId);
+      throw checksumException;
+    }
+    try {
+      gcs.objects()
+          .delete(resourceId.getBucketName(), resourceId.getObjectName())
+          .setIfGenerationMatch(response.getGeneration())
+          .execute();
+    } catch (IOException e) {
+      checksumException.addSuppressed(e);
+    }
+    throw checksumException;
+  }
+
   @Override
   protected String getContentType() {
     return createOptions.getContentType();
@@ -0,0 +1,508 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.api.client.util.Clock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.flogger.GoogleLogger;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+/**
+ * A node-local storage for {@link GoogleCloudStorageItemInfo} of objects, shared by all processes
+ * on a host through a memory-mapped file, that complements {@link PrefixMappedItemCache}.
+ *
+ * <p>The file holds a fixed-size hash table of slots, each of which holds a serialized item info
+ * keyed by bucket and object name, with the time it was written. Each key is looked up in a small
+ * window of adjacent slots: when the window is full, the oldest slot in it is overwritten, so the
+ * number of entries is bounded by the number of slots. Entries expire after the max entry age,
+ * measured with the wall clock that all processes share.
+ *
+ * <p>Reads do not take any locks: each slot holds a checksum of its content, and a slot that is
+ * being written concurrently is treated as empty. Writes take an exclusive file lock on the slot
+ * window, so that concurrent writers from different processes do not overwrite each other.
+ */
+public class MappedFileItemCache implements Closeable {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Magic number that identifies the file format, "GCSC". */
+  private static final int MAGIC = 0x47435343;
+
+  /** Version of the file format, must be changed when the slot layout changes. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** Size in bytes of the file header: magic, format version, number of slots and slot size. */
+  private static final int HEADER_BYTES = 16;
+
+  /** Size in bytes of a slot. Item infos that do not fit in a slot are not cached. */
+  private static final int SLOT_BYTES = 1024;
+
+  /** Size in bytes of a slot header: payload length, payload checksum and write time. */
+  private static final int SLOT_HEADER_BYTES = 16;
+
+  /** Number of adjacent slots in which a key can be stored. */
+  static final int PROBE_SLOTS = 4;
+
+  /**
+   * Serializes writes in this JVM, because file locks are held on behalf of the whole JVM and
+   * overlapping file lock requests from the same JVM fail.
+   */
+  private static final Lock WRITE_LOCK = new ReentrantLock();
+
+  private final FileChannel channel;
+
+  private final MappedByteBuffer buffer;
+
+  private final int numSlots;
+
+  /** The time in milliseconds before an entry expires. */
+  private final long maxEntryAgeMillis;
+
+  /** Clock for tracking expiration, must be shared by all processes that use the file. */
+  private final Clock clock;
+
+  /**
+   * Opens a {@link MappedFileItemCache} backed by the given file, creating the file if it does not
+   * exist. The file is created with owner-only permissions where supported.
+   *
+   * @param path path to the file that backs the cache.
+   * @param maxEntries number of slots in the file, must be the same in all processes.
+   * @param maxEntryAge time after which entries in cache expire.
+   * @throws IOException if the file can not be created, mapped, or has an incompatible layout.
+   */
+  public MappedFileItemCache(Path path, int maxEntries, Duration maxEntryAge) throws IOException {
+    this(path, maxEntries, maxEntryAge, Clock.SYSTEM);
+  }
+
+  @VisibleForTesting
+  MappedFileItemCache(Path path, int maxEntries, Duration maxEntryAge, Clock clock)
+      throws IOException {
+    checkArgument(
+        maxEntries >= PROBE_SLOTS,
+        "maxEntries should be at least %s, but was %s",
+        PROBE_SLOTS,
+        maxEntries);
+    checkArgument(
+        maxEntries <= (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES,
+        "maxEntries should be at most %s, but was %s",
+        (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES,
+        maxEntries);
+    this.numSlots = maxEntries;
+    this.maxEntryAgeMillis = maxEntryAge.toMillis();
+    this.clock = clock;
+
+    createFile(path);
+    this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long fileBytes = HEADER_BYTES + (long) numSlots * SLOT_BYTES;
+      this.buffer = channel.map(MapMode.READ_WRITE, 0, fileBytes);
+      initializeHeader(path);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static void createFile(Path path) throws IOException {
+    try {
+      if (path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+        Files.createFile(
+            path,
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+      } else {
+        Files.createFile(path);
+      }
+    } catch (FileAlreadyExistsException e) {
+      // File was created by another process.
+    }
+  }
+
+  /** Writes the header of a new file or validates the header of an existing file. */
+  private void initializeHeader(Path path) throws IOException {
+    WRITE_LOCK.lock();
+    try (FileLock ignore = channel.lock(0, HEADER_BYTES, /* shared= */ false)) {
+      int magic = buffer.getInt(0);
+      if (magic == 0) {
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, numSlots);
+        buffer.putInt(12, SLOT_BYTES);
+        buffer.putInt(0, MAGIC);
+        return;
+      }
+      if (magic != MAGIC
+          || buffer.getInt(4) != FORMAT_VERSION
+          || buffer.getInt(8) != numSlots
+          || buffer.getInt(12) != SLOT_BYTES) {
+        throw new IOException(
+            String.format(
+                "Incompatible shared cache file '%s': expected %s slots of %s bytes in format"
+                    + " version %s",
+                path, numSlots, SLOT_BYTES, FORMAT_VERSION));
+      }
+    } finally {
+      WRITE_LOCK.unlock();
+    }
+  }
+
+  /**
+   * Gets the cached item info of the object, or {@code null} if it is not cached or expired. If the
+   * resource ID has a generation, only the item info of this generation is returned.
+   */
+  @Nullable
+  public GoogleCloudStorageItemInfo getItem(StorageResourceId resourceId) {
+    if (!resourceId.isStorageObject()) {
+      return null;
+    }
+    String key = getKey(resourceId);
+    int firstSlot = getFirstSlot(key);
+    long now = clock.currentTimeMillis();
+    for (int slot = firstSlot; slot < firstSlot + PROBE_SLOTS; slot++) {
+      SlotValue value = readSlot(slot);
+      if (value == null || !key.equals(value.key)) {
+        continue;
+      }
+      if (isExpired(value, now)) {
+        return null;
+      }
+      GoogleCloudStorageItemInfo item = decodeItem(resourceId, value.payload);
+      if (item == null
+          || (resourceId.hasGenerationId()
+              && resourceId.getGenerationId() != item.getContentGeneration())) {
+        return null;
+      }
+      return item;
+    }
+    return null;
+  }
+
+  /** Inserts the item info of an existing object into the cache, replacing the previous one. */
+  public void putItem(GoogleCloudStorageItemInfo item) {
+    if (!isCacheable(item)) {
+      return;
+    }
+    String key = getKey(item.getResourceId());
+    byte[] payload = encodeItem(key, item);
+    if (payload == null || payload.length > SLOT_BYTES - SLOT_HEADER_BYTES) {
+      return;
+    }
+    int firstSlot = getFirstSlot(key);
+    long now = clock.currentTimeMillis();
+    writeLocked(
+        firstSlot,
+        () -> {
+          int targetSlot = -1;
+          long targetWriteTime = Long.MAX_VALUE;
+          for (int slot = firstSlot; slot < firstSlot + PROBE_SLOTS; slot++) {
+            SlotValue value = readSlot(slot);
+            if (value == null || key.equals(value.key) || isExpired(value, now)) {
+              targetSlot = slot;
+              break;
+            }
+            if (value.writeTimeMillis < targetWriteTime) {
+              targetSlot = slot;
+              targetWriteTime = value.writeTimeMillis;
+            }
+          }
+          // Remove a stale copy of the key that could remain after the target slot.
+          for (int slot = targetSlot + 1; slot < firstSlot + PROBE_SLOTS; slot++) {
+            SlotValue value = readSlot(slot);
+            if (value != null && key.equals(value.key)) {
+              clearSlot(slot);
+            }
+          }
+          writeSlot(targetSlot, now, payload);
+        });
+  }
+
+  /** Removes the item info of the object from the cache. */
+  public void removeItem(StorageResourceId resourceId) {
+    if (!resourceId.isStorageObject()) {
+      return;
+    }
+    String key = getKey(resourceId);
+    int firstSlot = getFirstSlot(key);
+    writeLocked(
+        firstSlot,
+        () -> {
+          for (int slot = firstSlot; slot < firstSlot + PROBE_SLOTS; slot++) {
+            SlotValue value = readSlot(slot);
+            if (value != null && key.equals(value.key)) {
+              clearSlot(slot);
+            }
+          }
+        });
+  }
+
+  /** Removes the item infos of all objects in the bucket from the cache, scanning all slots. */
+  public void invalidateBucket(String bucketName) {
+    String keyPrefix = bucketName + "/";
+    for (int slot = 0; slot < numSlots; slot++) {
+      SlotValue value = readSlot(slot);
+      if (value == null || !value.key.startsWith(keyPrefix)) {
+        continue;
+      }
+      int bucketSlot = slot;
+      writeLocked(
+          slot,
+          () -> {
+            SlotValue lockedValue = readSlot(bucketSlot);
+            if (lockedValue != null && lockedValue.key.startsWith(keyPrefix)) {
+              clearSlot(bucketSlot);
+            }
+          });
+    }
+  }
+
+  /**
+   * Closes the file channel. The file stays mapped until the buffer is garbage collected, and its
+   * content is kept for other processes.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** Only existing objects are cached, because directories and buckets are resolved by listing. */
+  private static boolean isCacheable(GoogleCloudStorageItemInfo item) {
+    return item.exists()
+        && item.getResourceId().isStorageObject()
+        && !item.getResourceId().hasGenerationId()
+        && !item.isInferredDirectory();
+  }
+
+  private boolean isExpired(SlotValue value, long now) {
+    return now - value.writeTimeMillis > maxEntryAgeMillis;
+  }
+
+  private static String getKey(StorageResourceId resourceId) {
+    return resourceId.getBucketName() + "/" + resourceId.getObjectName();
+  }
+
+  /** Gets the first slot of the window in which the key can be stored, windows never wrap. */
+  private int getFirstSlot(String key) {
+    int hash = key.hashCode();
+    // Spread hash bits, because String hash codes of similar keys differ in lower bits only.
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % (numSlots - PROBE_SLOTS + 1);
+  }
+
+  private static long getSlotOffset(int slot) {
+    return HEADER_BYTES + (long) slot * SLOT_BYTES;
+  }
+
+  /** Runs the write under the JVM-wide write lock and a file lock on the slot window. */
+  private void writeLocked(int firstSlot, Runnable write) {
+    WRITE_LOCK.lock();
+    try (FileLock ignore =
+        channel.lock(getSlotOffset(firstSlot), (long) PROBE_SLOTS * SLOT_BYTES, false)) {
+      write.run();
+    } catch (IOException e) {
+      // Caching is best effort, failing to update the shared cache should not fail the request.
+      logger.atWarning().withCause(e).log("Failed to update shared cache slot %s", firstSlot);
+    } finally {
+      WRITE_LOCK.unlock();
+    }
+  }
+
+  /** Reads a slot, returns {@code null} if the slot is empty or is being written concurrently. */
+  @Nullable
+  private SlotValue readSlot(int slot) {
+    ByteBuffer slotBuffer = buffer.duplicate();
+    slotBuffer.position((int) getSlotOffset(slot));
+    int length = slotBuffer.getInt();
+    if (length <= 0 || length > SLOT_BYTES - SLOT_HEADER_BYTES) {
+      return null;
+    }
+    int checksum = slotBuffer.getInt();
+    long writeTimeMillis = slotBuffer.getLong();
+    byte[] payload = new byte[length];
+    slotBuffer.get(payload);
+    if (checksum != getChecksum(writeTimeMillis, payload)) {
+      return null;
+    }
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+      return new SlotValue(in.readUTF(), writeTimeMillis, payload);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void writeSlot(int slot, long writeTimeMillis, byte[] payload) {
+    ByteBuffer slotBuffer = buffer.duplicate();
+    int offset = (int) getSlotOffset(slot);
+    // Clear length first, so that concurrent readers do not observe a partially written slot.
+    slotBuffer.putInt(offset, 0);
+    slotBuffer.position(offset + Integer.BYTES);
+    slotBuffer.putInt(getChecksum(writeTimeMillis, payload));
+    slotBuffer.putLong(writeTimeMillis);
+    slotBuffer.put(payload);
+    slotBuffer.putInt(offset, payload.length);
+  }
+
+  private void clearSlot(int slot) {
+    buffer.duplicate().putInt((int) getSlotOffset(slot), 0);
+  }
+
+  private static int getChecksum(long writeTimeMillis, byte[] payload) {
+    CRC32 crc32 = new CRC32();
+    for (int i = 0; i < Long.BYTES; i++) {
+      crc32.update((int) (writeTimeMillis >>> (i * Byte.SIZE)));
+    }
+    crc32.update(payload);
+    return (int) crc32.getValue();
+  }
+
+  @Nullable
+  private static byte[] encodeItem(String key, GoogleCloudStorageItemInfo item) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(SLOT_BYTES);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeUTF(key);
+      out.writeLong(item.getCreationTime());
+      out.writeLong(item.getModificationTime());
+      out.writeLong(item.getSize());
+      writeNullableString(out, item.getContentType());
+      writeNullableString(out, item.getContentEncoding());
+      Map<String, byte[]> metadata = item.getMetadata();
+      out.writeInt(metadata == null ? -1 : metadata.size());
+      if (metadata != null) {
+        for (Map.Entry<String, byte[]> entry : metadata.entrySet()) {
+          out.writeUTF(entry.getKey());
+          writeNullableBytes(out, entry.getValue());
+        }
+      }
+      out.writeLong(item.getContentGeneration());
+      out.writeLong(item.getMetaGeneration());
+      VerificationAttributes attributes = item.getVerificationAttributes();
+      out.writeBoolean(attributes != null);
+      if (attributes != null) {
+        writeNullableBytes(out, attributes.getMd5hash());
+        writeNullableBytes(out, attributes.getCrc32c());
+      }
+    } catch (IOException e) {
+      // Strings that do not fit in modified UTF-8 encoding limits are not cached.
+      return null;
+    }
+    return bytes.toByteArray();
+  }
+
+  @Nullable
+  private static GoogleCloudStorageItemInfo decodeItem(
+      StorageResourceId resourceId, byte[] payload) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+      in.readUTF();
+      long creationTime = in.readLong();
+      long modificationTime = in.readLong();
+      long size = in.readLong();
+      String contentType = readNullableString(in);
+      String contentEncoding = readNullableString(in);
+      int metadataSize = in.readInt();
+      Map<String, byte[]> metadata = null;
+      if (metadataSize >= 0) {
+        metadata = new HashMap<>(metadataSize);
+        for (int i = 0; i < metadataSize; i++) {
+          metadata.put(in.readUTF(), readNullableBytes(in));
+        }
+      }
+      long contentGeneration = in.readLong();
+      long metaGeneration = in.readLong();
+      VerificationAttributes attributes =
+          in.readBoolean()
+              ? new VerificationAttributes(readNullableBytes(in), readNullableBytes(in))
+              : null;
+      return GoogleCloudStorageItemInfo.createObject(
+          new StorageResourceId(resourceId.getBucketName(), resourceId.getObjectName()),
+          creationTime,
+          modificationTime,
+          size,
+          contentType,
+          contentEncoding,
+          metadata,
+          contentGeneration,
+          metaGeneration,
+          attributes);
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Failed to decode shared cache entry for %s", resourceId);
+      return null;
+    }
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String value)
+      throws IOException {
+    writeNullableBytes(out, value == null ? null : value.getBytes(UTF_8));
+  }
+
+  @Nullable
+  private static String readNullableString(DataInputStream in) throws IOException {
+    byte[] bytes = readNullableBytes(in);
+    return bytes == null ? null : new String(bytes, UTF_8);
+  }
+
+  private static void writeNullableBytes(DataOutputStream out, @Nullable byte[] value)
+      throws IOException {
+    out.writeInt(value == null ? -1 : value.length);
+    if (value != null) {
+      out.write(value);
+    }
+  }
+
+  @Nullable
+  private static byte[] readNullableBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /** Content of a slot that passed checksum validation. */
+  private static class SlotValue {
+    private final String key;
+    private final long writeTimeMillis;
+    private final byte[] payload;
+
+    SlotValue(String key, long writeTimeMillis, byte[] payload) {
+      this.key = key;
+      this.writeTimeMillis = writeTimeMillis;
+      this.payload = payload;
+    }
+  }
+}
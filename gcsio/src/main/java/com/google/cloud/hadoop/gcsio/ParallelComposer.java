@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.MAX_COMPOSE_OBJECTS;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import com.google.common.collect.Lists;
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Composes any number of objects into a single object.
+ *
+ * <p>If there are more than {@link GoogleCloudStorage#MAX_COMPOSE_OBJECTS} sources, they are
+ * composed in groups into intermediate temporary objects in parallel, level by level, until they
+ * can be composed into the destination object, so {@code n} sources take {@code O(log n)} compose
+ * rounds. At most {@code maxConcurrentComposes} intermediate composes are performed at the same
+ * time by a single {@link #compose} call.
+ */
+public class ParallelComposer {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  private static final CreateObjectOptions TEMP_OBJECT_CREATE_OPTIONS =
+      CreateObjectOptions.DEFAULT_NO_OVERWRITE;
+
+  private final GoogleCloudStorage gcs;
+  private final ExecutorService executor;
+  private final int maxConcurrentComposes;
+
+  /**
+   * @param gcs storage that performs compose requests
+   * @param executor executor of the intermediate compose requests
+   * @param maxConcurrentComposes maximum number of intermediate compose requests that are performed
+   *     at the same time by a single {@link #compose} call
+   */
+  public ParallelComposer(
+      GoogleCloudStorage gcs, ExecutorService executor, int maxConcurrentComposes) {
+    checkArgument(
+        maxConcurrentComposes > 0,
+        "maxConcurrentComposes should be greater than 0, but was %s",
+        maxConcurrentComposes);
+    this.gcs = gcs;
+    this.executor = executor;
+    this.maxConcurrentComposes = maxConcurrentComposes;
+  }
+
+  /**
+   * Composes {@code sources} into the {@code destination} object in the order they are listed.
+   *
+   * <p>Intermediate temporary objects are created with ids provided by {@code tempObjectIds} and
+   * added to {@code tempObjects} after they are created. All intermediate composes are finished
+   * when this method returns or throws, so the caller can delete all created temporary objects
+   * afterwards.
+   *
+   * @param sources objects to compose, in the same bucket as the destination
+   * @param destination the resulting object
+   * @param options options of the destination object
+   * @param tempObjectIds supplier of the unique ids of intermediate temporary objects
+   * @param tempObjects thread-safe collection that created temporary objects are added to
+   * @return info of the destination object
+   */
+  public GoogleCloudStorageItemInfo compose(
+      List<StorageResourceId> sources,
+      StorageResourceId destination,
+      CreateObjectOptions options,
+      Supplier<StorageResourceId> tempObjectIds,
+      Collection<StorageResourceId> tempObjects)
+      throws IOException {
+    Semaphore composePermits = new Semaphore(maxConcurrentComposes);
+    while (sources.size() > MAX_COMPOSE_OBJECTS) {
+      logger.atFiner().log(
+          "Composing %s objects into intermediate objects for '%s'", sources.size(), destination);
+      List<Future<StorageResourceId>> composedObjects = new ArrayList<>();
+      IOException exception = null;
+      for (List<StorageResourceId> group : Lists.partition(sources, MAX_COMPOSE_OBJECTS)) {
+        if (group.size() == 1) {
+          composedObjects.add(immediateFuture(group.get(0)));
+          continue;
+        }
+        try {
+          composePermits.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          exception =
+              new InterruptedIOException(
+                  String.format("Interrupted while composing '%s'", destination));
+          break;
+        }
+        StorageResourceId tempObjectId = tempObjectIds.get();
+        try {
+          composedObjects.add(
+              executor.submit(
+                  () -> {
+                    try {
+                      gcs.composeObjects(
+                          group, toNewObjectId(tempObjectId), TEMP_OBJECT_CREATE_OPTIONS);
+                      tempObjects.add(tempObjectId);
+                      return tempObjectId;
+                    } finally {
+                      composePermits.release();
+                    }
+                  }));
+        } catch (RejectedExecutionException e) {
+          composePermits.release();
+          exception = new IOException(String.format("Failed to compose '%s'", destination), e);
+          break;
+        }
+      }
+      sources = awaitAll(composedObjects, destination, exception);
+    }
+    return gcs.composeObjects(sources, destination, options);
+  }
+
+  /**
+   * Waits for all futures to complete, even if some of them failed, so that all created temporary
+   * objects are known to the caller, and returns their results or throws the first failure.
+   */
+  private static List<StorageResourceId> awaitAll(
+      List<Future<StorageResourceId>> futures, StorageResourceId destination, IOException exception)
+      throws IOException {
+    List<StorageResourceId> results = new ArrayList<>(futures.size());
+    for (Future<StorageResourceId> future : futures) {
+      try {
+        results.add(Uninterruptibles.getUninterruptibly(future));
+      } catch (ExecutionException e) {
+        IOException composeException =
+            new IOException(String.format("Failed to compose '%s'", destination), e.getCause());
+        if (exception == null) {
+          exception = composeException;
+        } else {
+          exception.addSuppressed(composeException);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+    return results;
+  }
+
+  /** Returns id that can be used to create the object only if it does not exist yet. */
+  private static StorageResourceId toNewObjectId(StorageResourceId resourceId) {
+    return new StorageResourceId(
+        resourceId.getBucketName(), resourceId.getObjectName(), /* generationId= */ 0);
+  }
+}
@@ -15,12 +15,16 @@ package com.google.cloud.hadoop.gcsio;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.GoogleLogger;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * This class adds a caching layer around a GoogleCloudStorage instance, caching calls that create,
@@ -29,12 +33,27 @@ import java.util.List;
  * GoogleCloudStorage#getItemInfo(StorageResourceId)}. This provides faster access to recently
  * queried data in the scope of this instance. Because the data is cached, modifications made
  * outside of this instance may not be immediately reflected.
+ *
+ * <p>Optionally, object item infos are also shared with other processes on the same host through a
+ * {@link MappedFileItemCache}.
  */
 public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudStorage {
 
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
   /** Cache to hold item info and manage invalidation. */
   private final PrefixMappedItemCache cache;
 
+  /** Cache to hold listings and not found items, used only if enabled in the options. */
+  private final PrefixMappedListingCache listingCache;
+
+  private final boolean listingCachingEnabled;
+
+  private final boolean notFoundCachingEnabled;
+
+  /** Node-local cache of object item infos shared by all processes, {@code null} if disabled. */
+  @Nullable private final MappedFileItemCache sharedCache;
+
   /**
    * Creates a wrapper around a GoogleCloudStorage instance, caching calls that create, update,
    * remove, and query for GoogleCloudStorageItemInfo. Those cached copies are returned when
@@ -48,20 +67,73 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
    */
   public PerformanceCachingGoogleCloudStorage(
       GoogleCloudStorage delegate, PerformanceCachingGoogleCloudStorageOptions options) {
-    this(delegate, createCache(options));
+    this(
+        delegate,
+        createCache(options),
+        createListingCache(options),
+        createSharedCache(options),
+        options);
   }
 
   @VisibleForTesting
   PerformanceCachingGoogleCloudStorage(
       GoogleCloudStorage delegate,
       PrefixMappedItemCache cache) {
+    this(
+        delegate,
+        cache,
+        createListingCache(PerformanceCachingGoogleCloudStorageOptions.DEFAULT),
+        /* sharedCache= */ null,
+        PerformanceCachingGoogleCloudStorageOptions.DEFAULT);
+  }
+
+  @VisibleForTesting
+  PerformanceCachingGoogleCloudStorage(
+      GoogleCloudStorage delegate,
+      PrefixMappedItemCache cache,
+      PrefixMappedListingCache listingCache,
+      @Nullable MappedFileItemCache sharedCache,
+      PerformanceCachingGoogleCloudStorageOptions options) {
     super(delegate);
     this.cache = cache;
+    this.listingCache = listingCache;
+    this.sharedCache = sharedCache;
+    this.listingCachingEnabled = options.isListingCachingEnabled();
+    this.notFoundCachingEnabled = options.isNotFoundCachingEnabled();
   }
 
   private static PrefixMappedItemCache createCache(
       PerformanceCachingGoogleCloudStorageOptions options) {
-    return new PrefixMappedItemCache(Duration.ofMillis(options.getMaxEntryAgeMillis()));
+    return new PrefixMappedItemCache(
+        Duration.ofMillis(options.getMaxEntryAgeMillis()), options.getMaxEntries());
+  }
+
+  private static PrefixMappedListingCache createListingCache(
+      PerformanceCachingGoogleCloudStorageOptions options) {
+    return new PrefixMappedListingCache(
+        Duration.ofMillis(options.getMaxEntryAgeMillis()),
+        options.getMaxEntries(),
+        options.getListingCacheMaxBytes());
+  }
+
+  @Nullable
+  private static MappedFileItemCache createSharedCache(
+      PerformanceCachingGoogleCloudStorageOptions options) {
+    if (options.getSharedCacheFile() == null) {
+      return null;
+    }
+    try {
+      return new MappedFileItemCache(
+          Paths.get(options.getSharedCacheFile()),
+          options.getSharedCacheMaxEntries(),
+          Duration.ofMillis(options.getMaxEntryAgeMillis()));
+    } catch (IOException e) {
+      // Shared cache is an optimization, fall back to the in-process cache only.
+      logger.atWarning().withCause(e).log(
+          "Failed to open shared cache file '%s', shared cache is disabled",
+          options.getSharedCacheFile());
+      return null;
+    }
   }
 
   @Override
@@ -72,8 +144,64 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     if (cache.getItem(resourceId) != null) {
       cache.removeItem(resourceId);
     }
+    removeSharedItem(resourceId);
+
+    WritableByteChannel channel = super.create(resourceId, options);
+    if (!isListingCacheEnabled() && sharedCache == null) {
+      return channel;
+    }
 
-    return super.create(resourceId, options);
+    // Invalidate listings and the shared item when the object is created too, because they could
+    // be cached by other readers while the object is being written.
+    invalidateListings(resourceId);
+    return channel instanceof GoogleCloudStorageItemInfo.Provider
+        ? new CacheInvalidatingWriteChannel(channel, resourceId)
+        : channel;
+  }
+
+  @Override
+  public GoogleCloudStorageItemInfo createObject(
+      StorageResourceId resourceId, byte[] data, CreateObjectOptions options) throws IOException {
+    GoogleCloudStorageItemInfo item = super.createObject(resourceId, data, options);
+
+    // Cache the created object.
+    cache.putItem(item);
+    putSharedItem(item);
+    invalidateListings(resourceId);
+
+    return item;
+  }
+
+  @Override
+  public void createBucket(String bucketName, CreateBucketOptions options) throws IOException {
+    super.createBucket(bucketName, options);
+    invalidateListings(new StorageResourceId(bucketName));
+  }
+
+  @Override
+  public void createEmptyObject(StorageResourceId resourceId) throws IOException {
+    super.createEmptyObject(resourceId);
+    invalidateListings(resourceId);
+  }
+
+  @Override
+  public void createEmptyObject(StorageResourceId resourceId, CreateObjectOptions options)
+      throws IOException {
+    super.createEmptyObject(resourceId, options);
+    invalidateListings(resourceId);
+  }
+
+  @Override
+  public void createEmptyObjects(List<StorageResourceId> resourceIds) throws IOException {
+    super.createEmptyObjects(resourceIds);
+    resourceIds.forEach(this::invalidateListings);
+  }
+
+  @Override
+  public void createEmptyObjects(List<StorageResourceId> resourceIds, CreateObjectOptions options)
+      throws IOException {
+    super.createEmptyObjects(resourceIds, options);
+    resourceIds.forEach(this::invalidateListings);
   }
 
   @Override
@@ -83,6 +211,10 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // Remove objects that reside in deleted buckets.
     for (String bucket : bucketNames) {
       cache.invalidateBucket(bucket);
+      if (sharedCache != null) {
+        sharedCache.invalidateBucket(bucket);
+      }
+      invalidateListings(new StorageResourceId(bucket));
     }
   }
 
@@ -93,6 +225,26 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // Remove the deleted objects from cache.
     for (StorageResourceId resourceId : resourceIds) {
       cache.removeItem(resourceId);
+      removeSharedItem(resourceId);
+      invalidateListings(resourceId);
+    }
+  }
+
+  @Override
+  public void copy(
+      String srcBucketName,
+      List<String> srcObjectNames,
+      String dstBucketName,
+      List<String> dstObjectNames)
+      throws IOException {
+    super.copy(srcBucketName, srcObjectNames, dstBucketName, dstObjectNames);
+
+    // Remove overwritten objects from cache.
+    for (String dstObjectName : dstObjectNames) {
+      StorageResourceId dstResourceId = new StorageResourceId(dstBucketName, dstObjectName);
+      cache.removeItem(dstResourceId);
+      removeSharedItem(dstResourceId);
+      invalidateListings(dstResourceId);
     }
   }
 
@@ -121,11 +273,23 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
         return ImmutableList.of(item);
       }
     }
+    if (listingCachingEnabled) {
+      List<GoogleCloudStorageItemInfo> listing =
+          listingCache.getListing(bucketName, objectNamePrefix, listOptions);
+      if (listing != null) {
+        return listing;
+      }
+    }
+
+    long loadToken = listingCache.getLoadToken();
     List<GoogleCloudStorageItemInfo> result =
         super.listObjectInfo(bucketName, objectNamePrefix, listOptions);
     for (GoogleCloudStorageItemInfo item : result) {
       cache.putItem(item);
     }
+    if (listingCachingEnabled) {
+      listingCache.putListing(bucketName, objectNamePrefix, listOptions, result, loadToken);
+    }
 
     return result;
   }
@@ -135,11 +299,25 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
       String bucketName, String objectNamePrefix, ListObjectOptions listOptions, String pageToken)
       throws IOException {
     listOptions = getListObjectOptionsWithAllFields(listOptions);
+    // Only complete listings are cached, that fit in a single page.
+    if (listingCachingEnabled && pageToken == null) {
+      List<GoogleCloudStorageItemInfo> listing =
+          listingCache.getListing(bucketName, objectNamePrefix, listOptions);
+      if (listing != null) {
+        return new ListPage<>(listing, /* nextPageToken= */ null);
+      }
+    }
+
+    long loadToken = listingCache.getLoadToken();
     ListPage<GoogleCloudStorageItemInfo> result =
         super.listObjectInfoPage(bucketName, objectNamePrefix, listOptions, pageToken);
     for (GoogleCloudStorageItemInfo item : result.getItems()) {
       cache.putItem(item);
     }
+    if (listingCachingEnabled && pageToken == null && result.getNextPageToken() == null) {
+      listingCache.putListing(
+          bucketName, objectNamePrefix, listOptions, result.getItems(), loadToken);
+    }
     return result;
   }
 
@@ -164,10 +342,24 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
       return GoogleCloudStorageItemInfo.createNotFound(resourceId);
     }
 
+    if (notFoundCachingEnabled && listingCache.isNotFound(resourceId)) {
+      return GoogleCloudStorageItemInfo.createNotFound(resourceId);
+    }
+
+    // Get the item from the cache shared by other processes on this host.
+    item = getSharedItem(resourceId);
+    if (item != null) {
+      cache.putItem(item);
+      return item;
+    }
+
     // If it wasn't in the cache and wasn't cached in directory list request
     // then request and cache it directly.
+    long loadToken = listingCache.getLoadToken();
     item = super.getItemInfo(resourceId);
     cache.putItem(item);
+    putSharedItem(item);
+    putNotFound(item, loadToken);
     return item;
   }
 
@@ -182,6 +374,15 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // still need to be resolved. Null items are added to the result list to preserve ordering.
     for (StorageResourceId resourceId : resourceIds) {
       GoogleCloudStorageItemInfo item = cache.getItem(resourceId);
+      if (item == null && notFoundCachingEnabled && listingCache.isNotFound(resourceId)) {
+        item = GoogleCloudStorageItemInfo.createNotFound(resourceId);
+      }
+      if (item == null) {
+        item = getSharedItem(resourceId);
+        if (item != null) {
+          cache.putItem(item);
+        }
+      }
       if (item == null) {
         request.add(resourceId);
       }
@@ -192,6 +393,7 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // Null entries in the result list are replaced by the fresh entries from the underlying
     // GoogleCloudStorage.
     if (!request.isEmpty()) {
+      long loadToken = listingCache.getLoadToken();
       List<GoogleCloudStorageItemInfo> response = super.getItemInfos(request);
       Iterator<GoogleCloudStorageItemInfo> responseIterator = response.iterator();
 
@@ -201,6 +403,8 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
         if (result.get(i) == null) {
           GoogleCloudStorageItemInfo item = responseIterator.next();
           cache.putItem(item);
+          putSharedItem(item);
+          putNotFound(item, loadToken);
           result.set(i, item);
         }
       }
@@ -218,11 +422,26 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
     // StorageResourceIds of the items do not change in an update.
     for (GoogleCloudStorageItemInfo item : result) {
       cache.putItem(item);
+      putSharedItem(item);
+      invalidateListings(item.getResourceId());
     }
 
     return result;
   }
 
+  @Override
+  public void compose(
+      String bucketName, List<String> sources, String destination, String contentType)
+      throws IOException {
+    super.compose(bucketName, sources, destination, contentType);
+
+    // Remove the overwritten object from cache.
+    StorageResourceId destinationId = new StorageResourceId(bucketName, destination);
+    cache.removeItem(destinationId);
+    removeSharedItem(destinationId);
+    invalidateListings(destinationId);
+  }
+
   @Override
   public GoogleCloudStorageItemInfo composeObjects(
       List<StorageResourceId> sources, StorageResourceId destination, CreateObjectOptions options)
@@ -231,6 +450,8 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
 
     // Cache the composed object.
     cache.putItem(item);
+    putSharedItem(item);
+    invalidateListings(destination);
 
     return item;
   }
@@ -241,11 +462,64 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
 
     // Respect close and empty the cache.
     cache.invalidateAll();
+    listingCache.invalidateAll();
+
+    // Shared cache content is kept for other processes.
+    if (sharedCache != null) {
+      try {
+        sharedCache.close();
+      } catch (IOException e) {
+        logger.atWarning().withCause(e).log("Failed to close shared cache");
+      }
+    }
   }
 
   @VisibleForTesting
   public void invalidateCache() {
     cache.invalidateAll();
+    listingCache.invalidateAll();
+  }
+
+  private boolean isListingCacheEnabled() {
+    return listingCachingEnabled || notFoundCachingEnabled;
+  }
+
+  /**
+   * Invalidates cached listings and not found objects that could be affected by the creation,
+   * modification or deletion of the given object or bucket.
+   */
+  private void invalidateListings(StorageResourceId resourceId) {
+    if (!isListingCacheEnabled()) {
+      return;
+    }
+    if (resourceId.isBucket()) {
+      listingCache.invalidateBucket(resourceId.getBucketName());
+    } else if (resourceId.isStorageObject()) {
+      listingCache.invalidateObject(resourceId);
+    }
+  }
+
+  @Nullable
+  private GoogleCloudStorageItemInfo getSharedItem(StorageResourceId resourceId) {
+    return sharedCache == null ? null : sharedCache.getItem(resourceId);
+  }
+
+  private void putSharedItem(GoogleCloudStorageItemInfo item) {
+    if (sharedCache != null) {
+      sharedCache.putItem(item);
+    }
+  }
+
+  private void removeSharedItem(StorageResourceId resourceId) {
+    if (sharedCache != null) {
+      sharedCache.removeItem(resourceId);
+    }
+  }
+
+  private void putNotFound(GoogleCloudStorageItemInfo item, long loadToken) {
+    if (notFoundCachingEnabled && !item.exists() && item.getResourceId().isStorageObject()) {
+      listingCache.putNotFound(item.getResourceId(), loadToken);
+    }
   }
 
   // Resets requested object fields in list request to return all support object fields because we
@@ -257,4 +531,43 @@ public class PerformanceCachingGoogleCloudStorage extends ForwardingGoogleCloudS
         ? listOptions
         : listOptions.toBuilder().setFields(GoogleCloudStorageImpl.OBJECT_FIELDS).build();
   }
+
+  /** Invalidates cached listings when the object is created on channel close. */
+  private class CacheInvalidatingWriteChannel
+      implements WritableByteChannel, GoogleCloudStorageItemInfo.Provider {
+
+    private final WritableByteChannel delegate;
+
+    private final StorageResourceId resourceId;
+
+    CacheInvalidatingWriteChannel(WritableByteChannel delegate, StorageResourceId resourceId) {
+      this.delegate = delegate;
+      this.resourceId = resourceId;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      return delegate.write(src);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        delegate.close();
+      } finally {
+        removeSharedItem(resourceId);
+        invalidateListings(resourceId);
+      }
+    }
+
+    @Override
+    public GoogleCloudStorageItemInfo getItemInfo() {
+      return ((GoogleCloudStorageItemInfo.Provider) delegate).getItemInfo();
+    }
+  }
 }
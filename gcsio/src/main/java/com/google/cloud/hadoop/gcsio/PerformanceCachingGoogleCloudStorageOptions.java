@@ -13,7 +13,10 @@
  */
 package com.google.cloud.hadoop.gcsio;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.auto.value.AutoValue;
+import javax.annotation.Nullable;
 
 /** Configurable options for {@link PerformanceCachingGoogleCloudStorage}. */
 @AutoValue
@@ -22,11 +25,31 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
   /** Max age of an item in cache in milliseconds. */
   public static final long MAX_ENTRY_AGE_MILLIS_DEFAULT = 5_000;
 
+  /** Max number of items in cache. */
+  public static final long MAX_ENTRIES_DEFAULT = 100_000;
+
+  /** Whether to cache complete listing results. */
+  public static final boolean LISTING_CACHING_ENABLED_DEFAULT = false;
+
+  /** Whether to cache not found objects. */
+  public static final boolean NOT_FOUND_CACHING_ENABLED_DEFAULT = false;
+
+  /** Max estimated size in bytes of cached listings and not found objects. */
+  public static final long LISTING_CACHE_MAX_BYTES_DEFAULT = 64 * 1024 * 1024;
+
+  /** Max number of items in the node-local shared cache file. */
+  public static final int SHARED_CACHE_MAX_ENTRIES_DEFAULT = 65_536;
+
   public static final PerformanceCachingGoogleCloudStorageOptions DEFAULT = builder().build();
 
   public static Builder builder() {
     return new AutoValue_PerformanceCachingGoogleCloudStorageOptions.Builder()
-        .setMaxEntryAgeMillis(MAX_ENTRY_AGE_MILLIS_DEFAULT);
+        .setMaxEntryAgeMillis(MAX_ENTRY_AGE_MILLIS_DEFAULT)
+        .setMaxEntries(MAX_ENTRIES_DEFAULT)
+        .setListingCachingEnabled(LISTING_CACHING_ENABLED_DEFAULT)
+        .setNotFoundCachingEnabled(NOT_FOUND_CACHING_ENABLED_DEFAULT)
+        .setListingCacheMaxBytes(LISTING_CACHE_MAX_BYTES_DEFAULT)
+        .setSharedCacheMaxEntries(SHARED_CACHE_MAX_ENTRIES_DEFAULT);
   }
 
   public abstract Builder toBuilder();
@@ -34,6 +57,31 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
   /** Gets the max age of an item in cache in milliseconds. */
   public abstract long getMaxEntryAgeMillis();
 
+  /** Gets the max number of items in cache, after which the oldest items are evicted. */
+  public abstract long getMaxEntries();
+
+  /** Whether complete listing results are cached. */
+  public abstract boolean isListingCachingEnabled();
+
+  /** Whether not found objects are cached. */
+  public abstract boolean isNotFoundCachingEnabled();
+
+  /**
+   * Gets the max estimated size in bytes of cached listings and not found objects, after which the
+   * oldest of them are evicted. Their number is limited by {@link #getMaxEntries()}.
+   */
+  public abstract long getListingCacheMaxBytes();
+
+  /**
+   * Gets the path to the node-local file in which item infos are shared by all processes on the
+   * host, or {@code null} if the shared cache is disabled.
+   */
+  @Nullable
+  public abstract String getSharedCacheFile();
+
+  /** Gets the max number of items in the node-local shared cache file. */
+  public abstract int getSharedCacheMaxEntries();
+
   /** Builder class for PerformanceCachingGoogleCloudStorageOptions. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -41,6 +89,42 @@ public abstract class PerformanceCachingGoogleCloudStorageOptions {
     /** Sets the max age of an item in cache in milliseconds. */
     public abstract Builder setMaxEntryAgeMillis(long maxEntryAgeMillis);
 
-    public abstract PerformanceCachingGoogleCloudStorageOptions build();
+    /** Sets the max number of items in cache, after which the oldest items are evicted. */
+    public abstract Builder setMaxEntries(long maxEntries);
+
+    /** Sets whether to cache complete listing results. */
+    public abstract Builder setListingCachingEnabled(boolean listingCachingEnabled);
+
+    /** Sets whether to cache not found objects. */
+    public abstract Builder setNotFoundCachingEnabled(boolean notFoundCachingEnabled);
+
+    /** Sets the max estimated size in bytes of cached listings and not found objects. */
+    public abstract Builder setListingCacheMaxBytes(long listingCacheMaxBytes);
+
+    /** Sets the path to the node-local file in which item infos are shared by all processes. */
+    public abstract Builder setSharedCacheFile(String sharedCacheFile);
+
+    /** Sets the max number of items in the node-local shared cache file. */
+    public abstract Builder setSharedCacheMaxEntries(int sharedCacheMaxEntries);
+
+    abstract PerformanceCachingGoogleCloudStorageOptions autoBuild();
+
+    public PerformanceCachingGoogleCloudStorageOptions build() {
+      PerformanceCachingGoogleCloudStorageOptions options = autoBuild();
+      checkArgument(
+          options.getMaxEntries() > 0,
+          "maxEntries should be positive, but was %s",
+          options.getMaxEntries());
+      checkArgument(
+          options.getListingCacheMaxBytes() > 0,
+          "listingCacheMaxBytes should be positive, but was %s",
+          options.getListingCacheMaxBytes());
+      checkArgument(
+          options.getSharedCacheMaxEntries() >= MappedFileItemCache.PROBE_SLOTS,
+          "sharedCacheMaxEntries should be at least %s, but was %s",
+          MappedFileItemCache.PROBE_SLOTS,
+          options.getSharedCacheMaxEntries());
+      return options;
+    }
   }
 }
@@ -15,17 +15,29 @@ package com.google.cloud.hadoop.gcsio;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
+import static java.lang.Math.max;
+import static java.util.Comparator.comparingLong;
 import static java.util.Comparator.naturalOrder;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.ref.WeakReference;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nullable;
 
 /**
@@ -33,32 +45,75 @@ import javax.annotation.Nullable;
  * the item's bucket and object name. In addition to caching {@link StorageResourceId} to item
  * mappings, it provides options for storing groups of items under similar bucket and object name
  * prefixes.
+ *
+ * <p>This cache is safe for concurrent use without external synchronization: items are stored in a
+ * {@link ConcurrentSkipListMap}, that allows lock-free lookups and prefix invalidations. When the
+ * number of cached items exceeds the configured maximum, expired items and then the oldest items
+ * are evicted. Expired items are also periodically removed in background.
  */
 public class PrefixMappedItemCache {
 
+  /** Minimal period between background removals of expired items. */
+  private static final Duration MIN_EXPIRED_ITEMS_REMOVAL_PERIOD = Duration.ofMillis(100);
+
+  /** Thread that removes expired items in background from all caches. */
+  private static final ScheduledExecutorService EXPIRED_ITEMS_REMOVAL_EXECUTOR =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setNameFormat("gcs-item-cache-expiry-%d")
+              .setDaemon(true)
+              .build());
+
   /** Map to hold item info. */
-  private final TreeMap<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> itemMap;
+  private final ConcurrentSkipListMap<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> itemMap;
+
+  /** Number of items in the item map, {@link ConcurrentSkipListMap#size} is not constant-time. */
+  private final AtomicLong itemCount = new AtomicLong();
+
+  /** Held by the thread that evicts items when the cache is full. */
+  private final Lock evictionLock = new ReentrantLock();
 
   /** The time in nanoseconds before an entry expires. */
   private final long maxEntryAgeNanos;
 
+  /** Max number of items in the cache. */
+  private final long maxEntries;
+
   /** Ticker for tracking expiration. */
   private final Ticker ticker;
 
   /**
-   * Creates a new {@link PrefixMappedItemCache}.
+   * Creates a new {@link PrefixMappedItemCache} with unlimited number of items.
    *
    * @param maxEntryAge time after which entries in cache expire.
    */
   public PrefixMappedItemCache(Duration maxEntryAge) {
-    this(Ticker.systemTicker(), maxEntryAge);
+    this(maxEntryAge, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new {@link PrefixMappedItemCache}.
+   *
+   * @param maxEntryAge time after which entries in cache expire.
+   * @param maxEntries max number of items in cache, after which the oldest items are evicted.
+   */
+  public PrefixMappedItemCache(Duration maxEntryAge, long maxEntries) {
+    this(Ticker.systemTicker(), maxEntryAge, maxEntries);
+    ExpiredItemsRemoval.schedule(this, maxEntryAge);
   }
 
   @VisibleForTesting
   PrefixMappedItemCache(Ticker ticker, Duration maxEntryAge) {
-    this.itemMap = new TreeMap<>(PrefixKey.COMPARATOR);
+    this(ticker, maxEntryAge, Long.MAX_VALUE);
+  }
+
+  @VisibleForTesting
+  PrefixMappedItemCache(Ticker ticker, Duration maxEntryAge, long maxEntries) {
+    checkArgument(maxEntries > 0, "maxEntries should be positive, but was %s", maxEntries);
+    this.itemMap = new ConcurrentSkipListMap<>(PrefixKey.COMPARATOR);
     this.ticker = ticker;
     this.maxEntryAgeNanos = maxEntryAge.toNanos();
+    this.maxEntries = maxEntries;
   }
 
   /**
@@ -68,7 +123,7 @@ public class PrefixMappedItemCache {
    * @return the cached item associated with the given resource id, null if the item isn't cached or
    *     it has expired in the cache.
    */
-  public synchronized GoogleCloudStorageItemInfo getItem(StorageResourceId id) {
+  public GoogleCloudStorageItemInfo getItem(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = itemMap.get(key);
 
@@ -77,7 +132,10 @@ public class PrefixMappedItemCache {
     }
 
     if (isExpired(value)) {
-      itemMap.remove(key);
+      // Do not remove an item that was concurrently replaced with a new one.
+      if (itemMap.remove(key, value)) {
+        itemCount.decrementAndGet();
+      }
       return null;
     }
 
@@ -91,7 +149,7 @@ public class PrefixMappedItemCache {
    * @param item the item to insert. The item must have a valid resource id.
    * @return the overwritten item, null if no item was overwritten.
    */
-  public synchronized GoogleCloudStorageItemInfo putItem(GoogleCloudStorageItemInfo item) {
+  public GoogleCloudStorageItemInfo putItem(GoogleCloudStorageItemInfo item) {
     if (!item.exists()) {
       return null;
     }
@@ -100,6 +158,9 @@ public class PrefixMappedItemCache {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = new CacheValue<>(item, ticker.read());
     CacheValue<GoogleCloudStorageItemInfo> oldValue = itemMap.put(key, value);
+    if (oldValue == null && itemCount.incrementAndGet() > maxEntries) {
+      evictItems();
+    }
     return oldValue == null || isExpired(oldValue) ? null : oldValue.getValue();
   }
 
@@ -109,11 +170,14 @@ public class PrefixMappedItemCache {
    * @param id the resource id of the item to remove.
    * @return the removed item, null if no item was removed.
    */
-  public synchronized GoogleCloudStorageItemInfo removeItem(StorageResourceId id) {
+  public GoogleCloudStorageItemInfo removeItem(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     CacheValue<GoogleCloudStorageItemInfo> value = itemMap.remove(key);
+    if (value != null) {
+      itemCount.decrementAndGet();
+    }
     if (id.isDirectory()) {
-      getPrefixSubMap(itemMap, key).clear();
+      removeItems(getPrefixSubMap(itemMap, key));
     }
     return value == null || isExpired(value) ? null : value.getValue();
   }
@@ -124,7 +188,7 @@ public class PrefixMappedItemCache {
    * @param id the prefix resource id of the cached items to check.
    * @return true if items with provided prefix are cached, false otherwise.
    */
-  public synchronized boolean isPrefixCached(StorageResourceId id) {
+  public boolean isPrefixCached(StorageResourceId id) {
     PrefixKey key = new PrefixKey(id.getBucketName(), id.getObjectName());
     return !getPrefixSubMap(itemMap, key).isEmpty();
   }
@@ -134,15 +198,65 @@ public class PrefixMappedItemCache {
    *
    * @param bucket the bucket to invalidate. This must not be null.
    */
-  public synchronized void invalidateBucket(String bucket) {
+  public void invalidateBucket(String bucket) {
     PrefixKey key = new PrefixKey(bucket, "");
 
-    getPrefixSubMap(itemMap, key).clear();
+    removeItems(getPrefixSubMap(itemMap, key));
   }
 
   /** Invalidates all entries in the cache. */
-  public synchronized void invalidateAll() {
-    itemMap.clear();
+  public void invalidateAll() {
+    removeItems(itemMap);
+  }
+
+  /** Removes all expired items from the cache. */
+  @VisibleForTesting
+  void removeExpiredItems() {
+    for (Map.Entry<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> entry : itemMap.entrySet()) {
+      if (isExpired(entry.getValue()) && itemMap.remove(entry.getKey(), entry.getValue())) {
+        itemCount.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Evicts expired items and then the oldest items, until 90% of the max number of items is left in
+   * the cache, so eviction cost is amortized across multiple inserts.
+   */
+  private void evictItems() {
+    // Skip eviction if another thread already evicts items.
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      removeExpiredItems();
+      long targetItemCount = maxEntries - maxEntries / 10;
+      if (itemCount.get() <= targetItemCount) {
+        return;
+      }
+      List<Map.Entry<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>>> entries =
+          new ArrayList<>(itemMap.entrySet());
+      entries.sort(comparingLong(e -> e.getValue().getCreationTimeNanos()));
+      for (Map.Entry<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> entry : entries) {
+        if (itemCount.get() <= targetItemCount) {
+          break;
+        }
+        if (itemMap.remove(entry.getKey(), entry.getValue())) {
+          itemCount.decrementAndGet();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Removes all items in the given view of the item map. */
+  private void removeItems(Map<PrefixKey, CacheValue<GoogleCloudStorageItemInfo>> items) {
+    for (PrefixKey key : items.keySet()) {
+      if (itemMap.remove(key) != null) {
+        itemCount.decrementAndGet();
+      }
+    }
   }
 
   /**
@@ -178,7 +292,7 @@ public class PrefixMappedItemCache {
    * @see SortedMap#subMap(Object, Object)
    */
   private static <E> SortedMap<PrefixKey, E> getPrefixSubMap(
-      TreeMap<PrefixKey, E> map, PrefixKey lowerBound) {
+      NavigableMap<PrefixKey, E> map, PrefixKey lowerBound) {
     PrefixKey upperBound =
         new PrefixKey(lowerBound.getBucket(), lowerBound.getObjectName() + Character.MAX_VALUE);
     return map.subMap(lowerBound, upperBound);
@@ -190,6 +304,46 @@ public class PrefixMappedItemCache {
     return aggregateCacheValues(itemMap);
   }
 
+  /** Number of items in the cache, including expired items that were not removed yet. */
+  @VisibleForTesting
+  long getItemCount() {
+    return itemCount.get();
+  }
+
+  /**
+   * Periodically removes expired items from the cache in background, until the cache is garbage
+   * collected.
+   */
+  private static class ExpiredItemsRemoval implements Runnable {
+
+    /** Weak reference doesn't prevent garbage collection of the unused cache. */
+    private final WeakReference<PrefixMappedItemCache> cacheRef;
+
+    private volatile ScheduledFuture<?> future;
+
+    private ExpiredItemsRemoval(PrefixMappedItemCache cache) {
+      this.cacheRef = new WeakReference<>(cache);
+    }
+
+    static void schedule(PrefixMappedItemCache cache, Duration maxEntryAge) {
+      long periodNanos = max(maxEntryAge.toNanos(), MIN_EXPIRED_ITEMS_REMOVAL_PERIOD.toNanos());
+      ExpiredItemsRemoval removal = new ExpiredItemsRemoval(cache);
+      removal.future =
+          EXPIRED_ITEMS_REMOVAL_EXECUTOR.scheduleWithFixedDelay(
+              removal, periodNanos, periodNanos, NANOSECONDS);
+    }
+
+    @Override
+    public void run() {
+      PrefixMappedItemCache cache = cacheRef.get();
+      if (cache == null) {
+        future.cancel(/* mayInterruptIfRunning= */ false);
+        return;
+      }
+      cache.removeExpiredItems();
+    }
+  }
+
   /**
    * Tuple of a value and a creation time in nanoseconds.
    *
@@ -233,7 +387,7 @@ public class PrefixMappedItemCache {
   private static class PrefixKey implements Comparable<PrefixKey> {
 
     /**
-     * Instance of a comparator that compares {@link PrefixKey}'s. This is provided for the TreeMap
+     * Instance of a comparator that compares {@link PrefixKey}'s. This is provided for the item map
      * to off-load to for performance reasons. This throws a NullPointerException if either of the
      * entries being compared are null.
      */
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.nullToEmpty;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+
+/**
+ * A semi-persistent storage for complete object listing results and for not found objects, that
+ * complements {@link PrefixMappedItemCache}.
+ *
+ * <p>Entries are indexed by bucket and object name prefix, so that all entries affected by a
+ * modification of an object can be invalidated. Number of entries and their estimated size in
+ * memory are bounded: when any bound is exceeded, expired and then the oldest entries are evicted.
+ *
+ * <p>To prevent caching of a result that was concurrently invalidated, callers should get a load
+ * token via {@link #getLoadToken} before requesting data from GCS and provide it when caching the
+ * result: results are not cached if any entry was invalidated after the token was issued.
+ */
+public class PrefixMappedListingCache {
+
+  /** Estimated size in bytes of an item info and a cache entry without variable-length fields. */
+  private static final long FIXED_SIZE_ESTIMATE_BYTES = 256;
+
+  /** Map to hold listings and not found items. */
+  private final ConcurrentSkipListMap<EntryKey, CacheValue> entryMap =
+      new ConcurrentSkipListMap<>(EntryKey.COMPARATOR);
+
+  /** Number of entries in the entry map. */
+  private final AtomicLong entryCount = new AtomicLong();
+
+  /** Estimated size in bytes of all entries in the entry map. */
+  private final AtomicLong entriesBytes = new AtomicLong();
+
+  /** Number of invalidations, used as a load token. */
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  /** Held by the thread that evicts entries when the cache is full. */
+  private final Lock evictionLock = new ReentrantLock();
+
+  /** The time in nanoseconds before an entry expires. */
+  private final long maxEntryAgeNanos;
+
+  /** Max number of entries in the cache. */
+  private final long maxEntries;
+
+  /** Max estimated size in bytes of all entries in the cache. */
+  private final long maxBytes;
+
+  /** Ticker for tracking expiration. */
+  private final Ticker ticker;
+
+  /**
+   * Creates a new {@link PrefixMappedListingCache}.
+   *
+   * @param maxEntryAge time after which entries in cache expire.
+   * @param maxEntries max number of entries in cache.
+   * @param maxBytes max estimated size in bytes of all entries in cache.
+   */
+  public PrefixMappedListingCache(Duration maxEntryAge, long maxEntries, long maxBytes) {
+    this(Ticker.systemTicker(), maxEntryAge, maxEntries, maxBytes);
+  }
+
+  @VisibleForTesting
+  PrefixMappedListingCache(Ticker ticker, Duration maxEntryAge, long maxEntries, long maxBytes) {
+    checkArgument(maxEntries > 0, "maxEntries should be positive, but was %s", maxEntries);
+    checkArgument(maxBytes > 0, "maxBytes should be positive, but was %s", maxBytes);
+    this.ticker = ticker;
+    this.maxEntryAgeNanos = maxEntryAge.toNanos();
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  /** Returns a token that should be provided when a result loaded after this call is cached. */
+  public long getLoadToken() {
+    return invalidationCount.get();
+  }
+
+  /**
+   * Gets the cached listing result.
+   *
+   * @return cached items, null if the listing isn't cached or it has expired in the cache.
+   */
+  @Nullable
+  public List<GoogleCloudStorageItemInfo> getListing(
+      String bucketName, @Nullable String objectNamePrefix, ListObjectOptions listOptions) {
+    CacheValue value = getValue(EntryKey.forListing(bucketName, objectNamePrefix, listOptions));
+    return value == null ? null : value.items;
+  }
+
+  /**
+   * Caches the complete listing result.
+   *
+   * @param loadToken the token returned by {@link #getLoadToken} before the listing request.
+   */
+  public void putListing(
+      String bucketName,
+      @Nullable String objectNamePrefix,
+      ListObjectOptions listOptions,
+      List<GoogleCloudStorageItemInfo> items,
+      long loadToken) {
+    long sizeBytes = FIXED_SIZE_ESTIMATE_BYTES;
+    for (GoogleCloudStorageItemInfo item : items) {
+      sizeBytes += estimateSizeBytes(item);
+    }
+    putValue(
+        EntryKey.forListing(bucketName, objectNamePrefix, listOptions),
+        new CacheValue(ImmutableList.copyOf(items), ticker.read(), sizeBytes),
+        loadToken);
+  }
+
+  /** Checks whether the object is cached as not found. */
+  public boolean isNotFound(StorageResourceId resourceId) {
+    return getValue(EntryKey.forNotFound(resourceId)) != null;
+  }
+
+  /**
+   * Caches the object as not found.
+   *
+   * @param loadToken the token returned by {@link #getLoadToken} before the object request.
+   */
+  public void putNotFound(StorageResourceId resourceId, long loadToken) {
+    long sizeBytes =
+        FIXED_SIZE_ESTIMATE_BYTES
+            + 2L * (resourceId.getBucketName().length() + resourceId.getObjectName().length());
+    putValue(
+        EntryKey.forNotFound(resourceId),
+        new CacheValue(/* items= */ null, ticker.read(), sizeBytes),
+        loadToken);
+  }
+
+  /**
+   * Invalidates the not found entry of the object and all listings that could include it, i.e.
+   * listings with prefixes of the object name.
+   */
+  public void invalidateObject(StorageResourceId resourceId) {
+    invalidationCount.incrementAndGet();
+    String bucketName = resourceId.getBucketName();
+    String objectName = resourceId.getObjectName();
+    for (int i = 0; i <= objectName.length(); i++) {
+      removeEntries(EntryKey.getPrefixSubMap(entryMap, bucketName, objectName.substring(0, i)));
+    }
+  }
+
+  /** Invalidates all entries associated with the given bucket. */
+  public void invalidateBucket(String bucketName) {
+    invalidationCount.incrementAndGet();
+    removeEntries(EntryKey.getBucketSubMap(entryMap, bucketName));
+  }
+
+  /** Invalidates all entries in the cache. */
+  public void invalidateAll() {
+    invalidationCount.incrementAndGet();
+    removeEntries(entryMap);
+  }
+
+  /** Number of entries in the cache, including expired entries that were not removed yet. */
+  @VisibleForTesting
+  long getEntryCount() {
+    return entryCount.get();
+  }
+
+  /** Estimated size in bytes of all entries in the cache. */
+  @VisibleForTesting
+  long getEntriesBytes() {
+    return entriesBytes.get();
+  }
+
+  @Nullable
+  private CacheValue getValue(EntryKey key) {
+    CacheValue value = entryMap.get(key);
+    if (value == null) {
+      return null;
+    }
+    if (isExpired(value)) {
+      removeEntry(key, value);
+      return null;
+    }
+    return value;
+  }
+
+  private void putValue(EntryKey key, CacheValue value, long loadToken) {
+    if (loadToken != invalidationCount.get()) {
+      return;
+    }
+    CacheValue oldValue = entryMap.put(key, value);
+    if (oldValue == null) {
+      entryCount.incrementAndGet();
+    } else {
+      entriesBytes.addAndGet(-oldValue.sizeBytes);
+    }
+    entriesBytes.addAndGet(value.sizeBytes);
+    // Remove the value if an invalidation raced with the put.
+    if (loadToken != invalidationCount.get()) {
+      removeEntry(key, value);
+      return;
+    }
+    if (entryCount.get() > maxEntries || entriesBytes.get() > maxBytes) {
+      evictEntries();
+    }
+  }
+
+  /**
+   * Evicts expired entries and then the oldest entries, until 90% of the max number of entries and
+   * of the max size is left in the cache, so eviction cost is amortized across multiple inserts.
+   */
+  private void evictEntries() {
+    // Skip eviction if another thread already evicts entries.
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      for (Map.Entry<EntryKey, CacheValue> entry : entryMap.entrySet()) {
+        if (isExpired(entry.getValue())) {
+          removeEntry(entry.getKey(), entry.getValue());
+        }
+      }
+      long targetEntryCount = maxEntries - maxEntries / 10;
+      long targetBytes = maxBytes - maxBytes / 10;
+      if (entryCount.get() <= targetEntryCount && entriesBytes.get() <= targetBytes) {
+        return;
+      }
+      List<Map.Entry<EntryKey, CacheValue>> entries = new ArrayList<>(entryMap.entrySet());
+      entries.sort(comparingLong(e -> e.getValue().creationTimeNanos));
+      for (Map.Entry<EntryKey, CacheValue> entry : entries) {
+        if (entryCount.get() <= targetEntryCount && entriesBytes.get() <= targetBytes) {
+          break;
+        }
+        removeEntry(entry.getKey(), entry.getValue());
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Removes the entry only if it was not concurrently replaced with a new one. */
+  private void removeEntry(EntryKey key, CacheValue value) {
+    if (entryMap.remove(key, value)) {
+      entryCount.decrementAndGet();
+      entriesBytes.addAndGet(-value.sizeBytes);
+    }
+  }
+
+  /** Removes all entries in the given view of the entry map. */
+  private void removeEntries(Map<EntryKey, CacheValue> entries) {
+    for (EntryKey key : entries.keySet()) {
+      CacheValue value = entryMap.remove(key);
+      if (value != null) {
+        entryCount.decrementAndGet();
+        entriesBytes.addAndGet(-value.sizeBytes);
+      }
+    }
+  }
+
+  private boolean isExpired(CacheValue value) {
+    return ticker.read() - value.creationTimeNanos > maxEntryAgeNanos;
+  }
+
+  /** Estimates size in bytes of the item info in memory. */
+  private static long estimateSizeBytes(GoogleCloudStorageItemInfo item) {
+    long sizeBytes =
+        FIXED_SIZE_ESTIMATE_BYTES
+            + 2L
+                * (nullToEmpty(item.getBucketName()).length()
+                    + nullToEmpty(item.getObjectName()).length()
+                    + nullToEmpty(item.getContentType()).length()
+                    + nullToEmpty(item.getContentEncoding()).length());
+    if (item.getMetadata() != null) {
+      for (Map.Entry<String, byte[]> metadata : item.getMetadata().entrySet()) {
+        sizeBytes += 2L * metadata.getKey().length() + metadata.getValue().length;
+      }
+    }
+    return sizeBytes;
+  }
+
+  /** Cached listing or not found item, with a creation time and an estimated size in bytes. */
+  private static class CacheValue {
+
+    /** Listed items, null for a not found item. */
+    @Nullable private final List<GoogleCloudStorageItemInfo> items;
+
+    private final long creationTimeNanos;
+
+    private final long sizeBytes;
+
+    CacheValue(
+        @Nullable List<GoogleCloudStorageItemInfo> items, long creationTimeNanos, long sizeBytes) {
+      this.items = items;
+      this.creationTimeNanos = creationTimeNanos;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  /**
+   * Key of a cache entry, ordered by bucket, then by object name prefix and then by list options,
+   * so all entries for a prefix are adjacent in the entry map.
+   */
+  private static class EntryKey {
+
+    static final Comparator<EntryKey> COMPARATOR =
+        comparing((EntryKey k) -> k.bucketName)
+            .thenComparing(k -> k.objectNamePrefix)
+            .thenComparing(k -> k.listOptions);
+
+    /** List options of a not found item entry, sorts before list options of any listing. */
+    private static final String NOT_FOUND_LIST_OPTIONS = "";
+
+    /** Sorts after list options of any listing. */
+    private static final String MAX_LIST_OPTIONS = String.valueOf(Character.MAX_VALUE);
+
+    private final String bucketName;
+
+    private final String objectNamePrefix;
+
+    /** String representation of the list options. */
+    private final String listOptions;
+
+    private EntryKey(String bucketName, String objectNamePrefix, String listOptions) {
+      this.bucketName = bucketName;
+      this.objectNamePrefix = objectNamePrefix;
+      this.listOptions = listOptions;
+    }
+
+    static EntryKey forListing(
+        String bucketName, @Nullable String objectNamePrefix, ListObjectOptions listOptions) {
+      // AutoValue string representation includes all list options.
+      return new EntryKey(bucketName, nullToEmpty(objectNamePrefix), listOptions.toString());
+    }
+
+    static EntryKey forNotFound(StorageResourceId resourceId) {
+      return new EntryKey(
+          resourceId.getBucketName(), resourceId.getObjectName(), NOT_FOUND_LIST_OPTIONS);
+    }
+
+    /** Returns all entries with exactly the given bucket and object name prefix. */
+    static <E> Map<EntryKey, E> getPrefixSubMap(
+        ConcurrentSkipListMap<EntryKey, E> map, String bucketName, String objectNamePrefix) {
+      return map.subMap(
+          new EntryKey(bucketName, objectNamePrefix, NOT_FOUND_LIST_OPTIONS),
+          /* fromInclusive= */ true,
+          new EntryKey(bucketName, objectNamePrefix, MAX_LIST_OPTIONS),
+          /* toInclusive= */ true);
+    }
+
+    /** Returns all entries in the given bucket. */
+    static <E> Map<EntryKey, E> getBucketSubMap(
+        ConcurrentSkipListMap<EntryKey, E> map, String bucketName) {
+      return map.subMap(
+          new EntryKey(bucketName, "", NOT_FOUND_LIST_OPTIONS),
+          /* fromInclusive= */ true,
+          new EntryKey(bucketName + Character.MIN_VALUE, "", NOT_FOUND_LIST_OPTIONS),
+          /* toInclusive= */ false);
+    }
+  }
+}
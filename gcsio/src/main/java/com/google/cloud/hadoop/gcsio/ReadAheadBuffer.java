@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.flogger.GoogleLogger;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps a bounded window of fixed-size blocks of an object that are fetched ahead of the read
+ * position, and serves sequential reads from them in order.
+ *
+ * <p>Reads within the window are served without new requests, blocks behind the read position are
+ * discarded, and reads outside of the window restart prefetching from the new position.
+ *
+ * <p>This class is not thread-safe.
+ */
+class ReadAheadBuffer {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Starts asynchronous fetch of an object block. */
+  @FunctionalInterface
+  interface BlockFetcher {
+    VectoredIORange fetch(long offset, int length);
+  }
+
+  private final BlockFetcher fetcher;
+  private final long objectSize;
+  private final int blockSize;
+  private final int depth;
+
+  // Blocks that are fetched or being fetched, ordered by offset without gaps.
+  private final Deque<VectoredIORange> blocks = new ArrayDeque<>();
+
+  // Offset of the next block to fetch.
+  private long nextBlockOffset = -1;
+
+  ReadAheadBuffer(BlockFetcher fetcher, long objectSize, int blockSize, int depth) {
+    checkArgument(blockSize > 0, "blockSize should be positive, but was %s", blockSize);
+    checkArgument(depth > 0, "depth should be positive, but was %s", depth);
+    this.fetcher = fetcher;
+    this.objectSize = objectSize;
+    this.blockSize = blockSize;
+    this.depth = depth;
+  }
+
+  /**
+   * Reads bytes starting from {@code position} into {@code buffer} from a single prefetched block,
+   * waiting for it to be fetched if necessary.
+   *
+   * @return number of bytes read, or -1 if {@code position} is at the end of object.
+   */
+  int read(long position, ByteBuffer buffer) throws IOException {
+    checkArgument(position >= 0, "position should be non-negative, but was %s", position);
+    if (position >= objectSize) {
+      return -1;
+    }
+
+    while (!blocks.isEmpty() && blocks.peekFirst().getEnd() <= position) {
+      cancel(blocks.removeFirst());
+    }
+    if (blocks.isEmpty() || blocks.peekFirst().getOffset() > position) {
+      logger.atFiner().log(
+          "Position %s is outside of read-ahead window, restarting prefetch", position);
+      clear();
+      nextBlockOffset = position;
+    }
+    prefetch();
+
+    VectoredIORange block = blocks.peekFirst();
+    ByteBuffer data;
+    try {
+      data = block.awaitData().duplicate();
+    } catch (IOException e) {
+      clear();
+      throw e;
+    }
+    checkState(
+        data.remaining() == block.getLength(),
+        "Prefetched %s bytes for %s",
+        data.remaining(),
+        block);
+
+    int blockOffset = Math.toIntExact(position - block.getOffset());
+    int bytesToRead = Math.min(buffer.remaining(), block.getLength() - blockOffset);
+    data.position(blockOffset).limit(blockOffset + bytesToRead);
+    buffer.put(data);
+
+    if (position + bytesToRead == block.getEnd()) {
+      blocks.removeFirst();
+      prefetch();
+    }
+    return bytesToRead;
+  }
+
+  /** Discards all prefetched blocks. */
+  void clear() {
+    blocks.forEach(ReadAheadBuffer::cancel);
+    blocks.clear();
+    nextBlockOffset = -1;
+  }
+
+  private static void cancel(VectoredIORange block) {
+    // Fetches that are still in progress will skip completion of the cancelled block.
+    block.getData().cancel(/* mayInterruptIfRunning= */ false);
+  }
+
+  private void prefetch() {
+    while (blocks.size() < depth && nextBlockOffset < objectSize) {
+      int length = Math.toIntExact(Math.min(blockSize, objectSize - nextBlockOffset));
+      blocks.addLast(fetcher.fetch(nextBlockOffset, length));
+      nextBlockOffset += length;
+    }
+  }
+}
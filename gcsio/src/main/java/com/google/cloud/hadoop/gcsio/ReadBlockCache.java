@@ -0,0 +1,177 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+
+/**
+ * Memory cache of fixed-size object blocks that is shared by read channels to avoid fetching the
+ * same data from GCS repeatedly.
+ *
+ * <p>Blocks are keyed by object generation, so cached blocks never become stale. Least recently
+ * used blocks are evicted when total size of cached blocks exceeds the maximum size.
+ *
+ * <p>This class is thread-safe, concurrent reads of the same block are served by a single fetch.
+ */
+class ReadBlockCache {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Process-wide caches keyed by their maximum size. */
+  private static final Map<Long, ReadBlockCache> INSTANCES = new HashMap<>();
+
+  /** Fetches block data from GCS. */
+  @FunctionalInterface
+  interface BlockLoader {
+    ByteBuffer load(long offset, int length) throws IOException;
+  }
+
+  private final Cache<BlockKey, ByteBuffer> blocks;
+
+  @VisibleForTesting
+  ReadBlockCache(long maxSize) {
+    checkArgument(maxSize > 0, "maxSize should be positive, but was %s", maxSize);
+    this.blocks =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxSize)
+            .<BlockKey, ByteBuffer>weigher((key, block) -> block.capacity())
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Returns the process-wide block cache with the provided maximum size, creating it if it does not
+   * exist yet. All channels configured with the same maximum size share the same cache.
+   */
+  static synchronized ReadBlockCache getInstance(long maxSize) {
+    return INSTANCES.computeIfAbsent(
+        maxSize,
+        size -> {
+          logger.atFine().log("Creating block cache with %s bytes max size", size);
+          return new ReadBlockCache(size);
+        });
+  }
+
+  /**
+   * Returns the process-wide block cache with the provided maximum size, or {@code null} if it was
+   * not created yet.
+   */
+  @Nullable
+  static synchronized ReadBlockCache getExistingInstance(long maxSize) {
+    return INSTANCES.get(maxSize);
+  }
+
+  /**
+   * Returns a read-only buffer with data of the block with {@code blockIndex}, loading it with
+   * {@code loader} if it is not cached.
+   *
+   * @param resourceId object id with a known generation
+   * @param objectSize size of the object generation, in bytes
+   * @param blockSize size of the object blocks, in bytes
+   * @param blockIndex index of the block in the object
+   * @param loader loads block data if it is not cached
+   */
+  ByteBuffer get(
+      StorageResourceId resourceId,
+      long objectSize,
+      int blockSize,
+      long blockIndex,
+      BlockLoader loader)
+      throws IOException {
+    checkArgument(
+        resourceId.hasGenerationId(), "resourceId should have generation, but was %s", resourceId);
+    long offset = blockIndex * blockSize;
+    checkArgument(
+        blockIndex >= 0 && offset < objectSize,
+        "blockIndex %s is out of bounds for object of %s bytes",
+        blockIndex,
+        objectSize);
+    int length = Math.toIntExact(Math.min(blockSize, objectSize - offset));
+    BlockKey key =
+        new AutoValue_ReadBlockCache_BlockKey(
+            resourceId.getBucketName(),
+            resourceId.getObjectName(),
+            resourceId.getGenerationId(),
+            blockSize,
+            blockIndex);
+    ByteBuffer block;
+    try {
+      block =
+          blocks.get(
+              key,
+              () -> {
+                logger.atFiner().log("Loading block %s of '%s'", blockIndex, resourceId);
+                ByteBuffer data = loader.load(offset, length);
+                checkState(
+                    data.remaining() == length,
+                    "Loaded %s bytes instead of %s for block %s of '%s'",
+                    data.remaining(),
+                    length,
+                    blockIndex,
+                    resourceId);
+                return data.slice();
+              });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw e.getCause() instanceof IOException
+          ? (IOException) e.getCause()
+          : new IOException(
+              String.format("Failed to load block %s of '%s'", blockIndex, resourceId),
+              e.getCause());
+    }
+    return block.asReadOnlyBuffer();
+  }
+
+  /** Number of block reads that were served from the cache. */
+  long hitCount() {
+    return blocks.stats().hitCount();
+  }
+
+  /** Number of block reads that loaded the block with the loader. */
+  long missCount() {
+    return blocks.stats().missCount();
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    blocks.invalidateAll();
+  }
+
+  @AutoValue
+  abstract static class BlockKey {
+    abstract String getBucketName();
+
+    abstract String getObjectName();
+
+    abstract long getGeneration();
+
+    abstract int getBlockSize();
+
+    abstract long getBlockIndex();
+  }
+}
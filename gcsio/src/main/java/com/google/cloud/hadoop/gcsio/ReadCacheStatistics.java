@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+/**
+ * Snapshot of the hit and miss counters of the process-wide footer and block caches that are used
+ * by read channels.
+ */
+public class ReadCacheStatistics {
+
+  private final long footerCacheHits;
+  private final long footerCacheMisses;
+  private final long blockCacheHits;
+  private final long blockCacheMisses;
+
+  private ReadCacheStatistics(
+      long footerCacheHits, long footerCacheMisses, long blockCacheHits, long blockCacheMisses) {
+    this.footerCacheHits = footerCacheHits;
+    this.footerCacheMisses = footerCacheMisses;
+    this.blockCacheHits = blockCacheHits;
+    this.blockCacheMisses = blockCacheMisses;
+  }
+
+  /**
+   * Returns statistics of the caches that are used by read channels configured with {@code
+   * readOptions}. Counters of the caches that are disabled or were not created yet are zero.
+   */
+  public static ReadCacheStatistics of(GoogleCloudStorageReadOptions readOptions) {
+    FooterCache footerCache =
+        readOptions.getFooterCacheMaxSize() > 0
+            ? FooterCache.getExistingInstance(readOptions.getFooterCacheMaxSize())
+            : null;
+    ReadBlockCache blockCache =
+        readOptions.getBlockCacheMaxSize() > 0
+            ? ReadBlockCache.getExistingInstance(readOptions.getBlockCacheMaxSize())
+            : null;
+    return new ReadCacheStatistics(
+        footerCache == null ? 0 : footerCache.hitCount(),
+        footerCache == null ? 0 : footerCache.missCount(),
+        blockCache == null ? 0 : blockCache.hitCount(),
+        blockCache == null ? 0 : blockCache.missCount());
+  }
+
+  /** Number of footer lookups that found a cached footer. */
+  public long getFooterCacheHits() {
+    return footerCacheHits;
+  }
+
+  /** Number of footer lookups that did not find a cached footer. */
+  public long getFooterCacheMisses() {
+    return footerCacheMisses;
+  }
+
+  /** Number of block reads that were served from the block cache. */
+  public long getBlockCacheHits() {
+    return blockCacheHits;
+  }
+
+  /** Number of block reads that loaded the block from GCS. */
+  public long getBlockCacheMisses() {
+    return blockCacheMisses;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "ReadCacheStatistics{footerCacheHits=%s, footerCacheMisses=%s,"
+            + " blockCacheHits=%s, blockCacheMisses=%s}",
+        footerCacheHits, footerCacheMisses, blockCacheHits, blockCacheMisses);
+  }
+}
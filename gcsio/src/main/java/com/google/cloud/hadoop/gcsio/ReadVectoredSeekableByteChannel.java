@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/** A {@link SeekableByteChannel} that can read multiple byte ranges of an object at once. */
+public interface ReadVectoredSeekableByteChannel extends SeekableByteChannel {
+
+  /**
+   * Reads all provided ranges asynchronously, without changing the channel position.
+   *
+   * <p>Nearby ranges can be fetched with a single request. The {@link VectoredIORange#getData()}
+   * future of each range is completed as soon as its data is read, or completed exceptionally if
+   * read failed.
+   *
+   * @param ranges non-overlapping ranges to read
+   * @param allocate function that allocates buffers of the requested size for read data
+   * @throws IOException if ranges could not be scheduled for reading
+   */
+  void readVectored(List<VectoredIORange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException;
+
+  /**
+   * Returns whether {@link #readVectored} reads ranges with independent requests, without using the
+   * channel position, and could be called concurrently with other methods of this channel.
+   *
+   * @throws IOException if channel state could not be determined
+   */
+  default boolean isReadVectoredIndependent() throws IOException {
+    return true;
+  }
+}
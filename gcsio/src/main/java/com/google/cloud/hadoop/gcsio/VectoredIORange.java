@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A single byte range requested in a vectored read. The read data is delivered through the {@link
+ * #getData()} future once the range is read.
+ */
+public class VectoredIORange {
+
+  private final long offset;
+  private final int length;
+  private final CompletableFuture<ByteBuffer> data = new CompletableFuture<>();
+
+  public VectoredIORange(long offset, int length) {
+    checkArgument(offset >= 0, "offset should be non-negative, but was %s", offset);
+    checkArgument(length >= 0, "length should be non-negative, but was %s", length);
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /** Offset in the object of the first byte of this range. */
+  public long getOffset() {
+    return offset;
+  }
+
+  /** Number of bytes in this range. */
+  public int getLength() {
+    return length;
+  }
+
+  /** Offset in the object right after the last byte of this range. */
+  public long getEnd() {
+    return offset + length;
+  }
+
+  /**
+   * Future that completes with a buffer containing read data, positioned at 0 and limited to the
+   * range length.
+   */
+  public CompletableFuture<ByteBuffer> getData() {
+    return data;
+  }
+
+  /**
+   * Waits for the range to be read and returns its data, rethrowing the read failure as {@link
+   * IOException}.
+   */
+  public ByteBuffer awaitData() throws IOException {
+    try {
+      return data.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (InterruptedIOException)
+          new InterruptedIOException("Interrupted while waiting for " + this).initCause(e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException
+          ? (IOException) e.getCause()
+          : new IOException("Failed to read " + this, e.getCause());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("offset", offset).add("length", length).toString();
+  }
+}
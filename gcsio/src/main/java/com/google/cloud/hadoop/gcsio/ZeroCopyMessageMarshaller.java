@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Protobuf message marshaller that parses {@code bytes} fields of received messages as slices of
+ * the message buffer instead of copying them.
+ *
+ * <p>Default gRPC protobuf marshaller reads each message into a buffer and then copies all {@code
+ * bytes} fields out of it, so every byte of object data received by read channels is copied twice.
+ * Parsed messages reference the whole message buffer, that is released when the message and all its
+ * {@code bytes} fields become unreachable.
+ */
+class ZeroCopyMessageMarshaller<T extends Message> implements Marshaller<T> {
+
+  private final Marshaller<T> delegate;
+  private final Parser<T> parser;
+
+  @SuppressWarnings("unchecked")
+  ZeroCopyMessageMarshaller(T defaultInstance) {
+    this.delegate = ProtoUtils.marshaller(defaultInstance);
+    this.parser = (Parser<T>) defaultInstance.getParserForType();
+  }
+
+  @Override
+  public InputStream stream(T value) {
+    return delegate.stream(value);
+  }
+
+  @Override
+  public T parse(InputStream stream) {
+    if (!(stream instanceof KnownLength)) {
+      return delegate.parse(stream);
+    }
+    try {
+      byte[] buffer = new byte[stream.available()];
+      ByteStreams.readFully(stream, buffer);
+      CodedInputStream input = CodedInputStream.newInstance(buffer);
+      input.enableAliasing(true);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      return parser.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+    } catch (InvalidProtocolBufferException e) {
+      throw Status.INTERNAL
+          .withDescription("Invalid protobuf byte sequence")
+          .withCause(e)
+          .asRuntimeException();
+    } catch (IOException e) {
+      throw Status.INTERNAL
+          .withDescription("Failed to read protobuf message")
+          .withCause(e)
+          .asRuntimeException();
+    }
+  }
+}
@@ -100,8 +100,7 @@ public class CoopLockOperationDao {
       String operationId,
       Instant operationInstant,
       StorageResourceId resourceId,
-      List<FileInfo> itemsToDelete,
-      List<FileInfo> bucketsToDelete)
+      List<URI> pathsToDelete)
       throws IOException {
     URI operationLockPath =
         writeOperationFile(
@@ -117,10 +116,7 @@ public class CoopLockOperationDao {
                         .setLockExpiration(
                             Instant.now().plusMillis(options.getLockExpirationTimeoutMilli()))
                         .setResource(resourceId.toString()))));
-    List<String> logRecords =
-        Streams.concat(itemsToDelete.stream(), bucketsToDelete.stream())
-            .map(i -> i.getPath().toString())
-            .collect(toImmutableList());
+    List<String> logRecords = pathsToDelete.stream().map(URI::toString).collect(toImmutableList());
     writeOperationFile(
         resourceId.getBucketName(),
         OPERATION_LOG_FILE_FORMAT,
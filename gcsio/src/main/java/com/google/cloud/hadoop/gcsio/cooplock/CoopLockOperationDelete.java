@@ -20,7 +20,6 @@ import static com.google.cloud.hadoop.gcsio.cooplock.CoopLockOperationType.DELET
 import static com.google.cloud.hadoop.gcsio.cooplock.CoopLockUtils.normalizeLockedResource;
 import static com.google.common.base.Preconditions.checkArgument;
 
-import com.google.cloud.hadoop.gcsio.FileInfo;
 import com.google.cloud.hadoop.gcsio.ForwardingGoogleCloudStorage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorage;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageImpl;
@@ -75,12 +74,11 @@ public class CoopLockOperationDelete {
     }
   }
 
-  public void persistAndScheduleRenewal(
-      List<FileInfo> itemsToDelete, List<FileInfo> bucketsToDelete) {
+  public void persistAndScheduleRenewal(List<URI> pathsToDelete) {
     try {
       lockUpdateFuture =
           coopLockOperationDao.persistDeleteOperation(
-              operationId, operationInstant, resourceId, itemsToDelete, bucketsToDelete);
+              operationId, operationInstant, resourceId, pathsToDelete);
     } catch (IOException e) {
       throw new RuntimeException(String.format("Failed to persist %s operation", this), e);
     }
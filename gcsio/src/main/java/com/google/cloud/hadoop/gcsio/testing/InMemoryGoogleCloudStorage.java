@@ -30,8 +30,10 @@ import com.google.cloud.hadoop.gcsio.GoogleCloudStorageStrings;
 import com.google.cloud.hadoop.gcsio.ListObjectOptions;
 import com.google.cloud.hadoop.gcsio.StorageResourceId;
 import com.google.cloud.hadoop.gcsio.UpdatableItemInfo;
+import com.google.cloud.hadoop.util.UploadStatistics;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -60,6 +62,7 @@ public class InMemoryGoogleCloudStorage implements GoogleCloudStorage {
   // Mapping from bucketName to structs representing a bucket.
   private final Map<String, InMemoryBucketEntry> bucketLookup = new TreeMap<>();
   private final GoogleCloudStorageOptions storageOptions;
+  private final UploadStatistics uploadStatistics = new UploadStatistics();
   private final Clock clock;
 
   public InMemoryGoogleCloudStorage() {
@@ -84,6 +87,11 @@ public class InMemoryGoogleCloudStorage implements GoogleCloudStorage {
     return storageOptions;
   }
 
+  @Override
+  public UploadStatistics getUploadStatistics() {
+    return uploadStatistics;
+  }
+
   private boolean validateBucketName(String bucketName) {
     // Validation as per https://developers.google.com/storage/docs/bucketnaming
     if (Strings.isNullOrEmpty(bucketName)) {
@@ -151,6 +159,18 @@ public class InMemoryGoogleCloudStorage implements GoogleCloudStorage {
     return entry.getWriteChannel();
   }
 
+  @Override
+  public synchronized GoogleCloudStorageItemInfo createObject(
+      StorageResourceId resourceId, byte[] data, CreateObjectOptions options) throws IOException {
+    WritableByteChannel channel = create(resourceId, options);
+    try {
+      channel.write(ByteBuffer.wrap(data));
+    } finally {
+      channel.close();
+    }
+    return ((GoogleCloudStorageItemInfo.Provider) channel).getItemInfo();
+  }
+
   @Override
   public synchronized void createBucket(String bucketName, CreateBucketOptions options)
       throws IOException {
@@ -386,9 +406,21 @@ public class InMemoryGoogleCloudStorage implements GoogleCloudStorage {
   public ListPage<GoogleCloudStorageItemInfo> listObjectInfoPage(
       String bucketName, String objectNamePrefix, ListObjectOptions listOptions, String pageToken)
       throws IOException {
-    // TODO: implement pagination
-    return new ListPage<>(
-        listObjectInfo(bucketName, objectNamePrefix, listOptions), /* nextPageToken= */ null);
+    // Listed items are sorted by name, so the name of the last item in a page is used as a token.
+    List<GoogleCloudStorageItemInfo> listedInfo =
+        listObjectInfo(bucketName, objectNamePrefix, listOptions);
+    long maxPageSize = storageOptions.getMaxListItemsPerCall();
+    List<GoogleCloudStorageItemInfo> pageInfo = new ArrayList<>();
+    for (GoogleCloudStorageItemInfo itemInfo : listedInfo) {
+      if (pageToken != null && itemInfo.getObjectName().compareTo(pageToken) <= 0) {
+        continue;
+      }
+      if (maxPageSize > 0 && pageInfo.size() >= maxPageSize) {
+        return new ListPage<>(pageInfo, Iterables.getLast(pageInfo).getObjectName());
+      }
+      pageInfo.add(itemInfo);
+    }
+    return new ListPage<>(pageInfo, /* nextPageToken= */ null);
   }
 
   @Override
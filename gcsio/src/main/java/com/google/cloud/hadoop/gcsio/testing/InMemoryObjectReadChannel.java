@@ -21,6 +21,7 @@ import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadChannel;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions;
 import com.google.cloud.hadoop.gcsio.StorageResourceId;
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import javax.annotation.Nullable;
@@ -79,4 +80,17 @@ public class InMemoryObjectReadChannel extends GoogleCloudStorageReadChannel {
     contentChannelPosition = currentPosition;
     return inputStream;
   }
+
+  /** Opens the underlying byte array stream for the given range. */
+  @Override
+  protected InputStream openRangeStream(long rangeStart, long rangeEnd) throws IOException {
+    if (rangeStart >= content.length) {
+      throw new EOFException(
+          String.format(
+              "Range [%d, %d) is past the end of %d bytes content",
+              rangeStart, rangeEnd, content.length));
+    }
+    return new ByteArrayInputStream(
+        content, (int) rangeStart, (int) (Math.min(rangeEnd, content.length) - rangeStart));
+  }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link AccessPatternTracker} class. */
+@RunWith(JUnit4.class)
+public class AccessPatternTrackerTest {
+
+  private static final long INPLACE_SEEK_LIMIT = 100;
+  private static final int MIN_RANGE_REQUEST_SIZE = 50;
+
+  @Test
+  public void noReads_sequentialAccess() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    assertThat(tracker.isRandomAccess(1000)).isFalse();
+    assertThat(tracker.getRangeRequestSize(1000, 10)).isEqualTo(MIN_RANGE_REQUEST_SIZE);
+    assertThat(tracker.getRangeRequestSize(1000, 70)).isEqualTo(70);
+  }
+
+  @Test
+  public void sequentialReads_sequentialAccess() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    tracker.recordRead(0, 10);
+    tracker.recordRead(10, 10);
+    // Small forward seek continues sequential read.
+    tracker.recordRead(50, 10);
+
+    assertThat(tracker.isRandomAccess(60)).isFalse();
+  }
+
+  @Test
+  public void shortReadsWithSeeks_randomAccess_rangeSizeFromObservedReads() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    tracker.recordRead(1000, 60);
+    tracker.recordRead(0, 80);
+    tracker.recordRead(500, 100);
+
+    assertThat(tracker.isRandomAccess(2000)).isTrue();
+    // Average of 60, 80 and 100 bytes runs.
+    assertThat(tracker.getRangeRequestSize(2000, 5)).isEqualTo(80);
+    assertThat(tracker.getRangeRequestSize(2000, 90)).isEqualTo(90);
+    // Current run is not completed when reading continues it.
+    assertThat(tracker.getRangeRequestSize(600, 5)).isEqualTo(70);
+  }
+
+  @Test
+  public void veryShortReadsWithSeeks_randomAccess_rangeSizeNotLessThanMinRangeRequestSize() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    tracker.recordRead(1000, 10);
+    tracker.recordRead(0, 20);
+    tracker.recordRead(500, 30);
+
+    assertThat(tracker.isRandomAccess(2000)).isTrue();
+    assertThat(tracker.getRangeRequestSize(2000, 5)).isEqualTo(MIN_RANGE_REQUEST_SIZE);
+  }
+
+  @Test
+  public void longRunAfterRandomReads_switchesBackToSequentialAccess() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    tracker.recordRead(1000, 10);
+    tracker.recordRead(0, 10);
+    tracker.recordRead(500, 60);
+    assertThat(tracker.isRandomAccess(560)).isTrue();
+
+    tracker.recordRead(560, 60);
+    assertThat(tracker.isRandomAccess(620)).isFalse();
+    // Seek outside of current run uses history of completed runs.
+    assertThat(tracker.isRandomAccess(0)).isTrue();
+  }
+
+  @Test
+  public void longRuns_sequentialAccess_rangeSizeLimitedByInplaceSeekLimit() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE);
+
+    tracker.recordRead(0, 1000);
+    tracker.recordRead(5000, 1000);
+    tracker.recordRead(10000, 10);
+
+    assertThat(tracker.isRandomAccess(20000)).isFalse();
+    assertThat(tracker.getRangeRequestSize(20000, 10)).isEqualTo(INPLACE_SEEK_LIMIT);
+  }
+
+  @Test
+  public void oldRuns_areEvictedFromWindow() {
+    AccessPatternTracker tracker =
+        new AccessPatternTracker(INPLACE_SEEK_LIMIT, MIN_RANGE_REQUEST_SIZE, /* windowSize= */ 2);
+
+    tracker.recordRead(0, 1000);
+    tracker.recordRead(5000, 1000);
+    tracker.recordRead(10000, 70);
+    tracker.recordRead(20000, 70);
+    tracker.recordRead(30000, 70);
+
+    assertThat(tracker.isRandomAccess(40000)).isTrue();
+    assertThat(tracker.getRangeRequestSize(40000, 1)).isEqualTo(70);
+  }
+}
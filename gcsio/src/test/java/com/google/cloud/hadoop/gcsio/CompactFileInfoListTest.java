@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createInferredDirectory;
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createObjectItemInfo;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompactFileInfoListTest {
+
+  private static final String BUCKET = "bucket";
+
+  /** Test materialized file infos are equal to file infos of the original items, sorted by path. */
+  @Test
+  public void testGet() {
+    List<GoogleCloudStorageItemInfo> items =
+        ImmutableList.of(
+            createObjectItemInfo(BUCKET, "dir/file b"),
+            createObjectItemInfo(BUCKET, "dir/file%a"),
+            createObjectItemInfo(BUCKET, "dir/fé"),
+            // Paths of the same length with quoted and not quoted object names.
+            createObjectItemInfo(BUCKET, "dir/f+++"),
+            createObjectItemInfo(BUCKET, "dir/f%"),
+            createObjectItemInfo(BUCKET, "dir/f$$$"),
+            createInferredDirectory(BUCKET, "dir/"),
+            createObjectItemInfo(BUCKET, "dir/fb"),
+            createObjectItemInfo(BUCKET, "dir/fa"),
+            createObjectItemInfo(
+                BUCKET,
+                "dir/fc",
+                CreateObjectOptions.DEFAULT_OVERWRITE
+                    .toBuilder()
+                    .setContentEncoding("gzip")
+                    .setMetadata(ImmutableMap.of("key", new byte[] {1}))
+                    .build()),
+            GoogleCloudStorageItemInfo.createObject(
+                new StorageResourceId(BUCKET, "dir/fd"),
+                /* creationTime= */ 1,
+                /* modificationTime= */ 2,
+                /* size= */ 3,
+                /* contentType= */ null,
+                /* contentEncoding= */ null,
+                /* metadata= */ null,
+                /* contentGeneration= */ 4,
+                /* metaGeneration= */ 5,
+                new VerificationAttributes(/* md5hash= */ null, new byte[] {1, 2, 3, 4})));
+
+    CompactFileInfoList fileInfos = buildList(items);
+
+    List<FileInfo> expected = FileInfo.fromItemInfos(items);
+    expected.sort(GoogleCloudStorageFileSystem.FILE_INFO_PATH_COMPARATOR);
+    assertThat(fileInfos).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  /** Test per-index accessors return attributes without materialization. */
+  @Test
+  public void testAccessors() {
+    GoogleCloudStorageItemInfo item =
+        GoogleCloudStorageItemInfo.createObject(
+            new StorageResourceId(BUCKET, "dir/file"),
+            /* creationTime= */ 1,
+            /* modificationTime= */ 2,
+            /* size= */ 3,
+            /* contentType= */ null,
+            /* contentEncoding= */ null,
+            /* metadata= */ null,
+            /* contentGeneration= */ 4,
+            /* metaGeneration= */ 5,
+            /* verificationAttributes= */ null);
+
+    CompactFileInfoList fileInfos =
+        buildList(ImmutableList.of(item, createInferredDirectory(BUCKET, "dir/")));
+
+    assertThat(fileInfos.getBucketName()).isEqualTo(BUCKET);
+    assertThat(fileInfos.getObjectName(0)).isEqualTo("dir/");
+    assertThat(fileInfos.isDirectory(0)).isTrue();
+    assertThat(fileInfos.getObjectName(1)).isEqualTo("dir/file");
+    assertThat(fileInfos.getPath(1)).isEqualTo(FileInfo.fromItemInfo(item).getPath());
+    assertThat(fileInfos.isDirectory(1)).isFalse();
+    assertThat(fileInfos.getCreationTime(1)).isEqualTo(1);
+    assertThat(fileInfos.getModificationTime(1)).isEqualTo(2);
+    assertThat(fileInfos.getSize(1)).isEqualTo(3);
+    assertThat(fileInfos.getContentGeneration(1)).isEqualTo(4);
+    assertThat(fileInfos.getItemInfo(1)).isEqualTo(item);
+  }
+
+  /** Test list is built from many items that span multiple capacity increases. */
+  @Test
+  public void testBuildLargeList() {
+    ImmutableList.Builder<GoogleCloudStorageItemInfo> items = ImmutableList.builder();
+    for (int i = 5000; i > 0; i--) {
+      items.add(createObjectItemInfo(BUCKET, "dir/file-" + i));
+    }
+
+    CompactFileInfoList fileInfos = buildList(items.build());
+
+    assertThat(fileInfos).hasSize(5000);
+    assertThat(fileInfos.getObjectName(0)).isEqualTo("dir/file-1");
+    assertThat(fileInfos.getObjectName(8)).isEqualTo("dir/file-9");
+    assertThat(fileInfos.getObjectName(9)).isEqualTo("dir/file-10");
+    assertThat(fileInfos.getObjectName(4999)).isEqualTo("dir/file-5000");
+  }
+
+  /** Test items from other buckets are rejected. */
+  @Test
+  public void testAddItemFromOtherBucket() {
+    CompactFileInfoList.Builder builder = CompactFileInfoList.builder(BUCKET);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> builder.add(createObjectItemInfo("other-bucket", "file")));
+  }
+
+  private static CompactFileInfoList buildList(List<GoogleCloudStorageItemInfo> items) {
+    CompactFileInfoList.Builder builder = CompactFileInfoList.builder(BUCKET);
+    items.forEach(builder::add);
+    return builder.build();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link FooterCache} class. */
+@RunWith(JUnit4.class)
+public class FooterCacheTest {
+
+  private static final StorageResourceId RESOURCE_ID =
+      new StorageResourceId("test-bucket", "test-object", /* generationId= */ 1);
+
+  @Test
+  public void get_returnsCachedFooter_andCountsHitsAndMisses() {
+    FooterCache cache = new FooterCache(/* maxSize= */ 100);
+    byte[] footer = {1, 2, 3};
+
+    assertThat(cache.get(RESOURCE_ID)).isNull();
+    cache.put(RESOURCE_ID, footer);
+
+    assertThat(cache.get(RESOURCE_ID)).isSameInstanceAs(footer);
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_differentGeneration_returnsNull() {
+    FooterCache cache = new FooterCache(/* maxSize= */ 100);
+
+    cache.put(RESOURCE_ID, new byte[] {1, 2, 3});
+
+    assertThat(
+            cache.get(
+                new StorageResourceId(RESOURCE_ID.getBucketName(), RESOURCE_ID.getObjectName(), 2)))
+        .isNull();
+  }
+
+  @Test
+  public void put_emptyFooter_isNotCached() {
+    FooterCache cache = new FooterCache(/* maxSize= */ 100);
+
+    cache.put(RESOURCE_ID, new byte[0]);
+
+    assertThat(cache.get(RESOURCE_ID)).isNull();
+  }
+
+  @Test
+  public void put_withoutGeneration_throwsException() {
+    FooterCache cache = new FooterCache(/* maxSize= */ 100);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> cache.put(new StorageResourceId("test-bucket", "test-object"), new byte[] {1}));
+  }
+
+  @Test
+  public void getInstance_isSharedPerMaxSize() {
+    FooterCache cache = FooterCache.getInstance(/* maxSize= */ 123);
+
+    assertThat(FooterCache.getInstance(/* maxSize= */ 123)).isSameInstanceAs(cache);
+    assertThat(FooterCache.getInstance(/* maxSize= */ 456)).isNotSameInstanceAs(cache);
+  }
+}
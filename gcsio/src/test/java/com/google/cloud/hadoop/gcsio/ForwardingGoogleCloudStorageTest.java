@@ -92,6 +92,13 @@ public class ForwardingGoogleCloudStorageTest {
     verify(mockGcsDelegate).getOptions();
   }
 
+  @Test
+  public void testGetUploadStatistics() {
+    gcs.getUploadStatistics();
+
+    verify(mockGcsDelegate).getUploadStatistics();
+  }
+
   @Test
   public void testCreateWithResource() throws IOException {
     gcs.create(TEST_STORAGE_RESOURCE_ID);
@@ -107,6 +114,16 @@ public class ForwardingGoogleCloudStorageTest {
     verify(mockGcsDelegate).create(eq(TEST_STORAGE_RESOURCE_ID), eq(TEST_OBJECT_OPTIONS));
   }
 
+  @Test
+  public void testCreateObject() throws IOException {
+    byte[] data = {0x01};
+
+    gcs.createObject(TEST_STORAGE_RESOURCE_ID, data, TEST_OBJECT_OPTIONS);
+
+    verify(mockGcsDelegate)
+        .createObject(eq(TEST_STORAGE_RESOURCE_ID), eq(data), eq(TEST_OBJECT_OPTIONS));
+  }
+
   @Test
   public void testCreateEmptyObject() throws IOException {
     gcs.createEmptyObject(TEST_STORAGE_RESOURCE_ID);
@@ -20,12 +20,22 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.cloud.hadoop.gcsio.GoogleCloudStorage.ListPage;
 import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
 import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
+import com.google.cloud.hadoop.util.CheckedFunction;
 import com.google.cloud.hadoop.util.RequesterPaysOptions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -450,6 +460,181 @@ public class GoogleCloudStorageFileSystemTest
         .isTrue();
   }
 
+  @Test
+  public void testRenameDirectory_multipleListPages() throws Exception {
+    renameDirectoryWithMultipleListPages(/* markerFilePattern= */ null);
+  }
+
+  @Test
+  public void testRenameDirectory_multipleListPages_withMarkerFiles() throws Exception {
+    renameDirectoryWithMultipleListPages("_(FAILURE|SUCCESS)");
+  }
+
+  @Test
+  public void testRenameDirectory_multipleListPages_deletesPlaceholdersInLastBatch()
+      throws Exception {
+    List<List<StorageResourceId>> deleteBatches = new ArrayList<>();
+    GoogleCloudStorageFileSystem pagingGcsfs =
+        newPagingGcsfs(
+            options ->
+                new InMemoryGoogleCloudStorage(options) {
+                  @Override
+                  public synchronized void deleteObjects(List<StorageResourceId> fullObjectNames)
+                      throws IOException {
+                    deleteBatches.add(ImmutableList.copyOf(fullObjectNames));
+                    super.deleteObjects(fullObjectNames);
+                  }
+                },
+            /* markerFilePattern= */ null);
+    String bucketName = "paging-rename-order-bucket";
+    createPagingTestDirectory(pagingGcsfs, bucketName);
+
+    pagingGcsfs.rename(
+        new URI("gs://" + bucketName + "/src/"), new URI("gs://" + bucketName + "/dst/"));
+
+    assertThat(deleteBatches.size()).isGreaterThan(1);
+    List<StorageResourceId> lastBatch = deleteBatches.get(deleteBatches.size() - 1);
+    for (List<StorageResourceId> batch : deleteBatches) {
+      for (StorageResourceId resourceId : batch) {
+        if (resourceId.isDirectory()) {
+          assertThat(batch).isSameInstanceAs(lastBatch);
+        }
+      }
+    }
+    assertThat(lastBatch).contains(new StorageResourceId(bucketName, "src/a/"));
+  }
+
+  @Test
+  public void testDeleteDirectory_multipleListPages() throws Exception {
+    GoogleCloudStorageFileSystem pagingGcsfs = newPagingGcsfs(/* markerFilePattern= */ null);
+    String bucketName = "paging-delete-bucket";
+    List<String> relativeNames = createPagingTestDirectory(pagingGcsfs, bucketName);
+
+    pagingGcsfs.delete(new URI("gs://" + bucketName + "/src/"), /* recursive= */ true);
+
+    assertThat(pagingGcsfs.exists(new URI("gs://" + bucketName + "/src/"))).isFalse();
+    for (String relativeName : relativeNames) {
+      assertThat(
+              pagingGcsfs.exists(
+                  new URI(String.format("gs://%s/src/%s", bucketName, relativeName))))
+          .isFalse();
+    }
+  }
+
+  @Test
+  public void testListFileInfoForPrefix_multipleListPages() throws Exception {
+    GoogleCloudStorageFileSystem pagingGcsfs = newPagingGcsfs(/* markerFilePattern= */ null);
+    String bucketName = "paging-list-bucket";
+    List<String> relativeNames = createPagingTestDirectory(pagingGcsfs, bucketName);
+    URI prefix = new URI("gs://" + bucketName + "/src/");
+
+    CompactFileInfoList fileInfos = pagingGcsfs.listCompactFileInfoForPrefix(prefix);
+
+    List<FileInfo> expectedFileInfos = new ArrayList<>();
+    String pageToken = null;
+    do {
+      ListPage<FileInfo> page = pagingGcsfs.listFileInfoForPrefixPage(prefix, pageToken);
+      expectedFileInfos.addAll(page.getItems());
+      pageToken = page.getNextPageToken();
+    } while (pageToken != null);
+    expectedFileInfos.sort(GoogleCloudStorageFileSystem.FILE_INFO_PATH_COMPARATOR);
+    assertThat(fileInfos).hasSize(relativeNames.size());
+    assertThat(fileInfos).containsExactlyElementsIn(expectedFileInfos).inOrder();
+  }
+
+  private static void renameDirectoryWithMultipleListPages(String markerFilePattern)
+      throws Exception {
+    GoogleCloudStorageFileSystem pagingGcsfs = newPagingGcsfs(markerFilePattern);
+    String bucketName = "paging-rename-bucket";
+    List<String> relativeNames = createPagingTestDirectory(pagingGcsfs, bucketName);
+
+    pagingGcsfs.rename(
+        new URI("gs://" + bucketName + "/src/"), new URI("gs://" + bucketName + "/dst/"));
+
+    assertThat(pagingGcsfs.exists(new URI("gs://" + bucketName + "/src/"))).isFalse();
+    for (String relativeName : relativeNames) {
+      assertThat(
+              pagingGcsfs.exists(
+                  new URI(String.format("gs://%s/src/%s", bucketName, relativeName))))
+          .isFalse();
+      assertThat(
+              pagingGcsfs.exists(
+                  new URI(String.format("gs://%s/dst/%s", bucketName, relativeName))))
+          .isTrue();
+    }
+  }
+
+  @Test
+  public void testCompose_moreThanMaxComposeObjects() throws Exception {
+    String bucketName = sharedBucketName1;
+    String testDir = "compose-tree/";
+    // Sources are composed in 2 levels of intermediate objects.
+    int sourcesCount =
+        GoogleCloudStorage.MAX_COMPOSE_OBJECTS * GoogleCloudStorage.MAX_COMPOSE_OBJECTS + 10;
+
+    List<URI> sources = new ArrayList<>(sourcesCount);
+    ByteArrayOutputStream expectedContent = new ByteArrayOutputStream();
+    for (int i = 0; i < sourcesCount; i++) {
+      URI source = new URI(String.format("gs://%s/%ssrc-%d", bucketName, testDir, i));
+      byte[] sourceContent = String.valueOf(i).getBytes(StandardCharsets.UTF_8);
+      try (WritableByteChannel channel = gcsfs.create(source)) {
+        channel.write(ByteBuffer.wrap(sourceContent));
+      }
+      expectedContent.write(sourceContent);
+      sources.add(source);
+    }
+    URI destination = new URI(String.format("gs://%s/%sdst", bucketName, testDir));
+
+    gcsfs.compose(sources, destination, CreateObjectOptions.CONTENT_TYPE_DEFAULT);
+
+    try (SeekableByteChannel channel = gcsfs.open(destination)) {
+      assertThat(ByteStreams.toByteArray(Channels.newInputStream(channel)))
+          .isEqualTo(expectedContent.toByteArray());
+    }
+    // Only sources and destination should be left after compose.
+    assertThat(gcsfs.listFileInfo(new URI(String.format("gs://%s/%s", bucketName, testDir))).size())
+        .isEqualTo(sourcesCount + 1);
+  }
+
+  /** Returns in-memory GCS FS that lists at most 2 items per page. */
+  private static GoogleCloudStorageFileSystem newPagingGcsfs(String markerFilePattern)
+      throws IOException {
+    return newPagingGcsfs(InMemoryGoogleCloudStorage::new, markerFilePattern);
+  }
+
+  private static GoogleCloudStorageFileSystem newPagingGcsfs(
+      CheckedFunction<GoogleCloudStorageOptions, GoogleCloudStorage, IOException> gcsFn,
+      String markerFilePattern)
+      throws IOException {
+    return new GoogleCloudStorageFileSystem(
+        gcsFn,
+        GoogleCloudStorageFileSystemOptions.builder()
+            .setCloudStorageOptions(
+                getInMemoryGoogleCloudStorageOptions()
+                    .toBuilder()
+                    .setMaxListItemsPerCall(2)
+                    .build())
+            .setMarkerFilePattern(markerFilePattern)
+            .build());
+  }
+
+  /** Creates {@code src} directory that spans multiple listing pages and returns its items. */
+  private static List<String> createPagingTestDirectory(
+      GoogleCloudStorageFileSystem pagingGcsfs, String bucketName) throws Exception {
+    pagingGcsfs.mkdir(new URI("gs://" + bucketName));
+    List<String> relativeNames =
+        ImmutableList.of("_SUCCESS", "a/", "a/f1", "a/f2", "b/f3", "f4", "f5", "f6");
+    for (String relativeName : relativeNames) {
+      URI path = new URI(String.format("gs://%s/src/%s", bucketName, relativeName));
+      if (relativeName.endsWith("/")) {
+        pagingGcsfs.mkdir(path);
+      } else {
+        pagingGcsfs.create(path).close();
+      }
+    }
+    return relativeNames;
+  }
+
   /*
    * TODO(user): add support of generations in InMemoryGoogleCloudStorage so
    * we can run the following tests in this class.
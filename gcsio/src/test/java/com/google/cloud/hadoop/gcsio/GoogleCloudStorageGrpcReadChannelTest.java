@@ -7,6 +7,7 @@ import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonD
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.jsonErrorResponse;
 import static com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.mockTransport;
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -32,6 +33,7 @@ import com.google.auth.Credentials;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.ApiErrorExtractor;
 import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorResponses;
+import com.google.common.collect.ImmutableList;
 import com.google.common.hash.Hashing;
 import com.google.google.storage.v1.ChecksummedData;
 import com.google.google.storage.v1.GetObjectMediaRequest;
@@ -481,6 +483,23 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     verifyNoMoreInteractions(fakeService);
   }
 
+  @Test
+  public void readToDirectBuffer() throws Exception {
+    int objectSize = 100;
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    verify(fakeService, times(1)).setObject(any());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setMinRangeRequestSize(4).build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(objectSize);
+    while (buffer.hasRemaining() && readChannel.read(buffer) > 0) {}
+
+    buffer.flip();
+    assertThat(ByteString.copyFrom(buffer)).isEqualTo(fakeService.data.substring(0, objectSize));
+  }
+
   @Test
   public void readSucceedsAfterSeek() throws Exception {
     int objectSize = 100;
@@ -873,6 +892,31 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         buffer.array());
   }
 
+  @Test
+  public void seekUnderInplaceSeekLimitIntoNextMessageValidatesChecksums() throws Exception {
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(FakeService.CHUNK_SIZE * 4).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setGrpcChecksumsEnabled(true)
+            .setInplaceSeekLimit(FakeService.CHUNK_SIZE * 2)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(20);
+    readChannel.read(buffer);
+    // Skips the rest of the first message and the beginning of the second message.
+    readChannel.position(FakeService.CHUNK_SIZE + 10);
+    buffer = ByteBuffer.allocate(FakeService.CHUNK_SIZE);
+    readChannel.read(buffer);
+
+    assertArrayEquals(
+        fakeService
+            .data
+            .substring(FakeService.CHUNK_SIZE + 10, FakeService.CHUNK_SIZE * 2 + 10)
+            .toByteArray(),
+        buffer.array());
+  }
+
   @Test
   public void seekBeyondInplaceSeekLimitReadsNoBufferedData() throws Exception {
     int objectSize = 100;
@@ -946,6 +990,40 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     verifyNoMoreInteractions(fakeService);
   }
 
+  @Test
+  public void testReadFooterFromFooterCacheForNewChannel() throws Exception {
+    int objectSize = 100;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    verify(fakeService, times(1)).setObject(any());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(2 * 1024)
+            .setFooterCacheMaxSize(1024)
+            .build();
+    FooterCache.getInstance(options.getFooterCacheMaxSize()).invalidateAll();
+
+    newReadChannel(options).close();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+    ByteBuffer buffer = ByteBuffer.allocate(20);
+    readChannel.position(80);
+    readChannel.read(buffer);
+
+    verify(get, times(2)).setFields(METADATA_FIELDS);
+    verify(get, times(2)).execute();
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setReadOffset(0)
+                    .build()),
+            any());
+    assertArrayEquals(fakeService.data.substring(80).toByteArray(), buffer.array());
+    verifyNoMoreInteractions(fakeService);
+  }
+
   @Test
   public void testReadCachedFooter() throws Exception {
     int objectSize = 8 * 1024;
@@ -1253,6 +1331,159 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
     verifyNoMoreInteractions(fakeService);
   }
 
+  @Test
+  public void readWithBlockCacheReadsCachedBlocksForNewChannel() throws Exception {
+    int objectSize = FakeService.CHUNK_SIZE * 2;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(4)
+            .setBlockCacheMaxSize(objectSize * 4)
+            .setBlockCacheBlockSize(FakeService.CHUNK_SIZE)
+            .build();
+    ReadBlockCache.getInstance(options.getBlockCacheMaxSize()).invalidateAll();
+
+    ByteBuffer buffer1 = ByteBuffer.allocate(100);
+    newReadChannel(options).read(buffer1);
+    GoogleCloudStorageGrpcReadChannel readChannel2 = newReadChannel(options);
+    readChannel2.position(50);
+    ByteBuffer buffer2 = ByteBuffer.allocate(100);
+    readChannel2.read(buffer2);
+
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setGeneration(OBJECT_GENERATION)
+                    .setReadLimit(FakeService.CHUNK_SIZE)
+                    .build()),
+            any());
+    assertArrayEquals(fakeService.data.substring(0, 100).toByteArray(), buffer1.array());
+    assertArrayEquals(fakeService.data.substring(50, 150).toByteArray(), buffer2.array());
+    assertEquals(150, readChannel2.position());
+  }
+
+  @Test
+  public void readWithParallelStreamsReadsBlocksWithBoundedRequests() throws Exception {
+    int objectSize = 50;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(4)
+            .setGrpcReadParallelStreams(2)
+            .setGrpcReadParallelMinObjectSize(objectSize)
+            .setReadAheadBlockSize(20)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(objectSize);
+    while (buffer.hasRemaining() && readChannel.read(buffer) > 0) {}
+
+    int footerOffset = 48;
+    verify(fakeService, times(1)).setObject(any());
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setReadOffset(footerOffset)
+                    .build()),
+            any());
+    for (int offset = 0; offset < footerOffset; offset += 20) {
+      verify(fakeService, times(1))
+          .getObjectMedia(
+              eq(
+                  GetObjectMediaRequest.newBuilder()
+                      .setBucket(BUCKET_NAME)
+                      .setObject(OBJECT_NAME)
+                      .setGeneration(OBJECT_GENERATION)
+                      .setReadOffset(offset)
+                      .setReadLimit(Math.min(20, footerOffset - offset))
+                      .build()),
+              any());
+    }
+    verifyNoMoreInteractions(fakeService);
+    assertArrayEquals(fakeService.data.substring(0, objectSize).toByteArray(), buffer.array());
+    assertEquals(objectSize, readChannel.position());
+  }
+
+  @Test
+  public void readWithParallelStreamsUsesSingleStreamForSmallObjects() throws Exception {
+    int objectSize = 50;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setMinRangeRequestSize(4)
+            .setGrpcReadParallelStreams(2)
+            .setGrpcReadParallelMinObjectSize(objectSize + 1)
+            .setReadAheadBlockSize(20)
+            .build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(objectSize);
+    while (buffer.hasRemaining() && readChannel.read(buffer) > 0) {}
+
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setGeneration(OBJECT_GENERATION)
+                    .setReadLimit(48)
+                    .build()),
+            any());
+    assertArrayEquals(fakeService.data.substring(0, objectSize).toByteArray(), buffer.array());
+  }
+
+  @Test
+  public void readVectoredReadsRangesWithBoundedRequestsAndPrefetchedFooter() throws Exception {
+    int objectSize = 50;
+    storageObject.setSize(BigInteger.valueOf(objectSize));
+    fakeService.setObject(DEFAULT_OBJECT.toBuilder().setSize(objectSize).build());
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setMinRangeRequestSize(4).build();
+    GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel(options);
+
+    VectoredIORange range = new VectoredIORange(10, 5);
+    VectoredIORange footerRange = new VectoredIORange(48, 2);
+    readChannel.readVectored(ImmutableList.of(range, footerRange), ByteBuffer::allocate);
+
+    assertArrayEquals(
+        fakeService.data.substring(10, 15).toByteArray(), range.getData().get().array());
+    assertArrayEquals(
+        fakeService.data.substring(48, 50).toByteArray(), footerRange.getData().get().array());
+    assertEquals(0, readChannel.position());
+    verify(fakeService, times(1)).setObject(any());
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setReadOffset(48)
+                    .build()),
+            any());
+    verify(fakeService, times(1))
+        .getObjectMedia(
+            eq(
+                GetObjectMediaRequest.newBuilder()
+                    .setBucket(BUCKET_NAME)
+                    .setObject(OBJECT_NAME)
+                    .setGeneration(OBJECT_GENERATION)
+                    .setReadOffset(10)
+                    .setReadLimit(5)
+                    .build()),
+            any());
+    verifyNoMoreInteractions(fakeService);
+  }
+
   @Test
   public void seekFailsOnNegative() throws Exception {
     GoogleCloudStorageGrpcReadChannel readChannel = newReadChannel();
@@ -1388,6 +1619,7 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         errorExtractor,
         new StorageResourceId(BUCKET_NAME, OBJECT_NAME),
         options,
+        newDirectExecutorService(),
         () -> BackOff.STOP_BACKOFF);
   }
 
@@ -1399,6 +1631,7 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         errorExtractor,
         new StorageResourceId(BUCKET_NAME, OBJECT_NAME),
         options,
+        newDirectExecutorService(),
         () -> BackOff.STOP_BACKOFF);
   }
 
@@ -1411,6 +1644,7 @@ public final class GoogleCloudStorageGrpcReadChannelTest {
         errorExtractor,
         storageResourceId,
         options,
+        newDirectExecutorService(),
         () -> BackOff.STOP_BACKOFF);
   }
 
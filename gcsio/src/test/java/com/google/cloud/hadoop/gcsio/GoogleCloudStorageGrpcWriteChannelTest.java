@@ -1,6 +1,7 @@
 package com.google.cloud.hadoop.gcsio;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.google.storage.v1.ServiceConstants.Values.MAX_WRITE_CHUNK_BYTES;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
@@ -19,6 +20,7 @@ import com.google.cloud.hadoop.util.AsyncWriteChannelOptions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import com.google.google.storage.v1.ChecksummedData;
 import com.google.google.storage.v1.InsertObjectRequest;
 import com.google.google.storage.v1.InsertObjectSpec;
@@ -35,9 +37,9 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.Int64Value;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.UInt32Value;
+import io.grpc.ManagedChannelBuilder;
 import io.grpc.Status;
 import io.grpc.StatusException;
-import io.grpc.ManagedChannelBuilder;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.AbstractStub;
@@ -58,6 +60,7 @@ import org.junit.runners.JUnit4;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+
 @RunWith(JUnit4.class)
 public final class GoogleCloudStorageGrpcWriteChannelTest {
 
@@ -215,6 +218,36 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
     verify(fakeService.insertRequestObserver, atLeast(1)).onCompleted();
   }
 
+  @Test
+  public void writeCombinesChunkChecksumsIntoObjectChecksum() throws Exception {
+    AsyncWriteChannelOptions options =
+        AsyncWriteChannelOptions.builder().setGrpcChecksumsEnabled(true).build();
+    GoogleCloudStorageGrpcWriteChannel writeChannel =
+        newWriteChannel(options, ObjectWriteConditions.NONE, /* requesterPaysProject= */ null);
+
+    int maxChunkSize = MAX_WRITE_CHUNK_BYTES.getNumber();
+    ByteString data = createTestData(maxChunkSize * 2 + 1000);
+    writeChannel.initialize();
+    writeChannel.write(data.asReadOnlyByteBuffer());
+    writeChannel.close();
+
+    ArgumentCaptor<InsertObjectRequest> requestCaptor =
+        ArgumentCaptor.forClass(InsertObjectRequest.class);
+    verify(fakeService.insertRequestObserver, times(3)).onNext(requestCaptor.capture());
+
+    List<InsertObjectRequest> requests = requestCaptor.getAllValues();
+    for (InsertObjectRequest request : requests) {
+      ChecksummedData chunk = request.getChecksummedData();
+      assertThat(chunk.getCrc32C().getValue())
+          .isEqualTo(Hashing.crc32c().hashBytes(chunk.getContent().toByteArray()).asInt());
+    }
+    InsertObjectRequest lastRequest = requests.get(requests.size() - 1);
+    assertThat(lastRequest.getWriteOffset()).isEqualTo(maxChunkSize * 2);
+    assertThat(lastRequest.getFinishWrite()).isTrue();
+    assertThat(lastRequest.getObjectChecksums().getCrc32C().getValue())
+        .isEqualTo(Hashing.crc32c().hashBytes(data.toByteArray()).asInt());
+  }
+
   @Test
   public void writeHandlesUncommittedData() throws Exception {
     GoogleCloudStorageGrpcWriteChannel writeChannel = newWriteChannel();
@@ -736,7 +769,7 @@ public final class GoogleCloudStorageGrpcWriteChannelTest {
           if (resumeFromInsertException) {
             insertRequestException = null;
           }
-        } else {
+        } else if (request.getFinishWrite()) {
           responseObserver.onNext(object);
         }
       }
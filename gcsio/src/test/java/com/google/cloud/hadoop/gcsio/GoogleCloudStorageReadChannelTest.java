@@ -32,10 +32,16 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
 import com.google.api.services.storage.Storage;
 import com.google.api.services.storage.model.StorageObject;
 import com.google.cloud.hadoop.gcsio.GoogleCloudStorageReadOptions.Fadvise;
 import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorResponses;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Ints;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.math.BigInteger;
@@ -43,6 +49,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -176,6 +183,106 @@ public class GoogleCloudStorageReadChannelTest {
     assertThat(rangeHeaders).containsExactly("bytes=5-", "bytes=0-0").inOrder();
   }
 
+  @Test
+  public void footerPrefetch_withFooterCache_skipsFooterRequestForNewChannel() throws Exception {
+    int footerSize = 2;
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    int footerStart = testData.length - footerSize;
+    byte[] footer = Arrays.copyOfRange(testData, footerStart, testData.length);
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setGeneration(1L);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(object),
+            dataRangeResponse(footer, footerStart, testData.length),
+            jsonDataResponse(object));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.RANDOM)
+            .setMinRangeRequestSize(footerSize)
+            .setFooterCacheMaxSize(1024)
+            .build();
+    FooterCache footerCache = FooterCache.getInstance(options.getFooterCacheMaxSize());
+    footerCache.invalidateAll();
+
+    byte[] readBytes1 = new byte[footerSize];
+    GoogleCloudStorageReadChannel readChannel1 = createReadChannel(storage, options);
+    readChannel1.position(footerStart);
+    assertThat(readChannel1.read(ByteBuffer.wrap(readBytes1))).isEqualTo(footerSize);
+
+    byte[] readBytes2 = new byte[footerSize];
+    GoogleCloudStorageReadChannel readChannel2 = createReadChannel(storage, options);
+    readChannel2.position(footerStart);
+    assertThat(readChannel2.read(ByteBuffer.wrap(readBytes2))).isEqualTo(footerSize);
+
+    assertThat(readBytes1).isEqualTo(footer);
+    assertThat(readBytes2).isEqualTo(footer);
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly(null, "bytes=8-9", null)
+        .inOrder();
+  }
+
+  @Test
+  public void read_adaptiveFadvise_switchesBetweenStreamingAndRangeRequests() throws Exception {
+    byte[] testData = new byte[100];
+    for (int i = 0; i < testData.length; i++) {
+      testData[i] = (byte) i;
+    }
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(testData, 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 50, 52), 50, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 20, 22), 20, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 22, 24), 22, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 24, 26), 24, testData.length),
+            dataRangeResponse(
+                Arrays.copyOfRange(testData, 26, testData.length), 26, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.ADAPTIVE)
+            .setInplaceSeekLimit(4)
+            .setMinRangeRequestSize(2)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    for (long position : new long[] {0, 50, 20, 22, 24, 26}) {
+      readChannel.position(position);
+      ByteBuffer buffer = ByteBuffer.allocate(2);
+      assertThat(readChannel.read(buffer)).isEqualTo(2);
+      assertThat(buffer.array())
+          .isEqualTo(Arrays.copyOfRange(testData, (int) position, (int) position + 2));
+    }
+
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly(
+            null,
+            "bytes=0-",
+            "bytes=50-51",
+            "bytes=20-21",
+            "bytes=22-23",
+            "bytes=24-25",
+            "bytes=26-")
+        .inOrder();
+  }
+
   @Test
   public void footerPrefetch_reused() throws IOException {
     int footeSize = 2;
@@ -482,6 +589,126 @@ public class GoogleCloudStorageReadChannelTest {
     assertThat(readChannel.generation()).isEqualTo(generation);
   }
 
+  @Test
+  public void read_httpChecksumsEnabled_validatesChecksumOfWholeObject() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    GoogleCloudStorageReadChannel readChannel =
+        createChecksumValidatingReadChannel(
+            testData, crc32c(testData), dataRangeResponse(testData, 0, testData.length));
+
+    ByteBuffer buffer = ByteBuffer.allocate(testData.length);
+    while (buffer.hasRemaining()) {
+      readChannel.read(buffer);
+    }
+
+    assertThat(buffer.array()).isEqualTo(testData);
+  }
+
+  @Test
+  public void read_httpChecksumsEnabled_throwsExceptionOnChecksumMismatch() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    GoogleCloudStorageReadChannel readChannel =
+        createChecksumValidatingReadChannel(
+            testData, crc32c(testData) + 1, dataRangeResponse(testData, 0, testData.length));
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> readChannel.read(ByteBuffer.allocate(testData.length)));
+
+    assertThat(e).hasMessageThat().contains("didn't match expected object checksum");
+  }
+
+  @Test
+  public void read_httpChecksumsEnabled_skipsValidationOfPartialRead() throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    GoogleCloudStorageReadChannel readChannel =
+        createChecksumValidatingReadChannel(
+            testData,
+            crc32c(testData) + 1,
+            dataRangeResponse(
+                Arrays.copyOfRange(testData, 2, testData.length), 2, testData.length));
+
+    readChannel.position(2);
+    ByteBuffer buffer = ByteBuffer.allocate(testData.length - 2);
+    while (buffer.hasRemaining()) {
+      readChannel.read(buffer);
+    }
+
+    assertThat(buffer.array()).isEqualTo(Arrays.copyOfRange(testData, 2, testData.length));
+  }
+
+  @Test
+  public void read_httpChecksumsEnabledWithReadAhead_throwsExceptionOnChecksumMismatch()
+      throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    GoogleCloudStorageReadChannel readChannel =
+        createChecksumValidatingReadChannel(
+            testData,
+            crc32c(testData) + 1,
+            GoogleCloudStorageReadOptions.builder().setReadAheadDepth(1).setReadAheadBlockSize(16),
+            dataRangeResponse(testData, 0, testData.length));
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> readChannel.read(ByteBuffer.allocate(testData.length)));
+
+    assertThat(e).hasMessageThat().contains("didn't match expected object checksum");
+  }
+
+  @Test
+  public void read_httpChecksumsEnabledWithBlockCache_throwsExceptionOnChecksumMismatch()
+      throws IOException {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
+    GoogleCloudStorageReadOptions.Builder optionsBuilder =
+        GoogleCloudStorageReadOptions.builder()
+            .setBlockCacheMaxSize(1024)
+            .setBlockCacheBlockSize(16);
+    ReadBlockCache.getInstance(optionsBuilder.build().getBlockCacheMaxSize()).invalidateAll();
+    GoogleCloudStorageReadChannel readChannel =
+        createChecksumValidatingReadChannel(
+            testData,
+            crc32c(testData) + 1,
+            optionsBuilder,
+            dataRangeResponse(testData, 0, testData.length));
+
+    IOException e =
+        assertThrows(
+            IOException.class, () -> readChannel.read(ByteBuffer.allocate(testData.length)));
+
+    assertThat(e).hasMessageThat().contains("didn't match expected object checksum");
+  }
+
+  private static GoogleCloudStorageReadChannel createChecksumValidatingReadChannel(
+      byte[] testData, int objectCrc32c, MockLowLevelHttpResponse contentResponse)
+      throws IOException {
+    return createChecksumValidatingReadChannel(
+        testData, objectCrc32c, GoogleCloudStorageReadOptions.builder(), contentResponse);
+  }
+
+  private static GoogleCloudStorageReadChannel createChecksumValidatingReadChannel(
+      byte[] testData,
+      int objectCrc32c,
+      GoogleCloudStorageReadOptions.Builder optionsBuilder,
+      MockLowLevelHttpResponse contentResponse)
+      throws IOException {
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))
+                    .setGeneration(1L)
+                    .setCrc32c(BaseEncoding.base64().encode(Ints.toByteArray(objectCrc32c)))),
+            contentResponse);
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+    GoogleCloudStorageReadOptions options =
+        optionsBuilder.setHttpChecksumsEnabled(true).setFadvise(Fadvise.SEQUENTIAL).build();
+    return createReadChannel(storage, options);
+  }
+
+  private static int crc32c(byte[] data) {
+    return Hashing.crc32c().hashBytes(data).asInt();
+  }
+
   @Test
   public void read_gzipEncoded_shouldReadAllBytes() throws IOException {
     byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08};
@@ -519,6 +746,24 @@ public class GoogleCloudStorageReadChannelTest {
     }
   }
 
+  @Test
+  public void isReadVectoredIndependent_gzipEncoded_returnsFalse() throws Exception {
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(newStorageObject(BUCKET_NAME, OBJECT_NAME).setContentEncoding("gzip")),
+            jsonDataResponse(newStorageObject(BUCKET_NAME, OBJECT_NAME)));
+
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    try (GoogleCloudStorageReadChannel gzipChannel =
+            createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT);
+        GoogleCloudStorageReadChannel channel =
+            createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT)) {
+      assertThat(gzipChannel.isReadVectoredIndependent()).isFalse();
+      assertThat(channel.isReadVectoredIndependent()).isTrue();
+    }
+  }
+
   @Test
   public void open_gzipContentEncoding_throwsIOException_ifContentEncodingNotSupported()
       throws Exception {
@@ -538,6 +783,295 @@ public class GoogleCloudStorageReadChannelTest {
         .isEqualTo("Cannot read GZIP encoded files - content encoding support is disabled.");
   }
 
+  @Test
+  public void mergeRanges_mergesOnlyRangesWithinSeekAndMergedSizeLimits() {
+    VectoredIORange range1 = new VectoredIORange(0, 10);
+    VectoredIORange range2 = new VectoredIORange(15, 10);
+    VectoredIORange range3 = new VectoredIORange(30, 10);
+    VectoredIORange range4 = new VectoredIORange(100, 10);
+
+    List<List<VectoredIORange>> mergedRanges =
+        GoogleCloudStorageReadChannel.mergeRanges(
+            Arrays.asList(range1, range2, range3, range4),
+            /* minSeekSize= */ 5,
+            /* maxMergedSize= */ 30);
+
+    assertThat(mergedRanges)
+        .containsExactly(
+            Arrays.asList(range1, range2), Arrays.asList(range3), Arrays.asList(range4))
+        .inOrder();
+  }
+
+  @Test
+  public void readVectored_mergesNearbyRanges() throws Exception {
+    byte[] testData = new byte[20];
+    for (int i = 0; i < testData.length; i++) {
+      testData[i] = (byte) i;
+    }
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 2, 8), 2, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 15, 19), 15, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setVectoredReadMinRangeSeekSize(2).build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    VectoredIORange range1 = new VectoredIORange(6, 2);
+    VectoredIORange range2 = new VectoredIORange(2, 3);
+    VectoredIORange range3 = new VectoredIORange(15, 4);
+    readChannel.readVectored(Arrays.asList(range1, range2, range3), ByteBuffer::allocate);
+
+    assertThat(range1.getData().get().array()).isEqualTo(new byte[] {6, 7});
+    assertThat(range2.getData().get().array()).isEqualTo(new byte[] {2, 3, 4});
+    assertThat(range3.getData().get().array()).isEqualTo(new byte[] {15, 16, 17, 18});
+    assertThat(requests.stream().skip(1).map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly("bytes=2-7", "bytes=15-18")
+        .inOrder();
+    assertThat(readChannel.position()).isEqualTo(0);
+  }
+
+  @Test
+  public void read_sequentialFadviseWithReadAhead_readsBlocksWithRangeRequests() throws Exception {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 8, 10), 8, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.SEQUENTIAL)
+            .setReadAheadDepth(2)
+            .setReadAheadBlockSize(4)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+
+    ByteBuffer buffer = ByteBuffer.allocate(testData.length);
+    assertThat(readChannel.read(buffer)).isEqualTo(testData.length);
+
+    assertThat(buffer.array()).isEqualTo(testData);
+    assertThat(readChannel.position()).isEqualTo(testData.length);
+    assertThat(readChannel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+    assertThat(requests.stream().skip(1).map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly("bytes=0-3", "bytes=4-7", "bytes=8-9")
+        .inOrder();
+  }
+
+  @Test
+  public void read_withBlockCache_readsCachedBlocksForNewChannel() throws Exception {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setGeneration(1L);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(object),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 8, 10), 8, testData.length),
+            jsonDataResponse(object));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setBlockCacheMaxSize(1024)
+            .setBlockCacheBlockSize(4)
+            .build();
+    ReadBlockCache.getInstance(options.getBlockCacheMaxSize()).invalidateAll();
+
+    GoogleCloudStorageReadChannel readChannel1 = createReadChannel(storage, options);
+    ByteBuffer buffer1 = ByteBuffer.allocate(testData.length);
+    assertThat(readChannel1.read(buffer1)).isEqualTo(testData.length);
+
+    GoogleCloudStorageReadChannel readChannel2 = createReadChannel(storage, options);
+    readChannel2.position(3);
+    ByteBuffer buffer2 = ByteBuffer.allocate(5);
+    assertThat(readChannel2.read(buffer2)).isEqualTo(5);
+
+    assertThat(buffer1.array()).isEqualTo(testData);
+    assertThat(buffer2.array()).isEqualTo(Arrays.copyOfRange(testData, 3, 8));
+    assertThat(readChannel2.position()).isEqualTo(8);
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly(null, "bytes=0-3", "bytes=4-7", "bytes=8-9", null)
+        .inOrder();
+  }
+
+  @Test
+  public void readVectored_withBlockCache_readsCachedBlocksForNewChannel() throws Exception {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setGeneration(1L);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(object),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 4), 0, testData.length),
+            dataRangeResponse(Arrays.copyOfRange(testData, 4, 8), 4, testData.length),
+            jsonDataResponse(object));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setBlockCacheMaxSize(1024)
+            .setBlockCacheBlockSize(4)
+            .build();
+    ReadBlockCache.getInstance(options.getBlockCacheMaxSize()).invalidateAll();
+
+    VectoredIORange range1 = new VectoredIORange(3, 5);
+    createReadChannel(storage, options)
+        .readVectored(ImmutableList.of(range1), ByteBuffer::allocate);
+    assertThat(range1.getData().get().array()).isEqualTo(Arrays.copyOfRange(testData, 3, 8));
+
+    VectoredIORange range2 = new VectoredIORange(2, 4);
+    createReadChannel(storage, options)
+        .readVectored(ImmutableList.of(range2), ByteBuffer::allocate);
+    assertThat(range2.getData().get().array()).isEqualTo(Arrays.copyOfRange(testData, 2, 6));
+
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly(null, "bytes=0-3", "bytes=4-7", null)
+        .inOrder();
+  }
+
+  @Test
+  public void readVectored_withFooterCache_readsCachedFooter() throws Exception {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setGeneration(1L);
+
+    MockHttpTransport transport = mockTransport(jsonDataResponse(object));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder().setFooterCacheMaxSize(1024).build();
+    FooterCache footerCache = FooterCache.getInstance(options.getFooterCacheMaxSize());
+    footerCache.invalidateAll();
+    footerCache.put(
+        new StorageResourceId(BUCKET_NAME, OBJECT_NAME, 1L), Arrays.copyOfRange(testData, 6, 10));
+
+    VectoredIORange range = new VectoredIORange(7, 2);
+    createReadChannel(storage, options).readVectored(ImmutableList.of(range), ByteBuffer::allocate);
+
+    assertThat(range.getData().get().array()).isEqualTo(new byte[] {0x07, 0x08});
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly((Object) null);
+  }
+
+  @Test
+  public void readVectored_afterFooterPrefetch_readsPrefetchedFooter() throws Exception {
+    int footerSize = 4;
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09};
+    int footerStart = testData.length - footerSize;
+    byte[] footer = Arrays.copyOfRange(testData, footerStart, testData.length);
+    StorageObject object =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setGeneration(1L);
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(object), dataRangeResponse(footer, footerStart, testData.length));
+
+    List<HttpRequest> requests = new ArrayList<>();
+
+    Storage storage = new Storage(transport, JSON_FACTORY, requests::add);
+
+    GoogleCloudStorageReadOptions options =
+        GoogleCloudStorageReadOptions.builder()
+            .setFadvise(Fadvise.RANDOM)
+            .setMinRangeRequestSize(footerSize)
+            .build();
+
+    GoogleCloudStorageReadChannel readChannel = createReadChannel(storage, options);
+    readChannel.position(testData.length - 1);
+    assertThat(readChannel.read(ByteBuffer.allocate(1))).isEqualTo(1);
+
+    VectoredIORange range = new VectoredIORange(7, 2);
+    readChannel.readVectored(ImmutableList.of(range), ByteBuffer::allocate);
+
+    assertThat(range.getData().get().array()).isEqualTo(new byte[] {0x07, 0x08});
+    assertThat(requests.stream().map(r -> r.getHeaders().getRange()).collect(toList()))
+        .containsExactly(null, "bytes=6-9")
+        .inOrder();
+  }
+
+  @Test
+  public void readVectored_rangeBeyondObjectEnd_failsOnlyThisRange() throws Exception {
+    byte[] testData = {0x00, 0x01, 0x02, 0x03, 0x04};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))),
+            dataRangeResponse(Arrays.copyOfRange(testData, 0, 2), 0, testData.length));
+
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    GoogleCloudStorageReadChannel readChannel =
+        createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT);
+
+    VectoredIORange range1 = new VectoredIORange(0, 2);
+    VectoredIORange range2 = new VectoredIORange(4, 5);
+    readChannel.readVectored(Arrays.asList(range1, range2), ByteBuffer::allocate);
+
+    assertThat(range1.getData().get().array()).isEqualTo(new byte[] {0x00, 0x01});
+    ExecutionException e = assertThrows(ExecutionException.class, () -> range2.getData().get());
+    assertThat(e).hasCauseThat().isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  public void readVectored_overlappingRanges_throwsException() throws Exception {
+    MockHttpTransport transport =
+        mockTransport(jsonDataResponse(newStorageObject(BUCKET_NAME, OBJECT_NAME)));
+
+    Storage storage = new Storage(transport, JSON_FACTORY, r -> {});
+
+    GoogleCloudStorageReadChannel readChannel =
+        createReadChannel(storage, GoogleCloudStorageReadOptions.DEFAULT);
+
+    List<VectoredIORange> ranges =
+        Arrays.asList(new VectoredIORange(0, 10), new VectoredIORange(5, 10));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> readChannel.readVectored(ranges, ByteBuffer::allocate));
+  }
+
   private static GoogleCloudStorageReadOptions.Builder newLazyReadOptionsBuilder() {
     return GoogleCloudStorageReadOptions.builder().setFastFailOnNotFound(false);
   }
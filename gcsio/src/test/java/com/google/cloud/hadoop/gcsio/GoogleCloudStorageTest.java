@@ -78,7 +78,10 @@ import com.google.cloud.hadoop.util.testing.MockHttpTransportHelper.ErrorRespons
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Ints;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
@@ -228,6 +231,196 @@ public class GoogleCloudStorageTest {
     }
   }
 
+  @Test
+  public void testCreateObject_httpChecksumsEnabled_validatesUploadedObjectChecksum()
+      throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))
+                    .setCrc32c(crc32cString(testData))));
+
+    GoogleCloudStorage gcs = mockedGcs(getHttpChecksumsEnabledOptions(), transport);
+
+    try (WritableByteChannel writeChannel = gcs.create(RESOURCE_ID)) {
+      writeChannel.write(ByteBuffer.wrap(testData));
+    }
+
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings()).hasSize(3);
+  }
+
+  @Test
+  public void testCreateObject_httpChecksumMismatch_deletesObjectAndThrowsException()
+      throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+    StorageObject uploadedObject =
+        newStorageObject(BUCKET_NAME, OBJECT_NAME)
+            .setSize(BigInteger.valueOf(testData.length))
+            .setCrc32c(crc32cString(new byte[] {0x01}));
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(uploadedObject),
+            emptyResponse(HttpStatusCodes.STATUS_CODE_NO_CONTENT));
+
+    GoogleCloudStorage gcs = mockedGcs(getHttpChecksumsEnabledOptions(), transport);
+
+    WritableByteChannel writeChannel = gcs.create(RESOURCE_ID);
+    writeChannel.write(ByteBuffer.wrap(testData));
+    IOException e = assertThrows(IOException.class, writeChannel::close);
+
+    assertThat(e).hasMessageThat().contains("didn't match written data checksum");
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .contains(
+            deleteRequestString(
+                BUCKET_NAME,
+                OBJECT_NAME,
+                uploadedObject.getGeneration(),
+                /* replaceGenerationId= */ false));
+  }
+
+  @Test
+  public void testCreateObject_httpChecksumMismatch_overwrite_keepsObjectAndThrowsException()
+      throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonDataResponse(newStorageObject(BUCKET_NAME, OBJECT_NAME).setGeneration(1L)),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))
+                    .setCrc32c(crc32cString(new byte[] {0x01}))));
+
+    GoogleCloudStorage gcs = mockedGcs(getHttpChecksumsEnabledOptions(), transport);
+
+    WritableByteChannel writeChannel = gcs.create(RESOURCE_ID);
+    writeChannel.write(ByteBuffer.wrap(testData));
+    IOException e = assertThrows(IOException.class, writeChannel::close);
+
+    assertThat(e).hasMessageThat().contains("didn't match written data checksum");
+    // Object that replaced existing generation is not deleted and data is not re-uploaded.
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            getRequestString(BUCKET_NAME, OBJECT_NAME),
+            resumableUploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 1, /* replaceGenerationId= */ false),
+            resumableUploadChunkRequestString(BUCKET_NAME, OBJECT_NAME, /* uploadId= */ 1))
+        .inOrder();
+  }
+
+  @Test
+  public void testCreateObject_httpChecksumsEnabled_reupload_validatesReuploadedData()
+      throws Exception {
+    byte[] testData = new byte[MediaHttpUploader.MINIMUM_CHUNK_SIZE];
+    new Random().nextBytes(testData);
+
+    MockHttpTransport transport =
+        mockTransport(
+            emptyResponse(HttpStatusCodes.STATUS_CODE_NOT_FOUND),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonErrorResponse(ErrorResponses.GONE),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))
+                    .setCrc32c(crc32cString(testData))));
+
+    AsyncWriteChannelOptions writeOptions =
+        AsyncWriteChannelOptions.builder()
+            .setHttpChecksumsEnabled(true)
+            .setUploadChunkSize(testData.length * 2)
+            .setUploadCacheSize(testData.length * 2)
+            .build();
+
+    GoogleCloudStorage gcs =
+        mockedGcs(GCS_OPTIONS.toBuilder().setWriteChannelOptions(writeOptions).build(), transport);
+
+    try (WritableByteChannel writeChannel = gcs.create(RESOURCE_ID)) {
+      writeChannel.write(ByteBuffer.wrap(testData));
+    }
+
+    // Re-uploaded object is validated against the cached data hashed only once and is not deleted.
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            getRequestString(BUCKET_NAME, OBJECT_NAME),
+            resumableUploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 0, /* replaceGenerationId= */ false),
+            resumableUploadChunkRequestString(BUCKET_NAME, OBJECT_NAME, /* uploadId= */ 1),
+            resumableUploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 0, /* replaceGenerationId= */ false),
+            resumableUploadChunkRequestString(BUCKET_NAME, OBJECT_NAME, /* uploadId= */ 2))
+        .inOrder();
+  }
+
+  private static GoogleCloudStorageOptions getHttpChecksumsEnabledOptions() {
+    return GCS_OPTIONS
+        .toBuilder()
+        .setWriteChannelOptions(
+            AsyncWriteChannelOptions.builder().setHttpChecksumsEnabled(true).build())
+        .build();
+  }
+
+  private static String crc32cString(byte[] data) {
+    return BaseEncoding.base64().encode(Ints.toByteArray(Hashing.crc32c().hashBytes(data).asInt()));
+  }
+
+  @Test
+  public void testCreateObject_updatesUploadStatistics() throws Exception {
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            resumableUploadResponse(BUCKET_NAME, OBJECT_NAME),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME).setSize(BigInteger.valueOf(1))));
+
+    GoogleCloudStorage gcs = mockedGcs(transport);
+
+    try (WritableByteChannel writeChannel = gcs.create(RESOURCE_ID)) {
+      // Upload permit is acquired only when the upload thread sends data, not when it is opened.
+      assertThat(gcs.getUploadStatistics().getActiveUploads()).isEqualTo(0);
+      writeChannel.write(ByteBuffer.wrap(new byte[] {0x01}));
+    }
+
+    assertThat(gcs.getUploadStatistics().getActiveUploads()).isEqualTo(0);
+    assertThat(gcs.getUploadStatistics().getQueuedUploads()).isEqualTo(0);
+  }
+
+  @Test
+  public void testCreateObject_singleRequest() throws Exception {
+    byte[] testData = {0x01, 0x02, 0x03, 0x05, 0x08, 0x09};
+
+    MockHttpTransport transport =
+        mockTransport(
+            jsonErrorResponse(ErrorResponses.NOT_FOUND),
+            jsonDataResponse(
+                newStorageObject(BUCKET_NAME, OBJECT_NAME)
+                    .setSize(BigInteger.valueOf(testData.length))));
+
+    GoogleCloudStorage gcs = mockedGcs(transport);
+
+    GoogleCloudStorageItemInfo itemInfo =
+        gcs.createObject(RESOURCE_ID, testData, CreateObjectOptions.DEFAULT_OVERWRITE);
+
+    assertThat(itemInfo.getResourceId()).isEqualTo(RESOURCE_ID);
+    assertThat(itemInfo.getSize()).isEqualTo(testData.length);
+    assertThat(gcs.getUploadStatistics().getActiveUploads()).isEqualTo(0);
+    assertThat(trackingRequestInitializerWithRetries.getAllRequestStrings())
+        .containsExactly(
+            getRequestString(BUCKET_NAME, OBJECT_NAME),
+            uploadRequestString(
+                BUCKET_NAME, OBJECT_NAME, /* generationId= */ 0, /* replaceGenerationId= */ false))
+        .inOrder();
+  }
+
   /** Test successful operation of GoogleCloudStorage.create(2) with generationId. */
   @Test
   public void testCreateObjectWithGenerationId() throws Exception {
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createInferredDirectory;
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createObjectItemInfo;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.api.client.util.Clock;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MappedFileItemCacheTest {
+  // Sample bucket names.
+  private static final String BUCKET_A = "alpha";
+  private static final String BUCKET_B = "alph";
+
+  // Sample item infos.
+  private static final GoogleCloudStorageItemInfo ITEM_A_A = createObjectItemInfo(BUCKET_A, "bar");
+  private static final GoogleCloudStorageItemInfo ITEM_A_B = createObjectItemInfo(BUCKET_A, "baz");
+  private static final GoogleCloudStorageItemInfo ITEM_B_A = createObjectItemInfo(BUCKET_B, "bar");
+
+  private static final int MAX_ENTRIES = 64;
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  /** Clock implementation for testing the cache. */
+  private TestClock clock;
+  /** Path to the file that backs the caches. */
+  private Path file;
+  /** Instances of the cache being tested, that share the same file. */
+  private MappedFileItemCache cache1;
+
+  private MappedFileItemCache cache2;
+
+  @Before
+  public void setUp() throws IOException {
+    clock = new TestClock();
+    file = tempFolder.getRoot().toPath().resolve("items.cache");
+    cache1 = new MappedFileItemCache(file, MAX_ENTRIES, Duration.ofMillis(10), clock);
+    cache2 = new MappedFileItemCache(file, MAX_ENTRIES, Duration.ofMillis(10), clock);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    cache1.close();
+    cache2.close();
+  }
+
+  /** Test items put by one instance can be retrieved by another instance. */
+  @Test
+  public void testGetItemShared() {
+    cache1.putItem(ITEM_A_A);
+
+    assertThat(cache2.getItem(ITEM_A_A.getResourceId())).isEqualTo(ITEM_A_A);
+    assertThat(cache2.getItem(ITEM_A_B.getResourceId())).isNull();
+  }
+
+  /** Test items of a different generation cannot be retrieved. */
+  @Test
+  public void testGetItemGeneration() {
+    cache1.putItem(ITEM_A_A);
+    StorageResourceId id = ITEM_A_A.getResourceId();
+
+    assertThat(
+            cache2.getItem(
+                new StorageResourceId(
+                    id.getBucketName(), id.getObjectName(), ITEM_A_A.getContentGeneration())))
+        .isEqualTo(ITEM_A_A);
+    assertThat(
+            cache2.getItem(
+                new StorageResourceId(
+                    id.getBucketName(), id.getObjectName(), ITEM_A_A.getContentGeneration() + 1)))
+        .isNull();
+  }
+
+  /** Test expired items cannot be retrieved. */
+  @Test
+  public void testGetItemExpired() {
+    cache1.putItem(ITEM_A_A);
+    clock.setTimeMillis(11);
+
+    assertThat(cache2.getItem(ITEM_A_A.getResourceId())).isNull();
+  }
+
+  /** Test not found items and inferred directories are not cached. */
+  @Test
+  public void testPutItemNotCacheable() {
+    GoogleCloudStorageItemInfo notFound =
+        GoogleCloudStorageItemInfo.createNotFound(ITEM_A_B.getResourceId());
+    GoogleCloudStorageItemInfo inferredDirectory = createInferredDirectory(BUCKET_A, "dir/");
+
+    cache1.putItem(notFound);
+    cache1.putItem(inferredDirectory);
+
+    assertThat(cache2.getItem(notFound.getResourceId())).isNull();
+    assertThat(cache2.getItem(inferredDirectory.getResourceId())).isNull();
+  }
+
+  /** Test items removed by one instance cannot be retrieved by another instance. */
+  @Test
+  public void testRemoveItem() {
+    cache1.putItem(ITEM_A_A);
+    cache1.putItem(ITEM_A_B);
+
+    cache2.removeItem(ITEM_A_A.getResourceId());
+
+    assertThat(cache1.getItem(ITEM_A_A.getResourceId())).isNull();
+    assertThat(cache1.getItem(ITEM_A_B.getResourceId())).isEqualTo(ITEM_A_B);
+  }
+
+  /** Test bucket invalidation removes only items in that bucket. */
+  @Test
+  public void testInvalidateBucket() {
+    cache1.putItem(ITEM_A_A);
+    cache1.putItem(ITEM_B_A);
+
+    cache2.invalidateBucket(BUCKET_B);
+
+    assertThat(cache1.getItem(ITEM_A_A.getResourceId())).isEqualTo(ITEM_A_A);
+    assertThat(cache1.getItem(ITEM_B_A.getResourceId())).isNull();
+  }
+
+  /** Test number of cached items is bounded by the number of slots. */
+  @Test
+  public void testPutItemOverwritesOldestItems() {
+    int numItems = MAX_ENTRIES * 2;
+    for (int i = 0; i < numItems; i++) {
+      clock.setTimeMillis(i / MAX_ENTRIES);
+      cache1.putItem(createObjectItemInfo(BUCKET_A, "item" + i));
+    }
+
+    int cachedItems = 0;
+    for (int i = 0; i < numItems; i++) {
+      if (cache2.getItem(new StorageResourceId(BUCKET_A, "item" + i)) != null) {
+        cachedItems++;
+      }
+    }
+    assertThat(cachedItems).isAtMost(MAX_ENTRIES);
+    assertThat(cache2.getItem(new StorageResourceId(BUCKET_A, "item" + (numItems - 1))))
+        .isNotNull();
+  }
+
+  /** Test a file with a different layout cannot be used. */
+  @Test
+  public void testIncompatibleFile() {
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> new MappedFileItemCache(file, MAX_ENTRIES * 2, Duration.ofMillis(10), clock));
+    assertThat(e).hasMessageThat().contains("Incompatible shared cache file");
+  }
+
+  /** Clock with a manual time value used for testing the cache. */
+  private static class TestClock implements Clock {
+
+    private long time;
+
+    @Override
+    public long currentTimeMillis() {
+      return time;
+    }
+
+    public void setTimeMillis(long millis) {
+      time = millis;
+    }
+  }
+}
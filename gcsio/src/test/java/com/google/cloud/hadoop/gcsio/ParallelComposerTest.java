@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.GoogleCloudStorage.MAX_COMPOSE_OBJECTS;
+import static com.google.cloud.hadoop.gcsio.integration.GoogleCloudStorageTestHelper.assertObjectContent;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.hadoop.gcsio.testing.InMemoryGoogleCloudStorage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ParallelComposer} class. */
+@RunWith(JUnit4.class)
+public class ParallelComposerTest {
+
+  private static final String BUCKET_NAME = "test-bucket";
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final AtomicInteger activeComposes = new AtomicInteger();
+  private final AtomicInteger maxActiveComposes = new AtomicInteger();
+
+  private final GoogleCloudStorage gcs =
+      new ForwardingGoogleCloudStorage(new InMemoryGoogleCloudStorage()) {
+        @Override
+        public GoogleCloudStorageItemInfo composeObjects(
+            List<StorageResourceId> sources,
+            StorageResourceId destination,
+            CreateObjectOptions options)
+            throws IOException {
+          maxActiveComposes.accumulateAndGet(activeComposes.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(10);
+            return super.composeObjects(sources, destination, options);
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          } finally {
+            activeComposes.decrementAndGet();
+          }
+        }
+      };
+
+  private final AtomicInteger tempObjectCount = new AtomicInteger();
+
+  @Before
+  public void setUp() throws IOException {
+    gcs.createBucket(BUCKET_NAME);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void compose_moreThanMaxComposeObjects_boundsConcurrentComposes() throws IOException {
+    int sourcesCount = MAX_COMPOSE_OBJECTS * 8;
+    ByteArrayOutputStream expectedContent = new ByteArrayOutputStream();
+    List<StorageResourceId> sources = createSources(sourcesCount, expectedContent);
+    StorageResourceId destination = new StorageResourceId(BUCKET_NAME, "dst");
+    Queue<StorageResourceId> tempObjects = new ConcurrentLinkedQueue<>();
+
+    new ParallelComposer(gcs, executor, /* maxConcurrentComposes= */ 2)
+        .compose(
+            sources,
+            destination,
+            CreateObjectOptions.DEFAULT_OVERWRITE,
+            this::nextTempId,
+            tempObjects);
+
+    assertThat(maxActiveComposes.get()).isAtMost(2);
+    assertThat(tempObjects).hasSize(8);
+    assertObjectContent(gcs, destination, expectedContent.toByteArray());
+  }
+
+  @Test
+  public void compose_failedIntermediateCompose_tracksCreatedTempObjects() throws IOException {
+    List<StorageResourceId> sources =
+        createSources(MAX_COMPOSE_OBJECTS * 2, new ByteArrayOutputStream());
+    // Second group of sources fails to compose.
+    sources.set(MAX_COMPOSE_OBJECTS, new StorageResourceId(BUCKET_NAME, "missing"));
+    Queue<StorageResourceId> tempObjects = new ConcurrentLinkedQueue<>();
+
+    assertThrows(
+        IOException.class,
+        () ->
+            new ParallelComposer(gcs, executor, /* maxConcurrentComposes= */ 1)
+                .compose(
+                    sources,
+                    new StorageResourceId(BUCKET_NAME, "dst"),
+                    CreateObjectOptions.DEFAULT_OVERWRITE,
+                    this::nextTempId,
+                    tempObjects));
+
+    assertThat(tempObjects).containsExactly(new StorageResourceId(BUCKET_NAME, "temp-0"));
+    assertThat(activeComposes.get()).isEqualTo(0);
+  }
+
+  private List<StorageResourceId> createSources(int count, ByteArrayOutputStream content)
+      throws IOException {
+    List<StorageResourceId> sources = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      StorageResourceId source = new StorageResourceId(BUCKET_NAME, "src-" + i);
+      byte[] sourceContent = String.valueOf(i).getBytes(StandardCharsets.UTF_8);
+      gcs.createObject(source, sourceContent, CreateObjectOptions.DEFAULT_OVERWRITE);
+      content.write(sourceContent);
+      sources.add(source);
+    }
+    return sources;
+  }
+
+  private StorageResourceId nextTempId() {
+    return new StorageResourceId(BUCKET_NAME, "temp-" + tempObjectCount.getAndIncrement());
+  }
+}
@@ -30,10 +30,15 @@ import com.google.common.collect.Lists;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 import org.mockito.ArgumentMatchers;
@@ -89,6 +94,8 @@ public class PerformanceCachingGoogleCloudStorageTest {
   private static final GoogleCloudStorageItemInfo ITEM_B_B =
       createObjectItemInfo(BUCKET_B, PREFIX_B);
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   /** Clock implementation for testing the GCS delegate. */
   private TestClock clock;
   /** {@link PerformanceCachingGoogleCloudStorage} instance being tested. */
@@ -429,6 +436,146 @@ public class PerformanceCachingGoogleCloudStorageTest {
     assertThat(cache.getAllItemsRaw()).containsExactly(ITEM_A_AA);
   }
 
+  @Test
+  public void testListObjectInfo_listingCachingEnabled() throws IOException {
+    PerformanceCachingGoogleCloudStorage listingGcs = createListingCachingGcs();
+
+    List<GoogleCloudStorageItemInfo> result1 =
+        listingGcs.listObjectInfo(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT_FLAT_LIST);
+    List<GoogleCloudStorageItemInfo> result2 =
+        listingGcs.listObjectInfo(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT_FLAT_LIST);
+
+    // Verify the delegate call was made only once.
+    verify(gcsDelegate)
+        .listObjectInfo(eq(BUCKET_A), eq(PREFIX_A), eq(ListObjectOptions.DEFAULT_FLAT_LIST));
+    assertThat(result1).containsExactly(ITEM_A_A, ITEM_A_AA, ITEM_A_ABA);
+    assertThat(result2).containsExactlyElementsIn(result1);
+  }
+
+  @Test
+  public void testListObjectInfo_listingCachingEnabled_invalidatedOnCreate() throws IOException {
+    PerformanceCachingGoogleCloudStorage listingGcs = createListingCachingGcs();
+    GoogleCloudStorageItemInfo newItem = createObjectItemInfo(BUCKET_A, PREFIX_AA + "/new");
+
+    listingGcs.listObjectInfo(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT_FLAT_LIST);
+    listingGcs.createEmptyObject(newItem.getResourceId(), CREATE_OBJECT_OPTIONS);
+    List<GoogleCloudStorageItemInfo> result =
+        listingGcs.listObjectInfo(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT_FLAT_LIST);
+
+    // Verify the delegate call was made after the object creation.
+    verify(gcsDelegate, times(2))
+        .listObjectInfo(eq(BUCKET_A), eq(PREFIX_A), eq(ListObjectOptions.DEFAULT_FLAT_LIST));
+    assertThat(result).containsExactly(ITEM_A_A, ITEM_A_AA, ITEM_A_ABA, newItem);
+  }
+
+  @Test
+  public void testGetItemInfo_notFoundCachingEnabled_invalidatedOnCreate() throws IOException {
+    PerformanceCachingGoogleCloudStorage listingGcs = createListingCachingGcs();
+    GoogleCloudStorageItemInfo newItem = createObjectItemInfo(BUCKET_A, PREFIX_AA + "/new");
+    StorageResourceId newId = newItem.getResourceId();
+
+    GoogleCloudStorageItemInfo result1 = listingGcs.getItemInfo(newId);
+    GoogleCloudStorageItemInfo result2 = listingGcs.getItemInfo(newId);
+    listingGcs.createEmptyObject(newId, CREATE_OBJECT_OPTIONS);
+    GoogleCloudStorageItemInfo result3 = listingGcs.getItemInfo(newId);
+
+    // Verify the delegate call was made only once before the object creation.
+    verify(gcsDelegate, times(2)).getItemInfo(eq(newId));
+    assertThat(result1).isEqualTo(GoogleCloudStorageItemInfo.createNotFound(newId));
+    assertThat(result2).isEqualTo(result1);
+    assertThat(result3).isEqualTo(newItem);
+  }
+
+  @Test
+  public void testGetItemInfo_sharedCache() throws IOException {
+    Path sharedCacheFile = tempFolder.getRoot().toPath().resolve("shared.cache");
+    PerformanceCachingGoogleCloudStorage gcs1 = createSharedCachingGcs(sharedCacheFile);
+    PerformanceCachingGoogleCloudStorage gcs2 = createSharedCachingGcs(sharedCacheFile);
+
+    GoogleCloudStorageItemInfo result1 = gcs1.getItemInfo(ITEM_A_A.getResourceId());
+    GoogleCloudStorageItemInfo result2 = gcs2.getItemInfo(ITEM_A_A.getResourceId());
+
+    // Verify the delegate call was made only by the first instance.
+    verify(gcsDelegate).getItemInfo(eq(ITEM_A_A.getResourceId()));
+    assertThat(result1).isEqualTo(ITEM_A_A);
+    assertThat(result2).isEqualTo(ITEM_A_A);
+  }
+
+  @Test
+  public void testGetItemInfo_sharedCache_invalidatedOnDelete() throws IOException {
+    Path sharedCacheFile = tempFolder.getRoot().toPath().resolve("shared.cache");
+    PerformanceCachingGoogleCloudStorage gcs1 = createSharedCachingGcs(sharedCacheFile);
+    PerformanceCachingGoogleCloudStorage gcs2 = createSharedCachingGcs(sharedCacheFile);
+
+    gcs1.getItemInfo(ITEM_A_A.getResourceId());
+    gcs1.deleteObjects(ImmutableList.of(ITEM_A_A.getResourceId()));
+    GoogleCloudStorageItemInfo result = gcs2.getItemInfo(ITEM_A_A.getResourceId());
+
+    // Verify the delegate call was made again after the object deletion.
+    verify(gcsDelegate, times(2)).getItemInfo(eq(ITEM_A_A.getResourceId()));
+    assertThat(result)
+        .isEqualTo(GoogleCloudStorageItemInfo.createNotFound(ITEM_A_A.getResourceId()));
+  }
+
+  @Test
+  public void testGetItemInfo_sharedCache_invalidatedOnCreatedChannelClose() throws IOException {
+    Path sharedCacheFile = tempFolder.getRoot().toPath().resolve("shared.cache");
+    PerformanceCachingGoogleCloudStorage gcs1 = createSharedCachingGcs(sharedCacheFile);
+    PerformanceCachingGoogleCloudStorage gcs2 = createSharedCachingGcs(sharedCacheFile);
+    PerformanceCachingGoogleCloudStorage gcs3 = createSharedCachingGcs(sharedCacheFile);
+
+    try (WritableByteChannel channel =
+        gcs1.create(ITEM_A_A.getResourceId(), CreateObjectOptions.DEFAULT_OVERWRITE)) {
+      // Object info read while the object is being written is cached in the shared cache.
+      gcs2.getItemInfo(ITEM_A_A.getResourceId());
+      channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+    }
+    GoogleCloudStorageItemInfo result = gcs3.getItemInfo(ITEM_A_A.getResourceId());
+
+    // Verify the delegate call was made again after the channel was closed.
+    verify(gcsDelegate, times(2)).getItemInfo(eq(ITEM_A_A.getResourceId()));
+    assertThat(result.getSize()).isEqualTo(3);
+  }
+
+  private PerformanceCachingGoogleCloudStorage createListingCachingGcs() {
+    PerformanceCachingGoogleCloudStorageOptions options =
+        PerformanceCachingGoogleCloudStorageOptions.builder()
+            .setListingCachingEnabled(true)
+            .setNotFoundCachingEnabled(true)
+            .build();
+    PrefixMappedListingCache listingCache =
+        new PrefixMappedListingCache(
+            new TestTicker(),
+            Duration.ofMillis(10),
+            options.getMaxEntries(),
+            options.getListingCacheMaxBytes());
+    return new PerformanceCachingGoogleCloudStorage(
+        gcsDelegate, cache, listingCache, /* sharedCache= */ null, options);
+  }
+
+  private PerformanceCachingGoogleCloudStorage createSharedCachingGcs(Path sharedCacheFile)
+      throws IOException {
+    PerformanceCachingGoogleCloudStorageOptions options =
+        PerformanceCachingGoogleCloudStorageOptions.builder()
+            .setSharedCacheFile(sharedCacheFile.toString())
+            .build();
+    PrefixMappedListingCache listingCache =
+        new PrefixMappedListingCache(
+            new TestTicker(),
+            Duration.ofMillis(10),
+            options.getMaxEntries(),
+            options.getListingCacheMaxBytes());
+    MappedFileItemCache sharedCache =
+        new MappedFileItemCache(
+            sharedCacheFile, /* maxEntries= */ 1024, Duration.ofMinutes(1), Clock.SYSTEM);
+    return new PerformanceCachingGoogleCloudStorage(
+        gcsDelegate,
+        new PrefixMappedItemCache(new TestTicker(), Duration.ofMillis(10)),
+        listingCache,
+        sharedCache,
+        options);
+  }
+
   /**
    * Helper to generate GoogleCloudStorageItemInfo for a bucket entry.
    *
@@ -18,6 +18,11 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.base.Ticker;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
@@ -116,6 +121,73 @@ public class PrefixMappedItemCacheTest {
     assertThat(cache.getAllItemsRaw()).isEmpty();
   }
 
+  /** Test expired items are removed without accessing them. */
+  @Test
+  public void testRemoveExpiredItems() {
+    cache.putItem(ITEM_A_A);
+    ticker.setTimeMillis(8);
+    cache.putItem(ITEM_A_AA);
+    ticker.setTimeMillis(16);
+
+    cache.removeExpiredItems();
+
+    // Verify the state of the cache.
+    assertThat(cache.getAllItemsRaw()).containsExactly(ITEM_A_AA);
+    assertThat(cache.getItemCount()).isEqualTo(1);
+  }
+
+  /** Test the oldest items are evicted when the cache is full. */
+  @Test
+  public void testPutItemEvictsOldestItems() {
+    cache = new PrefixMappedItemCache(ticker, Duration.ofMillis(100), /* maxEntries= */ 10);
+    List<GoogleCloudStorageItemInfo> items = new ArrayList<>();
+    for (int i = 0; i < 11; i++) {
+      ticker.setTimeMillis(i);
+      GoogleCloudStorageItemInfo item = createObjectItemInfo(BUCKET_A, PREFIX_A + "/" + i);
+      cache.putItem(item);
+      items.add(item);
+    }
+
+    // Verify the state of the cache.
+    assertThat(cache.getAllItemsRaw()).containsExactlyElementsIn(items.subList(2, 11));
+    assertThat(cache.getItemCount()).isEqualTo(9);
+  }
+
+  /** Test the cache is consistent after concurrent updates. */
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        // Each thread updates its own items, so they can not be removed by other threads.
+        String threadPrefix = PREFIX_A + "/" + t + "/";
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 1_000; i++) {
+                    GoogleCloudStorageItemInfo item =
+                        createObjectItemInfo(BUCKET_A, threadPrefix + i % 100);
+                    cache.putItem(item);
+                    assertThat(cache.getItem(item.getResourceId())).isNotNull();
+                    if (i % 10 == 0) {
+                      cache.removeItem(item.getResourceId());
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Verify the state of the cache.
+    assertThat(cache.getItemCount()).isEqualTo(cache.getAllItemsRaw().size());
+  }
+
   /** Ticker with a manual time value used for testing the cache. */
   private static class TestTicker extends Ticker {
 
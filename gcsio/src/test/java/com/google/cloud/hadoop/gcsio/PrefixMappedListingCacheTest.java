@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 Google LLC. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.cloud.hadoop.gcsio.PerformanceCachingGoogleCloudStorageTest.createObjectItemInfo;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PrefixMappedListingCacheTest {
+  // Sample bucket names.
+  private static final String BUCKET_A = "alpha";
+  private static final String BUCKET_B = "alph";
+
+  // Sample object names.
+  private static final String PREFIX_A = "bar/";
+  private static final String PREFIX_AA = "bar/apple";
+  private static final String PREFIX_B = "baz/";
+
+  // Sample listings.
+  private static final List<GoogleCloudStorageItemInfo> LISTING_A =
+      ImmutableList.of(createObjectItemInfo(BUCKET_A, PREFIX_AA));
+  private static final List<GoogleCloudStorageItemInfo> LISTING_B =
+      ImmutableList.of(createObjectItemInfo(BUCKET_A, PREFIX_B + "cherry"));
+
+  /** Ticker implementation for testing the cache. */
+  private TestTicker ticker;
+  /** Instance of the cache being tested. */
+  private PrefixMappedListingCache cache;
+
+  @Before
+  public void setUp() {
+    ticker = new TestTicker();
+    cache =
+        new PrefixMappedListingCache(
+            ticker, Duration.ofMillis(10), /* maxEntries= */ 100, /* maxBytes= */ 100 * 1024);
+  }
+
+  /** Test listings can be retrieved normally. */
+  @Test
+  public void testGetListingNormal() {
+    putListing(BUCKET_A, PREFIX_A, LISTING_A);
+
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT))
+        .containsExactlyElementsIn(LISTING_A);
+    // Listings with other options are not cached.
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT_FLAT_LIST)).isNull();
+  }
+
+  /** Test expired listings cannot be retrieved. */
+  @Test
+  public void testGetListingExpired() {
+    putListing(BUCKET_A, PREFIX_A, LISTING_A);
+    ticker.setTimeMillis(11);
+
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT)).isNull();
+    // Verify the state of the cache.
+    assertThat(cache.getEntryCount()).isEqualTo(0);
+    assertThat(cache.getEntriesBytes()).isEqualTo(0);
+  }
+
+  /** Test object invalidation removes listings that could include it and its not found entry. */
+  @Test
+  public void testInvalidateObject() {
+    StorageResourceId id = new StorageResourceId(BUCKET_A, PREFIX_AA);
+    putListing(BUCKET_A, PREFIX_A, LISTING_A);
+    putListing(BUCKET_A, /* objectNamePrefix= */ null, LISTING_A);
+    putListing(BUCKET_A, PREFIX_B, LISTING_B);
+    putListing(BUCKET_B, PREFIX_A, LISTING_A);
+    cache.putNotFound(id, cache.getLoadToken());
+
+    cache.invalidateObject(id);
+
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT)).isNull();
+    assertThat(cache.getListing(BUCKET_A, null, ListObjectOptions.DEFAULT)).isNull();
+    assertThat(cache.isNotFound(id)).isFalse();
+    assertThat(cache.getListing(BUCKET_A, PREFIX_B, ListObjectOptions.DEFAULT)).isNotNull();
+    assertThat(cache.getListing(BUCKET_B, PREFIX_A, ListObjectOptions.DEFAULT)).isNotNull();
+    assertThat(cache.getEntryCount()).isEqualTo(2);
+  }
+
+  /** Test bucket invalidation removes only entries in that bucket. */
+  @Test
+  public void testInvalidateBucket() {
+    putListing(BUCKET_A, PREFIX_A, LISTING_A);
+    putListing(BUCKET_B, PREFIX_A, LISTING_A);
+
+    cache.invalidateBucket(BUCKET_B);
+
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT)).isNotNull();
+    assertThat(cache.getListing(BUCKET_B, PREFIX_A, ListObjectOptions.DEFAULT)).isNull();
+  }
+
+  /** Test results loaded before an invalidation are not cached. */
+  @Test
+  public void testPutListingAfterInvalidation() {
+    long loadToken = cache.getLoadToken();
+    cache.invalidateObject(new StorageResourceId(BUCKET_B, PREFIX_B));
+
+    cache.putListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT, LISTING_A, loadToken);
+
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A, ListObjectOptions.DEFAULT)).isNull();
+    assertThat(cache.getEntryCount()).isEqualTo(0);
+  }
+
+  /** Test the oldest entries are evicted when their estimated size exceeds the limit. */
+  @Test
+  public void testPutListingEvictsOldestEntries() {
+    cache =
+        new PrefixMappedListingCache(
+            ticker, Duration.ofMillis(100), /* maxEntries= */ 100, /* maxBytes= */ 4 * 1024);
+    for (int i = 0; i < 10; i++) {
+      ticker.setTimeMillis(i);
+      putListing(BUCKET_A, PREFIX_A + i, LISTING_A);
+    }
+
+    assertThat(cache.getEntriesBytes()).isAtMost(4 * 1024);
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A + 0, ListObjectOptions.DEFAULT)).isNull();
+    assertThat(cache.getListing(BUCKET_A, PREFIX_A + 9, ListObjectOptions.DEFAULT)).isNotNull();
+  }
+
+  private void putListing(
+      String bucketName, String objectNamePrefix, List<GoogleCloudStorageItemInfo> listing) {
+    cache.putListing(
+        bucketName, objectNamePrefix, ListObjectOptions.DEFAULT, listing, cache.getLoadToken());
+  }
+
+  /** Ticker with a manual time value used for testing the cache. */
+  private static class TestTicker extends Ticker {
+
+    private long time;
+
+    @Override
+    public long read() {
+      return time;
+    }
+
+    public void setTimeMillis(long millis) {
+      time = TimeUnit.NANOSECONDS.convert(millis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ReadAheadBuffer} class. */
+@RunWith(JUnit4.class)
+public class ReadAheadBufferTest {
+
+  private static final byte[] OBJECT_DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+  private final List<VectoredIORange> fetchedBlocks = new ArrayList<>();
+
+  private VectoredIORange fetch(long offset, int length) {
+    VectoredIORange block = new VectoredIORange(offset, length);
+    fetchedBlocks.add(block);
+    block.getData().complete(ByteBuffer.wrap(OBJECT_DATA, (int) offset, length).slice());
+    return block;
+  }
+
+  private List<Long> fetchedOffsets() {
+    return fetchedBlocks.stream().map(VectoredIORange::getOffset).collect(toList());
+  }
+
+  @Test
+  public void read_prefetchesBlocksAhead() throws IOException {
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(this::fetch, OBJECT_DATA.length, /* blockSize= */ 3, /* depth= */ 2);
+
+    ByteBuffer buffer = ByteBuffer.allocate(2);
+    assertThat(readAhead.read(0, buffer)).isEqualTo(2);
+
+    assertThat(buffer.array()).isEqualTo(new byte[] {0, 1});
+    assertThat(fetchedOffsets()).containsExactly(0L, 3L).inOrder();
+  }
+
+  @Test
+  public void read_readsOnlyFromSingleBlock_andPrefetchesNextBlockWhenBlockConsumed()
+      throws IOException {
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(this::fetch, OBJECT_DATA.length, /* blockSize= */ 3, /* depth= */ 2);
+
+    ByteBuffer buffer = ByteBuffer.allocate(5);
+    assertThat(readAhead.read(1, buffer)).isEqualTo(3);
+    assertThat(fetchedOffsets()).containsExactly(1L, 4L, 7L).inOrder();
+    assertThat(readAhead.read(4, buffer)).isEqualTo(2);
+    assertThat(fetchedOffsets()).containsExactly(1L, 4L, 7L).inOrder();
+
+    assertThat(buffer.array()).isEqualTo(new byte[] {1, 2, 3, 4, 5});
+  }
+
+  @Test
+  public void read_seekWithinWindow_doesNotFetchNewBlocks() throws IOException {
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(this::fetch, OBJECT_DATA.length, /* blockSize= */ 4, /* depth= */ 2);
+
+    assertThat(readAhead.read(0, ByteBuffer.allocate(1))).isEqualTo(1);
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    assertThat(readAhead.read(2, buffer)).isEqualTo(1);
+
+    assertThat(buffer.array()).isEqualTo(new byte[] {2});
+    assertThat(fetchedBlocks).hasSize(2);
+  }
+
+  @Test
+  public void read_seekOutsideWindow_restartsPrefetch() throws IOException {
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(this::fetch, OBJECT_DATA.length, /* blockSize= */ 2, /* depth= */ 2);
+
+    assertThat(readAhead.read(0, ByteBuffer.allocate(1))).isEqualTo(1);
+    ByteBuffer buffer = ByteBuffer.allocate(1);
+    assertThat(readAhead.read(7, buffer)).isEqualTo(1);
+
+    assertThat(buffer.array()).isEqualTo(new byte[] {7});
+    assertThat(fetchedOffsets()).containsExactly(0L, 2L, 7L, 9L).inOrder();
+  }
+
+  @Test
+  public void clear_cancelsPendingBlocks() throws IOException {
+    List<VectoredIORange> pendingBlocks = new ArrayList<>();
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(
+            (offset, length) -> {
+              VectoredIORange block =
+                  offset == 0 ? fetch(offset, length) : new VectoredIORange(offset, length);
+              pendingBlocks.add(block);
+              return block;
+            },
+            OBJECT_DATA.length,
+            /* blockSize= */ 2,
+            /* depth= */ 3);
+
+    assertThat(readAhead.read(0, ByteBuffer.allocate(1))).isEqualTo(1);
+    readAhead.clear();
+
+    assertThat(pendingBlocks).hasSize(3);
+    assertThat(pendingBlocks.get(0).getData().isCancelled()).isFalse();
+    assertThat(pendingBlocks.get(1).getData().isCancelled()).isTrue();
+    assertThat(pendingBlocks.get(2).getData().isCancelled()).isTrue();
+  }
+
+  @Test
+  public void read_atObjectEnd_returnsEndOfStream() throws IOException {
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(this::fetch, OBJECT_DATA.length, /* blockSize= */ 4, /* depth= */ 2);
+
+    assertThat(readAhead.read(OBJECT_DATA.length, ByteBuffer.allocate(1))).isEqualTo(-1);
+    assertThat(fetchedBlocks).isEmpty();
+  }
+
+  @Test
+  public void read_failedBlock_throwsIOException() {
+    IOException fetchException = new IOException("fetch failed");
+    ReadAheadBuffer readAhead =
+        new ReadAheadBuffer(
+            (offset, length) -> {
+              VectoredIORange block = new VectoredIORange(offset, length);
+              block.getData().completeExceptionally(fetchException);
+              return block;
+            },
+            OBJECT_DATA.length,
+            /* blockSize= */ 4,
+            /* depth= */ 2);
+
+    IOException e =
+        assertThrows(IOException.class, () -> readAhead.read(0, ByteBuffer.allocate(1)));
+    assertThat(e).isSameInstanceAs(fetchException);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ReadBlockCache} class. */
+@RunWith(JUnit4.class)
+public class ReadBlockCacheTest {
+
+  private static final byte[] OBJECT_DATA = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+  private static final StorageResourceId RESOURCE_ID =
+      new StorageResourceId("test-bucket", "test-object", /* generationId= */ 1);
+
+  private final List<Long> loadedOffsets = new ArrayList<>();
+
+  private ByteBuffer load(long offset, int length) {
+    loadedOffsets.add(offset);
+    return ByteBuffer.wrap(OBJECT_DATA, (int) offset, length);
+  }
+
+  private static byte[] toArray(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void get_loadsBlockOnce() throws IOException {
+    ReadBlockCache cache = new ReadBlockCache(/* maxSize= */ 100);
+
+    ByteBuffer block1 = cache.get(RESOURCE_ID, OBJECT_DATA.length, 4, 1, this::load);
+    ByteBuffer block2 = cache.get(RESOURCE_ID, OBJECT_DATA.length, 4, 1, this::load);
+
+    assertThat(toArray(block1)).isEqualTo(new byte[] {4, 5, 6, 7});
+    assertThat(toArray(block2)).isEqualTo(new byte[] {4, 5, 6, 7});
+    assertThat(block2.isReadOnly()).isTrue();
+    assertThat(loadedOffsets).containsExactly(4L);
+    assertThat(cache.hitCount()).isEqualTo(1);
+    assertThat(cache.missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_lastBlock_loadsRemainingBytes() throws IOException {
+    ReadBlockCache cache = new ReadBlockCache(/* maxSize= */ 100);
+
+    ByteBuffer block = cache.get(RESOURCE_ID, OBJECT_DATA.length, 4, 2, this::load);
+
+    assertThat(toArray(block)).isEqualTo(new byte[] {8, 9});
+  }
+
+  @Test
+  public void get_differentGeneration_loadsBlockAgain() throws IOException {
+    ReadBlockCache cache = new ReadBlockCache(/* maxSize= */ 100);
+    StorageResourceId newGenerationId =
+        new StorageResourceId(RESOURCE_ID.getBucketName(), RESOURCE_ID.getObjectName(), 2);
+
+    cache.get(RESOURCE_ID, OBJECT_DATA.length, 4, 0, this::load);
+    cache.get(newGenerationId, OBJECT_DATA.length, 4, 0, this::load);
+
+    assertThat(loadedOffsets).containsExactly(0L, 0L);
+  }
+
+  @Test
+  public void get_failedLoad_throwsIOExceptionAndDoesNotCacheBlock() throws IOException {
+    ReadBlockCache cache = new ReadBlockCache(/* maxSize= */ 100);
+    IOException loadException = new IOException("load failed");
+
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () ->
+                cache.get(
+                    RESOURCE_ID,
+                    OBJECT_DATA.length,
+                    4,
+                    0,
+                    (offset, length) -> {
+                      throw loadException;
+                    }));
+    assertThat(e).isSameInstanceAs(loadException);
+
+    cache.get(RESOURCE_ID, OBJECT_DATA.length, 4, 0, this::load);
+    assertThat(loadedOffsets).containsExactly(0L);
+  }
+
+  @Test
+  public void get_withoutGeneration_throwsException() {
+    ReadBlockCache cache = new ReadBlockCache(/* maxSize= */ 100);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            cache.get(
+                new StorageResourceId("test-bucket", "test-object"),
+                OBJECT_DATA.length,
+                4,
+                0,
+                this::load));
+  }
+
+  @Test
+  public void getInstance_isSharedPerMaxSize() {
+    ReadBlockCache cache = ReadBlockCache.getInstance(/* maxSize= */ 123);
+
+    assertThat(ReadBlockCache.getInstance(/* maxSize= */ 123)).isSameInstanceAs(cache);
+    assertThat(ReadBlockCache.getInstance(/* maxSize= */ 456)).isNotSameInstanceAs(cache);
+  }
+}
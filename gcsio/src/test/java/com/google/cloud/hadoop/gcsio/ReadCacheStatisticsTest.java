@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ReadCacheStatistics} class. */
+@RunWith(JUnit4.class)
+public class ReadCacheStatisticsTest {
+
+  private static final StorageResourceId RESOURCE_ID =
+      new StorageResourceId("test-bucket", "test-object", /* generationId= */ 1);
+
+  @Test
+  public void of_disabledCaches_returnsZeroCounters() {
+    GoogleCloudStorageReadOptions readOptions =
+        GoogleCloudStorageReadOptions.builder()
+            .setFooterCacheMaxSize(0)
+            .setBlockCacheMaxSize(0)
+            .build();
+
+    ReadCacheStatistics statistics = ReadCacheStatistics.of(readOptions);
+
+    assertThat(statistics.getFooterCacheHits()).isEqualTo(0);
+    assertThat(statistics.getFooterCacheMisses()).isEqualTo(0);
+    assertThat(statistics.getBlockCacheHits()).isEqualTo(0);
+    assertThat(statistics.getBlockCacheMisses()).isEqualTo(0);
+  }
+
+  @Test
+  public void of_returnsCountersOfProcessWideCaches() throws Exception {
+    // Use cache sizes that are not used by other tests, so caches are not shared with them.
+    GoogleCloudStorageReadOptions readOptions =
+        GoogleCloudStorageReadOptions.builder()
+            .setFooterCacheMaxSize(1234)
+            .setBlockCacheMaxSize(4321)
+            .build();
+    FooterCache footerCache = FooterCache.getInstance(readOptions.getFooterCacheMaxSize());
+    ReadBlockCache blockCache = ReadBlockCache.getInstance(readOptions.getBlockCacheMaxSize());
+
+    footerCache.get(RESOURCE_ID);
+    footerCache.put(RESOURCE_ID, new byte[] {1, 2, 3});
+    footerCache.get(RESOURCE_ID);
+    footerCache.get(RESOURCE_ID);
+    for (int i = 0; i < 3; i++) {
+      blockCache.get(
+          RESOURCE_ID,
+          /* objectSize= */ 10,
+          /* blockSize= */ 10,
+          /* blockIndex= */ 0,
+          (offset, length) -> ByteBuffer.allocate(length));
+    }
+
+    ReadCacheStatistics statistics = ReadCacheStatistics.of(readOptions);
+
+    assertThat(statistics.getFooterCacheHits()).isEqualTo(2);
+    assertThat(statistics.getFooterCacheMisses()).isEqualTo(1);
+    assertThat(statistics.getBlockCacheHits()).isEqualTo(2);
+    assertThat(statistics.getBlockCacheMisses()).isEqualTo(1);
+  }
+}
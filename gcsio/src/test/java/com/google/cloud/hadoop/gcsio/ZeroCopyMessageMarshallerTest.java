@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.gcsio;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.google.storage.v1.ChecksummedData;
+import com.google.google.storage.v1.GetObjectMediaResponse;
+import com.google.protobuf.ByteString;
+import io.grpc.KnownLength;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ZeroCopyMessageMarshaller} class. */
+@RunWith(JUnit4.class)
+public class ZeroCopyMessageMarshallerTest {
+
+  private static final GetObjectMediaResponse RESPONSE =
+      GetObjectMediaResponse.newBuilder()
+          .setChecksummedData(
+              ChecksummedData.newBuilder().setContent(ByteString.copyFromUtf8("test content")))
+          .build();
+
+  private final ZeroCopyMessageMarshaller<GetObjectMediaResponse> marshaller =
+      new ZeroCopyMessageMarshaller<>(GetObjectMediaResponse.getDefaultInstance());
+
+  @Test
+  public void parse_knownLengthStream() {
+    InputStream stream = marshaller.stream(RESPONSE);
+
+    assertThat(stream).isInstanceOf(KnownLength.class);
+    assertThat(marshaller.parse(stream)).isEqualTo(RESPONSE);
+  }
+
+  @Test
+  public void parse_streamOfUnknownLength() {
+    InputStream stream = new ByteArrayInputStream(RESPONSE.toByteArray());
+
+    assertThat(marshaller.parse(stream)).isEqualTo(RESPONSE);
+  }
+
+  @Test
+  public void parse_invalidMessage_throwsInternalError() {
+    byte[] message = RESPONSE.toByteArray();
+    InputStream stream = new KnownLengthInputStream(message, message.length - 1);
+
+    StatusRuntimeException e =
+        assertThrows(StatusRuntimeException.class, () -> marshaller.parse(stream));
+    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL);
+  }
+
+  private static class KnownLengthInputStream extends ByteArrayInputStream implements KnownLength {
+    KnownLengthInputStream(byte[] buf, int length) {
+      super(buf, 0, length);
+    }
+  }
+}
@@ -30,6 +30,7 @@ public abstract class AsyncWriteChannelOptions {
   public enum PipeType {
     NIO_CHANNEL_PIPE,
     IO_STREAM_PIPE,
+    RING_BUFFER_PIPE,
   }
 
   /** Default upload buffer size. */
@@ -56,6 +57,9 @@ public abstract class AsyncWriteChannelOptions {
   /** Default of whether to enabled checksums for gRPC. */
   public static final boolean GRPC_CHECKSUMS_ENABLED_DEFAULT = false;
 
+  /** Default of whether to enabled checksums for HTTP uploads. */
+  public static final boolean HTTP_CHECKSUMS_ENABLED_DEFAULT = false;
+
   /** Default timeout for grpc write stream. */
   public static final long DEFAULT_GRPC_WRITE_TIMEOUT = 10 * 60 * 1000;
 
@@ -64,6 +68,21 @@ public abstract class AsyncWriteChannelOptions {
 
   public static final PipeType PIPE_TYPE_DEFAULT = PipeType.IO_STREAM_PIPE;
 
+  /** Default maximum number of concurrent uploads in the process, {@code 0} for no limit. */
+  public static final int MAX_CONCURRENT_UPLOADS_DEFAULT = 0;
+
+  /** Default maximum buffer size reserved by uploads in the process, {@code 0} for no limit. */
+  public static final long MAX_UPLOAD_BUFFER_SIZE_DEFAULT = 0;
+
+  /** Default maximum size of the buffers retained by the buffer pool, {@code 0} for no pooling. */
+  public static final long BUFFER_POOL_MAX_SIZE_DEFAULT = 0;
+
+  /** Default for whether the buffer pool allocates direct buffers. */
+  public static final boolean BUFFER_POOL_DIRECT_ENABLED_DEFAULT = false;
+
+  /** Default maximum size of objects uploaded in a single request, {@code 0} to disable. */
+  public static final int SMALL_UPLOAD_THRESHOLD_DEFAULT = 0;
+
   public static final AsyncWriteChannelOptions DEFAULT = builder().build();
 
   public static Builder builder() {
@@ -75,8 +94,14 @@ public abstract class AsyncWriteChannelOptions {
         .setUploadCacheSize(UPLOAD_CACHE_SIZE_DEFAULT)
         .setDirectUploadEnabled(DIRECT_UPLOAD_ENABLED_DEFAULT)
         .setGrpcChecksumsEnabled(GRPC_CHECKSUMS_ENABLED_DEFAULT)
+        .setHttpChecksumsEnabled(HTTP_CHECKSUMS_ENABLED_DEFAULT)
         .setGrpcWriteTimeout(DEFAULT_GRPC_WRITE_TIMEOUT)
-        .setNumberOfBufferedRequests(DEFAULT_NUM_REQUESTS_BUFFERED_GRPC);
+        .setNumberOfBufferedRequests(DEFAULT_NUM_REQUESTS_BUFFERED_GRPC)
+        .setMaxConcurrentUploads(MAX_CONCURRENT_UPLOADS_DEFAULT)
+        .setMaxUploadBufferSize(MAX_UPLOAD_BUFFER_SIZE_DEFAULT)
+        .setBufferPoolMaxSize(BUFFER_POOL_MAX_SIZE_DEFAULT)
+        .setBufferPoolDirectEnabled(BUFFER_POOL_DIRECT_ENABLED_DEFAULT)
+        .setSmallUploadThreshold(SMALL_UPLOAD_THRESHOLD_DEFAULT);
   }
 
   public abstract Builder toBuilder();
@@ -95,10 +120,22 @@ public abstract class AsyncWriteChannelOptions {
 
   public abstract boolean isGrpcChecksumsEnabled();
 
+  public abstract boolean isHttpChecksumsEnabled();
+
   public abstract long getGrpcWriteTimeout();
 
   public abstract long getNumberOfBufferedRequests();
 
+  public abstract int getMaxConcurrentUploads();
+
+  public abstract long getMaxUploadBufferSize();
+
+  public abstract long getBufferPoolMaxSize();
+
+  public abstract boolean isBufferPoolDirectEnabled();
+
+  public abstract int getSmallUploadThreshold();
+
   /** Mutable builder for the GoogleCloudStorageWriteChannelOptions class. */
   @AutoValue.Builder
   public abstract static class Builder {
@@ -119,17 +156,77 @@ public abstract class AsyncWriteChannelOptions {
 
     public abstract Builder setNumberOfBufferedRequests(long numberOfBufferedRequests);
 
+    /**
+     * Maximum number of upload chunks that are sent at the same time by all write channels in the
+     * process, {@code 0} for no limit. Upload threads block after reading a chunk while this limit
+     * is reached.
+     */
+    public abstract Builder setMaxConcurrentUploads(int maxConcurrentUploads);
+
+    /**
+     * Maximum size in bytes of the upload chunks that are sent at the same time by all write
+     * channels in the process, {@code 0} for no limit. Upload threads block after reading a chunk
+     * while this limit is reached.
+     */
+    public abstract Builder setMaxUploadBufferSize(long maxUploadBufferSize);
+
+    /**
+     * Maximum size in bytes of the released upload buffers that are retained by the process-wide
+     * {@link ByteBufferPool} for reuse by subsequent uploads, {@code 0} to not retain buffers.
+     */
+    public abstract Builder setBufferPoolMaxSize(long bufferPoolMaxSize);
+
+    /**
+     * Whether the process-wide {@link ByteBufferPool} allocates direct buffers instead of heap
+     * buffers.
+     */
+    public abstract Builder setBufferPoolDirectEnabled(boolean bufferPoolDirectEnabled);
+
+    /**
+     * Maximum size in bytes of the objects that output streams upload in a single request on close,
+     * without starting a resumable upload, {@code 0} to always start a resumable upload. Output
+     * streams buffer written data up to this size and start a resumable upload seeded with the
+     * buffered data once it is exceeded.
+     */
+    public abstract Builder setSmallUploadThreshold(int smallUploadThreshold);
+
     /**
      * Enable gRPC checksumming. On by default. It is strongly recommended to leave this enabled, to
      * protect against possible data corruption caused by software bugs.
      */
     public abstract Builder setGrpcChecksumsEnabled(boolean grpcChecksumsEnabled);
 
+    /**
+     * Enable HTTP upload checksumming. CRC32C checksum of the written data is computed as it is
+     * written to the channel and validated against the checksum of the uploaded object on close.
+     */
+    public abstract Builder setHttpChecksumsEnabled(boolean httpChecksumsEnabled);
+
     abstract AsyncWriteChannelOptions autoBuild();
 
     public AsyncWriteChannelOptions build() {
       AsyncWriteChannelOptions options = autoBuild();
       checkUploadChunkSize(options.getUploadChunkSize());
+      checkArgument(
+          options.getMaxConcurrentUploads() >= 0,
+          "maxConcurrentUploads must be non-negative, but was %s",
+          options.getMaxConcurrentUploads());
+      checkArgument(
+          options.getMaxUploadBufferSize() >= 0,
+          "maxUploadBufferSize must be non-negative, but was %s",
+          options.getMaxUploadBufferSize());
+      checkArgument(
+          options.getBufferPoolMaxSize() >= 0,
+          "bufferPoolMaxSize must be non-negative, but was %s",
+          options.getBufferPoolMaxSize());
+      checkArgument(
+          !options.isBufferPoolDirectEnabled() || options.getBufferPoolMaxSize() > 0,
+          "bufferPoolDirectEnabled requires positive bufferPoolMaxSize, so that direct buffers are"
+              + " reused instead of being allocated for each upload");
+      checkArgument(
+          options.getSmallUploadThreshold() >= 0,
+          "smallUploadThreshold must be non-negative, but was %s",
+          options.getSmallUploadThreshold());
       return options;
     }
 
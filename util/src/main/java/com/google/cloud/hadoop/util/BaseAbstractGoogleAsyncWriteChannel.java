@@ -42,6 +42,9 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
 
   protected static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
 
+  // Number of buffers that pipe buffer is split into for the ring buffer pipe.
+  private static final int RING_BUFFER_PIPE_BUFFER_COUNT = 4;
+
   // A pipe that connects write channel used by caller to the input stream used by GCS uploader.
   // The uploader reads from input stream, which blocks till a caller writes some data to the
   // write channel (pipeSinkChannel below). The pipe is formed by connecting pipeSink to pipeSource
@@ -49,6 +52,9 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
 
   protected final AsyncWriteChannelOptions channelOptions;
 
+  // Pool of the buffers used by this channel and its upload operation.
+  protected final ByteBufferPool bufferPool;
+
   // Upload operation that takes place on a separate thread.
   protected Future<T> uploadOperation;
 
@@ -58,13 +64,18 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
 
   private ByteBuffer uploadCache = null;
 
+  private UploadStatistics uploadStatistics = new UploadStatistics();
+
   /** Construct a new channel using the given ExecutorService to run background uploads. */
   public BaseAbstractGoogleAsyncWriteChannel(
       ExecutorService threadPool, AsyncWriteChannelOptions channelOptions) {
     this.threadPool = threadPool;
     this.channelOptions = channelOptions;
+    this.bufferPool =
+        ByteBufferPool.getInstance(
+            channelOptions.getBufferPoolMaxSize(), channelOptions.isBufferPoolDirectEnabled());
     if (channelOptions.getUploadCacheSize() > 0) {
-      this.uploadCache = ByteBuffer.allocate(channelOptions.getUploadCacheSize());
+      this.uploadCache = bufferPool.acquire(channelOptions.getUploadCacheSize());
     }
   }
 
@@ -126,7 +137,7 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
       uploadCache.put(buffer);
       buffer.position(position);
     } else {
-      uploadCache = null;
+      releaseUploadCache();
     }
 
     try {
@@ -163,36 +174,52 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
     if (!isOpen()) {
       return;
     }
+    T response;
     try {
       pipeSink.close();
-      handleResponse(waitForCompletionAndThrowIfUploadFailed());
+      response = waitForCompletionAndThrowIfUploadFailed();
     } catch (IOException e) {
       if (uploadCache == null) {
+        closeInternal();
         throw e;
       }
       logger.atWarning().withCause(e).log("Reuploading using cached data");
-      reuploadFromCache();
+      try {
+        reuploadFromCache();
+      } finally {
+        closeInternal();
+      }
+      return;
+    }
+    // Response is handled only after the upload succeeded, so that its handling failures do not
+    // trigger re-upload of the data that was already uploaded.
+    try {
+      handleResponse(response);
     } finally {
       closeInternal();
     }
   }
 
   private void reuploadFromCache() throws IOException {
-    closeInternal();
-    initialized = false;
-
-    initialize();
-
     // Set cache to null so it will not be re-cached during retry.
     ByteBuffer reuploadData = uploadCache;
     uploadCache = null;
 
-    reuploadData.flip();
+    closeInternal();
+    initialized = false;
 
     try {
-      write(reuploadData);
+      initialize();
+
+      reuploadData.flip();
+
+      try {
+        write(reuploadData);
+      } finally {
+        close();
+      }
     } finally {
-      close();
+      bufferPool.release(reuploadData);
     }
   }
 
@@ -202,12 +229,44 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
       uploadOperation.cancel(/* mayInterruptIfRunning= */ true);
     }
     uploadOperation = null;
+    releaseUploadCache();
+  }
+
+  private void releaseUploadCache() {
+    bufferPool.release(uploadCache);
+    uploadCache = null;
+  }
+
+  /** Sets counters that are updated by this channel when it waits for and performs uploads. */
+  public void setUploadStatistics(UploadStatistics uploadStatistics) {
+    this.uploadStatistics = uploadStatistics;
   }
 
   /** Initialize this channel object for writing. */
   public void initialize() throws IOException {
-    InputStream pipeSource = initializeUploadPipe();
-    startUpload(pipeSource);
+    ScheduledUploadInputStream scheduledPipeSource = null;
+    try {
+      InputStream pipeSource = initializeUploadPipe();
+      UploadScheduler uploadScheduler =
+          UploadScheduler.getInstance(
+              channelOptions.getMaxConcurrentUploads(), channelOptions.getMaxUploadBufferSize());
+      if (uploadScheduler != UploadScheduler.UNLIMITED) {
+        scheduledPipeSource =
+            new ScheduledUploadInputStream(
+                pipeSource, uploadScheduler, channelOptions.getUploadChunkSize(), uploadStatistics);
+        // Do not start upload thread until the scheduler admits the upload, the upload thread
+        // releases this permit as soon as it waits for the data to upload.
+        scheduledPipeSource.acquirePermit();
+        pipeSource = scheduledPipeSource;
+      }
+      startUpload(pipeSource);
+    } catch (IOException | RuntimeException e) {
+      if (scheduledPipeSource != null) {
+        scheduledPipeSource.releasePermit();
+      }
+      releaseUploadCache();
+      throw e;
+    }
     initialized = true;
   }
 
@@ -228,6 +287,13 @@ public abstract class BaseAbstractGoogleAsyncWriteChannel<T> implements Writable
         PipedOutputStream internalPipeSink = new PipedOutputStream(internalPipeSource);
         pipeSink = Channels.newChannel(internalPipeSink);
         return internalPipeSource;
+      case RING_BUFFER_PIPE:
+        int bufferSize =
+            Math.max(1, channelOptions.getPipeBufferSize() / RING_BUFFER_PIPE_BUFFER_COUNT);
+        RingBufferPipe ringBufferPipe =
+            new RingBufferPipe(RING_BUFFER_PIPE_BUFFER_COUNT, bufferSize, bufferPool);
+        pipeSink = ringBufferPipe.sink();
+        return ringBufferPipe.source();
     }
     throw new IllegalStateException("Unknown PipeType: " + channelOptions.getPipeType());
   }
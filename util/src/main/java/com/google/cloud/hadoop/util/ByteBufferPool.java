@@ -0,0 +1,231 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.flogger.GoogleLogger;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide pool of the byte buffers that are used by write channels for upload chunks and
+ * caches.
+ *
+ * <p>Buffers are grouped in size classes of power of two sizes, so buffers released by one upload
+ * can be reused by the next upload that requests a buffer of a similar size instead of allocating a
+ * new one. Released buffers are retained only while the total size of the pooled buffers does not
+ * exceed the maximum pool size, the rest are left to the garbage collector.
+ *
+ * <p>Buffers that are not released back to the pool, for example, when a write channel is not
+ * closed, are reclaimed by the garbage collector as usual.
+ */
+public class ByteBufferPool {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Smallest size class of the pooled buffers. */
+  @VisibleForTesting static final int MIN_BUFFER_SIZE = 4 * 1024;
+
+  /** Pool that does not retain buffers and allocates a new heap buffer for each request. */
+  public static final ByteBufferPool DISABLED = new ByteBufferPool(0, /* directBuffers= */ false);
+
+  private static ByteBufferPool instance;
+
+  private final long maxPoolSize;
+  private final boolean directBuffers;
+
+  // Pooled buffers by their capacity.
+  private final Map<Integer, ArrayDeque<ByteBuffer>> pooledBuffers = new HashMap<>();
+  private long pooledSize = 0;
+
+  private final AtomicLong allocatedBuffers = new AtomicLong();
+  private final AtomicLong reusedBuffers = new AtomicLong();
+  private final AtomicLong discardedBuffers = new AtomicLong();
+  private final AtomicLong leasedBuffers = new AtomicLong();
+
+  /**
+   * @param maxPoolSize maximum size in bytes of the buffers retained by the pool, {@code 0} to not
+   *     retain buffers
+   * @param directBuffers whether to allocate direct buffers instead of heap buffers
+   */
+  @VisibleForTesting
+  ByteBufferPool(long maxPoolSize, boolean directBuffers) {
+    checkArgument(maxPoolSize >= 0, "maxPoolSize should be non-negative, but was %s", maxPoolSize);
+    checkArgument(maxPoolSize > 0 || !directBuffers, "directBuffers require positive maxPoolSize");
+    this.maxPoolSize = maxPoolSize;
+    this.directBuffers = directBuffers;
+  }
+
+  /**
+   * Returns the process-wide buffer pool, creating it with the provided parameters if it does not
+   * exist yet, or {@link #DISABLED} pool if pooling is not requested.
+   */
+  public static synchronized ByteBufferPool getInstance(long maxPoolSize, boolean directBuffers) {
+    if (maxPoolSize == 0 && !directBuffers) {
+      return DISABLED;
+    }
+    if (instance == null) {
+      logger.atFine().log(
+          "Creating buffer pool with %s bytes max size and %s direct buffers",
+          maxPoolSize, directBuffers);
+      instance = new ByteBufferPool(maxPoolSize, directBuffers);
+    } else if (instance.maxPoolSize != maxPoolSize || instance.directBuffers != directBuffers) {
+      logger.atWarning().log(
+          "Buffer pool already exists with %s bytes max size and %s direct buffers,"
+              + " ignoring %s bytes max size and %s direct buffers",
+          instance.maxPoolSize, instance.directBuffers, maxPoolSize, directBuffers);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the process-wide buffer pool if it was already created, or {@link #DISABLED} pool
+   * otherwise. Unlike {@link #getInstance(long, boolean)}, does not create the pool.
+   */
+  public static synchronized ByteBufferPool getExistingInstance() {
+    return instance == null ? DISABLED : instance;
+  }
+
+  /**
+   * Returns a buffer with zero position and limit set to {@code size}, that is reused from the pool
+   * if possible. The capacity of the returned buffer can be larger than {@code size}.
+   *
+   * <p>Buffer should be returned to the pool with {@link #release} when it is not used anymore.
+   */
+  public ByteBuffer acquire(int size) {
+    checkArgument(size >= 0, "size should be non-negative, but was %s", size);
+    leasedBuffers.incrementAndGet();
+    if (maxPoolSize == 0) {
+      allocatedBuffers.incrementAndGet();
+      return allocate(size);
+    }
+    int capacity = getSizeClass(size);
+    ByteBuffer buffer = poll(capacity);
+    if (buffer == null) {
+      allocatedBuffers.incrementAndGet();
+      buffer = allocate(capacity);
+    } else {
+      reusedBuffers.incrementAndGet();
+    }
+    buffer.clear();
+    buffer.limit(size);
+    return buffer;
+  }
+
+  /**
+   * Returns the buffer acquired with {@link #acquire} to the pool. Buffer should not be used after
+   * it was released. Does nothing if {@code buffer} is {@code null}.
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null) {
+      return;
+    }
+    leasedBuffers.decrementAndGet();
+    int capacity = buffer.capacity();
+    if (buffer.isDirect() != directBuffers
+        || capacity < MIN_BUFFER_SIZE
+        || Integer.bitCount(capacity) != 1
+        || !offer(buffer)) {
+      discardedBuffers.incrementAndGet();
+    }
+  }
+
+  private synchronized ByteBuffer poll(int capacity) {
+    ArrayDeque<ByteBuffer> buffers = pooledBuffers.get(capacity);
+    ByteBuffer buffer = buffers == null ? null : buffers.pollLast();
+    if (buffer != null) {
+      pooledSize -= capacity;
+    }
+    return buffer;
+  }
+
+  private synchronized boolean offer(ByteBuffer buffer) {
+    if (pooledSize + buffer.capacity() > maxPoolSize) {
+      return false;
+    }
+    pooledBuffers.computeIfAbsent(buffer.capacity(), c -> new ArrayDeque<>()).addLast(buffer);
+    pooledSize += buffer.capacity();
+    return true;
+  }
+
+  private ByteBuffer allocate(int capacity) {
+    return directBuffers ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  @VisibleForTesting
+  static int getSizeClass(int size) {
+    if (size <= MIN_BUFFER_SIZE) {
+      return MIN_BUFFER_SIZE;
+    }
+    int highestOneBit = Integer.highestOneBit(size);
+    // Sizes larger than the largest power of two int are not rounded up.
+    return highestOneBit == size || highestOneBit == 1 << 30 ? size : highestOneBit << 1;
+  }
+
+  /** Whether this pool allocates direct buffers. */
+  public boolean isDirectBuffers() {
+    return directBuffers;
+  }
+
+  /** Number of buffers allocated by this pool. */
+  public long getAllocatedBuffers() {
+    return allocatedBuffers.get();
+  }
+
+  /** Number of buffers reused from this pool instead of being allocated. */
+  public long getReusedBuffers() {
+    return reusedBuffers.get();
+  }
+
+  /** Number of released buffers that were not retained by this pool. */
+  public long getDiscardedBuffers() {
+    return discardedBuffers.get();
+  }
+
+  /** Number of acquired buffers that were not released yet. */
+  public long getLeasedBuffers() {
+    return leasedBuffers.get();
+  }
+
+  /** Number of buffers retained by this pool. */
+  public synchronized int getPooledBuffers() {
+    return pooledBuffers.values().stream().mapToInt(ArrayDeque::size).sum();
+  }
+
+  /** Size in bytes of the buffers retained by this pool. */
+  public synchronized long getPooledSize() {
+    return pooledSize;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "ByteBufferPool{maxPoolSize=%s, directBuffers=%s, allocatedBuffers=%s, reusedBuffers=%s,"
+            + " discardedBuffers=%s, leasedBuffers=%s, pooledBuffers=%s, pooledSize=%s}",
+        maxPoolSize,
+        directBuffers,
+        getAllocatedBuffers(),
+        getReusedBuffers(),
+        getDiscardedBuffers(),
+        getLeasedBuffers(),
+        getPooledBuffers(),
+        getPooledSize());
+  }
+}
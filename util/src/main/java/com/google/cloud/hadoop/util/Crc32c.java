@@ -0,0 +1,287 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.invoke.MethodType.methodType;
+
+import com.google.common.base.Throwables;
+import com.google.common.flogger.GoogleLogger;
+import com.google.common.hash.Hashing;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+/**
+ * Utility methods for CRC32C checksums.
+ *
+ * <p>Checksums are computed with the fastest {@link Implementation} available in the running JVM,
+ * that is selected once when this class is loaded.
+ */
+public final class Crc32c {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  // Reversed CRC32C (Castagnoli) polynomial.
+  private static final int POLYNOMIAL = 0x82F63B78;
+
+  // Size of the slices copied and hashed by copyAndHash, that fit into the L1 data cache.
+  private static final int COPY_AND_HASH_SLICE_SIZE = 16 * 1024;
+
+  private static final Implementation DEFAULT_IMPLEMENTATION =
+      Implementation.JDK.isAvailable() ? Implementation.JDK : Implementation.GUAVA;
+
+  static {
+    logger.atFine().log("Using %s CRC32C implementation", DEFAULT_IMPLEMENTATION);
+  }
+
+  private Crc32c() {}
+
+  /** Returns the implementation that is used to compute CRC32C checksums. */
+  public static Implementation getDefaultImplementation() {
+    return DEFAULT_IMPLEMENTATION;
+  }
+
+  /** Returns a new hasher that computes CRC32C checksum with the default implementation. */
+  public static Hasher newHasher() {
+    return DEFAULT_IMPLEMENTATION.newHasher();
+  }
+
+  /** Returns CRC32C checksum of the {@code length} bytes of {@code data} from {@code offset}. */
+  public static int hash(byte[] data, int offset, int length) {
+    return newHasher().update(data, offset, length).getValue();
+  }
+
+  /**
+   * Returns CRC32C checksum of the remaining bytes of {@code data}, without changing its position.
+   */
+  public static int hash(ByteBuffer data) {
+    return newHasher().update(data.duplicate()).getValue();
+  }
+
+  /**
+   * Copies the remaining bytes of {@code source} into {@code dest} and updates {@code hasher} with
+   * them, consuming the source. Data is copied and hashed slice by slice, so each slice is hashed
+   * while it is still in the CPU cache instead of reading the whole source from memory twice.
+   *
+   * @throws java.nio.BufferOverflowException if {@code dest} has less remaining bytes than {@code
+   *     source}
+   */
+  public static void copyAndHash(ByteBuffer source, ByteBuffer dest, Hasher hasher) {
+    while (source.hasRemaining()) {
+      int sliceEnd = source.position() + Math.min(COPY_AND_HASH_SLICE_SIZE, source.remaining());
+      ByteBuffer slice = source.duplicate();
+      slice.limit(sliceEnd);
+      dest.put(slice);
+      slice.position(source.position());
+      hasher.update(slice);
+      source.position(sliceEnd);
+    }
+  }
+
+  /**
+   * Returns CRC32C checksum of the concatenation of two byte sequences, computed from their
+   * checksums without reading the data, as in zlib {@code crc32_combine}.
+   *
+   * @param crc1 checksum of the first byte sequence
+   * @param crc2 checksum of the second byte sequence
+   * @param length2 length of the second byte sequence in bytes
+   */
+  public static int combine(int crc1, int crc2, long length2) {
+    checkArgument(length2 >= 0, "length2 should be non-negative, but was %s", length2);
+    if (length2 == 0) {
+      return crc1;
+    }
+
+    // Operator for a single zero bit.
+    int[] odd = new int[32];
+    odd[0] = POLYNOMIAL;
+    for (int n = 1, row = 1; n < 32; n++, row <<= 1) {
+      odd[n] = row;
+    }
+    int[] even = new int[32];
+    // Operators for two and four zero bits.
+    square(even, odd);
+    square(odd, even);
+
+    // Apply length2 zero bytes to crc1, squaring operator for each bit of length2.
+    do {
+      square(even, odd);
+      if ((length2 & 1) != 0) {
+        crc1 = times(even, crc1);
+      }
+      length2 >>>= 1;
+      if (length2 == 0) {
+        break;
+      }
+      square(odd, even);
+      if ((length2 & 1) != 0) {
+        crc1 = times(odd, crc1);
+      }
+      length2 >>>= 1;
+    } while (length2 != 0);
+
+    return crc1 ^ crc2;
+  }
+
+  private static int times(int[] matrix, int vector) {
+    int sum = 0;
+    for (int i = 0; vector != 0; i++, vector >>>= 1) {
+      if ((vector & 1) != 0) {
+        sum ^= matrix[i];
+      }
+    }
+    return sum;
+  }
+
+  private static void square(int[] square, int[] matrix) {
+    for (int n = 0; n < 32; n++) {
+      square[n] = times(matrix, matrix[n]);
+    }
+  }
+
+  /** Implementations of CRC32C checksum computation. */
+  public enum Implementation {
+    /** {@code java.util.zip.CRC32C} that is available and intrinsified since JDK 9. */
+    JDK {
+      @Override
+      public boolean isAvailable() {
+        return JdkCrc32c.CONSTRUCTOR != null;
+      }
+
+      @Override
+      public Hasher newHasher() {
+        checkState(isAvailable(), "%s CRC32C implementation is not available", this);
+        return new JdkCrc32c();
+      }
+    },
+
+    /** Guava {@link Hashing#crc32c()} that is available on all JDK versions. */
+    GUAVA {
+      @Override
+      public boolean isAvailable() {
+        return true;
+      }
+
+      @Override
+      public Hasher newHasher() {
+        return new GuavaCrc32c();
+      }
+    };
+
+    /** Whether this implementation can be used in the running JVM. */
+    public abstract boolean isAvailable();
+
+    /** Returns a new hasher that computes CRC32C checksum with this implementation. */
+    public abstract Hasher newHasher();
+  }
+
+  /** Computes CRC32C checksum of the data passed to it in one or more updates. */
+  public interface Hasher {
+
+    /** Updates checksum with the {@code length} bytes of {@code data} from {@code offset}. */
+    Hasher update(byte[] data, int offset, int length);
+
+    /** Updates checksum with the remaining bytes of {@code data}, consuming them. */
+    Hasher update(ByteBuffer data);
+
+    /** Returns checksum of the data passed to this hasher, that should not be used after that. */
+    int getValue();
+  }
+
+  private static class JdkCrc32c implements Hasher {
+
+    // Resolved with method handles, because java.util.zip.CRC32C does not exist in JDK 8.
+    private static final MethodHandle CONSTRUCTOR;
+    private static final MethodHandle UPDATE_BUFFER;
+
+    static {
+      MethodHandle constructor = null;
+      MethodHandle updateBuffer = null;
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Class<?> crc32cClass = Class.forName("java.util.zip.CRC32C");
+        constructor =
+            lookup
+                .findConstructor(crc32cClass, methodType(void.class))
+                .asType(methodType(Checksum.class));
+        updateBuffer =
+            lookup.findVirtual(Checksum.class, "update", methodType(void.class, ByteBuffer.class));
+      } catch (ReflectiveOperationException e) {
+        logger.atFine().withCause(e).log("JDK CRC32C implementation is not available");
+        constructor = null;
+      }
+      CONSTRUCTOR = constructor;
+      UPDATE_BUFFER = updateBuffer;
+    }
+
+    private final Checksum checksum;
+
+    JdkCrc32c() {
+      try {
+        checksum = (Checksum) CONSTRUCTOR.invokeExact();
+      } catch (Throwable e) {
+        Throwables.throwIfUnchecked(e);
+        throw new IllegalStateException("Failed to create JDK CRC32C checksum", e);
+      }
+    }
+
+    @Override
+    public Hasher update(byte[] data, int offset, int length) {
+      checksum.update(data, offset, length);
+      return this;
+    }
+
+    @Override
+    public Hasher update(ByteBuffer data) {
+      try {
+        UPDATE_BUFFER.invokeExact(checksum, data);
+      } catch (Throwable e) {
+        Throwables.throwIfUnchecked(e);
+        throw new IllegalStateException("Failed to update JDK CRC32C checksum", e);
+      }
+      return this;
+    }
+
+    @Override
+    public int getValue() {
+      return (int) checksum.getValue();
+    }
+  }
+
+  private static class GuavaCrc32c implements Hasher {
+
+    private final com.google.common.hash.Hasher hasher = Hashing.crc32c().newHasher();
+
+    @Override
+    public Hasher update(byte[] data, int offset, int length) {
+      hasher.putBytes(data, offset, length);
+      return this;
+    }
+
+    @Override
+    public Hasher update(ByteBuffer data) {
+      hasher.putBytes(data);
+      return this;
+    }
+
+    @Override
+    public int getValue() {
+      return hasher.hash().asInt();
+    }
+  }
+}
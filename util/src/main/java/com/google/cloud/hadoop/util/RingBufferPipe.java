@@ -0,0 +1,252 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded pipe that connects a single writer to a single reader through a ring of fixed-size
+ * buffers.
+ *
+ * <p>The writer fills the current buffer and publishes it to the reader once it is full or the sink
+ * is closed. Buffers are handed over without locks, and a blocked side is woken up as soon as a
+ * buffer is published or released, unlike {@link java.io.PipedInputStream} that polls every second.
+ * Buffers are acquired from the {@link ByteBufferPool} on first use, so small uploads do not
+ * allocate the whole ring, and are released back to the pool when both ends of the pipe are closed.
+ *
+ * <p>Only one thread at a time may write to the {@link #sink()}, and only one thread at a time may
+ * read from the {@link #source()}.
+ */
+class RingBufferPipe {
+
+  private final ByteBuffer[] buffers;
+  private final int bufferSize;
+  private final ByteBufferPool bufferPool;
+
+  // Number of buffers published by the writer and released by the reader.
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong released = new AtomicLong();
+
+  private volatile boolean sinkClosed = false;
+  private volatile boolean sourceClosed = false;
+
+  // Number of closed ends of the pipe, buffers are released when both ends are closed.
+  private final AtomicInteger closedEnds = new AtomicInteger();
+
+  private volatile Thread blockedWriter;
+  private volatile Thread blockedReader;
+
+  private final Sink sink = new Sink();
+  private final Source source = new Source();
+
+  /**
+   * @param bufferCount number of buffers in the ring
+   * @param bufferSize size of each buffer in bytes
+   * @param bufferPool pool to acquire buffers from
+   */
+  RingBufferPipe(int bufferCount, int bufferSize, ByteBufferPool bufferPool) {
+    checkArgument(bufferCount > 0, "bufferCount should be positive, but was %s", bufferCount);
+    checkArgument(bufferSize > 0, "bufferSize should be positive, but was %s", bufferSize);
+    this.buffers = new ByteBuffer[bufferCount];
+    this.bufferSize = bufferSize;
+    this.bufferPool = bufferPool;
+  }
+
+  /** Write end of the pipe. Closing it signals end of stream to the reader. */
+  WritableByteChannel sink() {
+    return sink;
+  }
+
+  /** Read end of the pipe. Closing it fails all subsequent writes. */
+  InputStream source() {
+    return source;
+  }
+
+  private ByteBuffer buffer(long sequence) {
+    int index = (int) (sequence % buffers.length);
+    if (buffers[index] == null) {
+      buffers[index] = bufferPool.acquire(bufferSize);
+    }
+    return buffers[index];
+  }
+
+  private void closeEnd() {
+    if (closedEnds.incrementAndGet() == 2) {
+      for (int i = 0; i < buffers.length; i++) {
+        bufferPool.release(buffers[i]);
+        buffers[i] = null;
+      }
+    }
+  }
+
+  private static void unpark(Thread thread) {
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private class Sink implements WritableByteChannel {
+
+    // Buffer that is being filled, null if it was not taken from the ring yet.
+    private ByteBuffer current;
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      if (sinkClosed) {
+        throw new ClosedChannelException();
+      }
+      int bytesWritten = src.remaining();
+      while (src.hasRemaining()) {
+        if (current == null) {
+          awaitFreeBuffer();
+          current = buffer(published.get());
+        }
+        int bytesToCopy = Math.min(src.remaining(), current.remaining());
+        ByteBuffer chunk = src.duplicate();
+        chunk.limit(chunk.position() + bytesToCopy);
+        current.put(chunk);
+        src.position(src.position() + bytesToCopy);
+        if (!current.hasRemaining()) {
+          publish();
+        }
+      }
+      return bytesWritten;
+    }
+
+    private void awaitFreeBuffer() throws IOException {
+      await(
+          () -> sourceClosed || published.get() - released.get() < buffers.length,
+          /* writer= */ true);
+      if (sourceClosed) {
+        throw new IOException("Pipe closed by reader");
+      }
+    }
+
+    private void publish() {
+      current.flip();
+      current = null;
+      published.incrementAndGet();
+      unpark(blockedReader);
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !sinkClosed;
+    }
+
+    @Override
+    public void close() {
+      if (sinkClosed) {
+        return;
+      }
+      if (current != null && current.position() > 0) {
+        publish();
+      }
+      sinkClosed = true;
+      unpark(blockedReader);
+      closeEnd();
+    }
+  }
+
+  private class Source extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] singleByte = new byte[1];
+      return read(singleByte, 0, 1) < 0 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      checkPositionIndexes(off, off + len, b.length);
+      if (sourceClosed) {
+        throw new IOException("Pipe closed");
+      }
+      if (len == 0) {
+        return 0;
+      }
+      // Read closed flag before published counter, so the last buffer is not missed.
+      await(() -> sinkClosed || published.get() > released.get(), /* writer= */ false);
+      if (published.get() == released.get()) {
+        return -1;
+      }
+      ByteBuffer current = buffer(released.get());
+      int bytesRead = Math.min(len, current.remaining());
+      current.get(b, off, bytesRead);
+      if (!current.hasRemaining()) {
+        current.clear();
+        current.limit(bufferSize);
+        released.incrementAndGet();
+        unpark(blockedWriter);
+      }
+      return bytesRead;
+    }
+
+    @Override
+    public int available() {
+      return published.get() > released.get() ? buffer(released.get()).remaining() : 0;
+    }
+
+    @Override
+    public void close() {
+      if (sourceClosed) {
+        return;
+      }
+      sourceClosed = true;
+      unpark(blockedWriter);
+      closeEnd();
+    }
+  }
+
+  /** Parks the current thread until the condition is true. */
+  private void await(BooleanSupplier condition, boolean writer) throws InterruptedIOException {
+    while (!condition.getAsBoolean()) {
+      Thread currentThread = Thread.currentThread();
+      if (writer) {
+        blockedWriter = currentThread;
+      } else {
+        blockedReader = currentThread;
+      }
+      try {
+        // Re-check the condition after registration to not miss a wake up from the other side.
+        if (!condition.getAsBoolean()) {
+          LockSupport.park(this);
+        }
+      } finally {
+        if (writer) {
+          blockedWriter = null;
+        } else {
+          blockedReader = null;
+        }
+      }
+      if (Thread.interrupted()) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for pipe");
+      }
+    }
+  }
+}
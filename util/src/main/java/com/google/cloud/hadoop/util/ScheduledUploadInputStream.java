@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Upload pipe source that holds an {@link UploadScheduler} permit while the upload thread reads and
+ * sends data that the writer already provided.
+ *
+ * <p>The permit is released only before a read that could block waiting for the writer to provide
+ * more data, so that the upload thread never holds it while it waits for the writer, and is
+ * acquired again only if that read returned data. Reads of already available data acquire the
+ * permit before they fill the upload buffer and keep it across subsequent reads.
+ */
+class ScheduledUploadInputStream extends FilterInputStream {
+
+  private final UploadScheduler uploadScheduler;
+  private final long chunkSize;
+  private final UploadStatistics statistics;
+
+  private UploadScheduler.Permit permit;
+
+  ScheduledUploadInputStream(
+      InputStream in,
+      UploadScheduler uploadScheduler,
+      long chunkSize,
+      UploadStatistics statistics) {
+    super(in);
+    this.uploadScheduler = uploadScheduler;
+    this.chunkSize = chunkSize;
+    this.statistics = statistics;
+  }
+
+  @Override
+  public int read() throws IOException {
+    boolean mayBlock = beforeRead();
+    int b = super.read();
+    afterRead(mayBlock, b < 0 ? -1 : 1);
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    boolean mayBlock = beforeRead();
+    int bytesRead = super.read(b, off, len);
+    afterRead(mayBlock, bytesRead);
+    return bytesRead;
+  }
+
+  @Override
+  public void close() throws IOException {
+    releasePermit();
+    super.close();
+  }
+
+  /**
+   * Acquires the permit before the upload is started, so that uploads are not started while the
+   * scheduler limits are reached. The permit is released when the upload waits for data.
+   */
+  void acquirePermit() throws IOException {
+    if (permit == null) {
+      permit = uploadScheduler.acquire(chunkSize, statistics);
+    }
+  }
+
+  /** Releases the permit if it is held. */
+  void releasePermit() {
+    if (permit != null) {
+      permit.release();
+      permit = null;
+    }
+  }
+
+  /**
+   * Prepares the permit for the next read and returns whether this read could block waiting for the
+   * writer.
+   */
+  private boolean beforeRead() throws IOException {
+    if (in.available() > 0) {
+      acquirePermit();
+      return false;
+    }
+    releasePermit();
+    return true;
+  }
+
+  private void afterRead(boolean mayBlock, int bytesRead) throws IOException {
+    if (mayBlock && bytesRead > 0) {
+      acquirePermit();
+    }
+  }
+}
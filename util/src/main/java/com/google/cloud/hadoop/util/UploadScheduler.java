@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.flogger.GoogleLogger;
+import java.io.InterruptedIOException;
+
+/**
+ * Process-wide limiter of the uploads that are performed by write channels at the same time.
+ *
+ * <p>The upload thread of a write channel acquires a {@link Permit} for each chunk of data that it
+ * received from the writer and is sending to the storage, and releases it when it reads the next
+ * chunk from the writer. Permit acquisition blocks while the number of chunks in flight reaches the
+ * maximum number of concurrent uploads, or while the buffer size reserved by chunks in flight would
+ * exceed the maximum buffer size, which provides backpressure to the writers through the full
+ * upload pipes.
+ *
+ * <p>Because a permit is never held while waiting for the writer, writers may have any number of
+ * output streams open at the same time without deadlocking on the limits.
+ */
+public class UploadScheduler {
+
+  private static final GoogleLogger logger = GoogleLogger.forEnclosingClass();
+
+  /** Scheduler that does not limit uploads. */
+  public static final UploadScheduler UNLIMITED = new UploadScheduler(0, 0);
+
+  private static UploadScheduler instance;
+
+  private final int maxConcurrentUploads;
+  private final long maxBufferSize;
+
+  private int activeUploads = 0;
+  private int queuedUploads = 0;
+  private long reservedBufferSize = 0;
+
+  /**
+   * @param maxConcurrentUploads maximum number of active uploads, {@code 0} for no limit
+   * @param maxBufferSize maximum buffer size in bytes reserved by active uploads, {@code 0} for no
+   *     limit
+   */
+  @VisibleForTesting
+  UploadScheduler(int maxConcurrentUploads, long maxBufferSize) {
+    checkArgument(
+        maxConcurrentUploads >= 0,
+        "maxConcurrentUploads should be non-negative, but was %s",
+        maxConcurrentUploads);
+    checkArgument(
+        maxBufferSize >= 0, "maxBufferSize should be non-negative, but was %s", maxBufferSize);
+    this.maxConcurrentUploads = maxConcurrentUploads;
+    this.maxBufferSize = maxBufferSize;
+  }
+
+  /**
+   * Returns the process-wide upload scheduler, creating it with the provided limits if it does not
+   * exist yet, or {@link #UNLIMITED} scheduler if no limits are provided.
+   */
+  public static synchronized UploadScheduler getInstance(
+      int maxConcurrentUploads, long maxBufferSize) {
+    if (maxConcurrentUploads == 0 && maxBufferSize == 0) {
+      return UNLIMITED;
+    }
+    if (instance == null) {
+      logger.atFine().log(
+          "Creating upload scheduler with %s max concurrent uploads and %s bytes max buffer size",
+          maxConcurrentUploads, maxBufferSize);
+      instance = new UploadScheduler(maxConcurrentUploads, maxBufferSize);
+    } else if (instance.maxConcurrentUploads != maxConcurrentUploads
+        || instance.maxBufferSize != maxBufferSize) {
+      logger.atWarning().log(
+          "Upload scheduler already exists with %s max concurrent uploads and %s bytes max buffer"
+              + " size, ignoring %s max concurrent uploads and %s bytes max buffer size",
+          instance.maxConcurrentUploads,
+          instance.maxBufferSize,
+          maxConcurrentUploads,
+          maxBufferSize);
+    }
+    return instance;
+  }
+
+  /**
+   * Blocks until an upload that reserves {@code bufferSize} bytes can be started and returns the
+   * permit for it.
+   *
+   * <p>Upload that reserves more than the maximum buffer size is started only when there are no
+   * other active uploads.
+   *
+   * @param bufferSize buffer size in bytes that the upload holds while it sends the chunk
+   * @param statistics counters of the file system that performs the upload
+   */
+  public Permit acquire(long bufferSize, UploadStatistics statistics)
+      throws InterruptedIOException {
+    checkArgument(bufferSize >= 0, "bufferSize should be non-negative, but was %s", bufferSize);
+    synchronized (this) {
+      if (!canStart(bufferSize)) {
+        queuedUploads++;
+        statistics.queuedUploads.incrementAndGet();
+        try {
+          do {
+            wait();
+          } while (!canStart(bufferSize));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for upload permit: " + e);
+        } finally {
+          queuedUploads--;
+          statistics.queuedUploads.decrementAndGet();
+        }
+      }
+      activeUploads++;
+      reservedBufferSize += bufferSize;
+    }
+    statistics.activeUploads.incrementAndGet();
+    return new Permit(bufferSize, statistics);
+  }
+
+  private boolean canStart(long bufferSize) {
+    if (maxConcurrentUploads > 0 && activeUploads >= maxConcurrentUploads) {
+      return false;
+    }
+    return maxBufferSize == 0
+        || activeUploads == 0
+        || reservedBufferSize + bufferSize <= maxBufferSize;
+  }
+
+  private synchronized void release(long bufferSize) {
+    activeUploads--;
+    reservedBufferSize -= bufferSize;
+    notifyAll();
+  }
+
+  /** Number of uploads that hold a permit. */
+  public synchronized int getActiveUploads() {
+    return activeUploads;
+  }
+
+  /** Number of uploads that wait for a permit. */
+  public synchronized int getQueuedUploads() {
+    return queuedUploads;
+  }
+
+  /** Buffer size in bytes reserved by the uploads that hold a permit. */
+  public synchronized long getReservedBufferSize() {
+    return reservedBufferSize;
+  }
+
+  /** Permit to send a chunk of an upload, that should be released when the chunk is sent. */
+  public class Permit {
+
+    private final long bufferSize;
+    private final UploadStatistics statistics;
+
+    private boolean released = false;
+
+    private Permit(long bufferSize, UploadStatistics statistics) {
+      this.bufferSize = bufferSize;
+      this.statistics = statistics;
+    }
+
+    /** Releases this permit, subsequent calls are no-op. */
+    public synchronized void release() {
+      if (released) {
+        return;
+      }
+      released = true;
+      statistics.activeUploads.decrementAndGet();
+      UploadScheduler.this.release(bufferSize);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counters of the uploads performed by a single file system, updated by {@link UploadScheduler}.
+ */
+public class UploadStatistics {
+
+  final AtomicInteger queuedUploads = new AtomicInteger();
+  final AtomicInteger activeUploads = new AtomicInteger();
+
+  /** Number of uploads that wait for an {@link UploadScheduler} permit. */
+  public int getQueuedUploads() {
+    return queuedUploads.get();
+  }
+
+  /** Number of uploads that hold an {@link UploadScheduler} permit. */
+  public int getActiveUploads() {
+    return activeUploads.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "UploadStatistics{queuedUploads=%s, activeUploads=%s}",
+        getQueuedUploads(), getActiveUploads());
+  }
+}
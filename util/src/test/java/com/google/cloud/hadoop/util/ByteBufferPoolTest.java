@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ByteBufferPool} class. */
+@RunWith(JUnit4.class)
+public class ByteBufferPoolTest {
+
+  @Test
+  public void getInstance_noPooling_returnsDisabledPool() {
+    assertThat(ByteBufferPool.getInstance(0, /* directBuffers= */ false))
+        .isSameInstanceAs(ByteBufferPool.DISABLED);
+  }
+
+  @Test
+  public void getExistingInstance_returnsCreatedPool() {
+    ByteBufferPool pool = ByteBufferPool.getInstance(1024 * 1024, /* directBuffers= */ false);
+
+    assertThat(ByteBufferPool.getExistingInstance()).isSameInstanceAs(pool);
+  }
+
+  @Test
+  public void constructor_directBuffersWithoutPooling_throws() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ByteBufferPool(/* maxPoolSize= */ 0, /* directBuffers= */ true));
+  }
+
+  @Test
+  public void getSizeClass_roundsUpToPowerOfTwo() {
+    assertThat(ByteBufferPool.getSizeClass(0)).isEqualTo(ByteBufferPool.MIN_BUFFER_SIZE);
+    assertThat(ByteBufferPool.getSizeClass(100)).isEqualTo(ByteBufferPool.MIN_BUFFER_SIZE);
+    assertThat(ByteBufferPool.getSizeClass(8192)).isEqualTo(8192);
+    assertThat(ByteBufferPool.getSizeClass(8193)).isEqualTo(16384);
+    assertThat(ByteBufferPool.getSizeClass(Integer.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void acquire_afterRelease_reusesBuffer() {
+    ByteBufferPool pool = new ByteBufferPool(/* maxPoolSize= */ 1024 * 1024, false);
+
+    ByteBuffer buffer = pool.acquire(5000);
+    buffer.put(new byte[100]);
+    pool.release(buffer);
+    ByteBuffer reusedBuffer = pool.acquire(6000);
+
+    assertThat(reusedBuffer).isSameInstanceAs(buffer);
+    assertThat(reusedBuffer.position()).isEqualTo(0);
+    assertThat(reusedBuffer.limit()).isEqualTo(6000);
+    assertThat(reusedBuffer.capacity()).isEqualTo(8192);
+    assertThat(pool.getAllocatedBuffers()).isEqualTo(1);
+    assertThat(pool.getReusedBuffers()).isEqualTo(1);
+    assertThat(pool.getLeasedBuffers()).isEqualTo(1);
+    assertThat(pool.getPooledBuffers()).isEqualTo(0);
+  }
+
+  @Test
+  public void release_poolIsFull_discardsBuffer() {
+    ByteBufferPool pool = new ByteBufferPool(/* maxPoolSize= */ 8192, /* directBuffers= */ true);
+
+    ByteBuffer buffer1 = pool.acquire(8192);
+    ByteBuffer buffer2 = pool.acquire(10);
+    pool.release(buffer1);
+    pool.release(buffer2);
+
+    assertThat(buffer1.isDirect()).isTrue();
+    assertThat(pool.getPooledBuffers()).isEqualTo(1);
+    assertThat(pool.getPooledSize()).isEqualTo(8192);
+    assertThat(pool.getDiscardedBuffers()).isEqualTo(1);
+    assertThat(pool.getLeasedBuffers()).isEqualTo(0);
+  }
+
+  @Test
+  public void acquire_disabledPool_allocatesExactSize() {
+    ByteBuffer buffer = ByteBufferPool.DISABLED.acquire(10);
+
+    assertThat(buffer.isDirect()).isFalse();
+    assertThat(buffer.capacity()).isEqualTo(10);
+    assertThat(buffer.limit()).isEqualTo(10);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.hadoop.util.Crc32c.Implementation;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link Crc32c} class. */
+@RunWith(JUnit4.class)
+public class Crc32cTest {
+
+  @Test
+  public void combine_matchesChecksumOfConcatenation() {
+    byte[] data = new byte[10_000];
+    new Random(42).nextBytes(data);
+
+    for (int split : new int[] {0, 1, 7, 4096, 9_999, 10_000}) {
+      int crc1 = crc32c(Arrays.copyOfRange(data, 0, split));
+      int crc2 = crc32c(Arrays.copyOfRange(data, split, data.length));
+
+      assertThat(Crc32c.combine(crc1, crc2, data.length - split)).isEqualTo(crc32c(data));
+    }
+  }
+
+  @Test
+  public void combine_multipleParts() {
+    byte[] data = new byte[3 * 1000 + 17];
+    new Random(7).nextBytes(data);
+
+    int crc = crc32c(new byte[0]);
+    for (int offset = 0; offset < data.length; offset += 1000) {
+      byte[] part = Arrays.copyOfRange(data, offset, Math.min(offset + 1000, data.length));
+      crc = Crc32c.combine(crc, crc32c(part), part.length);
+    }
+
+    assertThat(crc).isEqualTo(crc32c(data));
+  }
+
+  @Test
+  public void copyAndHash_copiesAndHashesMultipleSlices() {
+    byte[] data = new byte[100_000];
+    new Random(11).nextBytes(data);
+    ByteBuffer source = ByteBuffer.wrap(data, 10, 90_000);
+    ByteBuffer dest = ByteBuffer.allocateDirect(90_005);
+    dest.position(5);
+
+    Crc32c.Hasher hasher = Crc32c.newHasher();
+    Crc32c.copyAndHash(source, dest, hasher);
+
+    assertThat(source.hasRemaining()).isFalse();
+    assertThat(dest.hasRemaining()).isFalse();
+    byte[] copied = new byte[90_000];
+    ((ByteBuffer) dest.position(5)).get(copied);
+    assertThat(copied).isEqualTo(Arrays.copyOfRange(data, 10, 90_010));
+    assertThat(hasher.getValue()).isEqualTo(crc32c(Arrays.copyOfRange(data, 10, 90_010)));
+  }
+
+  @Test
+  public void getDefaultImplementation_isAvailable() {
+    assertThat(Crc32c.getDefaultImplementation().isAvailable()).isTrue();
+  }
+
+  @Test
+  public void hash_matchesGuavaChecksum() {
+    byte[] data = new byte[10_000];
+    new Random(3).nextBytes(data);
+    ByteBuffer buffer = ByteBuffer.wrap(data, 100, 9_000);
+
+    assertThat(Crc32c.hash(data, 100, 9_000))
+        .isEqualTo(crc32c(Arrays.copyOfRange(data, 100, 9_100)));
+    assertThat(Crc32c.hash(buffer)).isEqualTo(crc32c(Arrays.copyOfRange(data, 100, 9_100)));
+    assertThat(buffer.position()).isEqualTo(100);
+  }
+
+  @Test
+  public void newHasher_availableImplementations_matchGuavaChecksum() {
+    byte[] data = new byte[10_000];
+    new Random(5).nextBytes(data);
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(4_000);
+    directBuffer.put(data, 6_000, 4_000).flip();
+
+    for (Implementation implementation : Implementation.values()) {
+      if (!implementation.isAvailable()) {
+        continue;
+      }
+      int crc =
+          implementation
+              .newHasher()
+              .update(data, 0, 1_000)
+              .update(ByteBuffer.wrap(data, 1_000, 5_000))
+              .update(directBuffer.duplicate())
+              .getValue();
+
+      assertThat(crc).isEqualTo(crc32c(data));
+    }
+  }
+
+  private static int crc32c(byte[] data) {
+    return Hashing.crc32c().hashBytes(data).asInt();
+  }
+}
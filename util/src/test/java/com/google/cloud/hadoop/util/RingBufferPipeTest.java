@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RingBufferPipe} class. */
+@RunWith(JUnit4.class)
+public class RingBufferPipeTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void read_returnsWrittenDataAfterSinkClose() throws Exception {
+    RingBufferPipe pipe =
+        new RingBufferPipe(/* bufferCount= */ 4, /* bufferSize= */ 8, ByteBufferPool.DISABLED);
+    byte[] data = randomBytes(5);
+
+    pipe.sink().write(ByteBuffer.wrap(data));
+    pipe.sink().close();
+
+    assertThat(ByteStreams.toByteArray(pipe.source())).isEqualTo(data);
+    assertThat(pipe.source().read()).isEqualTo(-1);
+  }
+
+  @Test
+  public void read_dataLargerThanRing_blocksWriterUntilRead() throws Exception {
+    RingBufferPipe pipe =
+        new RingBufferPipe(/* bufferCount= */ 3, /* bufferSize= */ 7, ByteBufferPool.DISABLED);
+    byte[] data = randomBytes(1000);
+
+    Future<?> writeFuture =
+        executor.submit(
+            () -> {
+              WritableByteChannel sink = pipe.sink();
+              for (int i = 0; i < data.length; i += 13) {
+                sink.write(ByteBuffer.wrap(data, i, Math.min(13, data.length - i)));
+              }
+              sink.close();
+              return null;
+            });
+
+    assertThat(ByteStreams.toByteArray(pipe.source())).isEqualTo(data);
+    writeFuture.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void close_bothEnds_releasesBuffersToPool() throws Exception {
+    ByteBufferPool bufferPool =
+        new ByteBufferPool(/* maxPoolSize= */ 1024 * 1024, /* directBuffers= */ true);
+    RingBufferPipe pipe = new RingBufferPipe(/* bufferCount= */ 3, /* bufferSize= */ 7, bufferPool);
+    byte[] data = randomBytes(1000);
+
+    Future<?> writeFuture =
+        executor.submit(
+            () -> {
+              try (WritableByteChannel sink = pipe.sink()) {
+                sink.write(ByteBuffer.wrap(data));
+              }
+              return null;
+            });
+
+    try (InputStream source = pipe.source()) {
+      assertThat(ByteStreams.toByteArray(source)).isEqualTo(data);
+    }
+    writeFuture.get(10, TimeUnit.SECONDS);
+
+    assertThat(bufferPool.getAllocatedBuffers()).isEqualTo(3);
+    assertThat(bufferPool.getLeasedBuffers()).isEqualTo(0);
+    assertThat(bufferPool.getPooledBuffers()).isEqualTo(3);
+  }
+
+  @Test
+  public void read_singleByte() throws Exception {
+    RingBufferPipe pipe =
+        new RingBufferPipe(/* bufferCount= */ 2, /* bufferSize= */ 1, ByteBufferPool.DISABLED);
+
+    pipe.sink().write(ByteBuffer.wrap(new byte[] {(byte) 0xff}));
+    pipe.sink().close();
+
+    InputStream source = pipe.source();
+    assertThat(source.read()).isEqualTo(0xff);
+    assertThat(source.read()).isEqualTo(-1);
+  }
+
+  @Test
+  public void write_afterSourceClose_throwsIOException() throws Exception {
+    RingBufferPipe pipe =
+        new RingBufferPipe(/* bufferCount= */ 1, /* bufferSize= */ 4, ByteBufferPool.DISABLED);
+
+    pipe.sink().write(ByteBuffer.wrap(randomBytes(4)));
+    Future<?> writeFuture =
+        executor.submit(() -> pipe.sink().write(ByteBuffer.wrap(randomBytes(4))));
+    pipe.source().close();
+
+    Exception e = assertThrows(Exception.class, () -> writeFuture.get(10, TimeUnit.SECONDS));
+    assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    assertThat(e).hasCauseThat().hasMessageThat().isEqualTo("Pipe closed by reader");
+  }
+
+  @Test
+  public void write_afterSinkClose_throwsClosedChannelException() throws Exception {
+    RingBufferPipe pipe =
+        new RingBufferPipe(/* bufferCount= */ 1, /* bufferSize= */ 4, ByteBufferPool.DISABLED);
+
+    pipe.sink().close();
+
+    assertThat(pipe.sink().isOpen()).isFalse();
+    assertThrows(ClosedChannelException.class, () -> pipe.sink().write(ByteBuffer.allocate(1)));
+  }
+
+  private static byte[] randomBytes(int size) {
+    byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+}
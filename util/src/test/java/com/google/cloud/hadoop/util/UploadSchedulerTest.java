@@ -0,0 +1,220 @@
+/*
+ * Copyright 2021 Google LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.hadoop.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link UploadScheduler} class. */
+@RunWith(JUnit4.class)
+public class UploadSchedulerTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void getInstance_noLimits_returnsUnlimitedScheduler() {
+    assertThat(UploadScheduler.getInstance(0, 0)).isSameInstanceAs(UploadScheduler.UNLIMITED);
+  }
+
+  @Test
+  public void acquire_maxConcurrentUploadsReached_blocksUntilRelease() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(/* maxConcurrentUploads= */ 1, 0);
+    UploadStatistics statistics = new UploadStatistics();
+
+    UploadScheduler.Permit permit = scheduler.acquire(10, statistics);
+    Future<UploadScheduler.Permit> queuedPermit =
+        executor.submit(() -> scheduler.acquire(10, statistics));
+    awaitQueuedUploads(statistics, 1);
+
+    assertThat(statistics.getActiveUploads()).isEqualTo(1);
+    assertThat(queuedPermit.isDone()).isFalse();
+
+    permit.release();
+    queuedPermit.get(10, TimeUnit.SECONDS).release();
+
+    assertThat(statistics.getQueuedUploads()).isEqualTo(0);
+    assertThat(statistics.getActiveUploads()).isEqualTo(0);
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void acquire_maxBufferSizeReached_blocksUntilRelease() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(0, /* maxBufferSize= */ 100);
+    UploadStatistics statistics = new UploadStatistics();
+
+    UploadScheduler.Permit permit1 = scheduler.acquire(60, statistics);
+    UploadScheduler.Permit permit2 = scheduler.acquire(40, statistics);
+    Future<UploadScheduler.Permit> queuedPermit =
+        executor.submit(() -> scheduler.acquire(1, statistics));
+    awaitQueuedUploads(statistics, 1);
+
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(100);
+
+    permit1.release();
+    queuedPermit.get(10, TimeUnit.SECONDS);
+
+    assertThat(scheduler.getActiveUploads()).isEqualTo(2);
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(41);
+    permit2.release();
+  }
+
+  @Test
+  public void acquire_bufferSizeLargerThanMax_startsWithoutOtherUploads() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(0, /* maxBufferSize= */ 100);
+    UploadStatistics statistics = new UploadStatistics();
+
+    UploadScheduler.Permit permit = scheduler.acquire(1000, statistics);
+
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(1000);
+    permit.release();
+    // Second release is no-op.
+    permit.release();
+    assertThat(scheduler.getActiveUploads()).isEqualTo(0);
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void scheduledUploadInputStream_holdsPermitAfterReadUntilClose() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(/* maxConcurrentUploads= */ 1, 0);
+    UploadStatistics statistics = new UploadStatistics();
+    InputStream stream1 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+    InputStream stream2 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+
+    assertThat(stream1.read(new byte[5])).isEqualTo(5);
+    Future<Integer> queuedRead = executor.submit(() -> stream2.read(new byte[5]));
+    awaitQueuedUploads(statistics, 1);
+
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(100);
+
+    stream1.close();
+    assertThat(queuedRead.get(10, TimeUnit.SECONDS)).isEqualTo(5);
+    stream2.close();
+
+    assertThat(scheduler.getActiveUploads()).isEqualTo(0);
+    assertThat(scheduler.getReservedBufferSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void scheduledUploadInputStream_doesNotHoldPermitWhileWaitingForWriter() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(/* maxConcurrentUploads= */ 1, 0);
+    UploadStatistics statistics = new UploadStatistics();
+    PipedOutputStream pipeSink = new PipedOutputStream();
+    InputStream stream1 = scheduledStream(new PipedInputStream(pipeSink), scheduler, statistics);
+    InputStream stream2 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+
+    pipeSink.write(0);
+    assertThat(stream1.read()).isEqualTo(0);
+    Future<Integer> blockedRead = executor.submit(() -> stream1.read());
+
+    // Another upload proceeds while the first one waits for the writer.
+    assertThat(stream2.read()).isEqualTo(0);
+    stream2.close();
+
+    pipeSink.write(1);
+    assertThat(blockedRead.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(scheduler.getActiveUploads()).isEqualTo(1);
+    stream1.close();
+    assertThat(scheduler.getActiveUploads()).isEqualTo(0);
+  }
+
+  @Test
+  public void scheduledUploadInputStream_keepsPermitWhileDataIsAvailable() throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(/* maxConcurrentUploads= */ 1, 0);
+    UploadStatistics statistics = new UploadStatistics();
+    InputStream stream1 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+    InputStream stream2 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+
+    assertThat(stream1.read(new byte[5])).isEqualTo(5);
+    Future<Integer> queuedRead = executor.submit(() -> stream2.read(new byte[5]));
+    awaitQueuedUploads(statistics, 1);
+
+    // Next read of available data does not give the permit to the queued upload.
+    assertThat(stream1.read(new byte[5])).isEqualTo(5);
+    assertThat(statistics.getQueuedUploads()).isEqualTo(1);
+
+    // Permit is released before read at the end of data and is not acquired again.
+    assertThat(stream1.read(new byte[5])).isEqualTo(-1);
+    assertThat(queuedRead.get(10, TimeUnit.SECONDS)).isEqualTo(5);
+    assertThat(scheduler.getActiveUploads()).isEqualTo(1);
+    stream2.close();
+    stream1.close();
+
+    assertThat(scheduler.getActiveUploads()).isEqualTo(0);
+  }
+
+  @Test
+  public void scheduledUploadInputStream_releasesStartPermitWhenWaitingForWriter()
+      throws Exception {
+    UploadScheduler scheduler = new UploadScheduler(/* maxConcurrentUploads= */ 1, 0);
+    UploadStatistics statistics = new UploadStatistics();
+    PipedOutputStream pipeSink = new PipedOutputStream();
+    ScheduledUploadInputStream stream1 =
+        scheduledStream(new PipedInputStream(pipeSink), scheduler, statistics);
+    ScheduledUploadInputStream stream2 =
+        scheduledStream(new ByteArrayInputStream(new byte[10]), scheduler, statistics);
+
+    stream1.acquirePermit();
+    Future<?> queuedStart =
+        executor.submit(
+            () -> {
+              stream2.acquirePermit();
+              return null;
+            });
+    awaitQueuedUploads(statistics, 1);
+
+    pipeSink.close();
+    assertThat(stream1.read()).isEqualTo(-1);
+    queuedStart.get(10, TimeUnit.SECONDS);
+    assertThat(scheduler.getActiveUploads()).isEqualTo(1);
+
+    stream2.close();
+    stream1.close();
+    assertThat(scheduler.getActiveUploads()).isEqualTo(0);
+  }
+
+  private static ScheduledUploadInputStream scheduledStream(
+      InputStream in, UploadScheduler scheduler, UploadStatistics statistics) {
+    return new ScheduledUploadInputStream(in, scheduler, /* chunkSize= */ 100, statistics);
+  }
+
+  private static void awaitQueuedUploads(UploadStatistics statistics, int queuedUploads)
+      throws InterruptedException {
+    while (statistics.getQueuedUploads() != queuedUploads) {
+      Thread.sleep(10);
+    }
+  }
+}